@@ -14,6 +14,9 @@ plugins {
     antlr
     java
     application
+
+    // JMH benchmarks in src/jmh (./gradlew jmh)
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -38,7 +41,16 @@ repositories {
     }
 }
 
+sourceSets {
+    // annotation processor generating the operator table of the PL/CSQL compiler
+    // from the @Operator methods of SpLib (com.cubrid.plcsql.compiler.OperatorTable)
+    create("processor")
+}
+
 dependencies {
+    // Operator table
+    annotationProcessor(sourceSets["processor"].output)
+
     // Use JUnit Jupiter for testing.
     testImplementation("org.junit.jupiter:junit-jupiter:5.9.1")
 
@@ -70,6 +82,34 @@ tasks.generateGrammarSource {
     arguments = arguments + listOf("-listener","-visitor")
 }
 
+// Benchmarks of the hot paths of the PL server. They use the test classes (MockServerAPI and
+// StandaloneConfig) to run without a CUBRID server. Select benchmarks with -PjmhIncludes=<regex>
+jmh {
+    jmhVersion.set("1.37")
+    includeTests.set(true)
+
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+
+    (project.properties["jmhIncludes"] as String?)?.let { includes.set(listOf(it)) }
+
+    // machine readable results, to be compared across commits
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
+// End-to-end load test of the PL server against an in-process stand-in of the CUBRID server
+// (com.cubrid.jsp.mock.MockCubridServer), e.g.
+// ./gradlew plLoadTest -PloadArgs="--threads 8 --invocations 10000 fib dept_total"
+tasks.register<JavaExec>("plLoadTest") {
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("com.cubrid.jsp.mock.LoadGenerator")
+    (project.properties["loadArgs"] as String?)?.let {
+        args(it.split(" ").filter { arg -> arg.isNotEmpty() })
+    }
+}
+
 // Apply a specific Java toolchain to ease working on different environments.
 java {
     toolchain {
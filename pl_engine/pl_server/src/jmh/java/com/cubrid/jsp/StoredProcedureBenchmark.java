@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp;
+
+import com.cubrid.jsp.context.ContextManager;
+import com.cubrid.jsp.data.DBType;
+import com.cubrid.jsp.value.IntValue;
+import com.cubrid.jsp.value.StringValue;
+import com.cubrid.jsp.value.Value;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// Creates and invokes StoredProcedures as ExecuteThread does for an INVOKE_SP request, with the
+// static methods below as the targets, which are found through the system class loader. The
+// thread runs with a context of its own but does not talk to a server.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StoredProcedureBenchmark {
+
+    private static final int LANG_JAVASP = 3;
+
+    private static final String ADD_SIGNATURE =
+            StoredProcedureBenchmark.class.getName() + ".add(int, int) return int";
+    private static final String GREET_SIGNATURE =
+            StoredProcedureBenchmark.class.getName()
+                    + ".greet(java.lang.String, int) return java.lang.String";
+
+    private static final AtomicLong nextSessionId = new AtomicLong(1L);
+
+    public static int add(int a, int b) {
+        return a + b;
+    }
+
+    public static String greet(String name, int n) {
+        return "hello " + name + " #" + n;
+    }
+
+    private Value[] addArgs;
+    private Value[] greetArgs;
+    private StoredProcedure addProcedure;
+
+    @Setup
+    public void setUp() throws Exception {
+        StandaloneConfig.install();
+
+        long sessionId = nextSessionId.getAndIncrement();
+        ContextManager.registerThread(Thread.currentThread().getId(), sessionId);
+        ContextManager.getContext(sessionId);
+
+        addArgs = new Value[] {new IntValue(1), new IntValue(2)};
+        greetArgs = new Value[] {new StringValue("cubrid"), new IntValue(7)};
+        addProcedure =
+                new StoredProcedure(ADD_SIGNATURE, LANG_JAVASP, "DBA", addArgs, DBType.DB_INT);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ContextManager.deregisterThread(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    public StoredProcedure create() throws Exception {
+        return new StoredProcedure(ADD_SIGNATURE, LANG_JAVASP, "DBA", addArgs, DBType.DB_INT);
+    }
+
+    @Benchmark
+    public Value invoke() throws Exception {
+        return addProcedure.invoke();
+    }
+
+    @Benchmark
+    public Value createAndInvoke() throws Exception {
+        StoredProcedure procedure =
+                new StoredProcedure(
+                        GREET_SIGNATURE, LANG_JAVASP, "DBA", greetArgs, DBType.DB_STRING);
+        return procedure.invoke();
+    }
+}
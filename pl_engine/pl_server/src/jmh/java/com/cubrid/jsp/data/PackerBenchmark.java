@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.data;
+
+import com.cubrid.jsp.StandaloneConfig;
+import com.cubrid.jsp.value.DoubleValue;
+import com.cubrid.jsp.value.IntValue;
+import com.cubrid.jsp.value.LongValue;
+import com.cubrid.jsp.value.NumericValue;
+import com.cubrid.jsp.value.StringValue;
+import com.cubrid.jsp.value.Value;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Packs and unpacks the arguments of an invocation, and a mix of primitives as in the headers
+// and requests exchanged with the server.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PackerBenchmark {
+
+    private Value[] args;
+    private int[] types;
+
+    private ByteBuffer buffer;
+    private CUBRIDPacker packer;
+    private CUBRIDUnpacker unpacker;
+
+    private byte[] packedArgs;
+    private byte[] packedPrimitives;
+
+    @Setup
+    public void setUp() throws Exception {
+        StandaloneConfig.install();
+
+        args =
+                new Value[] {
+                    new IntValue(42),
+                    new LongValue(1234567890123L),
+                    new DoubleValue(3.14159),
+                    new StringValue("the quick brown fox jumps over the lazy dog"),
+                    new NumericValue(new BigDecimal("12345.6789"))
+                };
+        types =
+                new int[] {
+                    DBType.DB_INT, DBType.DB_BIGINT, DBType.DB_DOUBLE, DBType.DB_STRING,
+                    DBType.DB_NUMERIC
+                };
+
+        buffer = ByteBuffer.allocate(4096);
+        packer = new CUBRIDPacker(buffer);
+        unpacker = new CUBRIDUnpacker();
+
+        packedArgs = toBytes(packArgs());
+        packedPrimitives = toBytes(packPrimitives());
+    }
+
+    @Benchmark
+    public ByteBuffer packArgs() throws Exception {
+        buffer.clear();
+        packer.setBuffer(buffer);
+        packer.packInt(args.length);
+        for (int i = 0; i < args.length; i++) {
+            packer.packValue(args[i], types[i]);
+        }
+        return packer.getBuffer();
+    }
+
+    @Benchmark
+    public void unpackArgs(Blackhole bh) throws Exception {
+        unpacker.setBuffer(ByteBuffer.wrap(packedArgs));
+        int count = unpacker.unpackInt();
+        for (int i = 0; i < count; i++) {
+            int type = unpacker.unpackInt();
+            bh.consume(unpacker.unpackValue(type));
+        }
+    }
+
+    @Benchmark
+    public ByteBuffer packPrimitives() {
+        buffer.clear();
+        packer.setBuffer(buffer);
+        packer.packBigInt(1L);
+        packer.packInt(0x08);
+        packer.packInt(1);
+        packer.packBool(true);
+        packer.packDouble(2.5);
+        packer.packString("select id, name from emp where dept = ?");
+        return packer.getBuffer();
+    }
+
+    @Benchmark
+    public void unpackPrimitives(Blackhole bh) {
+        unpacker.setBuffer(ByteBuffer.wrap(packedPrimitives));
+        bh.consume(unpacker.unpackBigint());
+        bh.consume(unpacker.unpackInt());
+        bh.consume(unpacker.unpackInt());
+        bh.consume(unpacker.unpackBool());
+        bh.consume(unpacker.unpackDouble());
+        bh.consume(unpacker.unpackCString());
+    }
+
+    private static byte[] toBytes(ByteBuffer b) {
+        byte[] bytes = new byte[b.position()];
+        System.arraycopy(b.array(), 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+}
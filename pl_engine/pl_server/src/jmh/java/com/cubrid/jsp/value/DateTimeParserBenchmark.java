@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.value;
+
+import com.cubrid.jsp.StandaloneConfig;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Parses date and time literals in the formats the compiler and the conversions of SpLib accept.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateTimeParserBenchmark {
+
+    private String date = "2024-01-31";
+    private String dateSlashed = "01/31/2024";
+    private String time = "12:34:56";
+    private String timeAmPm = "12:34:56 pm";
+    private String datetime = "2024-01-31 12:34:56.789";
+    private String timestamp = "2024-01-31 12:34:56";
+
+    @Setup
+    public void setUp() {
+        StandaloneConfig.install(); // for the time zone of timestamps
+    }
+
+    @Benchmark
+    public LocalDate parseDate() {
+        return DateTimeParser.DateLiteral.parse(date);
+    }
+
+    @Benchmark
+    public LocalDate parseDateSlashed() {
+        return DateTimeParser.DateLiteral.parse(dateSlashed);
+    }
+
+    @Benchmark
+    public LocalTime parseTime() {
+        return DateTimeParser.TimeLiteral.parse(time);
+    }
+
+    @Benchmark
+    public LocalTime parseTimeAmPm() {
+        return DateTimeParser.TimeLiteral.parse(timeAmPm);
+    }
+
+    @Benchmark
+    public LocalDateTime parseDatetime() {
+        return DateTimeParser.DatetimeLiteral.parse(datetime);
+    }
+
+    @Benchmark
+    public ZonedDateTime parseTimestamp() {
+        return DateTimeParser.TimestampLiteral.parse(timestamp);
+    }
+}
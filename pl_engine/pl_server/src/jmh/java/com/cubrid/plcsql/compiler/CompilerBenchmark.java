@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.compiler;
+
+import com.cubrid.jsp.data.CompileInfo;
+import com.cubrid.plcsql.compiler.serverapi.MockServerAPI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Translates the routines of the benchmark corpus (plcsql_bench_corpus.sql in the test
+// resources) into Java, with the semantic questions answered by MockServerAPI instead of a
+// server. The javac step which follows in the server is not included.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompilerBenchmark {
+
+    // "all" for the whole corpus, otherwise the name of a routine in it
+    @Param({"all", "fib", "emp_report", "move_emp"})
+    public String routine;
+
+    private List<String> routines;
+
+    @Setup
+    public void setUp() throws Exception {
+        MockServerAPI.forBenchCorpus().install();
+
+        routines = new ArrayList<>();
+        for (String r : MockServerAPI.readBenchCorpus()) {
+            if (routine.equals("all") || r.contains(" " + routine + "(")) {
+                routines.add(r);
+            }
+        }
+        if (routines.isEmpty()) {
+            throw new IllegalArgumentException("no routine " + routine + " in the corpus");
+        }
+
+        // fail early rather than measure the error path
+        for (String r : routines) {
+            CompileInfo info = PlcsqlCompilerMain.compilePLCSQL(r, false, "DBA", "1");
+            if (info.errCode != 0) {
+                throw new IllegalStateException(info.errLine + ": " + info.errMsg);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        MockServerAPI.uninstall();
+    }
+
+    @Benchmark
+    public void compile(Blackhole bh) {
+        for (String r : routines) {
+            bh.consume(PlcsqlCompilerMain.compilePLCSQL(r, false, "DBA", "1"));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.predefined.sp;
+
+import com.cubrid.jsp.StandaloneConfig;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Operators and conversions of SpLib which the translated PL/CSQL code calls for the expressions
+// in a routine. The operands are fields so that the calls are not folded.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpLibBenchmark {
+
+    private Integer i1 = 12345;
+    private Integer i2 = 678;
+    private BigDecimal n1 = new BigDecimal("12345.678");
+    private BigDecimal n2 = new BigDecimal("3.25");
+    private String s1 = "employee";
+    private String s2 = "employee name";
+    private String pattern = "emp%na_e";
+    private String intStr = "987654";
+    private String datetimeStr = "2024-01-31 12:34:56.789";
+    private Timestamp datetime;
+
+    @Setup
+    public void setUp() {
+        StandaloneConfig.install();
+        datetime = SpLib.convStringToDatetime(datetimeStr);
+    }
+
+    @Benchmark
+    public Integer addInt() {
+        return SpLib.opAdd(i1, i2);
+    }
+
+    @Benchmark
+    public BigDecimal multNumeric() {
+        return SpLib.opMult(n1, n2);
+    }
+
+    @Benchmark
+    public BigDecimal divNumeric() {
+        return SpLib.opDiv(n1, n2);
+    }
+
+    @Benchmark
+    public String concat() {
+        return SpLib.opConcat(s1, s2);
+    }
+
+    @Benchmark
+    public Boolean eqString() {
+        return SpLib.opEq(s1, s2);
+    }
+
+    @Benchmark
+    public Boolean ltInt() {
+        return SpLib.opLt(i1, i2);
+    }
+
+    @Benchmark
+    public Boolean like() {
+        return SpLib.opLike(s2, pattern, null);
+    }
+
+    @Benchmark
+    public String convIntToString() {
+        return SpLib.convIntToString(i1);
+    }
+
+    @Benchmark
+    public Integer convStringToInt() {
+        return SpLib.convStringToInt(intStr);
+    }
+
+    @Benchmark
+    public BigDecimal convIntToNumeric() {
+        return SpLib.convIntToNumeric(i1);
+    }
+
+    @Benchmark
+    public String convNumericToString() {
+        return SpLib.convNumericToString(n1);
+    }
+
+    @Benchmark
+    public Timestamp convStringToDatetime() {
+        return SpLib.convStringToDatetime(datetimeStr);
+    }
+
+    @Benchmark
+    public String convDatetimeToString() {
+        return SpLib.convDatetimeToString(datetime);
+    }
+}
@@ -31,7 +31,7 @@
 
 package com.cubrid.jsp;
 
-import com.cubrid.jsp.classloader.ClassLoaderManager;
+import com.cubrid.jsp.code.ClassBundle;
 import com.cubrid.jsp.code.CompiledCode;
 import com.cubrid.jsp.code.CompiledCodeSet;
 import com.cubrid.jsp.code.SourceCode;
@@ -46,6 +46,14 @@ import com.cubrid.jsp.data.CompileRequest;
 import com.cubrid.jsp.data.DataUtilities;
 import com.cubrid.jsp.exception.ExecuteException;
 import com.cubrid.jsp.exception.TypeMismatchException;
+import com.cubrid.jsp.jfr.CompilePhaseEvent;
+import com.cubrid.jsp.jfr.InvokeEvent;
+import com.cubrid.jsp.jfr.JfrEvents;
+import com.cubrid.jsp.metrics.CallbackTrace;
+import com.cubrid.jsp.metrics.CallbackTracer;
+import com.cubrid.jsp.metrics.MetricsRegistry;
+import com.cubrid.jsp.metrics.ProcedureMetrics;
+import com.cubrid.jsp.metrics.SamplingProfiler;
 import com.cubrid.jsp.protocol.BootstrapRequest;
 import com.cubrid.jsp.protocol.Header;
 import com.cubrid.jsp.protocol.PrepareArgs;
@@ -53,18 +61,14 @@ import com.cubrid.jsp.protocol.RequestCode;
 import com.cubrid.jsp.value.Value;
 import com.cubrid.plcsql.compiler.PlcsqlCompilerMain;
 import com.cubrid.plcsql.predefined.PlcsqlRuntimeError;
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.net.Socket;
 import java.nio.ByteBuffer;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.SQLException;
 import java.util.Base64;
 import java.util.List;
@@ -73,10 +77,15 @@ import org.apache.commons.compress.archivers.jar.JarArchiveEntry;
 import org.apache.commons.compress.archivers.jar.JarArchiveOutputStream;
 
 public class ExecuteThread extends Thread {
-    private Socket client;
 
-    private DataInputStream input;
-    private DataOutputStream output;
+    // format of the compiled code of PL/CSQL. a ClassBundle loads faster than a jar, but is
+    // stored uncompressed in the catalog
+    private static final int COMPILED_CODE_TYPE =
+            "bundle".equalsIgnoreCase(System.getProperty("cubrid.plcsql.code_format"))
+                    ? CompiledCodeSet.TYPE_CLASS_BUNDLE
+                    : CompiledCodeSet.TYPE_JAR;
+
+    private Transport transport;
 
     /*
      * TODO: It will be replaced with DirectByteBuffer-based new buffer which
@@ -96,10 +105,32 @@ public class ExecuteThread extends Thread {
 
     private Context ctx = null;
 
+    // the Context of the request being processed, entered until the request is done
+    private Context enteredContext = null;
+
+    // the received request, positioned at its payload (null if it has no payload)
+    private ByteBuffer payload = null;
+    private int requestBytes = 0;
+
+    // traffic of the procedure invocation in progress, recorded into its ProcedureMetrics
+    private long callCallbacks = 0;
+    private long callRowsFetched = 0;
+    private long callBytesIn = 0;
+    private long callBytesOut = 0;
+
+    // callbacks of the invocation in progress, if it is traced (see CallbackTracer)
+    private CallbackTrace trace = null;
+
+    // the procedure being invoked, read by the SamplingProfiler
+    private volatile StoredProcedure runningProcedure = null;
+
     ExecuteThread(Socket client) throws IOException {
+        this(new SocketTransport(client));
+    }
+
+    ExecuteThread(Transport transport) {
         super();
-        this.client = client;
-        output = new DataOutputStream(new BufferedOutputStream(this.client.getOutputStream()));
+        this.transport = transport;
 
         resultBuffer = ByteBuffer.allocate(4096);
 
@@ -107,7 +138,9 @@ public class ExecuteThread extends Thread {
     }
 
     public Socket getSocket() {
-        return client;
+        return (transport instanceof SocketTransport)
+                ? ((SocketTransport) transport).getSocket()
+                : null;
     }
 
     public Context getCurrentContext() {
@@ -115,18 +148,20 @@ public class ExecuteThread extends Thread {
     }
 
     public void closeSocket() {
-        try {
-            output.close();
-            client.close();
-        } catch (IOException e) {
-        }
-
-        client = null;
-        output = null;
+        transport.close();
     }
 
     @Override
     public void run() {
+        SamplingProfiler.register(this);
+        try {
+            serve();
+        } finally {
+            SamplingProfiler.deregister(this);
+        }
+    }
+
+    private void serve() {
         /* main routine handling stored procedure */
         Header header = null;
         while (!Thread.interrupted()) {
@@ -183,10 +218,25 @@ public class ExecuteThread extends Thread {
                                 packer.packString(arg);
                             }
 
+                            // appended after the fields read by older cub_pl clients
+                            List<ProcedureMetrics.Snapshot> metrics = MetricsRegistry.snapshot();
+                            MetricsRegistry.pack(packer, metrics);
+                            MetricsRegistry.requestDump();
+
                             resultBuffer = packer.getBuffer();
                             writeBuffer(resultBuffer);
                             break;
                         }
+                    case RequestCode.UTIL_PROFILE:
+                        {
+                            processProfile();
+                            break;
+                        }
+                    case RequestCode.UTIL_TRACE:
+                        {
+                            processTrace();
+                            break;
+                        }
                     case RequestCode.UTIL_TERMINATE_THREAD:
                         {
                             // hacky way.. If thread is terminated and socket is closed immediately,
@@ -200,6 +250,14 @@ public class ExecuteThread extends Thread {
                             Server.stop(0);
                             break;
                         }
+                    case RequestCode.UTIL_MULTIPLEX:
+                        {
+                            if (processMultiplex()) {
+                                // the connection has been served and closed
+                                return;
+                            }
+                            break;
+                        }
 
                         /* invalid request */
                     default:
@@ -258,6 +316,7 @@ public class ExecuteThread extends Thread {
                 }
             } finally {
                 ContextManager.deregisterThread(Thread.currentThread().getId());
+                leaveContext();
                 ctx = null;
             }
         }
@@ -265,43 +324,66 @@ public class ExecuteThread extends Thread {
     }
 
     private Header listenCommand() throws Exception {
-        ByteBuffer inputBuffer = receiveBuffer();
+        ByteBuffer inputBuffer = transport.receiveRequest();
 
         unpacker.setBuffer(inputBuffer);
 
         /* read header */
         Header header = new Header(unpacker);
         ctx = ContextManager.getContext(header.id);
+        ctx.enter();
+        enteredContext = ctx;
         ctx.checkHeader(header);
 
-        int startOffset = unpacker.getCurrentPosition();
-        int payloadSize = unpacker.getCurrentLimit() - startOffset;
-        if (payloadSize > 0) {
-            ByteBuffer payloadBuffer =
-                    ByteBuffer.wrap(inputBuffer.array(), startOffset, payloadSize);
+        // the payload is read by the request processing right after the header, in place
+        int payloadSize = unpacker.getCurrentLimit() - unpacker.getCurrentPosition();
+        payload = (payloadSize > 0) ? inputBuffer : null;
+        requestBytes = inputBuffer.limit();
 
-            ctx.getInboundQueue().add(payloadBuffer);
+        return header;
+    }
+
+    private void leaveContext() {
+        if (enteredContext != null) {
+            enteredContext.leave();
+            enteredContext = null;
         }
+    }
 
-        return header;
+    private ByteBuffer takePayload() throws ExecuteException {
+        ByteBuffer p = payload;
+        if (p == null) {
+            throw new ExecuteException("no payload in the request");
+        }
+        payload = null;
+        return p;
     }
 
     public ByteBuffer receiveBuffer() throws IOException {
-        if (input == null) {
-            input = new DataInputStream(new BufferedInputStream(this.client.getInputStream()));
+        ByteBuffer buffer = transport.receive();
+        callCallbacks++;
+        callBytesIn += buffer.limit();
+        if (trace != null) {
+            trace.endCallback(buffer.limit());
         }
+        return buffer;
+    }
 
-        int size = input.readInt(); // size
-        byte[] bytes = new byte[size];
-        input.readFully(bytes);
+    private void writeBuffer(ByteBuffer buffer) throws IOException {
+        callBytesOut += buffer.position();
+        transport.send(buffer);
+    }
 
-        return ByteBuffer.wrap(bytes);
+    // called by the server-side JDBC when rows are fetched on behalf of the running procedure
+    public void addRowsFetched(int count) {
+        callRowsFetched += count;
     }
 
-    private void writeBuffer(ByteBuffer buffer) throws IOException {
-        output.writeInt(buffer.position());
-        output.write(buffer.array(), 0, buffer.position());
-        output.flush();
+    // called by the server-side JDBC after a PREPARE callback, to tag it with its SQL text
+    public void traceSql(String sql) {
+        if (trace != null) {
+            trace.setSql(sql);
+        }
     }
 
     public CUBRIDUnpacker getUnpacker() {
@@ -309,7 +391,7 @@ public class ExecuteThread extends Thread {
     }
 
     private void processStoredProcedure() throws Exception {
-        unpacker.setBuffer(ctx.getInboundQueue().take());
+        unpacker.setBuffer(takePayload());
 
         // prepare
         if (prepareArgs == null) {
@@ -320,15 +402,173 @@ public class ExecuteThread extends Thread {
 
         long id = unpacker.unpackBigint();
         int tid = unpacker.unpackInt();
+        // the Context is shared by the sessions (header id -1): the session is sent apart
+        long sessionId = Integer.toUnsignedLong(unpacker.unpackInt());
 
         ctx.checkTranId(tid);
 
         StoredProcedure procedure = makeStoredProcedure(unpacker);
 
-        Value result = procedure.invoke();
+        long start = System.nanoTime();
+        callCallbacks = 0;
+        callRowsFetched = 0;
+        callBytesIn = requestBytes;
+        callBytesOut = 0;
+        trace = CallbackTracer.start(sessionId, procedure.getSignature());
 
-        /* send results */
-        sendResult(result, procedure);
+        InvokeEvent invokeEvent = JfrEvents.startInvoke();
+        boolean failed = true;
+        runningProcedure = procedure;
+        try {
+            Value result = procedure.invoke();
+
+            /* send results */
+            sendResult(result, procedure);
+            failed = false;
+        } finally {
+            runningProcedure = null;
+            procedure.releaseClassLoader();
+            MetricsRegistry.forProcedure(procedure.getSignature())
+                    .record(
+                            System.nanoTime() - start,
+                            failed,
+                            callCallbacks,
+                            callRowsFetched,
+                            callBytesIn,
+                            callBytesOut);
+            JfrEvents.endInvoke(
+                    invokeEvent,
+                    procedure.getSignature(),
+                    sessionId,
+                    failed,
+                    callCallbacks,
+                    callBytesIn,
+                    callBytesOut);
+            if (trace != null) {
+                CallbackTracer.finish(trace, System.nanoTime() - start, failed);
+                trace = null;
+            }
+        }
+    }
+
+    public StoredProcedure getRunningProcedure() {
+        return runningProcedure;
+    }
+
+    private void processProfile() throws Exception {
+        unpacker.setBuffer(takePayload());
+        int command = unpacker.unpackInt();
+
+        resultBuffer.clear(); /* prepare to put */
+        packer.setBuffer(resultBuffer);
+
+        switch (command) {
+            case SamplingProfiler.CMD_START:
+                {
+                    int intervalMillis = unpacker.unpackInt();
+                    SamplingProfiler.start(intervalMillis);
+                    packer.packInt(0);
+                    break;
+                }
+            case SamplingProfiler.CMD_STOP:
+                {
+                    SamplingProfiler.stop();
+                    packer.packInt(0);
+                    break;
+                }
+            case SamplingProfiler.CMD_DUMP:
+                {
+                    List<String> stacks = SamplingProfiler.getCollapsedStacks();
+                    packer.packInt(stacks.size());
+                    for (String stack : stacks) {
+                        packer.packString(stack);
+                    }
+                    SamplingProfiler.requestDump(
+                            Paths.get(Server.getServerConfig().getProfilePath()), stacks);
+                    break;
+                }
+            case SamplingProfiler.CMD_CLEAR:
+                {
+                    SamplingProfiler.clear();
+                    packer.packInt(0);
+                    break;
+                }
+            default:
+                throw new ExecuteException("invalid profile command: " + command);
+        }
+
+        resultBuffer = packer.getBuffer();
+        writeBuffer(resultBuffer);
+    }
+
+    private void processTrace() throws Exception {
+        unpacker.setBuffer(takePayload());
+        int command = unpacker.unpackInt();
+
+        resultBuffer.clear(); /* prepare to put */
+        packer.setBuffer(resultBuffer);
+
+        switch (command) {
+            case CallbackTracer.CMD_GET:
+                {
+                    List<String> summaries = CallbackTracer.getRecent();
+                    packer.packInt(summaries.size());
+                    for (String summary : summaries) {
+                        packer.packString(summary);
+                    }
+                    break;
+                }
+            case CallbackTracer.CMD_ENABLE_SESSION:
+            case CallbackTracer.CMD_DISABLE_SESSION:
+                {
+                    long sessionId = unpacker.unpackBigint();
+                    CallbackTracer.enableSession(
+                            sessionId, command == CallbackTracer.CMD_ENABLE_SESSION);
+                    packer.packInt(0);
+                    break;
+                }
+            case CallbackTracer.CMD_ENABLE_SIGNATURE:
+            case CallbackTracer.CMD_DISABLE_SIGNATURE:
+                {
+                    String signature = unpacker.unpackCString();
+                    CallbackTracer.enableSignature(
+                            signature, command == CallbackTracer.CMD_ENABLE_SIGNATURE);
+                    packer.packInt(0);
+                    break;
+                }
+            case CallbackTracer.CMD_CLEAR:
+                {
+                    CallbackTracer.clear();
+                    packer.packInt(0);
+                    break;
+                }
+            default:
+                throw new ExecuteException("invalid trace command: " + command);
+        }
+
+        resultBuffer = packer.getBuffer();
+        writeBuffer(resultBuffer);
+    }
+
+    // switches this connection to the multiplexed mode (see MultiplexedConnection)
+    private boolean processMultiplex() throws IOException {
+        int result = (transport instanceof SocketTransport) ? 0 : 1; // 1: already multiplexed
+
+        resultBuffer.clear(); /* prepare to put */
+        packer.setBuffer(resultBuffer);
+        packer.packInt(result);
+        resultBuffer = packer.getBuffer();
+        writeBuffer(resultBuffer);
+
+        if (result != 0) {
+            return false;
+        }
+
+        ContextManager.deregisterThread(Thread.currentThread().getId());
+        leaveContext();
+        ctx = null;
+        new MultiplexedConnection((SocketTransport) transport, t -> new ExecuteThread(t)).run();
+        return true;
     }
 
     private void writeJar(CompiledCodeSet codeSet, OutputStream jarStream) throws IOException {
@@ -363,7 +603,7 @@ public class ExecuteThread extends Thread {
     }
 
     private void processBootstrap() throws Exception {
-        unpacker.setBuffer(ctx.getInboundQueue().take());
+        unpacker.setBuffer(takePayload());
 
         int result = 1; // failed
         try {
@@ -383,7 +623,7 @@ public class ExecuteThread extends Thread {
     }
 
     private void processCompile() throws Exception {
-        unpacker.setBuffer(ctx.getInboundQueue().take());
+        unpacker.setBuffer(takePayload());
 
         CompileRequest request = new CompileRequest(unpacker);
 
@@ -399,28 +639,29 @@ public class ExecuteThread extends Thread {
         try {
             info = PlcsqlCompilerMain.compilePLCSQL(inSource, owner, verbose);
             if (info.errCode == 0) {
+                CompilePhaseEvent phase = JfrEvents.startCompilePhase();
                 MemoryJavaCompiler compiler = new MemoryJavaCompiler();
                 SourceCode sCode = new SourceCode(info.className, info.translated);
                 CompiledCodeSet codeSet = compiler.compile(sCode);
+                if (phase != null) {
+                    long classBytes = 0;
+                    for (Map.Entry<String, CompiledCode> entry : codeSet.getCodeList()) {
+                        classBytes += entry.getValue().getByteCode().length;
+                    }
+                    phase = JfrEvents.nextCompilePhase(phase, "javac", classBytes);
+                }
 
-                int mode = 1; // 0: temp file mode, 1: memory stream mode
-                byte[] data = null;
-
-                // write to persistent
-                if (mode == 0) {
-                    Path jarPath =
-                            ClassLoaderManager.getDynamicPath().resolve(info.className + ".jar");
-                    OutputStream jarStream = Files.newOutputStream(jarPath);
-                    writeJar(codeSet, jarStream);
-                    data = Files.readAllBytes(jarPath);
-                    Files.deleteIfExists(jarPath);
-                } else {
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                if (COMPILED_CODE_TYPE == CompiledCodeSet.TYPE_JAR) {
                     writeJar(codeSet, baos);
-                    data = baos.toByteArray();
+                } else {
+                    ClassBundle.write(codeSet, baos);
                 }
+                byte[] data = baos.toByteArray();
+                JfrEvents.endCompilePhase(phase, "jar", data.length);
 
-                info.compiledType = 1; // TODO: always jar
+                info.compiledType = COMPILED_CODE_TYPE;
+                // still Base64: the code is kept in a string column (ocode) of the catalog
                 info.compiledCode = Base64.getEncoder().encode(data);
             }
         } catch (Exception e) {
@@ -495,6 +736,9 @@ public class ExecuteThread extends Thread {
 
         resultBuffer = packer.getBuffer();
         writeBuffer(resultBuffer);
+        if (trace != null) {
+            trace.beginCallback(code, buffer, resultBuffer.position());
+        }
     }
 
     public void sendCommand(ByteBuffer buffer) throws IOException {
@@ -507,6 +751,9 @@ public class ExecuteThread extends Thread {
 
         resultBuffer = packer.getBuffer();
         writeBuffer(resultBuffer);
+        if (trace != null) {
+            trace.beginCallback(RequestCode.INTERNAL_JDBC, buffer, resultBuffer.position());
+        }
     }
 
     private void sendError(String exception) throws IOException {
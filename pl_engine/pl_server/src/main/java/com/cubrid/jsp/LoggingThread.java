@@ -31,57 +31,266 @@
 
 package com.cubrid.jsp;
 
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.logging.FileHandler;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
-import java.util.logging.Logger;
 
+/*
+ * Log events are put into a bounded ArrayBlockingQueue by any thread and written to the log file
+ * in batches by this thread. log() never waits for room in the queue: it holds the lock of the
+ * queue only to insert the event, and when the queue is full the event is dropped and the number
+ * of dropped events is written to the log later. Events below SEVERE are dropped when the queue is
+ * three quarters full, which keeps room for SEVERE ones. Stack traces of the logged exceptions are
+ * formatted by this thread, not by the threads calling log(). The log file is rotated when the
+ * number of UTF-8 bytes written to it reaches MAX_FILE_SIZE.
+ */
 public class LoggingThread extends Thread {
-    private final Logger logger = Logger.getLogger("com.cubrid.jsp");
 
-    private boolean isRunning = false;
-    private FileHandler logHandler = null;
-    private LinkedBlockingQueue<String> logQueue = new LinkedBlockingQueue<String>();
-    private Level logginLevel = Level.SEVERE;
+    private static final int QUEUE_CAPACITY = 8192;
+    // events below SEVERE are dropped when the queue is filled up to this size
+    private static final int QUEUE_CAPACITY_NON_SEVERE = QUEUE_CAPACITY * 3 / 4;
+    private static final int BATCH_SIZE = 256;
+
+    private static final long MAX_FILE_SIZE = 10L * 1024 * 1024;
+    private static final int MAX_BACKUP_FILES = 5;
+
+    private static final DateTimeFormatter TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+                    .withZone(ZoneId.systemDefault());
+
+    private static class LogEvent {
+        final long time;
+        final Level level;
+        final String threadName;
+        final String message;
+        final Throwable thrown;
+
+        LogEvent(Level level, String message, Throwable thrown) {
+            this.time = System.currentTimeMillis();
+            this.level = level;
+            this.threadName = Thread.currentThread().getName();
+            this.message = message;
+            this.thrown = thrown;
+        }
+    }
+
+    // counts the encoded bytes written to the log file, which decides when the file is rotated
+    private static class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out, long count) {
+            super(out);
+            this.count = count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private final Path logPath;
+    private Writer writer = null;
+    private CountingOutputStream fileStream = null;
+
+    private final ArrayBlockingQueue<LogEvent> logQueue =
+            new ArrayBlockingQueue<LogEvent>(QUEUE_CAPACITY);
+    private final AtomicLong droppedCount = new AtomicLong(0);
+
+    private volatile boolean isRunning = false;
+    private volatile Level loggingLevel = Level.INFO;
+
+    // used only by this thread
+    private final List<LogEvent> batch = new ArrayList<>(BATCH_SIZE);
+    private final StringWriter formatBuffer = new StringWriter();
+    private final PrintWriter formatWriter = new PrintWriter(formatBuffer);
 
     public LoggingThread(Path path) throws SecurityException, IOException {
         super();
-        logHandler = new FileHandler(path.toAbsolutePath().toString(), true);
-        logger.addHandler(logHandler);
+        logPath = path.toAbsolutePath();
+        openLogFile();
     }
 
     @Override
     public void run() {
         isRunning = true;
-        while (Thread.interrupted() == false) {
-            try {
-                String logString = logQueue.take();
-                logger.log(logginLevel, logString);
-            } catch (InterruptedException e) {
-                break;
+        try {
+            while (true) {
+                batch.add(logQueue.take());
+                logQueue.drainTo(batch, BATCH_SIZE - 1);
+                writeBatch();
             }
+        } catch (InterruptedException e) {
+            // stopped by Server.stop()
         }
 
-        if (logHandler != null) {
-            try {
-                isRunning = false;
-                logHandler.close();
-                logger.removeHandler(logHandler);
-            } catch (Throwable e) {
-            }
+        isRunning = false;
+
+        // write the remaining events before exit
+        while (logQueue.drainTo(batch, BATCH_SIZE) > 0) {
+            writeBatch();
         }
+
+        closeLogFile();
     }
 
     public void log(String str) {
-        try {
-            logQueue.put(str);
-        } catch (InterruptedException e) {
+        log(Level.INFO, str, null);
+    }
+
+    public void log(Level level, String message, Throwable thrown) {
+        if (level.intValue() < loggingLevel.intValue()) {
+            return;
         }
+
+        if (level.intValue() < Level.SEVERE.intValue()
+                && logQueue.size() >= QUEUE_CAPACITY_NON_SEVERE) {
+            droppedCount.incrementAndGet();
+            return;
+        }
+
+        if (!logQueue.offer(new LogEvent(level, message, thrown))) {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    public void setLoggingLevel(Level level) {
+        loggingLevel = level;
+    }
+
+    public Level getLoggingLevel() {
+        return loggingLevel;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
     }
 
     public boolean isRunning() {
         return isRunning;
     }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    // writes the events of batch and clears it
+    private void writeBatch() {
+        long dropped = 0;
+        try {
+            if (writer == null) {
+                openLogFile();
+            }
+
+            for (LogEvent event : batch) {
+                write(format(event));
+            }
+
+            dropped = droppedCount.getAndSet(0);
+            if (dropped > 0) {
+                String msg = dropped + " log events were dropped because the log queue was full";
+                write(format(new LogEvent(Level.WARNING, msg, null)));
+            }
+
+            writer.flush();
+            if (fileStream.count >= MAX_FILE_SIZE) {
+                rotate();
+            }
+        } catch (IOException e) {
+            // nowhere to report it. the events are counted as dropped, and the file is opened
+            // again for the next batch
+            droppedCount.addAndGet(batch.size() + dropped);
+            closeLogFile();
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private String format(LogEvent event) {
+        formatBuffer.getBuffer().setLength(0);
+        formatWriter.print(TIME_FORMATTER.format(Instant.ofEpochMilli(event.time)));
+        formatWriter.print(' ');
+        formatWriter.print(event.level.getName());
+        formatWriter.print(" [");
+        formatWriter.print(event.threadName);
+        formatWriter.print("] ");
+        if (event.message != null) {
+            formatWriter.print(event.message);
+        }
+        formatWriter.println();
+        if (event.thrown != null) {
+            event.thrown.printStackTrace(formatWriter);
+        }
+        formatWriter.flush();
+        return formatBuffer.toString();
+    }
+
+    private void write(String str) throws IOException {
+        writer.write(str);
+    }
+
+    private void openLogFile() throws IOException {
+        // not a channel, which an interrupt of this thread by Server.stop() would close
+        OutputStream out = new FileOutputStream(logPath.toFile(), true);
+        fileStream = new CountingOutputStream(out, Files.size(logPath));
+        writer = new BufferedWriter(new OutputStreamWriter(fileStream, StandardCharsets.UTF_8));
+    }
+
+    private void closeLogFile() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+            }
+            writer = null;
+            fileStream = null;
+        }
+    }
+
+    // <log>.(n-1) -> <log>.n, ..., <log> -> <log>.1
+    private void rotate() throws IOException {
+        closeLogFile();
+
+        for (int i = MAX_BACKUP_FILES - 1; i >= 1; i--) {
+            Path src = getBackupPath(i);
+            if (Files.exists(src)) {
+                Files.move(src, getBackupPath(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (Files.exists(logPath)) {
+            Files.move(logPath, getBackupPath(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        openLogFile();
+    }
+
+    private Path getBackupPath(int n) {
+        return Paths.get(logPath.toString() + "." + n);
+    }
 }
@@ -0,0 +1,353 @@
+/*
+ * Copyright (C) 2008 Search Solution Corporation.
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp;
+
+import com.cubrid.jsp.data.CUBRIDUnpacker;
+import com.cubrid.jsp.protocol.Header;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+
+/*
+ * A connection carrying the requests of many execution stacks of the server at the same time. It
+ * is started by a UTIL_MULTIPLEX request on a connection and takes it over until it is closed.
+ *
+ * The id in the Header of a message is the context id, which the server sends as -1 for every
+ * execution stack (m_java_header of pl_execution_stack_context.cpp), and the callbacks of a stack
+ * can be interleaved with a nested call made from the same session. So the server prefixes each
+ * message with the id of the execution stack it belongs to, unique among the stacks in flight
+ * (execution_stack::get_id()), and a message to the server is prefixed with the stack id and the
+ * requestId of the request being processed for the stack, so that the server can correlate it:
+ *
+ *   from the server:  int size | long stackId | message (starting with a Header)
+ *   to the server:    int size | long stackId | int requestId | message (request code first)
+ *
+ * The thread running a MultiplexedConnection reads the messages and routes them by stack id: the
+ * messages of a stack are queued in a Channel, which is served by one worker thread at a time
+ * while it has messages to process, so they are processed in the order they arrive while those
+ * of different stacks are processed concurrently. A worker then goes on to the next Channel
+ * waiting for one, so that the number of workers follows the number of stacks in flight rather
+ * than the number of sessions. A worker exits after it has been idle for WORKER_IDLE_TIMEOUT_MS.
+ */
+public class MultiplexedConnection {
+
+    static final long WORKER_IDLE_TIMEOUT_MS = 60 * 1000;
+
+    // size of the prefix of a message from the server, after its size
+    public static final int ROUTE_PREFIX_BYTES = 8;
+
+    // size of the prefix of a message to the server, after its size
+    public static final int PREFIX_BYTES = 8 + 4;
+
+    private final SocketTransport transport;
+    private final Function<Transport, Thread> workerFactory;
+    private final long idleTimeoutMs;
+
+    // stack id => channel, while the stack has messages to process. also guards the fields below
+    private final Map<Long, Channel> channels = new HashMap<>();
+
+    // channels waiting for a worker
+    private final ArrayDeque<Channel> readyChannels = new ArrayDeque<>();
+
+    private int workerCount = 0;
+    private int idleWorkerCount = 0; // workers not serving a channel
+    private boolean closed = false;
+
+    public MultiplexedConnection(
+            SocketTransport transport, Function<Transport, Thread> workerFactory) {
+        this(transport, workerFactory, WORKER_IDLE_TIMEOUT_MS);
+    }
+
+    MultiplexedConnection(
+            SocketTransport transport,
+            Function<Transport, Thread> workerFactory,
+            long idleTimeoutMs) {
+        this.transport = transport;
+        this.workerFactory = workerFactory;
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    // reads and routes messages until the connection is closed
+    public void run() {
+        try {
+            DataInputStream input = transport.getInput();
+            while (!Thread.interrupted()) {
+                int size = input.readInt();
+                if (size < ROUTE_PREFIX_BYTES) {
+                    throw new IOException("invalid message size " + size);
+                }
+                long stackId = input.readLong();
+                byte[] bytes = new byte[size - ROUTE_PREFIX_BYTES];
+                input.readFully(bytes);
+
+                route(stackId, ByteBuffer.wrap(bytes));
+            }
+        } catch (IOException e) {
+            // the server closed the connection
+        } finally {
+            closeChannels();
+            transport.close();
+        }
+    }
+
+    public int getChannelCount() {
+        synchronized (channels) {
+            return channels.size();
+        }
+    }
+
+    public int getWorkerCount() {
+        synchronized (channels) {
+            return workerCount;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Private
+    // ------------------------------------------------------------------
+
+    private static final ByteBuffer END_OF_CHANNEL = ByteBuffer.allocate(0);
+
+    private void route(long stackId, ByteBuffer message) {
+        synchronized (channels) {
+            if (closed) {
+                return;
+            }
+
+            Channel channel = channels.get(stackId);
+            if (channel == null) {
+                channel = new Channel(stackId);
+                channels.put(stackId, channel);
+                channel.queue.add(message);
+                ready(channel);
+            } else {
+                channel.queue.add(message);
+            }
+        }
+    }
+
+    // called holding the lock on channels
+    private void ready(Channel channel) {
+        readyChannels.add(channel);
+        if (!startWorkerIfNeeded()) {
+            channels.notifyAll();
+        }
+    }
+
+    // called holding the lock on channels. starts a worker if there are more ready channels than
+    // idle workers to serve them
+    private boolean startWorkerIfNeeded() {
+        if (closed || readyChannels.size() <= idleWorkerCount) {
+            return false;
+        }
+
+        workerCount++;
+        idleWorkerCount++;
+        Thread worker = workerFactory.apply(new Worker());
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    private void closeChannels() {
+        synchronized (channels) {
+            closed = true;
+            for (Channel c : channels.values()) {
+                c.queue.add(END_OF_CHANNEL);
+            }
+            channels.clear();
+            readyChannels.clear();
+            channels.notifyAll();
+        }
+    }
+
+    private void send(long stackId, int requestId, ByteBuffer buffer) throws IOException {
+        DataOutputStream output = transport.getOutput();
+        if (output == null) {
+            throw new EOFException("the connection is closed");
+        }
+
+        synchronized (this) {
+            output.writeInt(PREFIX_BYTES + buffer.position());
+            output.writeLong(stackId);
+            output.writeInt(requestId);
+            output.write(buffer.array(), 0, buffer.position());
+            output.flush();
+        }
+    }
+
+    // the messages of an execution stack
+    private static class Channel {
+        final long id;
+        final LinkedBlockingQueue<ByteBuffer> queue = new LinkedBlockingQueue<>();
+
+        Channel(long id) {
+            this.id = id;
+        }
+    }
+
+    // the transport of a worker, which serves one channel at a time
+    private class Worker implements Transport {
+
+        // the channel being served, or null if idle. only the worker itself changes it
+        private Channel channel = null;
+
+        // requestId of the request being processed
+        private int requestId = 0;
+
+        // whether the worker has stopped taking channels and is no longer counted
+        private boolean retired = false;
+
+        @Override
+        public ByteBuffer receive() throws IOException {
+            if (channel == null) {
+                throw new EOFException("no request in progress");
+            }
+            return take(channel);
+        }
+
+        @Override
+        public ByteBuffer receiveRequest() throws IOException {
+            synchronized (channels) {
+                if (channel != null && channel.queue.isEmpty()) {
+                    // the stack has nothing more to process: serve another one
+                    if (channels.get(channel.id) == channel) {
+                        channels.remove(channel.id);
+                    }
+                    channel = null;
+                    idleWorkerCount++;
+                }
+                if (channel == null) {
+                    channel = waitForChannel();
+                }
+            }
+
+            ByteBuffer message = take(channel);
+            requestId = new Header(new CUBRIDUnpacker(message.duplicate())).requestId;
+            return message;
+        }
+
+        @Override
+        public void send(ByteBuffer buffer) throws IOException {
+            if (channel == null) {
+                throw new EOFException("no request in progress");
+            }
+            MultiplexedConnection.this.send(channel.id, requestId, buffer);
+        }
+
+        // called when the worker exits. the connection itself is closed by run()
+        @Override
+        public void close() {
+            synchronized (channels) {
+                if (channel == null) {
+                    retire();
+                    return;
+                }
+                workerCount--;
+
+                // the worker has exited in the middle (e.g. by UTIL_TERMINATE_THREAD):
+                // give the messages left to another worker
+                Channel left = channel;
+                channel = null;
+                if (!closed && channels.get(left.id) == left) {
+                    left.queue.remove(END_OF_CHANNEL);
+                    if (left.queue.isEmpty()) {
+                        channels.remove(left.id);
+                    } else {
+                        ready(left);
+                    }
+                }
+            }
+        }
+
+        // called holding the lock on channels
+        private Channel waitForChannel() throws IOException {
+            long deadline = System.currentTimeMillis() + idleTimeoutMs;
+            try {
+                while (readyChannels.isEmpty()) {
+                    long timeout = deadline - System.currentTimeMillis();
+                    if (closed) {
+                        retire();
+                        throw new EOFException("the connection is closed");
+                    } else if (timeout <= 0) {
+                        retire();
+                        throw new EOFException("idle");
+                    }
+                    channels.wait(timeout);
+                }
+            } catch (InterruptedException e) {
+                retire();
+                Thread.currentThread().interrupt();
+                throw new EOFException("interrupted");
+            }
+
+            idleWorkerCount--;
+            return readyChannels.poll();
+        }
+
+        // called holding the lock on channels when the worker exits idle. it is uncounted in the
+        // same critical section, so that a channel made ready afterwards starts another worker
+        // rather than notifying this one
+        private void retire() {
+            if (retired) {
+                return;
+            }
+            retired = true;
+            workerCount--;
+            idleWorkerCount--;
+
+            // a channel made ready while this was being interrupted
+            startWorkerIfNeeded();
+        }
+
+        private ByteBuffer take(Channel c) throws IOException {
+            ByteBuffer message;
+            try {
+                message = c.queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new EOFException("interrupted");
+            }
+            if (message == END_OF_CHANNEL) {
+                throw new EOFException("the connection is closed");
+            }
+            return message;
+        }
+    }
+}
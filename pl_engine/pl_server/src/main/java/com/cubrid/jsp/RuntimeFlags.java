@@ -0,0 +1,87 @@
+/*
+ *
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp;
+
+import com.cubrid.jsp.exception.TypeMismatchException;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the system parameters that are consulted while executing stored
+ * procedures. It is rebuilt in Server.bootstrap() and published through a volatile field, so
+ * that operators in the hot path read a final field instead of looking up and converting a
+ * SysParam on every call.
+ */
+public final class RuntimeFlags {
+
+    public final boolean oracleStyleEmptyString;
+    public final boolean oracleCompatNumberBehavior;
+    public final boolean compatNumericDivisionScale;
+
+    public static RuntimeFlags get() {
+        return current;
+    }
+
+    public static void rebuild(Map<Integer, SysParam> systemParameters) {
+        current =
+                new RuntimeFlags(
+                        getBool(systemParameters, SysParam.ORACLE_STYLE_EMPTY_STRING),
+                        getBool(systemParameters, SysParam.ORACLE_COMPAT_NUMBER_BEHAVIOR),
+                        getBool(systemParameters, SysParam.COMPAT_NUMERIC_DIVISION_SCALE));
+    }
+
+    // ------------------------------------------------------------------
+    // Private
+    // ------------------------------------------------------------------
+
+    private static volatile RuntimeFlags current = new RuntimeFlags(false, false, false);
+
+    private RuntimeFlags(
+            boolean oracleStyleEmptyString,
+            boolean oracleCompatNumberBehavior,
+            boolean compatNumericDivisionScale) {
+        this.oracleStyleEmptyString = oracleStyleEmptyString;
+        this.oracleCompatNumberBehavior = oracleCompatNumberBehavior;
+        this.compatNumericDivisionScale = compatNumericDivisionScale;
+    }
+
+    private static boolean getBool(Map<Integer, SysParam> systemParameters, int id) {
+        try {
+            SysParam param = systemParameters.get(id);
+            if (param != null) {
+                return param.getParamValue().toInt() != 0;
+            }
+        } catch (TypeMismatchException e) {
+        }
+
+        return false;
+    }
+}
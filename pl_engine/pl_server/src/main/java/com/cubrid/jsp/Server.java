@@ -32,11 +32,14 @@
 package com.cubrid.jsp;
 
 import com.cubrid.jsp.classloader.ClassLoaderManager;
+import com.cubrid.jsp.context.ContextManager;
 import com.cubrid.jsp.exception.TypeMismatchException;
+import com.cubrid.jsp.jfr.JfrSupport;
+import com.cubrid.jsp.metrics.MetricsRegistry;
+import com.cubrid.jsp.metrics.SamplingProfiler;
 import com.cubrid.jsp.protocol.BootstrapRequest;
+import com.cubrid.plcsql.compiler.PlcsqlCompilerMain;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.lang.management.ManagementFactory;
 import java.lang.management.RuntimeMXBean;
 import java.net.ServerSocket;
@@ -45,6 +48,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.newsclub.net.unix.AFUNIXServerSocket;
 import org.newsclub.net.unix.AFUNIXSocketAddress;
@@ -105,6 +109,7 @@ public class Server {
         }
 
         loggingThread = new LoggingThread(logPath);
+        loggingThread.setLoggingLevel(config.getLogLevel());
         loggingThread.start();
     }
 
@@ -229,14 +234,51 @@ public class Server {
 
         serverInstance = new Server(config);
         serverInstance.startSocketListener();
+        ClassLoaderManager.startDynamicPathWatcher();
+        ContextManager.startIdleChecker();
+        MetricsRegistry.startDumper(Paths.get(config.getMetricsPath()));
+        JfrSupport.startRecording(config);
+        startProfiler();
+        startParserWarmUp();
 
         return Server.getServer().getServerPort();
     }
 
+    private static void startProfiler() {
+        String interval = System.getProperty("cubrid.pl.profile.interval_ms");
+        if (interval != null) {
+            try {
+                SamplingProfiler.start(Integer.parseInt(interval.trim()));
+            } catch (NumberFormatException e) {
+                log(Level.WARNING, "invalid cubrid.pl.profile.interval_ms: " + interval);
+            }
+        }
+    }
+
+    private static void startParserWarmUp() {
+        Thread warmUp =
+                new Thread(
+                        () -> {
+                            try {
+                                PlcsqlCompilerMain.warmUpParser();
+                            } catch (Throwable e) {
+                                log(e);
+                            }
+                        },
+                        "PL/CSQL parser warm-up");
+        warmUp.setDaemon(true);
+        warmUp.setPriority(Thread.MIN_PRIORITY);
+        warmUp.start();
+    }
+
     public static void stop(int status) {
         if (serverInstance != null) {
             serverInstance.setShutdown();
             serverInstance.stopSocketListener();
+            MetricsRegistry.stopDumper();
+            ContextManager.stopIdleChecker();
+            SamplingProfiler.stop();
+            JfrSupport.stopRecording();
 
             loggingThread.interrupt();
 
@@ -251,9 +293,19 @@ public class Server {
         }
 
         config.initializeCharset();
+        RuntimeFlags.rebuild(config.getSystemParameters());
     }
 
     public static boolean getSystemParameterBool(int id) {
+        switch (id) {
+            case SysParam.ORACLE_STYLE_EMPTY_STRING:
+                return RuntimeFlags.get().oracleStyleEmptyString;
+            case SysParam.ORACLE_COMPAT_NUMBER_BEHAVIOR:
+                return RuntimeFlags.get().oracleCompatNumberBehavior;
+            case SysParam.COMPAT_NUMERIC_DIVISION_SCALE:
+                return RuntimeFlags.get().compatNumericDivisionScale;
+        }
+
         try {
             SysParam param = config.getSystemParameters().get(id);
             if (param != null) {
@@ -270,16 +322,22 @@ public class Server {
     }
 
     public static void log(Throwable ex) {
-        StringWriter sw = new StringWriter();
-        ex.printStackTrace(new PrintWriter(sw));
-        String exceptionAsString = sw.toString();
-        loggingThread.log(exceptionAsString);
+        // the stack trace is formatted in the logging thread
+        loggingThread.log(Level.SEVERE, null, ex);
     }
 
     public static void log(String str) {
         loggingThread.log(str);
     }
 
+    public static void log(Level level, String str) {
+        loggingThread.log(level, str, null);
+    }
+
+    public static void log(Level level, String str, Throwable ex) {
+        loggingThread.log(level, str, ex);
+    }
+
     public void setShutdown() {
         shutdown.set(true);
     }
@@ -291,4 +349,9 @@ public class Server {
     public static ServerConfig getConfig() {
         return config;
     }
+
+    // lets values be created without a running server, such as in tests and benchmarks
+    static void setConfig(ServerConfig c) {
+        config = c;
+    }
 }
@@ -37,11 +37,13 @@ import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.util.HashMap;
+import java.util.logging.Level;
 import org.apache.commons.lang3.StringUtils;
 
 public class ServerConfig {
 
     private static final String LOG_DIR = "log";
+    private static final String LOG_LEVEL_PROPERTY = "cubrid.pl.log.level";
 
     private final String name;
     private final String version;
@@ -51,8 +53,13 @@ public class ServerConfig {
     private final String dbPath; // $CUBRID_DATABASES
 
     private final String logPath;
+    private final String metricsPath;
+    private final String profilePath;
     private final String tmpPath;
 
+    // the lowest level written to the log file
+    private final Level logLevel;
+
     private final String socketType; // TCP or UDS
     private final String socketInfo; // port number or socket file path
 
@@ -72,6 +79,22 @@ public class ServerConfig {
 
         this.logPath =
                 rootPath + File.separatorChar + LOG_DIR + File.separatorChar + name + "_java.log";
+        this.metricsPath =
+                rootPath
+                        + File.separatorChar
+                        + LOG_DIR
+                        + File.separatorChar
+                        + name
+                        + "_java.metrics";
+        this.profilePath =
+                rootPath
+                        + File.separatorChar
+                        + LOG_DIR
+                        + File.separatorChar
+                        + name
+                        + "_java.profile";
+
+        this.logLevel = parseLogLevel(System.getProperty(LOG_LEVEL_PROPERTY));
 
         String cubridTmpEnv = System.getenv("CUBRID_TMP");
         this.tmpPath =
@@ -101,6 +124,18 @@ public class ServerConfig {
         return logPath;
     }
 
+    public Level getLogLevel() {
+        return logLevel;
+    }
+
+    public String getMetricsPath() {
+        return metricsPath;
+    }
+
+    public String getProfilePath() {
+        return profilePath;
+    }
+
     public String getTmpPath() {
         return tmpPath;
     }
@@ -125,7 +160,9 @@ public class ServerConfig {
         if (serverTimeZone == null) {
             // get the timezone from the system parameters
             SysParam sysParam = systemParameters.get(SysParam.TIMEZONE);
-            serverTimeZone = ZoneId.of(sysParam.getParamValue().toString());
+            if (sysParam != null) {
+                serverTimeZone = ZoneId.of(sysParam.getParamValue().toString());
+            }
         }
 
         if (serverTimeZone == null) {
@@ -175,4 +212,16 @@ public class ServerConfig {
         }
         System.setProperty("file.encoding", serverCharset.toString());
     }
+
+    // a name or a number of java.util.logging.Level, INFO if not given or invalid
+    private static Level parseLogLevel(String level) {
+        if (level != null) {
+            try {
+                return Level.parse(level.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // use the default
+            }
+        }
+        return Level.INFO;
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2008 Search Solution Corporation.
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+// a connection dedicated to a single ExecuteThread
+public class SocketTransport implements Transport {
+
+    private Socket client;
+
+    private DataInputStream input;
+    private DataOutputStream output;
+
+    public SocketTransport(Socket client) throws IOException {
+        this.client = client;
+        output = new DataOutputStream(new BufferedOutputStream(this.client.getOutputStream()));
+    }
+
+    public Socket getSocket() {
+        return client;
+    }
+
+    @Override
+    public ByteBuffer receive() throws IOException {
+        int size = getInput().readInt(); // size
+        byte[] bytes = new byte[size];
+        input.readFully(bytes);
+
+        return ByteBuffer.wrap(bytes);
+    }
+
+    @Override
+    public void send(ByteBuffer buffer) throws IOException {
+        output.writeInt(buffer.position());
+        output.write(buffer.array(), 0, buffer.position());
+        output.flush();
+    }
+
+    @Override
+    public void close() {
+        try {
+            output.close();
+            client.close();
+        } catch (IOException e) {
+        }
+
+        client = null;
+        output = null;
+    }
+
+    DataInputStream getInput() throws IOException {
+        if (input == null) {
+            input = new DataInputStream(new BufferedInputStream(this.client.getInputStream()));
+        }
+        return input;
+    }
+
+    DataOutputStream getOutput() {
+        return output;
+    }
+}
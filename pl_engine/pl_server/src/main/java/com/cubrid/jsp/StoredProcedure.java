@@ -31,6 +31,7 @@
 
 package com.cubrid.jsp;
 
+import com.cubrid.jsp.classloader.ContextClassLoader;
 import com.cubrid.jsp.classloader.ServerClassLoader;
 import com.cubrid.jsp.code.ClassAccess;
 import com.cubrid.jsp.code.CompiledCodeSet;
@@ -63,6 +64,9 @@ public class StoredProcedure {
     private Class<?> targetClass;
     private TargetMethod target;
 
+    // the loader of targetClass, retained until the call returns (see releaseClassLoader())
+    private ContextClassLoader classLoader;
+
     private Object[] cachedResolved;
 
     // METHOD_TYPE in method_def.hpp
@@ -78,11 +82,15 @@ public class StoredProcedure {
         this.returnType = returnType;
         this.lang = lang;
 
-        this.target = findTargetMethod(signature);
-
         this.cachedResolved = null;
 
-        checkArgs();
+        try {
+            this.target = findTargetMethod(signature);
+            checkArgs();
+        } catch (Exception e) {
+            releaseClassLoader();
+            throw e;
+        }
     }
 
     private TargetMethod findTargetMethod(String sigString) throws Exception {
@@ -106,10 +114,17 @@ public class StoredProcedure {
                 ex = e;
             }
         } else if (lang == LANG_JAVASP) {
+            ContextClassLoader loader = ctx.acquireClassLoader();
             try {
-                c = ctx.getOldClassLoader().loadClass(sig.getClassName());
+                c = loader.loadClass(sig.getClassName());
             } catch (ClassNotFoundException e) {
                 ex = e;
+            } finally {
+                if (c != null && c.getClassLoader() == loader) {
+                    classLoader = loader;
+                } else {
+                    loader.release();
+                }
             }
         } else {
             assert false;
@@ -348,6 +363,14 @@ public class StoredProcedure {
         return ValueUtilities.createValueFrom(result);
     }
 
+    // called when the call has returned and its results have been sent
+    public void releaseClassLoader() {
+        if (classLoader != null) {
+            classLoader.release();
+            classLoader = null;
+        }
+    }
+
     public Value makeOutValue(int idx) throws TypeMismatchException, ExecuteException {
         Class<?>[] argsTypes = target.getArgsTypes();
         if (argsTypes[idx].isArray()) {
@@ -382,6 +405,14 @@ public class StoredProcedure {
         return target;
     }
 
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    public boolean isPlcsql() {
+        return lang == LANG_PLCSQL;
+    }
+
     public String getAuthUser() {
         return authUser;
     }
@@ -36,9 +36,13 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.nio.file.attribute.FileTime;
 import java.time.Instant;
 import java.util.Hashtable;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ClassLoaderManager {
     private static Hashtable<Path, Instant> lastModifiedMap = new Hashtable<>();
@@ -47,6 +51,12 @@ public class ClassLoaderManager {
     private static Path staticPath = null;
     private static Path dynamicPath = null;
 
+    // the ContextClassLoader shared by all the Contexts, renewed when the dynamic path changes
+    private static final Object contextClassLoaderLock = new Object();
+    private static volatile ContextClassLoader contextClassLoader = null;
+    private static final AtomicLong dynamicPathGeneration = new AtomicLong(0);
+    private static volatile boolean watchingDynamicPath = false;
+
     public static Path getRootPath() {
         if (rootPath == null) {
             rootPath = Paths.get(Server.getServerConfig().getDatabasePath());
@@ -71,6 +81,77 @@ public class ClassLoaderManager {
         return staticPath;
     }
 
+    /*
+     * Returns the ContextClassLoader of the current generation of the dynamic path, retained for
+     * the caller. The caller must release() it when it is done with the loader.
+     */
+    public static ContextClassLoader acquireContextClassLoader() {
+        while (true) {
+            long generation = getDynamicPathGeneration();
+            ContextClassLoader loader = contextClassLoader;
+            if (loader == null || loader.getGeneration() != generation) {
+                loader = renewContextClassLoader(generation);
+            }
+
+            // fails only if the loader has been replaced and drained in the meantime
+            if (loader.retain()) {
+                return loader;
+            }
+        }
+    }
+
+    public static boolean isCurrent(ContextClassLoader loader) {
+        return loader == contextClassLoader && loader.getGeneration() == getDynamicPathGeneration();
+    }
+
+    /*
+     * Starts a daemon thread which increments the generation of the dynamic path on every change
+     * in it. Until it is started (or if the path cannot be watched), the last modified time of
+     * the path is checked instead whenever the generation is read.
+     */
+    public static void startDynamicPathWatcher() {
+        final Path path = getDynamicPath();
+        final WatchService watcher;
+        try {
+            watcher = path.getFileSystem().newWatchService();
+            path.register(
+                    watcher,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            Server.log(e);
+            return;
+        }
+
+        Thread t =
+                new Thread(
+                        () -> {
+                            try {
+                                while (true) {
+                                    WatchKey key = watcher.take();
+                                    // the events themselves do not matter: any change in the
+                                    // directory (including OVERFLOW) makes a new generation
+                                    key.pollEvents();
+                                    dynamicPathGeneration.incrementAndGet();
+                                    if (!key.reset()) {
+                                        break;
+                                    }
+                                }
+                            } catch (InterruptedException e) {
+                                // exit
+                            } finally {
+                                watchingDynamicPath = false;
+                            }
+                        },
+                        "Java SP class path watcher");
+        t.setDaemon(true);
+        watchingDynamicPath = true;
+        // changes made before the registration are not reported by the watcher
+        dynamicPathGeneration.incrementAndGet();
+        t.start();
+    }
+
     public static boolean isModified(Path path) {
         Instant currentModified = getLastModifiedTimeOfPath(path).toInstant();
         Instant prevModified = lastModifiedMap.get(path);
@@ -103,6 +184,31 @@ public class ClassLoaderManager {
         return lastModifiedTime;
     }
 
+    private static long getDynamicPathGeneration() {
+        if (!watchingDynamicPath && isModified(getDynamicPath())) {
+            dynamicPathGeneration.incrementAndGet();
+        }
+        return dynamicPathGeneration.get();
+    }
+
+    private static ContextClassLoader renewContextClassLoader(long generation) {
+        synchronized (contextClassLoaderLock) {
+            ContextClassLoader oldLoader = contextClassLoader;
+            if (oldLoader != null && oldLoader.getGeneration() >= generation) {
+                // renewed by another thread
+                return oldLoader;
+            }
+
+            ContextClassLoader newLoader = new ContextClassLoader(generation);
+            contextClassLoader = newLoader;
+            if (oldLoader != null) {
+                // closed when the Contexts still using it have released it
+                oldLoader.release();
+            }
+            return newLoader;
+        }
+    }
+
     private static void createDirIfNotExists(Path path) {
         if (path.toFile().exists() == false) {
             try {
@@ -31,24 +31,64 @@
 
 package com.cubrid.jsp.classloader;
 
+import com.cubrid.jsp.Server;
+import java.io.IOException;
 import java.net.URL;
-import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/*
+ * A class loader over the jar files and classes in $CUBRID_DATABASES/<db_name>/java. It is shared
+ * by all the sessions: ClassLoaderManager keeps one instance per generation of the directory and
+ * replaces it with a new one when the directory changes. A Context retains the instance until its
+ * transaction ends or it has been idle for a while (see ContextManager.releaseIdleClassLoaders),
+ * and each call of a Java stored procedure retains it until the call returns (see
+ * StoredProcedure). The instance is closed when it has been replaced and the last Context or call
+ * using it has released it.
+ */
 public class ContextClassLoader extends BaseClassLoader {
-    private FileTime initializedTime = null;
+    private final long generation;
+
+    // one for being the current generation plus one for each Context or call retaining this
+    private final AtomicInteger refCount = new AtomicInteger(1);
 
-    public ContextClassLoader(ClassLoader parent) {
+    public ContextClassLoader(long generation, ClassLoader parent) {
         super(ClassLoaderManager.getDynamicPath(), new URL[0], parent);
-        initializedTime =
-                ClassLoaderManager.getLastModifiedTimeOfPath(ClassLoaderManager.getDynamicPath());
-        ClassLoaderManager.isModified(ClassLoaderManager.getDynamicPath());
+        this.generation = generation;
+    }
+
+    public ContextClassLoader(long generation) {
+        this(generation, ServerClassLoader.getInstance());
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    // returns false if this has already been retired and drained
+    public boolean retain() {
+        while (true) {
+            int count = refCount.get();
+            if (count == 0) {
+                return false;
+            }
+            if (refCount.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
     }
 
-    public ContextClassLoader() {
-        this(ServerClassLoader.getInstance());
+    // whether this has been replaced and released by every Context, and thus closed
+    public boolean isDrained() {
+        return refCount.get() == 0;
     }
 
-    public FileTime getInitializedTime() {
-        return initializedTime;
+    public void release() {
+        if (refCount.decrementAndGet() == 0) {
+            try {
+                close();
+            } catch (IOException e) {
+                Server.log(e);
+            }
+        }
     }
 }
@@ -54,36 +54,29 @@ public class SessionClassLoader extends ClassLoader {
         return code;
     }
 
+    // ClassLoader.loadClass() looks for a loaded class and asks the parent before this, under the
+    // class loading lock. the JVM calls it again for the super types of the class being defined,
+    // so the classes of the code are defined in any order they come
     @Override
-    public Class<?> loadClass(String name) throws ClassNotFoundException {
-        Class<?> mainCls = findLoadedClass(name);
-        if (mainCls != null) {
-            // already loaded
-        } else {
-            try {
-                mainCls = super.loadClass(name);
-                if (mainCls != null) {
-                    return mainCls;
-                }
-            } catch (ClassNotFoundException e) {
-                // ignore
-            }
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        CompiledCodeSet codeSet = code;
+        CompiledCode c = (codeSet == null) ? null : codeSet.getCode(name);
+        if (c == null) {
+            throw new ClassNotFoundException(name);
+        }
+
+        byte[] classBytes = c.getByteCode();
+        Class<?> cls = defineClass(name, classBytes, 0, classBytes.length);
 
-            // find in codesets
-            if (code != null) {
-                for (Entry<String, CompiledCode> entry : code.getCodeList()) {
-                    Class<?> cls = null;
-                    String className = entry.getKey();
-                    byte[] classBytes = entry.getValue().getByteCode();
-                    cls = defineClass(className, classBytes, 0, classBytes.length);
-                    if (name.equals(className)) {
-                        mainCls = cls;
-                    }
-                }
+        if (name.equals(codeSet.getMainClassName())) {
+            // define the other classes now. clear() drops the code when a newer version of it is
+            // loaded, while a call may still be running this one
+            for (Entry<String, CompiledCode> entry : codeSet.getCodeList()) {
+                loadClass(entry.getKey());
             }
         }
 
-        return mainCls;
+        return cls;
     }
 
     public void clear() {
@@ -1,7 +1,10 @@
 package com.cubrid.jsp.classloader;
 
+import com.cubrid.jsp.code.CompiledCode;
 import com.cubrid.jsp.code.CompiledCodeSet;
 import com.cubrid.jsp.code.MemoryClass;
+import com.cubrid.jsp.jfr.ClassLoadEvent;
+import com.cubrid.jsp.jfr.JfrEvents;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,6 +27,8 @@ public class SessionClassLoaderManager {
             return null;
         }
 
+        ClassLoadEvent event = JfrEvents.startClassLoad();
+
         String className = code.getMainClassName();
         MemoryClass mCls = null;
         if (!sessionScopedLoadedCode.containsKey(className)) {
@@ -37,6 +42,14 @@ public class SessionClassLoaderManager {
             mCls.setLoadedClass(loadedClass);
         }
 
+        if (event != null) {
+            long codeBytes = 0;
+            for (Map.Entry<String, CompiledCode> entry : code.getCodeList()) {
+                codeBytes += entry.getValue().getByteCode().length;
+            }
+            JfrEvents.endClassLoad(event, className, code.getCodeList().size(), codeBytes);
+        }
+
         return loadedClass;
     }
 
@@ -37,6 +37,7 @@ import com.cubrid.jsp.exception.TypeMismatchException;
 import com.cubrid.jsp.protocol.Header;
 import com.cubrid.jsp.protocol.RequestCode;
 import com.cubrid.jsp.value.Value;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.sql.Connection;
@@ -83,8 +84,8 @@ public class ClassAccess {
 
         Value val = receiveCodeAttrValue();
         if (val != null) {
-            String base64Str = val.toString();
-            jar = Base64.getDecoder().decode(base64Str);
+            // Base64 text is ASCII: decode the bytes received without making a String of them
+            jar = Base64.getDecoder().decode(val.toByteArray());
         }
 
         return jar;
@@ -104,9 +105,9 @@ public class ClassAccess {
             return null;
         }
 
-        byte[] jarCode = ClassAccess.getObjectCodeBytes(conn, className);
-        if (jarCode != null) {
-            code = CompiledCodeSet.loadFromJar(className, jarCode);
+        byte[] objectCode = ClassAccess.getObjectCodeBytes(conn, className);
+        if (objectCode != null) {
+            code = CompiledCodeSet.load(className, new ByteArrayInputStream(objectCode));
             code.setTimestamp(tKey);
         }
 
@@ -0,0 +1,89 @@
+/*
+ *
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.code;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * A compact format of the classes of a CompiledCodeSet, used in place of a jar for the code of
+ * PL/CSQL procedures. Unlike a jar, it has no local/central directory entries, no CRCs and no
+ * manifest, and the size of every class precedes its bytes so that it is read in one bulk read:
+ *
+ *   magic "CBC1" | int count | { UTF class name | int size | bytes } * count
+ */
+public class ClassBundle {
+
+    public static final byte[] MAGIC = {'C', 'B', 'C', '1'};
+
+    public static void write(CompiledCodeSet codeSet, OutputStream out) throws IOException {
+        DataOutputStream dos = new DataOutputStream(out);
+        dos.write(MAGIC);
+        dos.writeInt(codeSet.getCodeList().size());
+        for (Map.Entry<String, CompiledCode> entry : codeSet.getCodeList()) {
+            byte[] byteCode = entry.getValue().getByteCode();
+            dos.writeUTF(entry.getValue().getClassName());
+            dos.writeInt(byteCode.length);
+            dos.write(byteCode);
+        }
+        dos.flush();
+    }
+
+    // reads the classes following the magic
+    static List<CompiledCode> read(InputStream in) throws Exception {
+        DataInputStream dis = new DataInputStream(in);
+        int count = dis.readInt();
+        if (count < 0) {
+            throw new IOException("invalid class bundle: " + count + " classes");
+        }
+
+        List<CompiledCode> codeList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String className = dis.readUTF();
+            int size = dis.readInt();
+            if (size < 0) {
+                throw new IOException("invalid class bundle: size of " + className);
+            }
+            byte[] byteCode = new byte[size];
+            dis.readFully(byteCode);
+            codeList.add(new CompiledCode(className, byteCode));
+        }
+
+        return codeList;
+    }
+}
@@ -57,6 +57,11 @@ public class CompiledCode extends SimpleJavaFileObject {
         this.baos = new ByteArrayOutputStream();
     }
 
+    public CompiledCode(String className, byte[] byteCode) throws java.net.URISyntaxException {
+        this(className);
+        this.byteCode = byteCode;
+    }
+
     public String getClassName() {
         return className;
     }
@@ -31,10 +31,11 @@
 
 package com.cubrid.jsp.code;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.OutputStream;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -43,9 +44,14 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.commons.compress.archivers.jar.JarArchiveEntry;
 import org.apache.commons.compress.archivers.jar.JarArchiveInputStream;
+import org.apache.commons.io.IOUtils;
 
 public class CompiledCodeSet {
 
+    // types of the compiled code stored in the catalog (otype of _db_stored_procedure_code)
+    public static final int TYPE_JAR = 1;
+    public static final int TYPE_CLASS_BUNDLE = 2;
+
     private String mainClass = null;
     private long timestamp = -1;
     private Map<String, CompiledCode> codeMap = null;
@@ -75,6 +81,10 @@ public class CompiledCodeSet {
         return codeMap.entrySet();
     }
 
+    public CompiledCode getCode(String className) {
+        return codeMap.get(className);
+    }
+
     public void setTimestamp(String tsString) {
         timestamp = Long.parseLong(tsString);
     }
@@ -93,38 +103,40 @@ public class CompiledCodeSet {
     }
 
     public static CompiledCodeSet loadFromJar(String mainClass, byte[] jarString) throws Exception {
+        return load(mainClass, new ByteArrayInputStream(jarString));
+    }
+
+    // reads a jar or a ClassBundle, whichever the stream holds
+    public static CompiledCodeSet load(String mainClass, InputStream in) throws Exception {
+        InputStream bin = in.markSupported() ? in : new BufferedInputStream(in);
+
+        byte[] magic = new byte[ClassBundle.MAGIC.length];
+        bin.mark(magic.length);
+        int n = IOUtils.read(bin, magic);
+        if (n == magic.length && Arrays.equals(magic, ClassBundle.MAGIC)) {
+            return new CompiledCodeSet(mainClass, ClassBundle.read(bin));
+        }
+        bin.reset();
 
         List<CompiledCode> codeList = new ArrayList<>();
 
-        try (final JarArchiveInputStream jarIn =
-                new JarArchiveInputStream(new ByteArrayInputStream(jarString))) {
+        try (final JarArchiveInputStream jarIn = new JarArchiveInputStream(bin)) {
             JarArchiveEntry jarEntry;
             while ((jarEntry = jarIn.getNextEntry()) != null) {
                 if (jarEntry.isDirectory()) {
                     continue;
                 }
-                final String key = jarEntry.getName();
-                CompiledCode c = new CompiledCode(key);
-                OutputStream os = c.openOutputStream();
 
                 final long fileSize = jarEntry.getSize();
-                byte[] buffer = null;
-                if (fileSize > 0) {
-
+                byte[] buffer;
+                if (fileSize >= 0) {
                     buffer = new byte[(int) fileSize];
+                    IOUtils.readFully(jarIn, buffer);
                 } else {
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    while (true) {
-                        int qwe = jarIn.read();
-                        if (qwe == -1) break;
-                        baos.write(qwe);
-                    }
-                    buffer = baos.toByteArray();
+                    // unknown size (data descriptor follows the entry)
+                    buffer = IOUtils.toByteArray(jarIn);
                 }
-                jarIn.read(buffer);
-                os.write(buffer);
-                // IOUtils.copy (jarIn, os, fileSize);
-                codeList.add(c);
+                codeList.add(new CompiledCode(jarEntry.getName(), buffer));
             }
         }
 
@@ -40,12 +40,11 @@ import com.cubrid.jsp.classloader.SessionClassLoaderManager;
 import com.cubrid.jsp.jdbc.CUBRIDServerSideConnection;
 import com.cubrid.jsp.protocol.Header;
 import com.cubrid.plcsql.builtin.MessageBuffer;
-import java.nio.ByteBuffer;
+import com.cubrid.plcsql.predefined.sp.SerialValueCache;
 import java.nio.charset.Charset;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Properties;
-import java.util.concurrent.LinkedBlockingQueue;
 
 public class Context {
     // To recognize unique DB session
@@ -63,13 +62,12 @@ public class Context {
     // single server-side connection per Context
     private CUBRIDServerSideConnection connection = null;
 
-    private LinkedBlockingQueue<ByteBuffer> inBound = null;
-
     // CAS client information connecting with this Context
     private Properties clientInfo = null;
 
     // dynamic classLoader for a session
     private SessionClassLoaderManager sessionClassLoaderManager = null;
+    // shared by all the Contexts, retained during a transaction
     private ContextClassLoader oldClassLoader = null; // file
 
     // method cache
@@ -85,6 +83,13 @@ public class Context {
     // message buffer for DBMS_OUTPUT
     private MessageBuffer messageBuffer;
 
+    // serial values reserved for NEXT_VALUE in PL/CSQL
+    private final SerialValueCache serialValueCache = new SerialValueCache();
+
+    // number of the threads processing a request of this Context, and when the last one finished
+    private int activeThreads = 0;
+    private long lastActiveTime = System.currentTimeMillis();
+
     public Context(long id) {
         sessionId = id;
     }
@@ -118,13 +123,6 @@ public class Context {
         return clientInfo;
     }
 
-    public LinkedBlockingQueue<ByteBuffer> getInboundQueue() {
-        if (inBound == null) {
-            inBound = new LinkedBlockingQueue<ByteBuffer>();
-        }
-        return inBound;
-    }
-
     public Charset getSessionCharset() {
         if (sessionCharset == null) {
             sessionCharset = Server.getConfig().getServerCharset();
@@ -144,25 +142,16 @@ public class Context {
     public void checkTranId(int tid) {
         if (tranactionId == -1) {
             tranactionId = tid;
-            oldClassLoader = new ContextClassLoader();
         } else if (tranactionId != tid) {
-            // re-cretae dynamic class loader
-            if (oldClassLoader != null
-                    && oldClassLoader
-                                    .getInitializedTime()
-                                    .compareTo(
-                                            ClassLoaderManager.getLastModifiedTimeOfPath(
-                                                    ClassLoaderManager.getDynamicPath()))
-                            != 0) {
-                oldClassLoader = new ContextClassLoader();
-                methodCache.clear();
-            }
+            // move to the current generation of the dynamic class loader
+            releaseOldClassLoader();
             clear();
             tranactionId = tid;
 
             if (sessionClassLoaderManager != null) {
                 sessionClassLoaderManager.clear();
             }
+            serialValueCache.clear();
         }
     }
 
@@ -183,6 +172,10 @@ public class Context {
         return messageBuffer;
     }
 
+    public SerialValueCache getSerialValueCache() {
+        return serialValueCache;
+    }
+
     public SessionClassLoaderManager getSessionCLManager() {
         if (sessionClassLoaderManager == null) {
             sessionClassLoaderManager = new SessionClassLoaderManager(sessionId);
@@ -191,14 +184,48 @@ public class Context {
         return sessionClassLoaderManager;
     }
 
-    public ClassLoader getOldClassLoader() {
+    public synchronized ClassLoader getOldClassLoader() {
         if (oldClassLoader == null) {
-            oldClassLoader = new ContextClassLoader();
+            oldClassLoader = ClassLoaderManager.acquireContextClassLoader();
         }
 
         return oldClassLoader;
     }
 
+    /*
+     * Retains the ContextClassLoader of this Context for an invocation, which releases it when the
+     * call returns. The loader thus stays open during the call even if another request of this
+     * Context moves it to a new generation meanwhile.
+     */
+    public synchronized ContextClassLoader acquireClassLoader() {
+        ContextClassLoader loader = (ContextClassLoader) getOldClassLoader();
+        boolean retained = loader.retain(); // cannot be drained: retained by this Context
+        assert retained;
+        return loader;
+    }
+
+    // called when a thread starts and finishes processing a request of this Context
+    public synchronized void enter() {
+        activeThreads++;
+    }
+
+    public synchronized void leave() {
+        activeThreads--;
+        lastActiveTime = System.currentTimeMillis();
+    }
+
+    /*
+     * Releases the ContextClassLoader of a superseded generation if no thread has processed a
+     * request of this Context for idleMillis, so that an idle session does not keep the loader
+     * from being closed. Returns true if it has been released.
+     */
+    public synchronized boolean releaseIdleClassLoader(long now, long idleMillis) {
+        if (activeThreads > 0 || now - lastActiveTime < idleMillis) {
+            return false;
+        }
+        return releaseOldClassLoader();
+    }
+
     public TargetMethodCache getTargetMethodCache() {
         if (methodCache == null) {
             methodCache = new TargetMethodCache();
@@ -226,6 +253,20 @@ public class Context {
         return false;
     }
 
+    // the methods in the cache belong to the classes of the released loader
+    private synchronized boolean releaseOldClassLoader() {
+        if (oldClassLoader == null || ClassLoaderManager.isCurrent(oldClassLoader)) {
+            return false;
+        }
+
+        oldClassLoader.release();
+        oldClassLoader = null;
+        if (methodCache != null) {
+            methodCache.clear();
+        }
+        return true;
+    }
+
     // TODO: move this function to proper place
     public static ExecuteThread getCurrentExecuteThread() {
         return (ExecuteThread) Thread.currentThread();
@@ -31,6 +31,8 @@
 
 package com.cubrid.jsp.context;
 
+import com.cubrid.jsp.ExecuteThread;
+import com.cubrid.jsp.Server;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -60,6 +62,60 @@ public class ContextManager {
         }
     }
 
+    // Contexts are kept for the sessions which may come back. When one has been idle for this
+    // long, it releases the class loader of a superseded generation it still retains
+    public static final long IDLE_CLASS_LOADER_TIMEOUT_MILLIS = 60 * 1000;
+    private static final long IDLE_CHECK_INTERVAL_MILLIS = 10 * 1000;
+
+    private static Thread idleChecker = null;
+
+    public static int releaseIdleClassLoaders(long idleMillis) {
+        long now = System.currentTimeMillis();
+        int released = 0;
+        for (Context ctx : contextMap.values()) {
+            if (ctx.releaseIdleClassLoader(now, idleMillis)) {
+                released++;
+            }
+        }
+        return released;
+    }
+
+    /** starts a daemon thread releasing the class loaders retained by idle Contexts */
+    public static synchronized void startIdleChecker() {
+        if (idleChecker != null) {
+            return;
+        }
+
+        idleChecker =
+                new Thread(
+                        () -> {
+                            while (!Thread.currentThread().isInterrupted()) {
+                                try {
+                                    Thread.sleep(IDLE_CHECK_INTERVAL_MILLIS);
+                                } catch (InterruptedException e) {
+                                    break;
+                                }
+
+                                try {
+                                    releaseIdleClassLoaders(IDLE_CLASS_LOADER_TIMEOUT_MILLIS);
+                                } catch (Throwable e) {
+                                    Server.log(e);
+                                }
+                            }
+                        },
+                        "PL server idle context checker");
+        idleChecker.setDaemon(true);
+        idleChecker.setPriority(Thread.MIN_PRIORITY);
+        idleChecker.start();
+    }
+
+    public static synchronized void stopIdleChecker() {
+        if (idleChecker != null) {
+            idleChecker.interrupt();
+            idleChecker = null;
+        }
+    }
+
     // Java Thread ID => Context ID
     private static ConcurrentMap<Long, Long> contextThreadMap = new ConcurrentHashMap<Long, Long>();
 
@@ -84,6 +140,14 @@ public class ContextManager {
 
     public static Context getContextofCurrentThread() {
         Thread t = Thread.currentThread();
+        if (t instanceof ExecuteThread) {
+            // the context being processed by the thread, without looking up the maps
+            Context ctx = ((ExecuteThread) t).getCurrentContext();
+            if (ctx != null) {
+                return ctx;
+            }
+        }
+
         Long ctxId = ContextManager.getContextIdByThreadId(t.getId());
         return ContextManager.getContext(ctxId);
     }
@@ -36,6 +36,7 @@ import com.cubrid.jsp.SysParam;
 import com.cubrid.jsp.exception.TypeMismatchException;
 import com.cubrid.jsp.jdbc.CUBRIDServerSideResultSet;
 import com.cubrid.jsp.protocol.PackableObject;
+import com.cubrid.jsp.value.DateTimePrinter;
 import com.cubrid.jsp.value.NullValue;
 import com.cubrid.jsp.value.SetValue;
 import com.cubrid.jsp.value.StringValue;
@@ -49,10 +50,10 @@ import java.nio.charset.Charset;
 import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.Timestamp;
-import java.text.SimpleDateFormat;
 
 public class CUBRIDPacker {
     private ByteBuffer buffer;
+    private byte[] dateTimeBuf; // scratch for packTimestampString
 
     public CUBRIDPacker(ByteBuffer buffer) {
         buffer.clear();
@@ -129,15 +130,19 @@ public class CUBRIDPacker {
     }
 
     public void packCString(byte[] value) {
-        int len = value.length;
+        packCString(value, value.length);
+    }
+
+    // packs the first len bytes of value
+    public void packCString(byte[] value, int len) {
         if (len < DataUtilities.MAX_SMALL_STRING_SIZE) {
-            ensureSpace(value.length + 1 + DataUtilities.INT_ALIGNMENT); // str + len + align
+            ensureSpace(len + 1 + DataUtilities.INT_ALIGNMENT); // str + len + align
             buffer.put((byte) len);
-            buffer.put(value);
+            buffer.put(value, 0, len);
             align(DataUtilities.INT_ALIGNMENT);
         } else {
             ensureSpace(
-                    value.length
+                    len
                             + 1
                             + DataUtilities.INT_BYTES
                             + DataUtilities.INT_ALIGNMENT
@@ -146,7 +151,7 @@ public class CUBRIDPacker {
 
             align(DataUtilities.INT_ALIGNMENT);
             buffer.putInt(len);
-            buffer.put(value);
+            buffer.put(value, 0, len);
             align(DataUtilities.INT_ALIGNMENT);
         }
     }
@@ -237,8 +242,7 @@ public class CUBRIDPacker {
                     if (SpLib.isZeroTimestamp((java.sql.Timestamp) ts)) {
                         packString("0000-00-00 00:00:00");
                     } else {
-                        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-                        packString(formatter.format(ts));
+                        packTimestampString(ts);
                     }
                 }
                 break;
@@ -335,8 +339,7 @@ public class CUBRIDPacker {
                 if (SpLib.isZeroTimestamp((java.sql.Timestamp) result)) {
                     packString("0000-00-00 00:00:00");
                 } else {
-                    SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-                    packString(formatter.format(result));
+                    packTimestampString((java.sql.Timestamp) result);
                 }
             }
         } else if (result instanceof CUBRIDOID) {
@@ -404,6 +407,15 @@ public class CUBRIDPacker {
         }
     }
 
+    // yyyy-MM-dd HH:mm:ss, written as ASCII which every server charset shares
+    private void packTimestampString(Timestamp ts) {
+        if (dateTimeBuf == null) {
+            dateTimeBuf = new byte[DateTimePrinter.MAX_LENGTH];
+        }
+        int len = DateTimePrinter.printTimestampAscii(ts, dateTimeBuf);
+        packCString(dateTimeBuf, len);
+    }
+
     private static final int EXPAND_FACTOR = 2;
 
     private void ensureSpace(int size) {
@@ -103,10 +103,24 @@ public class CUBRIDUnpacker {
     public String unpackCString() {
         int len = unpackStringSize();
         if (len > 0) {
-            byte[] str = new byte[len];
-            buffer.get(str);
+            String str;
+            if (buffer.hasArray()) {
+                // decode in place
+                int pos = buffer.position();
+                str =
+                        new String(
+                                buffer.array(),
+                                buffer.arrayOffset() + pos,
+                                len,
+                                Server.getConfig().getServerCharset());
+                buffer.position(pos + len);
+            } else {
+                byte[] bytes = new byte[len];
+                buffer.get(bytes);
+                str = new String(bytes, Server.getConfig().getServerCharset());
+            }
             align(DataUtilities.INT_ALIGNMENT);
-            return new String(str, Server.getConfig().getServerCharset());
+            return str;
         } else {
             align(DataUtilities.INT_ALIGNMENT);
             return "";
@@ -126,6 +140,23 @@ public class CUBRIDUnpacker {
         }
     }
 
+    // a string value referring to the bytes in the buffer. they are decoded when it is consumed
+    public StringValue unpackStringValue(int codeset) {
+        int len = unpackStringSize();
+        StringValue value;
+        if (len > 0 && buffer.hasArray()) {
+            int pos = buffer.position();
+            value = new StringValue(buffer.array(), buffer.arrayOffset() + pos, len, codeset);
+            buffer.position(pos + len);
+        } else {
+            byte[] str = new byte[len];
+            buffer.get(str);
+            value = new StringValue(str, codeset);
+        }
+        align(DataUtilities.INT_ALIGNMENT);
+        return value;
+    }
+
     public int unpackStringSize() {
         int len = (int) buffer.get();
         if (len < 0) {
@@ -141,16 +172,19 @@ public class CUBRIDUnpacker {
         return len;
     }
 
+    // a view of the nested buffer, sharing the bytes of this buffer
     public ByteBuffer unpackBuffer() {
         align(DataUtilities.INT_ALIGNMENT);
 
         int size = buffer.getInt();
         if (size > 0) {
-            byte[] buf = new byte[size];
-            buffer.get(buf);
+            int pos = buffer.position();
+            ByteBuffer view = buffer.duplicate();
+            view.limit(pos + size);
+            buffer.position(pos + size);
 
             align(DataUtilities.INT_ALIGNMENT);
-            return ByteBuffer.wrap(buf);
+            return view.slice();
         } else {
             return ByteBuffer.allocate(0);
         }
@@ -189,7 +223,7 @@ public class CUBRIDUnpacker {
             case DBType.DB_CHAR:
             case DBType.DB_STRING:
                 int codeset = unpackInt();
-                arg = new StringValue(unpackCStringByteArray(), codeset);
+                arg = unpackStringValue(codeset);
                 break;
             case DBType.DB_DATE:
                 {
@@ -6,6 +6,9 @@ import java.sql.SQLException;
 @SuppressWarnings("serial")
 public class CUBRIDServerSideException extends SQLException {
 
+    // error code of the DB server, for ER_DBMS
+    private int serverErrorCode = 0;
+
     protected CUBRIDServerSideException(String msg, int errCode) {
         super(msg, null, errCode);
     }
@@ -27,4 +30,13 @@ public class CUBRIDServerSideException extends SQLException {
             setStackTrace(t.getStackTrace());
         }
     }
+
+    public CUBRIDServerSideException(int errCode, int serverErrorCode, String msg) {
+        this(CUBRIDServerSideJDBCErrorCode.codeToMessage(errCode, msg), errCode);
+        this.serverErrorCode = serverErrorCode;
+    }
+
+    public int getServerErrorCode() {
+        return serverErrorCode;
+    }
 }
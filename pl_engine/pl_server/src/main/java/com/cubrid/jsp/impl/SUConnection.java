@@ -48,8 +48,9 @@ import com.cubrid.jsp.data.PrepareInfo;
 import com.cubrid.jsp.data.SOID;
 import com.cubrid.jsp.exception.TypeMismatchException;
 import com.cubrid.jsp.jdbc.CUBRIDServerSideConstants;
-import com.cubrid.jsp.jdbc.CUBRIDServerSideJDBCErrorCode;
 import com.cubrid.jsp.jdbc.CUBRIDServerSideJDBCErrorManager;
+import com.cubrid.jsp.jfr.CallbackEvent;
+import com.cubrid.jsp.jfr.JfrEvents;
 import com.cubrid.jsp.protocol.Header;
 import cubrid.sql.CUBRIDOID;
 import java.io.IOException;
@@ -59,17 +60,25 @@ import java.sql.SQLException;
 public class SUConnection {
 
     Context ctx = null;
-    ByteBuffer outputBuffer = ByteBuffer.allocate(4096);
+
+    // the connection of a Context is used by the execute threads of all its sessions at once
+    private static final ThreadLocal<ByteBuffer> outputBuffer =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(4096));
 
     public SUConnection(Context t) {
         ctx = t;
     }
 
     public CUBRIDUnpacker request(ByteBuffer buffer) throws IOException, SQLException {
+        CallbackEvent event = JfrEvents.startCallback();
+        int requestBytes = buffer.position();
+
         Context.getCurrentExecuteThread().sendCommand(buffer);
+        int functionCode = buffer.getInt(0);
         buffer.clear();
 
         ByteBuffer responseBuffer = Context.getCurrentExecuteThread().receiveBuffer();
+        JfrEvents.endCallback(event, functionCode, requestBytes, responseBuffer.limit());
 
         CUBRIDUnpacker unpacker = new CUBRIDUnpacker(responseBuffer);
 
@@ -82,9 +91,7 @@ public class SUConnection {
         int responseCode = unpacker.unpackInt();
         if (responseCode != 0) {
             ErrorInfo errorInfo = new ErrorInfo(unpacker);
-            String errorMsg = errorInfo.errorString;
-            throw CUBRIDServerSideJDBCErrorManager.createCUBRIDException(
-                    CUBRIDServerSideJDBCErrorCode.ER_DBMS, errorMsg, null);
+            throw CUBRIDServerSideJDBCErrorManager.createDBMSException(errorInfo);
         }
 
         return unpacker;
@@ -92,7 +99,7 @@ public class SUConnection {
 
     // SUFunctionCode.GET_DB_PARAMETER
     public DBParameterInfo getDBParameter() throws IOException, SQLException {
-        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer);
+        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer.get());
         packer.packInt(SUFunctionCode.GET_DB_PARAMETER.getCode());
 
         CUBRIDUnpacker unpacker = request(packer.getBuffer());
@@ -107,12 +114,13 @@ public class SUConnection {
 
     public SUStatement prepare(String sql, byte flag, boolean recompile)
             throws IOException, SQLException {
-        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer);
+        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer.get());
         packer.packInt(SUFunctionCode.PREPARE.getCode());
         packer.packString(sql);
         packer.packInt(flag);
 
         CUBRIDUnpacker unpacker = request(packer.getBuffer());
+        Context.getCurrentExecuteThread().traceSql(sql);
         PrepareInfo info = new PrepareInfo(unpacker);
 
         SUStatement stmt = null;
@@ -128,7 +136,7 @@ public class SUConnection {
     // SUFunctionCode.GET_SCHEMA_INFO
     public SUStatement getSchemaInfo(int type, String arg1, String arg2, byte flag)
             throws IOException, SQLException {
-        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer);
+        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer.get());
         packer.packInt(SUFunctionCode.GET_SCHEMA_INFO.getCode());
         packer.packInt(type);
         packer.packString(arg1);
@@ -149,7 +157,7 @@ public class SUConnection {
             int maxField,
             SUBindParameter bindParameter)
             throws IOException, SQLException {
-        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer);
+        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer.get());
         packer.packInt(SUFunctionCode.EXECUTE.getCode());
         packer.packInt(handlerId);
         packer.packInt(executeFlag);
@@ -175,7 +183,7 @@ public class SUConnection {
     // SUFunctionCode.FETCH
     public FetchInfo fetch(long queryId, int currentRowIndex, int fetchSize, int fetchFlag)
             throws IOException, TypeMismatchException, SQLException {
-        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer);
+        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer.get());
         packer.packInt(SUFunctionCode.FETCH.getCode());
         packer.packBigInt(queryId);
         packer.packInt(currentRowIndex);
@@ -184,12 +192,13 @@ public class SUConnection {
 
         CUBRIDUnpacker unpacker = request(packer.getBuffer());
         FetchInfo info = new FetchInfo(unpacker);
+        Context.getCurrentExecuteThread().addRowsFetched(info.numFetched);
         return info;
     }
 
     // SUFunctionCode.MAKE_OUT_RS
     public MakeOutResultSetInfo makeOutResult(long queryId) throws IOException, SQLException {
-        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer);
+        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer.get());
         packer.packInt(SUFunctionCode.MAKE_OUT_RS.getCode());
         packer.packBigInt(queryId);
 
@@ -200,7 +209,7 @@ public class SUConnection {
 
     // SUFunctionCode.NEXT_RESULT
     public ExecuteInfo nextResult(int handlerId) throws IOException, SQLException {
-        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer);
+        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer.get());
         packer.packInt(SUFunctionCode.NEXT_RESULT.getCode());
         packer.packInt(handlerId);
 
@@ -212,7 +221,7 @@ public class SUConnection {
     // SUFunctionCode.GET_BY_OID
     public SUStatement getByOID(CUBRIDOID oid, String[] attributeName)
             throws IOException, SQLException {
-        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer);
+        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer.get());
         packer.packInt(SUFunctionCode.GET_BY_OID.getCode());
         packer.packOID(new SOID(oid.getOID()));
 
@@ -238,7 +247,7 @@ public class SUConnection {
     // SUFunctionCode.GET_GENERATED_KEYS
     public SUStatement getGeneratedKeys(int handlerId)
             throws IOException, SQLException, TypeMismatchException {
-        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer);
+        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer.get());
         packer.packInt(SUFunctionCode.GET_GENERATED_KEYS.getCode());
         packer.packInt(handlerId);
 
@@ -251,7 +260,7 @@ public class SUConnection {
     // SUFunctionCode.PUT_BY_OID
     public void putByOID(CUBRIDOID oid, String[] attributeName, Object values[])
             throws IOException, SQLException {
-        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer);
+        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer.get());
         packer.packInt(SUFunctionCode.PUT_BY_OID.getCode());
         packer.packOID(new SOID(oid.getOID()));
 
@@ -277,7 +286,7 @@ public class SUConnection {
 
     // SUFunctionCode.RELATED_TO_OID
     public Object oidCmd(CUBRIDOID oid, int command) throws IOException, SQLException {
-        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer);
+        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer.get());
         packer.packInt(SUFunctionCode.RELATED_TO_OID.getCode());
         packer.packInt(command);
         packer.packOID(new SOID(oid.getOID()));
@@ -299,7 +308,7 @@ public class SUConnection {
     protected CUBRIDUnpacker collectionCmd(
             int cmd, CUBRIDOID oid, String attributeName, Object value, int index)
             throws IOException, SQLException {
-        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer);
+        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer.get());
         packer.packInt(SUFunctionCode.RELATED_TO_COLLECTION.getCode());
         packer.packInt(cmd);
         packer.packOID(new SOID(oid.getOID()));
@@ -325,7 +334,7 @@ public class SUConnection {
 
     // SUFunctionCode.END_TRANSACTION
     public void endTransaction(boolean type) throws IOException, SQLException {
-        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer);
+        CUBRIDPacker packer = new CUBRIDPacker(outputBuffer.get());
         packer.packInt(SUFunctionCode.END_TRANSACTION.getCode());
         packer.packInt(
                 (type == true)
@@ -18,6 +18,8 @@ import com.cubrid.jsp.jdbc.CUBRIDServerSideConstants;
 import com.cubrid.jsp.jdbc.CUBRIDServerSideJDBCErrorCode;
 import com.cubrid.jsp.jdbc.CUBRIDServerSideJDBCErrorManager;
 import com.cubrid.jsp.jdbc.CUBRIDServerSideOID;
+import com.cubrid.jsp.jfr.FetchEvent;
+import com.cubrid.jsp.jfr.JfrEvents;
 import com.cubrid.jsp.value.ResultSetValue;
 import com.cubrid.jsp.value.Value;
 import cubrid.jdbc.jci.CUBRIDCommandType;
@@ -343,8 +345,10 @@ public class SUStatement {
         }
 
         // send fetch request
+        FetchEvent event = JfrEvents.startFetch();
         try {
             fetchInfo = suConn.fetch(queryId, cursorPosition, fetchSize, 0);
+            JfrEvents.endFetch(event, queryId, fetchSize, fetchInfo.numFetched);
         } catch (IOException ioe) {
             throw CUBRIDServerSideJDBCErrorManager.createCUBRIDException(
                     CUBRIDServerSideJDBCErrorCode.ER_COMMUNICATION, ioe);
@@ -479,7 +483,8 @@ public class SUStatement {
         try {
             return obj.toInt();
         } catch (TypeMismatchException e) {
-            return 0;
+            throw CUBRIDServerSideJDBCErrorManager.createCUBRIDException(
+                    CUBRIDServerSideJDBCErrorCode.ER_TYPE_CONVERSION, e);
         }
     }
 
@@ -492,7 +497,8 @@ public class SUStatement {
         try {
             return obj.toLong();
         } catch (TypeMismatchException e) {
-            return 0;
+            throw CUBRIDServerSideJDBCErrorManager.createCUBRIDException(
+                    CUBRIDServerSideJDBCErrorCode.ER_TYPE_CONVERSION, e);
         }
     }
 
@@ -514,7 +520,8 @@ public class SUStatement {
         try {
             return obj.toFloat();
         } catch (TypeMismatchException e) {
-            return 0.0f;
+            throw CUBRIDServerSideJDBCErrorManager.createCUBRIDException(
+                    CUBRIDServerSideJDBCErrorCode.ER_TYPE_CONVERSION, e);
         }
     }
 
@@ -527,7 +534,8 @@ public class SUStatement {
         try {
             return obj.toDouble();
         } catch (TypeMismatchException e) {
-            return 0.0;
+            throw CUBRIDServerSideJDBCErrorManager.createCUBRIDException(
+                    CUBRIDServerSideJDBCErrorCode.ER_TYPE_CONVERSION, e);
         }
     }
 
@@ -540,7 +548,8 @@ public class SUStatement {
         try {
             return obj.toShort();
         } catch (TypeMismatchException e) {
-            return 0;
+            throw CUBRIDServerSideJDBCErrorManager.createCUBRIDException(
+                    CUBRIDServerSideJDBCErrorCode.ER_TYPE_CONVERSION, e);
         }
     }
 
@@ -553,7 +562,8 @@ public class SUStatement {
         try {
             return (obj.toInt() == 1) ? true : false;
         } catch (TypeMismatchException e) {
-            return false;
+            throw CUBRIDServerSideJDBCErrorManager.createCUBRIDException(
+                    CUBRIDServerSideJDBCErrorCode.ER_TYPE_CONVERSION, e);
         }
     }
 
@@ -565,7 +575,8 @@ public class SUStatement {
         try {
             return obj.toByte();
         } catch (TypeMismatchException e) {
-            return ((byte) 0);
+            throw CUBRIDServerSideJDBCErrorManager.createCUBRIDException(
+                    CUBRIDServerSideJDBCErrorCode.ER_TYPE_CONVERSION, e);
         }
     }
 
@@ -577,7 +588,8 @@ public class SUStatement {
         try {
             return obj.toByteArray();
         } catch (TypeMismatchException e) {
-            return null;
+            throw CUBRIDServerSideJDBCErrorManager.createCUBRIDException(
+                    CUBRIDServerSideJDBCErrorCode.ER_TYPE_CONVERSION, e);
         }
     }
 
@@ -589,7 +601,8 @@ public class SUStatement {
         try {
             return obj.toBigDecimal();
         } catch (TypeMismatchException e) {
-            return null;
+            throw CUBRIDServerSideJDBCErrorManager.createCUBRIDException(
+                    CUBRIDServerSideJDBCErrorCode.ER_TYPE_CONVERSION, e);
         }
     }
 
@@ -601,7 +614,8 @@ public class SUStatement {
         try {
             return obj.toDate();
         } catch (TypeMismatchException e) {
-            return null;
+            throw CUBRIDServerSideJDBCErrorManager.createCUBRIDException(
+                    CUBRIDServerSideJDBCErrorCode.ER_TYPE_CONVERSION, e);
         }
     }
 
@@ -613,7 +627,8 @@ public class SUStatement {
         try {
             return obj.toTime();
         } catch (TypeMismatchException e) {
-            return null;
+            throw CUBRIDServerSideJDBCErrorManager.createCUBRIDException(
+                    CUBRIDServerSideJDBCErrorCode.ER_TYPE_CONVERSION, e);
         }
     }
 
@@ -625,7 +640,8 @@ public class SUStatement {
         try {
             return obj.toDatetime(); // toTimestamp() truncates non-zero millisecond value
         } catch (TypeMismatchException e) {
-            return null;
+            throw CUBRIDServerSideJDBCErrorManager.createCUBRIDException(
+                    CUBRIDServerSideJDBCErrorCode.ER_TYPE_CONVERSION, e);
         }
     }
 
@@ -637,7 +653,8 @@ public class SUStatement {
         try {
             return obj.toOid();
         } catch (TypeMismatchException e) {
-            return null;
+            throw CUBRIDServerSideJDBCErrorManager.createCUBRIDException(
+                    CUBRIDServerSideJDBCErrorCode.ER_TYPE_CONVERSION, e);
         }
     }
 
@@ -53,6 +53,7 @@ import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Struct;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -81,7 +82,7 @@ public class CUBRIDServerSideConnection implements Connection {
         // holdable cursor on server-side
         transactionIsolation = TRANSACTION_NONE;
 
-        statements = new ArrayList<Statement>();
+        statements = Collections.synchronizedList(new ArrayList<Statement>());
     }
 
     public SUConnection getSUConnection() {
@@ -203,10 +204,12 @@ public class CUBRIDServerSideConnection implements Connection {
          * handlers and result sets are removed.
          */
         if (statements != null) {
-            for (Statement s : statements) {
-                s.close();
+            synchronized (statements) {
+                for (Statement s : statements) {
+                    s.close();
+                }
+                statements.clear();
             }
-            statements.clear();
         }
     }
 
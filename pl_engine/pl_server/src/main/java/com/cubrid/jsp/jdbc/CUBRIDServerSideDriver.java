@@ -50,6 +50,14 @@ public class CUBRIDServerSideDriver implements Driver {
     private static final String JDBC_DEFAULT_CONNECTION_PATTERN =
             "jdbc:default:connection(::\\?[a-zA-Z_0-9]+=[^&=?]+(&[a-zA-Z_0-9]+=[^&=?]+)*)?";
 
+    private static final Pattern DEFAULT_CONNECTION_PATTERN =
+            Pattern.compile(JDBC_DEFAULT_CONNECTION_PATTERN, Pattern.CASE_INSENSITIVE);
+
+    // connection properties for getDefaultConnection(), built once. They must not be modified.
+    private static final Properties DEFAULT_CONNECTION_INFO = newDefaultConnectionInfo(false);
+    private static final Properties DEFAULT_CONNECTION_INFO_AUTONOMOUS =
+            newDefaultConnectionInfo(true);
+
     private static String VERSION_STRING;
     private static int VERSION_MAJOR;
     private static int VERSION_MINOR;
@@ -83,9 +91,7 @@ public class CUBRIDServerSideDriver implements Driver {
             return null;
         }
 
-        Pattern pattern =
-                Pattern.compile(JDBC_DEFAULT_CONNECTION_PATTERN, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(url);
+        Matcher matcher = DEFAULT_CONNECTION_PATTERN.matcher(url);
         if (!matcher.find()) {
             // TODO: error?
             return null;
@@ -104,6 +110,19 @@ public class CUBRIDServerSideDriver implements Driver {
         return ContextManager.getContext(ctxId).getConnection(info);
     }
 
+    /**
+     * Returns the server-side connection of the current context. It has the same effect as
+     * connecting to "jdbc:default:connection::?autonomous_transaction=..." through DriverManager,
+     * but skips the driver lookup and the URL parsing. PL/CSQL generated code calls this at the
+     * beginning of every invocation. No request is sent to the server until a statement is
+     * actually executed on the connection.
+     */
+    public static Connection getDefaultConnection(boolean autonomousTransaction) {
+        Properties info =
+                autonomousTransaction ? DEFAULT_CONNECTION_INFO_AUTONOMOUS : DEFAULT_CONNECTION_INFO;
+        return ContextManager.getContextofCurrentThread().getConnection(info);
+    }
+
     @Override
     public boolean acceptsURL(String url) throws SQLException {
         if (url == null) {
@@ -132,10 +151,17 @@ public class CUBRIDServerSideDriver implements Driver {
         }
     }
 
-    private void setDefaultProperties(Properties info) {
+    private static void setDefaultProperties(Properties info) {
         info.setProperty("transaction_control", "false");
     }
 
+    private static Properties newDefaultConnectionInfo(boolean autonomousTransaction) {
+        Properties info = new Properties();
+        setDefaultProperties(info);
+        info.setProperty("autonomous_transaction", Boolean.toString(autonomousTransaction));
+        return info;
+    }
+
     @Override
     public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
         return new DriverPropertyInfo[0];
@@ -32,6 +32,7 @@
 package com.cubrid.jsp.jdbc;
 
 import com.cubrid.jsp.Server;
+import com.cubrid.jsp.data.ErrorInfo;
 import com.cubrid.jsp.exception.CUBRIDServerSideException;
 
 public class CUBRIDServerSideJDBCErrorManager {
@@ -47,4 +48,14 @@ public class CUBRIDServerSideJDBCErrorManager {
         Server.log(e);
         return e;
     }
+
+    public static CUBRIDServerSideException createDBMSException(ErrorInfo errorInfo) {
+        CUBRIDServerSideException e =
+                new CUBRIDServerSideException(
+                        CUBRIDServerSideJDBCErrorCode.ER_DBMS,
+                        errorInfo.errorCode,
+                        errorInfo.errorString);
+        Server.log(e);
+        return e;
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ *
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("cubrid.pl.CompilePhase")
+@Label("PL/CSQL Compile Phase")
+@Category({"CUBRID", "PL Server"})
+@Description("A phase of compiling a PL/CSQL routine")
+public final class CompilePhaseEvent extends Event {
+
+    @Label("Phase")
+    @Description("parse, semantics, typecheck, codegen, javac or jar")
+    String phase;
+
+    @Label("Size")
+    @Description(
+            "Size of the phase output: characters of the source (parse) and the Java code"
+                    + " (codegen), bytes of the classes (javac) and the archive (jar)")
+    long size;
+
+    /** returns a begun event. called through JfrEvents only if JfrSupport.ENABLED */
+    static CompilePhaseEvent start() {
+        CompilePhaseEvent e = new CompilePhaseEvent();
+        e.begin();
+        return e;
+    }
+
+    static void end(CompilePhaseEvent e, String phase, long size) {
+        e.end();
+        if (e.shouldCommit()) {
+            e.phase = phase;
+            e.size = size;
+            e.commit();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("cubrid.pl.Invoke")
+@Label("Stored Procedure Invocation")
+@Category({"CUBRID", "PL Server"})
+@Description("An invocation of a stored procedure, from its arguments to its result")
+public final class InvokeEvent extends Event {
+
+    @Label("Signature")
+    String signature;
+
+    @Label("Session ID")
+    long sessionId;
+
+    @Label("Failed")
+    boolean failed;
+
+    @Label("Callbacks")
+    @Description("Round trips to the server made by the invocation")
+    long callbacks;
+
+    @Label("Bytes In")
+    @DataAmount
+    long bytesIn;
+
+    @Label("Bytes Out")
+    @DataAmount
+    long bytesOut;
+
+    /** returns a begun event. called through JfrEvents only if JfrSupport.ENABLED */
+    static InvokeEvent start() {
+        InvokeEvent e = new InvokeEvent();
+        e.begin();
+        return e;
+    }
+
+    static void end(
+            InvokeEvent e,
+            String signature,
+            long sessionId,
+            boolean failed,
+            long callbacks,
+            long bytesIn,
+            long bytesOut) {
+        e.end();
+        if (e.shouldCommit()) {
+            e.signature = signature;
+            e.sessionId = sessionId;
+            e.failed = failed;
+            e.callbacks = callbacks;
+            e.bytesIn = bytesIn;
+            e.bytesOut = bytesOut;
+            e.commit();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+package com.cubrid.jsp.jfr;
+
+/**
+ * The entry points of the JFR events of the PL server. The event classes extend jdk.jfr.Event, so
+ * loading one of them fails on a runtime without JFR (before 8u262). This class does not depend
+ * on JFR and touches the event classes only if JfrSupport.ENABLED: a start method returns a begun
+ * event, or null if the events are disabled, and the matching end method ignores null.
+ */
+public final class JfrEvents {
+
+    private JfrEvents() {}
+
+    public static InvokeEvent startInvoke() {
+        return JfrSupport.ENABLED ? InvokeEvent.start() : null;
+    }
+
+    public static void endInvoke(
+            InvokeEvent e,
+            String signature,
+            long sessionId,
+            boolean failed,
+            long callbacks,
+            long bytesIn,
+            long bytesOut) {
+        if (e != null) {
+            InvokeEvent.end(e, signature, sessionId, failed, callbacks, bytesIn, bytesOut);
+        }
+    }
+
+    public static CallbackEvent startCallback() {
+        return JfrSupport.ENABLED ? CallbackEvent.start() : null;
+    }
+
+    public static void endCallback(
+            CallbackEvent e, int functionCode, long requestBytes, long responseBytes) {
+        if (e != null) {
+            CallbackEvent.end(e, functionCode, requestBytes, responseBytes);
+        }
+    }
+
+    public static FetchEvent startFetch() {
+        return JfrSupport.ENABLED ? FetchEvent.start() : null;
+    }
+
+    public static void endFetch(FetchEvent e, long queryId, int fetchSize, int rows) {
+        if (e != null) {
+            FetchEvent.end(e, queryId, fetchSize, rows);
+        }
+    }
+
+    public static ClassLoadEvent startClassLoad() {
+        return JfrSupport.ENABLED ? ClassLoadEvent.start() : null;
+    }
+
+    public static void endClassLoad(
+            ClassLoadEvent e, String className, int classCount, long codeBytes) {
+        if (e != null) {
+            ClassLoadEvent.end(e, className, classCount, codeBytes);
+        }
+    }
+
+    public static CompilePhaseEvent startCompilePhase() {
+        return JfrSupport.ENABLED ? CompilePhaseEvent.start() : null;
+    }
+
+    /** ends the phase, and returns a begun event for the next phase (null if disabled) */
+    public static CompilePhaseEvent nextCompilePhase(CompilePhaseEvent e, String phase, long size) {
+        if (e == null) {
+            return null;
+        }
+        CompilePhaseEvent.end(e, phase, size);
+        return CompilePhaseEvent.start();
+    }
+
+    public static void endCompilePhase(CompilePhaseEvent e, String phase, long size) {
+        if (e != null) {
+            CompilePhaseEvent.end(e, phase, size);
+        }
+    }
+}
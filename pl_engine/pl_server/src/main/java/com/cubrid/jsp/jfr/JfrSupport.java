@@ -0,0 +1,108 @@
+/*
+ *
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.jfr;
+
+import com.cubrid.jsp.Server;
+import com.cubrid.jsp.ServerConfig;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.logging.Level;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+
+/**
+ * Java Flight Recorder support of the PL server. The events of this package are emitted only if
+ * the server is started with -Dcubrid.pl.jfr=&lt;settings&gt; (given in
+ * java_stored_procedure_jvm_options), where settings is the name of a JFR configuration such as
+ * "default" or "profile". Then a recording with the configuration is started with the server and
+ * written when the server stops, into -Dcubrid.pl.jfr.file or $CUBRID/log/&lt;db&gt;_java.jfr by
+ * default. Otherwise ENABLED is false and the instrumented code paths, which go through
+ * JfrEvents, skip creating the events altogether.
+ */
+public final class JfrSupport {
+
+    public static final String SETTINGS = System.getProperty("cubrid.pl.jfr");
+    public static final boolean ENABLED = SETTINGS != null && isAvailable();
+
+    private static Recording recording = null;
+
+    private JfrSupport() {}
+
+    public static synchronized void startRecording(ServerConfig config) {
+        if (!ENABLED || recording != null) {
+            return;
+        }
+
+        try {
+            String file = System.getProperty("cubrid.pl.jfr.file");
+            Path destination =
+                    (file != null)
+                            ? Paths.get(file)
+                            : Paths.get(config.getLogPath())
+                                    .resolveSibling(config.getName() + "_java.jfr");
+
+            Recording r = new Recording(Configuration.getConfiguration(SETTINGS));
+            r.setName("CUBRID PL server");
+            r.setToDisk(true);
+            r.setDestination(destination);
+            r.setDumpOnExit(true);
+            r.start();
+            recording = r;
+
+            Server.log(Level.INFO, "JFR recording started: " + destination);
+        } catch (Exception e) {
+            Server.log(e);
+        }
+    }
+
+    public static synchronized void stopRecording() {
+        if (recording != null) {
+            try {
+                recording.stop(); // writes the destination file
+                recording.close();
+            } catch (Exception e) {
+                Server.log(e);
+            }
+            recording = null;
+        }
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            return FlightRecorder.isAvailable();
+        } catch (Throwable e) {
+            return false; // a runtime without JFR (before 8u262)
+        }
+    }
+}
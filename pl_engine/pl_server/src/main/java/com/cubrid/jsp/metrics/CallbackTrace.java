@@ -0,0 +1,219 @@
+/*
+ *
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.metrics;
+
+import com.cubrid.jsp.impl.SUFunctionCode;
+import com.cubrid.jsp.protocol.RequestCode;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The callbacks (round trips to the server) made by one traced procedure invocation. Each
+ * callback records its request code (and the JDBC function code for INTERNAL_JDBC), the hash of
+ * the SQL text it prepared if any, the bytes sent and received, and its wall time. Only the first
+ * MAX_ENTRIES callbacks are kept; the rest are counted in the totals only.
+ */
+public final class CallbackTrace {
+
+    static final int MAX_ENTRIES = 4096;
+
+    private static final int NO_SQL = 0;
+
+    private final String signature;
+    private final long sessionId;
+
+    private int count = 0;
+    private long totalNanos = 0;
+    private long totalOut = 0;
+    private long totalIn = 0;
+
+    private int[] codes = new int[16];
+    private int[] sqlHashes = new int[16];
+    private int[] bytesOut = new int[16];
+    private int[] bytesIn = new int[16];
+    private long[] nanos = new long[16];
+
+    private long pendingStart = 0;
+    private int pendingCode = -1;
+    private int pendingOut = 0;
+
+    CallbackTrace(long sessionId, String signature) {
+        this.sessionId = sessionId;
+        this.signature = signature;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    public int getCallbackCount() {
+        return count;
+    }
+
+    /** called when a request has been sent. sent is the frame sent, positioned at its end */
+    public void beginCallback(int requestCode, ByteBuffer sent, int frameBytes) {
+        int code = requestCode << 16;
+        if (requestCode == RequestCode.INTERNAL_JDBC && sent.position() >= Integer.BYTES) {
+            code |= sent.getInt(0) & 0xFFFF;
+        }
+        pendingCode = code;
+        pendingOut = frameBytes;
+        pendingStart = System.nanoTime();
+    }
+
+    /** called when the response of the pending request has been received */
+    public void endCallback(int frameBytes) {
+        if (pendingCode < 0) {
+            return; // not a response to a traced request
+        }
+
+        long elapsed = System.nanoTime() - pendingStart;
+        totalNanos += elapsed;
+        totalOut += pendingOut;
+        totalIn += frameBytes;
+
+        if (count < MAX_ENTRIES) {
+            if (count == codes.length) {
+                grow();
+            }
+            codes[count] = pendingCode;
+            sqlHashes[count] = NO_SQL;
+            bytesOut[count] = pendingOut;
+            bytesIn[count] = frameBytes;
+            nanos[count] = elapsed;
+        }
+        count++;
+        pendingCode = -1;
+    }
+
+    /** attaches the SQL text to the last completed callback */
+    public void setSql(String sql) {
+        if (count > 0 && count <= MAX_ENTRIES && sql != null) {
+            int hash = sql.hashCode();
+            sqlHashes[count - 1] = (hash == NO_SQL) ? 1 : hash;
+        }
+    }
+
+    /**
+     * returns a one line summary of the invocation, with the callbacks grouped by their code and
+     * SQL text in the order of their first appearance
+     */
+    public String summarize(long elapsedNanos, boolean failed) {
+        Map<Long, long[]> groups = new LinkedHashMap<>(); // {count, nanos, out, in}
+        int kept = Math.min(count, MAX_ENTRIES);
+        for (int i = 0; i < kept; i++) {
+            long key = ((long) codes[i] << 32) | (sqlHashes[i] & 0xFFFFFFFFL);
+            long[] g = groups.get(key);
+            if (g == null) {
+                g = new long[4];
+                groups.put(key, g);
+            }
+            g[0]++;
+            g[1] += nanos[i];
+            g[2] += bytesOut[i];
+            g[3] += bytesIn[i];
+        }
+
+        StringBuilder sb = new StringBuilder(128 + groups.size() * 48);
+        sb.append("callback trace: session=").append(sessionId);
+        sb.append(" sp=").append(signature);
+        sb.append(" elapsed=").append(elapsedNanos / 1000).append("us");
+        if (failed) {
+            sb.append(" failed");
+        }
+        sb.append(" callbacks=").append(count);
+        sb.append(" (").append(totalNanos / 1000).append("us");
+        sb.append(" out=").append(totalOut).append("B");
+        sb.append(" in=").append(totalIn).append("B)");
+        if (count > kept) {
+            sb.append(" untraced=").append(count - kept);
+        }
+
+        for (Map.Entry<Long, long[]> e : groups.entrySet()) {
+            long key = e.getKey();
+            long[] g = e.getValue();
+            sb.append(" | ").append(codeName((int) (key >>> 32)));
+            int sqlHash = (int) key;
+            if (sqlHash != NO_SQL) {
+                sb.append(" sql#").append(String.format("%08x", sqlHash));
+            }
+            sb.append(" x").append(g[0]);
+            sb.append(" ").append(g[1] / 1000).append("us");
+            sb.append(" ").append(g[2]).append("/").append(g[3]).append("B");
+        }
+
+        return sb.toString();
+    }
+
+    private void grow() {
+        int size = Math.min(codes.length * 2, MAX_ENTRIES);
+        codes = Arrays.copyOf(codes, size);
+        sqlHashes = Arrays.copyOf(sqlHashes, size);
+        bytesOut = Arrays.copyOf(bytesOut, size);
+        bytesIn = Arrays.copyOf(bytesIn, size);
+        nanos = Arrays.copyOf(nanos, size);
+    }
+
+    static String codeName(int code) {
+        int requestCode = code >>> 16;
+        switch (requestCode) {
+            case RequestCode.INTERNAL_JDBC:
+                int functionCode = code & 0xFFFF;
+                for (SUFunctionCode f : SUFunctionCode.values()) {
+                    if (f.getCode() == functionCode) {
+                        return f.name();
+                    }
+                }
+                return "JDBC_" + functionCode;
+            case RequestCode.COMPILE:
+                return "COMPILE";
+            case RequestCode.REQUEST_SQL_SEMANTICS:
+                return "SQL_SEMANTICS";
+            case RequestCode.REQUEST_GLOBAL_SEMANTICS:
+                return "GLOBAL_SEMANTICS";
+            case RequestCode.REQUEST_BUILTIN_FUNCTION:
+                return "BUILTIN_FUNCTION";
+            case RequestCode.REQUEST_CHANGE_AUTH_RIGHTS:
+                return "CHANGE_AUTH_RIGHTS";
+            case RequestCode.REQUEST_CODE_ATTR:
+                return "CODE_ATTR";
+            default:
+                return String.format("REQUEST_0x%02X", requestCode);
+        }
+    }
+}
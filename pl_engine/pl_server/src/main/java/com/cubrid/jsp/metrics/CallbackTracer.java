@@ -0,0 +1,151 @@
+/*
+ *
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.metrics;
+
+import com.cubrid.jsp.Server;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Decides which procedure invocations have their callbacks traced, and keeps the summaries of
+ * the recent traces. Tracing is off by default and is enabled per session or per procedure
+ * signature through the UTIL_TRACE request, or for signatures listed in the system property
+ * cubrid.pl.trace.signatures (comma separated). When nothing is traced, start() costs a volatile
+ * read. A finished trace is written to the server log and kept in a ring buffer of the last
+ * RING_SIZE summaries.
+ */
+public final class CallbackTracer {
+
+    // commands of the UTIL_TRACE request
+    public static final int CMD_GET = 0;
+    public static final int CMD_ENABLE_SESSION = 1;
+    public static final int CMD_DISABLE_SESSION = 2;
+    public static final int CMD_ENABLE_SIGNATURE = 3;
+    public static final int CMD_DISABLE_SIGNATURE = 4;
+    public static final int CMD_CLEAR = 5;
+
+    static final int RING_SIZE = 256;
+
+    private static final Set<Long> sessions = ConcurrentHashMap.newKeySet();
+    private static final Set<String> signatures = ConcurrentHashMap.newKeySet();
+    private static volatile boolean enabled = false;
+
+    private static final String[] ring = new String[RING_SIZE];
+    private static int ringNext = 0;
+    private static long ringCount = 0;
+
+    static {
+        String prop = System.getProperty("cubrid.pl.trace.signatures");
+        if (prop != null) {
+            for (String sig : prop.split(",")) {
+                if (!sig.trim().isEmpty()) {
+                    signatures.add(sig.trim());
+                }
+            }
+            updateEnabled();
+        }
+    }
+
+    private CallbackTracer() {}
+
+    /** returns a new trace if the invocation is to be traced, or null */
+    public static CallbackTrace start(long sessionId, String signature) {
+        if (!enabled) {
+            return null;
+        }
+        if (sessions.contains(sessionId) || signatures.contains(signature)) {
+            return new CallbackTrace(sessionId, signature);
+        }
+        return null;
+    }
+
+    public static void finish(CallbackTrace trace, long elapsedNanos, boolean failed) {
+        String summary = trace.summarize(elapsedNanos, failed);
+        remember(summary);
+        Server.log(Level.INFO, summary);
+    }
+
+    public static synchronized void enableSession(long sessionId, boolean on) {
+        if (on) {
+            sessions.add(sessionId);
+        } else {
+            sessions.remove(sessionId);
+        }
+        updateEnabled();
+    }
+
+    public static synchronized void enableSignature(String signature, boolean on) {
+        if (on) {
+            signatures.add(signature);
+        } else {
+            signatures.remove(signature);
+        }
+        updateEnabled();
+    }
+
+    /** returns the kept summaries, the oldest first */
+    public static synchronized List<String> getRecent() {
+        int size = (int) Math.min(ringCount, RING_SIZE);
+        List<String> list = new ArrayList<>(size);
+        int first = (ringNext - size + RING_SIZE) % RING_SIZE;
+        for (int i = 0; i < size; i++) {
+            list.add(ring[(first + i) % RING_SIZE]);
+        }
+        return list;
+    }
+
+    /** disables all tracing and drops the kept summaries */
+    public static synchronized void clear() {
+        sessions.clear();
+        signatures.clear();
+        updateEnabled();
+
+        for (int i = 0; i < RING_SIZE; i++) {
+            ring[i] = null;
+        }
+        ringNext = 0;
+        ringCount = 0;
+    }
+
+    static synchronized void remember(String summary) {
+        ring[ringNext] = summary;
+        ringNext = (ringNext + 1) % RING_SIZE;
+        ringCount++;
+    }
+
+    private static void updateEnabled() {
+        enabled = !sessions.isEmpty() || !signatures.isEmpty();
+    }
+}
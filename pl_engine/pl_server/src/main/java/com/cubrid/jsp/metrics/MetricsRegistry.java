@@ -0,0 +1,226 @@
+/*
+ *
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.metrics;
+
+import com.cubrid.jsp.Server;
+import com.cubrid.jsp.data.CUBRIDPacker;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The registry of per-procedure execution metrics, keyed by the procedure signature. Looking up
+ * a registered procedure and recording into it take no lock; only the first invocation of a
+ * procedure inserts into the map. The metrics are reported through the UTIL_STATUS response and
+ * dumped periodically into a text file next to the server log. The file is written only by the
+ * dumper thread, which a UTIL_STATUS request wakes up to dump the metrics right away.
+ */
+public final class MetricsRegistry {
+
+    private static final long DUMP_INTERVAL_MILLIS = 60 * 1000;
+
+    private static final ConcurrentHashMap<String, ProcedureMetrics> procedures =
+            new ConcurrentHashMap<>();
+
+    private static Thread dumper = null;
+
+    // guards the dump file, and dumpRequested
+    private static final Object dumpLock = new Object();
+    private static boolean dumpRequested = false;
+
+    private MetricsRegistry() {}
+
+    public static ProcedureMetrics forProcedure(String signature) {
+        ProcedureMetrics metrics = procedures.get(signature);
+        if (metrics == null) {
+            metrics = procedures.computeIfAbsent(signature, ProcedureMetrics::new);
+        }
+        return metrics;
+    }
+
+    /** returns the snapshots of all procedures, sorted by signature */
+    public static List<ProcedureMetrics.Snapshot> snapshot() {
+        List<ProcedureMetrics.Snapshot> list = new ArrayList<>(procedures.size());
+        for (ProcedureMetrics metrics : procedures.values()) {
+            list.add(metrics.snapshot());
+        }
+        list.sort((a, b) -> a.signature.compareTo(b.signature));
+        return list;
+    }
+
+    public static void pack(CUBRIDPacker packer, List<ProcedureMetrics.Snapshot> snapshots) {
+        packer.packInt(snapshots.size());
+        for (ProcedureMetrics.Snapshot s : snapshots) {
+            packer.packString(s.signature);
+            packer.packBigInt(s.invokes);
+            packer.packBigInt(s.errors);
+            packer.packBigInt(s.totalMicros);
+            packer.packBigInt(s.p50Micros);
+            packer.packBigInt(s.p99Micros);
+            packer.packBigInt(s.maxMicros);
+            packer.packBigInt(s.callbacks);
+            packer.packBigInt(s.rowsFetched);
+            packer.packBigInt(s.bytesIn);
+            packer.packBigInt(s.bytesOut);
+        }
+    }
+
+    /**
+     * writes the snapshots as a tab separated text file, replacing the file atomically. Calls are
+     * serialized, since they share the temporary file
+     */
+    public static void dump(Path path, List<ProcedureMetrics.Snapshot> snapshots)
+            throws IOException {
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        out.printf(
+                "# %s%n",
+                new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date()));
+        out.println(
+                "# invokes\terrors\ttotal_us\tp50_us\tp99_us\tmax_us"
+                        + "\tcallbacks\trows\tbytes_in\tbytes_out\tsignature");
+        for (ProcedureMetrics.Snapshot s : snapshots) {
+            out.printf(
+                    "%d\t%d\t%d\t%d\t%d\t%d\t%d\t%d\t%d\t%d\t%s%n",
+                    s.invokes,
+                    s.errors,
+                    s.totalMicros,
+                    s.p50Micros,
+                    s.p99Micros,
+                    s.maxMicros,
+                    s.callbacks,
+                    s.rowsFetched,
+                    s.bytesIn,
+                    s.bytesOut,
+                    s.signature);
+        }
+        out.flush();
+
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        synchronized (dumpLock) {
+            Files.write(tmp, bytes);
+            Files.move(
+                    tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /** wakes up the dumper thread, if running, to dump the metrics without waiting */
+    public static void requestDump() {
+        synchronized (dumpLock) {
+            dumpRequested = true;
+            dumpLock.notifyAll();
+        }
+    }
+
+    /**
+     * starts a daemon thread dumping the metrics into the given file whenever they change, or when
+     * requested by requestDump()
+     */
+    public static synchronized void startDumper(Path path) {
+        if (dumper != null) {
+            return;
+        }
+
+        dumper =
+                new Thread(
+                        () -> {
+                            long lastInvokes = -1;
+                            while (!Thread.currentThread().isInterrupted()) {
+                                boolean requested;
+                                try {
+                                    requested = awaitDumpRequest();
+                                } catch (InterruptedException e) {
+                                    break;
+                                }
+
+                                List<ProcedureMetrics.Snapshot> snapshots = snapshot();
+                                long invokes = 0;
+                                for (ProcedureMetrics.Snapshot s : snapshots) {
+                                    invokes += s.invokes;
+                                }
+                                if (!requested && invokes == lastInvokes) {
+                                    continue;
+                                }
+
+                                try {
+                                    dump(path, snapshots);
+                                    lastInvokes = invokes;
+                                } catch (IOException e) {
+                                    Server.log(e);
+                                }
+                            }
+                        },
+                        "PL server metrics dumper");
+        dumper.setDaemon(true);
+        dumper.setPriority(Thread.MIN_PRIORITY);
+        dumper.start();
+    }
+
+    public static synchronized void stopDumper() {
+        if (dumper != null) {
+            dumper.interrupt();
+            dumper = null;
+        }
+    }
+
+    // waits for DUMP_INTERVAL_MILLIS or a dump request, and returns whether it was requested
+    private static boolean awaitDumpRequest() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + DUMP_INTERVAL_MILLIS;
+        synchronized (dumpLock) {
+            while (!dumpRequested) {
+                long timeout = deadline - System.currentTimeMillis();
+                if (timeout <= 0) {
+                    break;
+                }
+                dumpLock.wait(timeout);
+            }
+            boolean requested = dumpRequested;
+            dumpRequested = false;
+            return requested;
+        }
+    }
+
+    // for tests
+    static void clear() {
+        procedures.clear();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ *
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Execution metrics of a stored procedure, accumulated over all of its invocations */
+public final class ProcedureMetrics {
+
+    private final String signature;
+
+    private final LongAdder invokes = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAdder callbacks = new LongAdder();
+    private final LongAdder rowsFetched = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    ProcedureMetrics(String signature) {
+        this.signature = signature;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * records an invocation. callbacks, rows and bytes are the counts observed on the
+     * connection while the invocation was in progress
+     */
+    public void record(
+            long elapsedNanos,
+            boolean failed,
+            long callbackCount,
+            long rowCount,
+            long inBytes,
+            long outBytes) {
+        long micros = elapsedNanos / 1000;
+
+        invokes.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalMicros.add(micros);
+        callbacks.add(callbackCount);
+        rowsFetched.add(rowCount);
+        bytesIn.add(inBytes);
+        bytesOut.add(outBytes);
+        latency.record(micros);
+    }
+
+    public Snapshot snapshot() {
+        long[] buckets = latency.snapshot();
+        return new Snapshot(
+                signature,
+                invokes.sum(),
+                errors.sum(),
+                totalMicros.sum(),
+                LatencyHistogram.percentile(buckets, 50),
+                LatencyHistogram.percentile(buckets, 99),
+                latency.getMax(),
+                callbacks.sum(),
+                rowsFetched.sum(),
+                bytesIn.sum(),
+                bytesOut.sum());
+    }
+
+    /**
+     * A point-in-time copy of the metrics. The fields are read one by one, so a snapshot taken
+     * during an invocation may be off by that invocation
+     */
+    public static final class Snapshot {
+        public final String signature;
+        public final long invokes;
+        public final long errors;
+        public final long totalMicros;
+        public final long p50Micros;
+        public final long p99Micros;
+        public final long maxMicros;
+        public final long callbacks;
+        public final long rowsFetched;
+        public final long bytesIn;
+        public final long bytesOut;
+
+        Snapshot(
+                String signature,
+                long invokes,
+                long errors,
+                long totalMicros,
+                long p50Micros,
+                long p99Micros,
+                long maxMicros,
+                long callbacks,
+                long rowsFetched,
+                long bytesIn,
+                long bytesOut) {
+            this.signature = signature;
+            this.invokes = invokes;
+            this.errors = errors;
+            this.totalMicros = totalMicros;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+            this.callbacks = callbacks;
+            this.rowsFetched = rowsFetched;
+            this.bytesIn = bytesIn;
+            this.bytesOut = bytesOut;
+        }
+    }
+}
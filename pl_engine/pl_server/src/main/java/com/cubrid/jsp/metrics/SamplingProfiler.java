@@ -0,0 +1,356 @@
+/*
+ *
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.metrics;
+
+import com.cubrid.jsp.ExecuteThread;
+import com.cubrid.jsp.Server;
+import com.cubrid.jsp.StoredProcedure;
+import com.cubrid.plcsql.predefined.sp.SpLib;
+import com.cubrid.plcsql.predefined.sp.SpLib.CodeRangeMarkers;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A sampling profiler of stored procedure invocations. While it runs, a sampler thread takes the
+ * stack of every ExecuteThread invoking a procedure at a fixed interval, and counts the samples
+ * by a collapsed stack: the procedure signature, the frames of the procedure's class, and a leaf
+ * telling whether the thread was waiting for a callback (a round trip to the server) or running.
+ * The frames of a PL/CSQL procedure are labeled with the PL/CSQL line they were executing, found
+ * by the code range markers of the generated class; the frames of a Java SP keep their Java line.
+ * The result is in the collapsed stack format of flamegraph.pl ("frame;frame;leaf count").
+ */
+public final class SamplingProfiler {
+
+    // commands of the UTIL_PROFILE request
+    public static final int CMD_START = 0;
+    public static final int CMD_STOP = 1;
+    public static final int CMD_DUMP = 2;
+    public static final int CMD_CLEAR = 3;
+
+    public static final int DEFAULT_INTERVAL_MILLIS = 10;
+
+    static final int MAX_STACKS = 10000;
+    static final String OTHER_STACK = "[other stacks]";
+
+    private static final Set<ExecuteThread> threads = ConcurrentHashMap.newKeySet();
+
+    // collapsed stack -> sample count
+    private static final Map<String, long[]> samples = new HashMap<>();
+
+    // used only by the sampler thread
+    private static final Map<Class<?>, CodeRangeMarkers> markersCache = new WeakHashMap<>();
+
+    private static Thread sampler = null;
+
+    // guards pendingDumpPath, pendingDump and dumper (see requestDump())
+    private static final Object dumpLock = new Object();
+    private static Path pendingDumpPath = null;
+    private static List<String> pendingDump = null;
+    private static Thread dumper = null;
+
+    private SamplingProfiler() {}
+
+    /** called by an ExecuteThread when it starts running */
+    public static void register(ExecuteThread thread) {
+        threads.add(thread);
+    }
+
+    /** called by an ExecuteThread when it exits */
+    public static void deregister(ExecuteThread thread) {
+        threads.remove(thread);
+    }
+
+    public static synchronized boolean isRunning() {
+        return sampler != null;
+    }
+
+    public static synchronized void start(int intervalMillis) {
+        if (sampler != null) {
+            return;
+        }
+
+        final long interval = (intervalMillis > 0) ? intervalMillis : DEFAULT_INTERVAL_MILLIS;
+        sampler =
+                new Thread(
+                        () -> {
+                            while (!Thread.currentThread().isInterrupted()) {
+                                try {
+                                    Thread.sleep(interval);
+                                } catch (InterruptedException e) {
+                                    break;
+                                }
+                                sampleAll();
+                            }
+                        },
+                        "PL server sampling profiler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    public static synchronized void stop() {
+        if (sampler != null) {
+            sampler.interrupt();
+            sampler = null;
+        }
+    }
+
+    /** returns the collapsed stacks with their sample counts, the most sampled first */
+    public static List<String> getCollapsedStacks() {
+        List<Map.Entry<String, long[]>> entries;
+        synchronized (samples) {
+            entries = new ArrayList<>(samples.size());
+            for (Map.Entry<String, long[]> e : samples.entrySet()) {
+                entries.add(new AbstractMap.SimpleEntry<>(e.getKey(), e.getValue().clone()));
+            }
+        }
+        entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+
+        List<String> lines = new ArrayList<>(entries.size());
+        for (Map.Entry<String, long[]> e : entries) {
+            lines.add(e.getKey() + " " + e.getValue()[0]);
+        }
+        return lines;
+    }
+
+    public static void clear() {
+        synchronized (samples) {
+            samples.clear();
+        }
+    }
+
+    /**
+     * writes the collapsed stacks into the given file in a daemon thread, so that the thread
+     * answering a UTIL_PROFILE request does no file I/O. a dump not written yet is replaced by the
+     * new one
+     */
+    public static void requestDump(Path path, List<String> collapsedStacks) {
+        synchronized (dumpLock) {
+            pendingDumpPath = path;
+            pendingDump = collapsedStacks;
+            if (dumper == null) {
+                dumper = new Thread(SamplingProfiler::runDumper, "PL server profile dumper");
+                dumper.setDaemon(true);
+                dumper.setPriority(Thread.MIN_PRIORITY);
+                dumper.start();
+            } else {
+                dumpLock.notifyAll();
+            }
+        }
+    }
+
+    /** writes the collapsed stacks into the given file, replacing it atomically */
+    public static void dump(Path path, List<String> collapsedStacks) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(tmp, collapsedStacks, StandardCharsets.UTF_8);
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ------------------------------------------------------------------
+    // Private
+    // ------------------------------------------------------------------
+
+    private static void runDumper() {
+        while (true) {
+            Path path;
+            List<String> stacks;
+            synchronized (dumpLock) {
+                while (pendingDump == null) {
+                    try {
+                        dumpLock.wait();
+                    } catch (InterruptedException e) {
+                        dumper = null;
+                        return;
+                    }
+                }
+                path = pendingDumpPath;
+                stacks = pendingDump;
+                pendingDump = null;
+            }
+
+            try {
+                dump(path, stacks);
+            } catch (IOException e) {
+                Server.log(e);
+            }
+        }
+    }
+
+    private static void sampleAll() {
+        for (ExecuteThread t : threads) {
+            if (!t.isAlive()) {
+                threads.remove(t);
+                continue;
+            }
+
+            StoredProcedure procedure = t.getRunningProcedure();
+            if (procedure == null) {
+                continue;
+            }
+
+            StackTraceElement[] stack = t.getStackTrace();
+            if (procedure != t.getRunningProcedure()) {
+                continue; // the invocation has finished while taking the stack
+            }
+
+            try {
+                Class<?> c = procedure.getTargetClass();
+                String stackKey =
+                        collapse(
+                                procedure.getSignature(),
+                                c.getSimpleName() + ".java",
+                                procedure.isPlcsql() ? getMarkers(c) : null,
+                                stack);
+                addSample(stackKey);
+            } catch (Throwable e) {
+                Server.log(e);
+            }
+        }
+    }
+
+    static void addSample(String stackKey) {
+        synchronized (samples) {
+            long[] count = samples.get(stackKey);
+            if (count == null) {
+                if (samples.size() >= MAX_STACKS) {
+                    stackKey = OTHER_STACK;
+                    count = samples.get(stackKey);
+                }
+                if (count == null) {
+                    count = new long[1];
+                    samples.put(stackKey, count);
+                }
+            }
+            count[0]++;
+        }
+    }
+
+    /**
+     * builds the collapsed stack of a sample. fileName is the source file name of the procedure's
+     * class, and crms are its code range markers (null for a Java SP)
+     */
+    static String collapse(
+            String signature, String fileName, CodeRangeMarkers crms, StackTraceElement[] stack) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append(label(signature));
+
+        // from the outermost frame to the innermost frame of the procedure's class
+        int innermost = -1;
+        for (int i = stack.length - 1; i >= 0; i--) {
+            StackTraceElement e = stack[i];
+            if (!fileName.equals(e.getFileName())) {
+                continue;
+            }
+
+            int line = e.getLineNumber();
+            if (crms != null && line > 0) {
+                line = SpLib.getPlcLineColumn(crms, line)[0];
+            }
+            sb.append(';').append(label(e.getMethodName())).append(':');
+            if (line > 0) {
+                sb.append(line);
+            } else {
+                sb.append('?');
+            }
+            innermost = i;
+        }
+
+        if (innermost < 0) {
+            return sb.append(";[other]").toString();
+        }
+
+        // the leaf: waiting for a callback, or running
+        for (int i = 0; i < innermost; i++) {
+            StackTraceElement e = stack[i];
+            if ("receiveBuffer".equals(e.getMethodName())
+                    && ExecuteThread.class.getName().equals(e.getClassName())) {
+                // name the callback by the first caller other than the request helpers
+                for (int j = i + 1; j < innermost; j++) {
+                    String m = stack[j].getMethodName();
+                    if (!"request".equals(m) && !m.startsWith("receive")) {
+                        return sb.append(";[callback] ").append(label(m)).toString();
+                    }
+                }
+                return sb.append(";[callback]").toString();
+            }
+        }
+
+        if (innermost == 0) {
+            return sb.append(";[cpu]").toString();
+        }
+
+        StackTraceElement top = stack[0];
+        String className = top.getClassName();
+        return sb.append(";[cpu] ")
+                .append(label(className.substring(className.lastIndexOf('.') + 1)))
+                .append('.')
+                .append(label(top.getMethodName()))
+                .toString();
+    }
+
+    private static CodeRangeMarkers getMarkers(Class<?> c) {
+        if (markersCache.containsKey(c)) {
+            return markersCache.get(c);
+        }
+
+        CodeRangeMarkers crms = null;
+        try {
+            Field f = c.getDeclaredField("codeRangeMarkers");
+            f.setAccessible(true);
+            Object value = f.get(null);
+            if (value instanceof CodeRangeMarkers) {
+                crms = (CodeRangeMarkers) value;
+            }
+        } catch (ReflectiveOperationException | SecurityException e) {
+            // not a generated class of the expected shape: keep the Java lines
+        }
+
+        markersCache.put(c, crms);
+        return crms;
+    }
+
+    // ';' separates the frames
+    private static String label(String s) {
+        return s.replace(';', ',');
+    }
+}
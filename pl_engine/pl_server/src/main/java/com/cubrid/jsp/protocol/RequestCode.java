@@ -20,6 +20,9 @@ public class RequestCode {
     public static final int REQUEST_CHANGE_AUTH_RIGHTS = 0xC8;
     public static final int REQUEST_CODE_ATTR = 0xC9;
 
+    public static final int UTIL_PROFILE = 0xDA;
+    public static final int UTIL_TRACE = 0xDB;
+    public static final int UTIL_MULTIPLEX = 0xDC;
     public static final int UTIL_BOOTSTRAP = 0xDD;
     public static final int UTIL_PING = 0xDE;
     public static final int UTIL_STATUS = 0xEE;
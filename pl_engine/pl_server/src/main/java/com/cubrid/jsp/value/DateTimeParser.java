@@ -31,9 +31,6 @@
 package com.cubrid.jsp.value;
 
 import com.cubrid.jsp.Server;
-import java.text.ParsePosition;
-import java.text.SimpleDateFormat;
-import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -41,13 +38,18 @@ import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
-import java.util.Arrays;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.GregorianCalendar;
-import java.util.List;
-import java.util.Locale;
 
+// Parser for the date/time literal formats of CUBRID.
+// The input is scanned in place with index ranges: no substrings, no SimpleDateFormat and no
+// exceptions on malformed input, and it can be called from any number of threads at once.
+// Accepted formats:
+//   date:     MM/dd/yyyy, yyyy-MM-dd, MM/dd, MM-dd (current year)
+//   time:     HH:mm[:ss[.SSS]], or hh:mm[:ss[.SSS]] AM|PM
+//   datetime: <date> [<time>], or <time> <date>
+//   zoned:    <datetime> [<offset>] where <offset> is what ZoneOffset.of() accepts
+// A field may be preceded by blanks (' ' or '\t') except the first one and AM/PM. The milliseconds
+// are only allowed for DATETIME, and are read as a number of milliseconds (.5 is 5 milliseconds).
+// A two digit year yy means 20yy if yy < 70, or 19yy otherwise.
 public class DateTimeParser {
 
     private static final ZoneOffset TIMEZONE_0 = ZoneOffset.of("Z");
@@ -85,8 +87,8 @@ public class DateTimeParser {
 
     public static class DateLiteral {
 
-        public static LocalDate parse(String s) {
-            LocalDate ret = parseDateFragment(s);
+        public static LocalDate parse(CharSequence s) {
+            LocalDate ret = parseDateFragment(s, 0, s.length());
 
             if (ret != null
                     && ret != nullDate
@@ -107,14 +109,15 @@ public class DateTimeParser {
 
     public static class TimeLiteral {
 
-        public static LocalTime parse(String s) {
-            return parseTimeFragment(s, false);
+        public static LocalTime parse(CharSequence s) {
+            long nanoOfDay = parseTimeFragment(s, 0, s.length(), false);
+            return (nanoOfDay < 0) ? null : LocalTime.ofNanoOfDay(nanoOfDay);
         }
     }
 
     public static class TimestampLiteral {
 
-        public static ZonedDateTime parse(String s) {
+        public static ZonedDateTime parse(CharSequence s) {
             return ZonedDateTimeLiteral.parse(
                     s, false); // same as TIMESTAMPLTZ with timezone omitted
         }
@@ -122,9 +125,9 @@ public class DateTimeParser {
 
     public static class DatetimeLiteral {
 
-        public static LocalDateTime parse(String s) {
+        public static LocalDateTime parse(CharSequence s) {
 
-            LocalDateTime ret = parseLocalDateAndTime(s, true);
+            LocalDateTime ret = parseLocalDateAndTime(s, 0, s.length(), true);
             if (ret != null
                     && ret != nullDatetime
                     && (ret.compareTo(minDatetimeLocal) < 0
@@ -137,7 +140,7 @@ public class DateTimeParser {
     }
 
     public static class ZonedDateTimeLiteral {
-        public static ZonedDateTime parse(String s, boolean forDatetime) {
+        public static ZonedDateTime parse(CharSequence s, boolean forDatetime) {
             return parseZonedDateAndTime(s, forDatetime);
         }
     }
@@ -147,27 +150,22 @@ public class DateTimeParser {
     // ---------------------------------------
 
     // returns a ZonedDateTime when a timezone offset is given, otherwise returns a LocalDateTime
-    public static ZonedDateTime parseZonedDateAndTime(String s, boolean forDatetime) {
+    public static ZonedDateTime parseZonedDateAndTime(CharSequence s, boolean forDatetime) {
 
         // get timezone offset
         LocalDateTime localPart;
         ZoneId zone;
-        int delim = s.lastIndexOf(" ");
-        if (delim < 0) {
+        int len = s.length();
+        int delim = lastIndexOf(s, 0, len, ' ');
+        int offsetSeconds =
+                (delim < 0) ? NOT_AN_OFFSET : parseZoneOffset(s, delim + 1, len);
+        if (offsetSeconds == NOT_AN_OFFSET) {
             // no timezone offset
-            localPart = parseLocalDateAndTime(s, forDatetime);
-            zone = Server.getConfig().getTimeZone();
+            localPart = parseLocalDateAndTime(s, 0, len, forDatetime);
+            zone = null;
         } else {
-            String dt = s.substring(0, delim);
-            String z = s.substring(delim + 1);
-            try {
-                localPart = parseLocalDateAndTime(dt, forDatetime);
-                zone = ZoneOffset.of(z);
-            } catch (DateTimeException e) {
-                // z turn out not to be a timezone offset. try timezone omitted string
-                localPart = parseLocalDateAndTime(s, forDatetime);
-                zone = Server.getConfig().getTimeZone();
-            }
+            localPart = parseLocalDateAndTime(s, 0, delim, forDatetime);
+            zone = ZoneOffset.ofTotalSeconds(offsetSeconds);
         }
 
         if (localPart == null) {
@@ -177,6 +175,10 @@ public class DateTimeParser {
             return nullDatetimeGMT;
         }
 
+        if (zone == null) {
+            zone = Server.getConfig().getTimeZone();
+        }
+
         ZonedDateTime ret = ZonedDateTime.of(localPart, zone);
         Instant instant = ret.toInstant();
         if (forDatetime) {
@@ -196,241 +198,441 @@ public class DateTimeParser {
         return ret;
     }
 
-    private static LocalDateTime parseLocalDateAndTime(String s, boolean millis) {
+    private static LocalDateTime parseLocalDateAndTime(
+            CharSequence s, int begin, int end, boolean millis) {
 
-        s = s.trim();
+        begin = trimBegin(s, begin, end);
+        end = trimEnd(s, begin, end);
 
-        String timeStr, dateStr;
-        int colonIdx = s.indexOf(":");
-        if (colonIdx == 1 || colonIdx == 2) {
+        int dateBegin, dateEnd, timeBegin, timeEnd;
+        int colonIdx = indexOf(s, begin, end, ':');
+        if (colonIdx == begin + 1 || colonIdx == begin + 2) {
             //  order: <time> <date>
-            int cut = s.lastIndexOf(" ");
+            int cut = lastIndexOf(s, begin, end, ' ');
             if (cut < 0) {
                 return null; // error
             } else {
-                timeStr = s.substring(0, cut);
-                dateStr = s.substring(cut + 1);
+                timeBegin = begin;
+                timeEnd = cut;
+                dateBegin = cut + 1;
+                dateEnd = end;
             }
         } else {
             // order: <date> <time>
-            int cut = s.indexOf(" ");
+            int cut = indexOf(s, begin, end, ' ');
             if (cut < 0) {
-                dateStr = s;
-                timeStr = null;
+                dateBegin = begin;
+                dateEnd = end;
+                timeBegin = timeEnd = -1;
             } else {
-                dateStr = s.substring(0, cut);
-                timeStr = s.substring(cut + 1);
+                dateBegin = begin;
+                dateEnd = cut;
+                timeBegin = cut + 1;
+                timeEnd = end;
             }
         }
 
-        LocalDate date = parseDateFragment(dateStr);
+        LocalDate date = parseDateFragment(s, dateBegin, dateEnd);
         if (date == null) {
             return null;
         }
 
-        LocalTime time;
-        if (timeStr == null) {
-            time = null;
+        long nanoOfDay;
+        if (timeBegin < 0) {
+            nanoOfDay = -1L;
         } else {
-            time = parseTimeFragment(timeStr, millis);
-            if (time == null) {
+            nanoOfDay = parseTimeFragment(s, timeBegin, timeEnd, millis);
+            if (nanoOfDay < 0) {
                 return null;
             }
         }
 
         if (date.equals(nullDate)) {
-            if (time == null || time.equals(LocalTime.MIN)) {
+            if (nanoOfDay <= 0) {
                 return nullDatetime;
             } else {
                 return null; // error
             }
         } else {
+            return LocalDateTime.of(
+                    date, (nanoOfDay < 0) ? LocalTime.MIDNIGHT : LocalTime.ofNanoOfDay(nanoOfDay));
+        }
+    }
+
+    private static int getCurrentYear() {
+        ZoneId timezone = Server.getConfig().getTimeZone();
+        return ZonedDateTime.now(timezone).getYear();
+    }
 
-            LocalDateTime ret;
+    // ------------------------------------------------------
+    // for parsing date fragment
+    // ------------------------------------------------------
 
-            if (time == null) {
-                ret = date.atTime(0, 0, 0, 0);
-            } else {
-                ret =
-                        date.atTime(
-                                time.getHour(), time.getMinute(), time.getSecond(), time.getNano());
+    private static LocalDate parseDateFragment(CharSequence s, int begin, int end) {
+
+        begin = trimBegin(s, begin, end);
+        end = trimEnd(s, begin, end);
+
+        char sep;
+        if (indexOf(s, begin, end, '/') >= 0) {
+            sep = '/'; // MM/dd/yyyy or MM/dd
+            if (indexOf(s, begin, end, '-') >= 0) {
+                return null; // even -0 is not accepted in this format
             }
+        } else if (indexOf(s, begin, end, '-') >= 0) {
+            sep = '-'; // yyyy-MM-dd or MM-dd
+        } else {
+            return null;
+        }
 
-            return ret;
+        long f0 = scanNumber(s, begin, end, false);
+        if (f0 == NO_NUMBER || nextIndex(f0) == end || s.charAt(nextIndex(f0)) != sep) {
+            return null;
+        }
+        long f1 = scanNumber(s, nextIndex(f0) + 1, end, true);
+        if (f1 == NO_NUMBER) {
+            return null;
+        }
+        long f2;
+        if (nextIndex(f1) == end) {
+            f2 = NO_NUMBER; // year omitted
+        } else {
+            if (s.charAt(nextIndex(f1)) != sep) {
+                return null;
+            }
+            f2 = scanNumber(s, nextIndex(f1) + 1, end, true);
+            if (f2 == NO_NUMBER || nextIndex(f2) != end) {
+                return null;
+            }
         }
-    }
 
-    private static final List<SimpleDateFormat> dateFormats =
-            Arrays.asList(new SimpleDateFormat("MM/dd/yyyy"), new SimpleDateFormat("yyyy-MM-dd"));
+        int year, month, day;
+        boolean twoDigitYear;
+        if (f2 == NO_NUMBER) {
+            month = numberValue(f0);
+            day = numberValue(f1);
+            year = getCurrentYear();
+            twoDigitYear = false;
+        } else if (sep == '/') {
+            month = numberValue(f0);
+            day = numberValue(f1);
+            year = numberValue(f2);
+            twoDigitYear = isTwoDigits(f2);
+        } else {
+            year = numberValue(f0);
+            month = numberValue(f1);
+            day = numberValue(f2);
+            twoDigitYear = isTwoDigits(f0);
+        }
 
-    static {
-        for (SimpleDateFormat f : dateFormats) {
-            f.setLenient(false);
-            assert f.getCalendar() instanceof GregorianCalendar;
+        if (year == 0 && month == 0 && day == 0) {
+            return nullDate; // 0000-00-00
         }
-    }
 
-    private static int getCurrentYear() {
-        ZoneId timezone = Server.getConfig().getTimeZone();
-        return ZonedDateTime.now(timezone).getYear();
-    }
+        if (year < 1 || month < 1 || month > 12 || day < 1) {
+            return null;
+        }
 
-    private static LocalDate parseDateFragment(String s) {
+        if (twoDigitYear) {
+            // year is given in two digits
+            year = (year < 70) ? year + 2000 : year + 1900;
+        }
+        if (year > MAX_YEAR || day > lengthOfMonth(year, month)) {
+            return null;
+        }
 
-        s = s.trim();
+        return LocalDate.of(year, month, day);
+    }
 
-        if (s.split("/").length == 2) {
-            // s can be of the form MM/dd (year omitted)
-            s = s + "/" + getCurrentYear();
-        } else if (s.split("-").length == 2) {
-            // s can be of the form MM-dd (year omitted)
-            s = getCurrentYear() + "-" + s;
-        }
+    // ------------------------------------------------------
+    // for parsing time fragment
+    // ------------------------------------------------------
 
-        int i = 0;
-        for (SimpleDateFormat f : dateFormats) {
+    // returns the nano of day, or -1 if s is not a valid time
+    private static long parseTimeFragment(CharSequence s, int begin, int end, boolean millis) {
 
-            ParsePosition pos = new ParsePosition(0);
+        begin = trimBegin(s, begin, end);
+        end = trimEnd(s, begin, end);
 
-            Calendar calendar = f.getCalendar();
-            calendar.clear();
+        boolean twelveHour = indexOf(s, begin, end, ' ') >= 0;
+        int fieldsEnd = end;
+        boolean pm = false;
+        if (twelveHour) {
+            // <fields> AM|PM with exactly one space in between
+            if (end - begin < 3 || s.charAt(end - 3) != ' ') {
+                return -1L;
+            }
 
-            Date d = f.parse(s, pos);
+            char c0 = s.charAt(end - 2);
+            char c1 = s.charAt(end - 1);
+            if (c1 != 'M' && c1 != 'm') {
+                return -1L;
+            }
+            if (c0 == 'P' || c0 == 'p') {
+                pm = true;
+            } else if (c0 != 'A' && c0 != 'a') {
+                return -1L;
+            }
 
-            if (d != null && pos.getIndex() == s.length()) {
+            fieldsEnd = end - 3;
+        }
 
-                int year = calendar.get(Calendar.YEAR);
-                int month = calendar.get(Calendar.MONTH) + 1;
-                int date = calendar.get(Calendar.DAY_OF_MONTH);
+        // hour, minute and optionally second and millisecond
+        long f = scanNumber(s, begin, fieldsEnd, false);
+        if (f == NO_NUMBER || nextIndex(f) == fieldsEnd || s.charAt(nextIndex(f)) != ':') {
+            return -1L;
+        }
+        int hour = numberValue(f);
 
-                if (i == 0) {
-                    String[] split = s.split("/");
-                    assert split.length == 3;
-                    if (split[2].trim().length() == 2) {
-                        // year is given in two digits
-                        year = (year < 70) ? year + 2000 : year + 1900;
-                    }
-                } else {
-                    assert i == 1;
+        f = scanNumber(s, nextIndex(f) + 1, fieldsEnd, true);
+        if (f == NO_NUMBER) {
+            return -1L;
+        }
+        int minute = numberValue(f);
 
-                    String[] split = s.split("-");
-                    assert split.length == 3;
-                    if (split[0].trim().length() == 2) {
-                        // year is given in two digits
-                        year = (year < 70) ? year + 2000 : year + 1900;
-                    }
+        int second = 0;
+        int milli = 0;
+        if (nextIndex(f) < fieldsEnd) {
+            if (s.charAt(nextIndex(f)) != ':') {
+                return -1L;
+            }
+            f = scanNumber(s, nextIndex(f) + 1, fieldsEnd, true);
+            if (f == NO_NUMBER) {
+                return -1L;
+            }
+            second = numberValue(f);
+
+            if (nextIndex(f) < fieldsEnd) {
+                if (!millis || s.charAt(nextIndex(f)) != '.') {
+                    return -1L;
                 }
+                f = scanNumber(s, nextIndex(f) + 1, fieldsEnd, true);
+                if (f == NO_NUMBER || nextIndex(f) != fieldsEnd) {
+                    return -1L;
+                }
+                milli = numberValue(f);
+            }
+        }
 
-                return LocalDate.of(year, month, date);
-            } else if (pos.getErrorIndex() == s.length()) {
-                // check if it is 0000-00-00
-
-                if (calendar.isSet(Calendar.YEAR)
-                        && calendar.isSet(Calendar.MONTH)
-                        && calendar.isSet(Calendar.DAY_OF_MONTH)) {
-
-                    f.setLenient(true);
-                    int era = calendar.get(Calendar.ERA);
-                    int year = calendar.get(Calendar.YEAR);
-                    int month = calendar.get(Calendar.MONTH);
-                    int day = calendar.get(Calendar.DAY_OF_MONTH);
-                    f.setLenient(false);
-
-                    // 0000-00-00 == BC 0002-11-30
-                    if (era == GregorianCalendar.BC
-                            && year == 2
-                            && month == Calendar.NOVEMBER
-                            && day == 30) {
-                        return nullDate;
-                    }
+        if (twelveHour) {
+            if (s.charAt(begin) == '0' && begin + 1 < fieldsEnd && s.charAt(begin + 1) == '0') {
+                // 00 ~ 11
+                if (hour > 11) {
+                    return -1L;
+                }
+            } else {
+                // 01 ~ 12
+                if (hour < 1 || hour > 12) {
+                    return -1L;
                 }
+                if (hour == 12) {
+                    hour = 0;
+                }
+            }
+            if (pm) {
+                hour += 12;
+            }
+        } else {
+            if (hour > 23) {
+                return -1L;
             }
+        }
 
-            i++;
+        if (minute > 59 || second > 59 || milli > 999) {
+            return -1L;
         }
 
-        return null;
+        return ((hour * 60L + minute) * 60L + second) * 1000000000L + milli * 1000000L;
     }
 
     // ------------------------------------------------------
-    // for parsing time fragment
+    // for parsing timezone offset
     // ------------------------------------------------------
 
-    // hour 0 ~ 11
-    private static final List<SimpleDateFormat> timeFormats11 =
-            Arrays.asList(
-                    new SimpleDateFormat("KK:mm aa", Locale.US),
-                    new SimpleDateFormat("KK:mm:ss aa", Locale.US),
-                    new SimpleDateFormat("KK:mm:ss.SSS aa", Locale.US) // must go at last
-                    );
-    // hour 1 ~ 12
-    private static final List<SimpleDateFormat> timeFormats12 =
-            Arrays.asList(
-                    new SimpleDateFormat("hh:mm aa", Locale.US),
-                    new SimpleDateFormat("hh:mm:ss aa", Locale.US),
-                    new SimpleDateFormat("hh:mm:ss.SSS aa", Locale.US) // must go at last
-                    );
-    // hour 0 ~ 23
-    private static final List<SimpleDateFormat> timeFormats23 =
-            Arrays.asList(
-                    new SimpleDateFormat("HH:mm"),
-                    new SimpleDateFormat("HH:mm:ss"),
-                    new SimpleDateFormat("HH:mm:ss.SSS") // must go at last
-                    );
-
-    static {
-        for (SimpleDateFormat f : timeFormats11) {
-            f.setLenient(false);
-            assert f.getCalendar() instanceof GregorianCalendar;
-        }
-        for (SimpleDateFormat f : timeFormats12) {
-            f.setLenient(false);
-            assert f.getCalendar() instanceof GregorianCalendar;
-        }
-        for (SimpleDateFormat f : timeFormats23) {
-            f.setLenient(false);
-            assert f.getCalendar() instanceof GregorianCalendar;
+    private static final int NOT_AN_OFFSET = Integer.MIN_VALUE;
+
+    // returns the offset in seconds if s[begin, end) is accepted by ZoneOffset.of(), or
+    // NOT_AN_OFFSET otherwise. accepted forms are Z, +h, +hh, +hh:mm, +hhmm, +hh:mm:ss and +hhmmss
+    private static int parseZoneOffset(CharSequence s, int begin, int end) {
+        int len = end - begin;
+        if (len == 1 && s.charAt(begin) == 'Z') {
+            return 0;
         }
+
+        if (len < 2) {
+            return NOT_AN_OFFSET;
+        }
+        char sign = s.charAt(begin);
+        if (sign != '+' && sign != '-') {
+            return NOT_AN_OFFSET;
+        }
+
+        int hours, minutes, seconds;
+        switch (len) {
+            case 2:
+                hours = digitValue(s.charAt(begin + 1));
+                minutes = seconds = 0;
+                break;
+            case 3:
+                hours = twoDigits(s, begin + 1, false);
+                minutes = seconds = 0;
+                break;
+            case 5:
+                hours = twoDigits(s, begin + 1, false);
+                minutes = twoDigits(s, begin + 3, false);
+                seconds = 0;
+                break;
+            case 6:
+                hours = twoDigits(s, begin + 1, false);
+                minutes = twoDigits(s, begin + 4, true);
+                seconds = 0;
+                break;
+            case 7:
+                hours = twoDigits(s, begin + 1, false);
+                minutes = twoDigits(s, begin + 3, false);
+                seconds = twoDigits(s, begin + 5, false);
+                break;
+            case 9:
+                hours = twoDigits(s, begin + 1, false);
+                minutes = twoDigits(s, begin + 4, true);
+                seconds = twoDigits(s, begin + 7, true);
+                break;
+            default:
+                return NOT_AN_OFFSET;
+        }
+
+        if (hours < 0 || minutes < 0 || seconds < 0) {
+            return NOT_AN_OFFSET;
+        }
+        if (hours > 18 || minutes > 59 || seconds > 59) {
+            return NOT_AN_OFFSET;
+        }
+        if (hours == 18 && (minutes > 0 || seconds > 0)) {
+            return NOT_AN_OFFSET;
+        }
+
+        int total = hours * 3600 + minutes * 60 + seconds;
+        return (sign == '-') ? -total : total;
     }
 
-    private static LocalTime parseTimeFragment(String s, boolean millis) {
+    private static int twoDigits(CharSequence s, int at, boolean precededByColon) {
+        if (precededByColon && s.charAt(at - 1) != ':') {
+            return -1;
+        }
+        int d0 = digitValue(s.charAt(at));
+        int d1 = digitValue(s.charAt(at + 1));
+        return (d0 < 0 || d1 < 0) ? -1 : d0 * 10 + d1;
+    }
 
-        s = s.trim();
-        List<SimpleDateFormat> formats;
-        if (s.indexOf(" ") >= 0) {
-            if (s.startsWith("00")) {
-                formats = timeFormats11;
-            } else {
-                formats = timeFormats12;
+    // ------------------------------------------------------
+    // scanning helpers
+    // ------------------------------------------------------
+
+    private static final int MAX_YEAR = 999999999;
+    private static final int MAX_NUMBER = 999999999;
+
+    // a scanned number is packed in a long: the value in the upper 32 bits, and the index next to
+    // the number in the lower 31 bits. bit 31 tells whether the number has exactly two digits
+    private static final long NO_NUMBER = -1L;
+    private static final long TWO_DIGITS = 1L << 31;
+
+    // scans a number in s[i, end), optionally preceded by blanks
+    private static long scanNumber(CharSequence s, int i, int end, boolean skipBlanks) {
+
+        if (skipBlanks) {
+            while (i < end && (s.charAt(i) == ' ' || s.charAt(i) == '\t')) {
+                i++;
             }
-        } else {
-            formats = timeFormats23;
         }
 
-        int j = 0;
-        for (SimpleDateFormat f : formats) {
+        // a minus sign is allowed only if the number is zero, just as it was with SimpleDateFormat
+        boolean minus = (i < end && s.charAt(i) == '-');
+        if (minus) {
+            i++;
+        }
+
+        int start = i;
+        int value = 0;
+        while (i < end) {
+            int d = digitValue(s.charAt(i));
+            if (d < 0) {
+                break;
+            }
+            if (value > (MAX_NUMBER - d) / 10) {
+                return NO_NUMBER; // too large
+            }
+            value = value * 10 + d;
+            i++;
+        }
+
+        if (i == start || (minus && value != 0)) {
+            return NO_NUMBER;
+        }
 
-            ParsePosition pos = new ParsePosition(0);
+        return ((long) value << 32) | ((i - start == 2) ? TWO_DIGITS : 0L) | i;
+    }
 
-            Calendar calendar = f.getCalendar();
-            calendar.clear();
+    private static int numberValue(long number) {
+        return (int) (number >>> 32);
+    }
 
-            Date d = f.parse(s, pos);
+    private static int nextIndex(long number) {
+        return (int) (number & Integer.MAX_VALUE);
+    }
 
-            if (d != null && pos.getIndex() == s.length()) {
-                return LocalTime.of(
-                        calendar.get(Calendar.HOUR_OF_DAY),
-                        calendar.get(Calendar.MINUTE),
-                        calendar.get(Calendar.SECOND),
-                        calendar.get(Calendar.MILLISECOND) * 1000000);
+    private static boolean isTwoDigits(long number) {
+        return (number & TWO_DIGITS) != 0L;
+    }
+
+    private static int digitValue(char c) {
+        return (c >= '0' && c <= '9') ? c - '0' : -1;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static int indexOf(CharSequence s, int begin, int end, char c) {
+        for (int i = begin; i < end; i++) {
+            if (s.charAt(i) == c) {
+                return i;
             }
+        }
+        return -1;
+    }
 
-            j++;
-            if (j == 2 && !millis) {
-                break;
+    private static int lastIndexOf(CharSequence s, int begin, int end, char c) {
+        for (int i = end - 1; i >= begin; i--) {
+            if (s.charAt(i) == c) {
+                return i;
             }
         }
+        return -1;
+    }
 
-        return null;
+    // same as String.trim()
+    private static int trimBegin(CharSequence s, int begin, int end) {
+        while (begin < end && s.charAt(begin) <= ' ') {
+            begin++;
+        }
+        return begin;
+    }
+
+    private static int trimEnd(CharSequence s, int begin, int end) {
+        while (end > begin && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
     }
 }
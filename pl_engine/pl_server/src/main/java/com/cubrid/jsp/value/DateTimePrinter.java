@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.value;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+
+// Formatter for the date/time string formats used in PL/CSQL and in the results sent to the server.
+// It replaces SimpleDateFormat, which is not thread-safe and allocates a Calendar and buffers on
+// each use, and gives the same strings (Locale.US, default time zone for java.sql values).
+// The fields of the java.sql values are taken by toLocalDate(), toLocalTime() and
+// toLocalDateTime(), which give the fields SimpleDateFormat prints without the deprecated getters.
+public class DateTimePrinter {
+
+    // MM/dd/yyyy
+    public static String printDate(Date d) {
+        LocalDate ld = d.toLocalDate();
+        char[] buf = new char[MAX_LENGTH];
+        int pos = putDate(buf, 0, ld.getYear(), ld.getMonthValue(), ld.getDayOfMonth());
+        return new String(buf, 0, pos);
+    }
+
+    // hh:mm:ss a
+    public static String printTime(Time t) {
+        LocalTime lt = t.toLocalTime();
+        char[] buf = new char[MAX_LENGTH];
+        int pos = putTime(buf, 0, lt.getHour(), lt.getMinute(), lt.getSecond(), -1);
+        return new String(buf, 0, pos);
+    }
+
+    // hh:mm:ss.SSS a MM/dd/yyyy
+    public static String printDatetime(Timestamp ts) {
+        LocalDateTime ldt = ts.toLocalDateTime();
+        char[] buf = new char[MAX_LENGTH];
+        int pos =
+                putTime(
+                        buf,
+                        0,
+                        ldt.getHour(),
+                        ldt.getMinute(),
+                        ldt.getSecond(),
+                        ldt.getNano() / 1000000);
+        buf[pos++] = ' ';
+        pos = putDate(buf, pos, ldt.getYear(), ldt.getMonthValue(), ldt.getDayOfMonth());
+        return new String(buf, 0, pos);
+    }
+
+    // hh:mm:ss a MM/dd/yyyy
+    public static String printTimestamp(ZonedDateTime zdt) {
+        char[] buf = new char[MAX_LENGTH];
+        int pos = putTime(buf, 0, zdt.getHour(), zdt.getMinute(), zdt.getSecond(), -1);
+        buf[pos++] = ' ';
+        pos = putDate(buf, pos, zdt.getYear(), zdt.getMonthValue(), zdt.getDayOfMonth());
+        return new String(buf, 0, pos);
+    }
+
+    // yyyy-MM-dd HH:mm:ss in ASCII into buf, which must have room for MAX_LENGTH bytes.
+    // returns the number of bytes written
+    public static int printTimestampAscii(Timestamp ts, byte[] buf) {
+        LocalDateTime ldt = ts.toLocalDateTime();
+        int pos = putYear(buf, 0, ldt.getYear());
+        buf[pos++] = '-';
+        pos = put2(buf, pos, ldt.getMonthValue());
+        buf[pos++] = '-';
+        pos = put2(buf, pos, ldt.getDayOfMonth());
+        buf[pos++] = ' ';
+        pos = put2(buf, pos, ldt.getHour());
+        buf[pos++] = ':';
+        pos = put2(buf, pos, ldt.getMinute());
+        buf[pos++] = ':';
+        pos = put2(buf, pos, ldt.getSecond());
+        return pos;
+    }
+
+    public static final int MAX_LENGTH = 40;
+
+    // ---------------------------------------
+    // Private
+    // ---------------------------------------
+
+    // hh:mm:ss[.SSS] a. no milliseconds if milli < 0
+    private static int putTime(char[] buf, int pos, int hour, int minute, int second, int milli) {
+        int hour12 = hour % 12;
+        pos = put2(buf, pos, hour12 == 0 ? 12 : hour12);
+        buf[pos++] = ':';
+        pos = put2(buf, pos, minute);
+        buf[pos++] = ':';
+        pos = put2(buf, pos, second);
+        if (milli >= 0) {
+            buf[pos++] = '.';
+            buf[pos++] = (char) ('0' + milli / 100);
+            buf[pos++] = (char) ('0' + milli / 10 % 10);
+            buf[pos++] = (char) ('0' + milli % 10);
+        }
+        buf[pos++] = ' ';
+        buf[pos++] = (hour < 12) ? 'A' : 'P';
+        buf[pos++] = 'M';
+        return pos;
+    }
+
+    // MM/dd/yyyy
+    private static int putDate(char[] buf, int pos, int year, int month, int day) {
+        pos = put2(buf, pos, month);
+        buf[pos++] = '/';
+        pos = put2(buf, pos, day);
+        buf[pos++] = '/';
+
+        return putYear(buf, pos, year);
+    }
+
+    // year of era as SimpleDateFormat prints it: 1 BC is year 0 of the proleptic calendar
+    private static int eraYear(int year) {
+        return (year <= 0) ? 1 - year : year;
+    }
+
+    private static int put2(char[] buf, int pos, int n) {
+        buf[pos++] = (char) ('0' + n / 10);
+        buf[pos++] = (char) ('0' + n % 10);
+        return pos;
+    }
+
+    private static int put2(byte[] buf, int pos, int n) {
+        buf[pos++] = (byte) ('0' + n / 10);
+        buf[pos++] = (byte) ('0' + n % 10);
+        return pos;
+    }
+
+    // yyyy: at least four digits
+    private static int putYear(char[] buf, int pos, int year) {
+        year = eraYear(year);
+        int digits = Math.max(4, countDigits(year));
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + year % 10);
+            year /= 10;
+        }
+        return pos + digits;
+    }
+
+    private static int putYear(byte[] buf, int pos, int year) {
+        year = eraYear(year);
+        int digits = Math.max(4, countDigits(year));
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buf[i] = (byte) ('0' + year % 10);
+            year /= 10;
+        }
+        return pos + digits;
+    }
+
+    private static int countDigits(int n) {
+        int digits = 1;
+        for (n /= 10; n > 0; n /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -82,7 +82,7 @@ public class FloatValue extends Value {
 
     @Override
     public double toDouble() throws TypeMismatchException {
-        return SpLib.convFloatToDouble(value);
+        return value;
     }
 
     @Override
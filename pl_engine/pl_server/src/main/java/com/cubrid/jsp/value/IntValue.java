@@ -69,17 +69,17 @@ public class IntValue extends Value {
 
     @Override
     public long toLong() throws TypeMismatchException {
-        return SpLib.convIntToBigint(value);
+        return value;
     }
 
     @Override
     public float toFloat() throws TypeMismatchException {
-        return SpLib.convIntToFloat(value);
+        return value;
     }
 
     @Override
     public double toDouble() throws TypeMismatchException {
-        return SpLib.convIntToDouble(value);
+        return value;
     }
 
     @Override
@@ -64,22 +64,22 @@ public class ShortValue extends Value {
 
     @Override
     public int toInt() throws TypeMismatchException {
-        return SpLib.convShortToInt(value);
+        return value;
     }
 
     @Override
     public long toLong() throws TypeMismatchException {
-        return SpLib.convShortToBigint(value);
+        return value;
     }
 
     @Override
     public float toFloat() throws TypeMismatchException {
-        return SpLib.convShortToFloat(value);
+        return value;
     }
 
     @Override
     public double toDouble() throws TypeMismatchException {
-        return SpLib.convShortToDouble(value);
+        return value;
     }
 
     @Override
@@ -41,6 +41,7 @@ import java.math.BigDecimal;
 import java.sql.Date;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.util.Arrays;
 
 public class StringValue extends Value {
 
@@ -48,11 +49,21 @@ public class StringValue extends Value {
         return TYPE_NAME_STRING;
     }
 
+    // the value is the bytes of primitiveValue from offset to offset + length
     private byte[] primitiveValue;
+    private int offset;
+    private int length;
 
     public StringValue(byte[] value, int codeset) {
+        this(value, 0, value.length, codeset);
+    }
+
+    // refers to a range of the array (e.g. of a received message) without copying it
+    public StringValue(byte[] array, int offset, int length, int codeset) {
         super();
-        this.primitiveValue = value;
+        this.primitiveValue = array;
+        this.offset = offset;
+        this.length = length;
         this.codeset = codeset;
         this.resolved = null;
         this.dbType = DBType.DB_STRING;
@@ -73,6 +84,10 @@ public class StringValue extends Value {
 
     @Override
     public byte[] toByteArray() throws TypeMismatchException {
+        if (offset != 0 || length != primitiveValue.length) {
+            primitiveValue = Arrays.copyOfRange(primitiveValue, offset, offset + length);
+            offset = 0;
+        }
         return primitiveValue;
     }
 
@@ -165,7 +180,12 @@ public class StringValue extends Value {
     public String toString() {
         if (resolved == null) {
             try {
-                resolved = new String(primitiveValue, SysParam.getCodesetString(this.codeset));
+                resolved =
+                        new String(
+                                primitiveValue,
+                                offset,
+                                length,
+                                SysParam.getCodesetString(this.codeset));
             } catch (UnsupportedEncodingException e) {
                 // just return null
                 Server.log(e);
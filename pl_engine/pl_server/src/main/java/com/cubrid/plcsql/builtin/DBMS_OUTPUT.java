@@ -39,9 +39,7 @@ public class DBMS_OUTPUT {
     public DBMS_OUTPUT() {}
 
     private static Context getContext() {
-        long tId = Thread.currentThread().getId();
-        long cId = ContextManager.getContextIdByThreadId(tId);
-        return ContextManager.getContext(cId);
+        return ContextManager.getContextofCurrentThread();
     }
 
     public static void enable(int size) {
@@ -63,20 +61,9 @@ public class DBMS_OUTPUT {
 
     public static void getLines(String[] line, int[] cnt) {
         Context c = getContext();
-        String[] strs = c.getMessageBuffer().getLines(cnt[0]);
 
         StringBuilder builder = new StringBuilder();
-
-        if (strs != null) {
-            for (int i = 0; i < strs.length; i++) {
-                builder.append(strs[i]);
-                if (i != strs.length - 1) {
-                    builder.append(System.lineSeparator());
-                }
-            }
-        }
-
-        cnt[0] = strs.length;
+        cnt[0] = c.getMessageBuffer().drainLines(cnt[0], builder, System.lineSeparator());
         line[0] = builder.toString();
     }
 
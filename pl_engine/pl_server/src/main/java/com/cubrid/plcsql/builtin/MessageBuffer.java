@@ -31,15 +31,25 @@
 
 package com.cubrid.plcsql.builtin;
 
-import java.util.LinkedList;
-
 public class MessageBuffer {
     private static final int STATUS_SUCCESS = 0;
     private static final int STATUS_FAILURE = 1;
 
+    private static final int DEFAULT_SIZE = 20000;
+    private static final int MIN_SIZE = 2000;
+    private static final int MAX_SIZE = 1000000;
+
+    // each line is stored in the ring as its length (two chars) followed by its characters
+    private static final int LINE_HEADER_SIZE = 2;
+
     private boolean isEnabled;
 
-    private LinkedList<String> lines;
+    // lines are kept in a ring preallocated at enable() and bounded by its size
+    private char[] ring;
+    private int head; // position of the oldest line
+    private int used; // number of chars in use, including line headers
+    private int lineCount;
+
     private StringBuilder builder;
     private int status;
     private int size;
@@ -48,23 +58,48 @@ public class MessageBuffer {
         isEnabled = false;
         builder = null;
         status = STATUS_FAILURE;
-        lines = new LinkedList<String>();
+        ring = null;
     }
 
     public void enable(Integer size) {
+        int newSize;
         if (size == null) {
-            this.size = 20000;
+            newSize = DEFAULT_SIZE;
+        } else if (size < MIN_SIZE) {
+            newSize = MIN_SIZE;
+        } else if (size > MAX_SIZE) {
+            newSize = MAX_SIZE;
         } else {
-            this.size = size;
+            newSize = size;
+        }
+
+        if (ring == null) {
+            ring = new char[newSize];
+            head = 0;
+            used = 0;
+            lineCount = 0;
+        } else if (newSize != ring.length) {
+            // keep the lines already in the buffer
+            char[] newRing = new char[Math.max(newSize, used)];
+            copyOut(head, newRing, 0, used);
+            ring = newRing;
+            head = 0;
+        }
+        this.size = ring.length;
+
+        if (builder == null) {
+            builder = new StringBuilder();
         }
-        builder = new StringBuilder();
         isEnabled = true;
     }
 
     public void disable() {
         isEnabled = false;
         clearBuilder();
-        lines.clear();
+        ring = null;
+        head = 0;
+        used = 0;
+        lineCount = 0;
         size = 0;
         status = STATUS_FAILURE;
     }
@@ -72,13 +107,32 @@ public class MessageBuffer {
     public void putLine(String str) {
         if (isEnabled) {
             if (str != null) {
-                lines.add(str);
+                int len = str.length();
+                checkOverflow(LINE_HEADER_SIZE + len);
+
+                int tail = wrap(head + used);
+                ring[tail] = (char) (len >>> 16);
+                ring[wrap(tail + 1)] = (char) len;
+                tail = wrap(tail + LINE_HEADER_SIZE);
+
+                int firstPart = Math.min(len, ring.length - tail);
+                str.getChars(0, firstPart, ring, tail);
+                if (firstPart < len) {
+                    str.getChars(firstPart, len, ring, 0);
+                }
+
+                used += LINE_HEADER_SIZE + len;
+                lineCount++;
             }
         }
     }
 
     public void put(String str) {
         if (isEnabled) {
+            if (str != null) {
+                // the partial line will also take room in the buffer when completed
+                checkOverflow(LINE_HEADER_SIZE + builder.length() + str.length());
+            }
             builder.append(str);
         }
     }
@@ -95,7 +149,7 @@ public class MessageBuffer {
     public String getLine() {
         String res = null;
         if (isEnabled) {
-            if (lines.size() == 0) {
+            if (lineCount == 0) {
                 if (builder != null && builder.length() > 0) {
                     res = builder.toString();
                     status = STATUS_SUCCESS;
@@ -103,7 +157,7 @@ public class MessageBuffer {
                     status = STATUS_FAILURE;
                 }
             } else {
-                res = lines.pollFirst();
+                res = pollLine();
                 status = STATUS_SUCCESS;
             }
         }
@@ -113,27 +167,102 @@ public class MessageBuffer {
     public String[] getLines(int num) {
         String[] outputs = null;
         if (isEnabled) {
-            if (lines.size() < num) {
-                num = lines.size();
+            if (lineCount < num) {
+                num = lineCount;
             }
 
             if (num > 0) {
                 outputs = new String[num];
                 for (int i = 0; i < num; i++) {
-                    outputs[i] = lines.pollFirst();
+                    outputs[i] = pollLine();
                 }
             }
         }
         return outputs;
     }
 
+    /**
+     * Removes at most num lines from the buffer and appends them to out, separated by separator.
+     * The characters are copied directly from the buffer without creating a String for each line.
+     *
+     * @return the number of lines appended
+     */
+    public int drainLines(int num, StringBuilder out, String separator) {
+        int cnt = 0;
+        if (isEnabled) {
+            if (lineCount < num) {
+                num = lineCount;
+            }
+
+            for (; cnt < num; cnt++) {
+                if (cnt > 0) {
+                    out.append(separator);
+                }
+
+                int len = readLineLength();
+                int start = wrap(head + LINE_HEADER_SIZE);
+                int firstPart = Math.min(len, ring.length - start);
+                out.append(ring, start, firstPart);
+                if (firstPart < len) {
+                    out.append(ring, 0, len - firstPart);
+                }
+                removeLine(len);
+            }
+        }
+        return cnt;
+    }
+
     public int getStatus() {
         return status;
     }
 
+    public int getSize() {
+        return size;
+    }
+
     private void clearBuilder() {
         if (builder != null) {
             builder.setLength(0);
         }
     }
+
+    private void checkOverflow(int required) {
+        if (used + required > ring.length) {
+            throw new IllegalStateException(
+                    "buffer overflow, limit of " + ring.length + " characters");
+        }
+    }
+
+    private int wrap(int pos) {
+        return pos >= ring.length ? pos - ring.length : pos;
+    }
+
+    private int readLineLength() {
+        return (ring[head] << 16) | ring[wrap(head + 1)];
+    }
+
+    private String pollLine() {
+        int len = readLineLength();
+        char[] chars = new char[len];
+        copyOut(wrap(head + LINE_HEADER_SIZE), chars, 0, len);
+        removeLine(len);
+        return new String(chars);
+    }
+
+    private void removeLine(int len) {
+        head = wrap(head + LINE_HEADER_SIZE + len);
+        used -= LINE_HEADER_SIZE + len;
+        lineCount--;
+        if (used == 0) {
+            head = 0;
+        }
+    }
+
+    private void copyOut(int from, char[] dest, int destPos, int len) {
+        int firstPart = Math.min(len, ring.length - from);
+        System.arraycopy(ring, from, dest, destPos, firstPart);
+        if (firstPart < len) {
+            System.arraycopy(ring, 0, dest, destPos + firstPart, len - firstPart);
+        }
+    }
 }
@@ -35,8 +35,15 @@ import java.io.PrintStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Supplier;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Parser;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
 
@@ -194,6 +201,26 @@ public class Misc {
         return nonTerminal.toLowerCase();
     }
 
+    // Parses with the SLL prediction mode first, which is much faster and enough for almost all
+    // inputs, stopping at the first syntax error. Only if it fails, parses again from the start
+    // with the full LL prediction mode, which reports syntax errors to errorListener as usual.
+    public static <T extends ParserRuleContext> T parseInTwoStages(
+            Parser parser, ANTLRErrorListener errorListener, Supplier<T> startRule) {
+
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        try {
+            return startRule.get();
+        } catch (ParseCancellationException e) {
+            parser.reset(); // rewinds the token stream, too
+            parser.addErrorListener(errorListener);
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            return startRule.get();
+        }
+    }
+
     private static final int SMALL_INDENT_LEVEL_BOUND = 20;
 
     public static String getIndent(int indentLevel) {
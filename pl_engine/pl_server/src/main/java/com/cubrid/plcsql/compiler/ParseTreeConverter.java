@@ -2885,18 +2885,23 @@ public class ParseTreeConverter extends PlcParserBaseVisitor<AstNode> {
         return 0;
     }
 
-    private static StaticSqlWithRecordsParser getParser(String sqlText) {
-        CharStream in = CharStreams.fromString(sqlText);
-        StaticSqlWithRecordsLexer lexer = new StaticSqlWithRecordsLexer(in);
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
-        return new StaticSqlWithRecordsParser(tokens);
-    }
+    // one lexer and parser for all the static SQL statements in a unit
+    private StaticSqlWithRecordsLexer sqlLexer;
+    private CommonTokenStream sqlTokens;
+    private StaticSqlWithRecordsParser sqlParser;
 
-    private static SyntaxErrorIndicator replaceErrorListeners(StaticSqlWithRecordsParser parser) {
-        SyntaxErrorIndicator sei = new SyntaxErrorIndicator();
-        parser.removeErrorListeners();
-        parser.addErrorListener(sei);
-        return sei;
+    private StaticSqlWithRecordsParser getParser(String sqlText) {
+        CharStream in = CharStreams.fromString(sqlText);
+        if (sqlParser == null) {
+            sqlLexer = new StaticSqlWithRecordsLexer(in);
+            sqlTokens = new CommonTokenStream(sqlLexer);
+            sqlParser = new StaticSqlWithRecordsParser(sqlTokens);
+        } else {
+            sqlLexer.setInputStream(in); // resets the lexer
+            sqlTokens.setTokenSource(sqlLexer); // clears the tokens
+            sqlParser.setTokenStream(sqlTokens); // resets the parser
+        }
+        return sqlParser;
     }
 
     private String rewriteInsertWithFieldsExpansion(
@@ -2995,10 +3000,10 @@ public class ParseTreeConverter extends PlcParserBaseVisitor<AstNode> {
             if (lowercased.indexOf("insert") == 0 || lowercased.indexOf("replace") == 0) {
 
                 parser = getParser(sqlText);
-                sei = replaceErrorListeners(parser);
+                sei = new SyntaxErrorIndicator();
 
                 Stmt_w_record_valuesContext tree =
-                        (Stmt_w_record_valuesContext) parser.stmt_w_record_values();
+                        Misc.parseInTwoStages(parser, sei, parser::stmt_w_record_values);
                 if (!sei.hasError) {
                     // (INSERT|REPLACE) ... VALUES r1, r2, ..., rn ...
                     return rewriteInsertWithFieldsExpansion(sqlText, tree.record_list(), ctx);
@@ -3006,9 +3011,10 @@ public class ParseTreeConverter extends PlcParserBaseVisitor<AstNode> {
             }
 
             parser = getParser(sqlText);
-            sei = replaceErrorListeners(parser);
+            sei = new SyntaxErrorIndicator();
 
-            Stmt_w_record_setContext tree = (Stmt_w_record_setContext) parser.stmt_w_record_set();
+            Stmt_w_record_setContext tree =
+                    Misc.parseInTwoStages(parser, sei, parser::stmt_w_record_set);
             if (!sei.hasError) {
                 // (UPDATE|INSERT|REPLACE) ... table SET ROW = r ...
                 return rewriteUpdateWithFieldsExpansion(
@@ -32,6 +32,8 @@ package com.cubrid.plcsql.compiler;
 
 import com.cubrid.jsp.Server;
 import com.cubrid.jsp.data.CompileInfo;
+import com.cubrid.jsp.jfr.CompilePhaseEvent;
+import com.cubrid.jsp.jfr.JfrEvents;
 import com.cubrid.plcsql.compiler.antlrgen.PlcParser;
 import com.cubrid.plcsql.compiler.ast.Unit;
 import com.cubrid.plcsql.compiler.error.SemanticError;
@@ -40,9 +42,13 @@ import com.cubrid.plcsql.compiler.visitor.JavaCodeWriter;
 import com.cubrid.plcsql.compiler.visitor.TypeChecker;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import org.antlr.v4.runtime.*;
 import org.antlr.v4.runtime.tree.*;
+import org.apache.commons.io.IOUtils;
 
 public class PlcsqlCompilerMain {
 
@@ -54,6 +60,34 @@ public class PlcsqlCompilerMain {
     }
     // end of temporary code
 
+    // Parses the routines in the bundled warm-up corpus in order to fill the DFA caches of the
+    // parser, which are shared by all parser instances but start empty at every server start.
+    // Compilations running at the same time are not blocked, but just get slower ones
+    public static void warmUpParser() {
+
+        String corpus;
+        try (InputStream in = PlcsqlCompilerMain.class.getResourceAsStream(WARM_UP_CORPUS)) {
+            if (in == null) {
+                return;
+            }
+            corpus = IOUtils.toString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            Server.log(e);
+            return;
+        }
+
+        // routines in the corpus are separated by lines with a single slash
+        for (String routine : corpus.split("\n/\n")) {
+            if (routine.trim().length() > 0) {
+                try {
+                    parse(CharStreams.fromString(routine), false, new String[1], null);
+                } catch (SyntaxError e) {
+                    assert false : "syntax error in the warm-up corpus: " + e.getMessage();
+                }
+            }
+        }
+    }
+
     public static CompileInfo compilePLCSQL(
             String in, boolean verbose, String owner, String revision) {
 
@@ -84,6 +118,8 @@ public class PlcsqlCompilerMain {
     private static final int OPT_VERBOSE = 1;
     private static final int OPT_PRINT_PARSE_TREE = 1 << 1;
 
+    private static final String WARM_UP_CORPUS = "/plcsql_warm_up.sql";
+
     private static ParseTree parse(
             CharStream input, boolean verbose, String[] sqlTemplate, StringBuilder logStore) {
 
@@ -106,14 +142,12 @@ public class PlcsqlCompilerMain {
         PlcParser parser = new PlcParser(tokens);
 
         SyntaxErrorIndicator sei = new SyntaxErrorIndicator();
-        parser.removeErrorListeners();
-        parser.addErrorListener(sei);
 
         if (verbose) {
             t0 = logElapsedTime(logStore, "  preparing parser", t0);
         }
 
-        ParseTree ret = parser.sql_script();
+        ParseTree ret = Misc.parseInTwoStages(parser, sei, parser::sql_script);
 
         if (verbose) {
             logElapsedTime(logStore, "  calling parser", t0);
@@ -169,6 +203,8 @@ public class PlcsqlCompilerMain {
         // ------------------------------------------
         // parsing
 
+        CompilePhaseEvent phase = JfrEvents.startCompilePhase();
+
         String[] sqlTemplate = new String[1];
         ParseTree tree = parse(input, verbose, sqlTemplate, logStore);
         if (tree == null) {
@@ -178,6 +214,7 @@ public class PlcsqlCompilerMain {
         if (verbose) {
             t0 = logElapsedTime(logStore, "parsing", t0);
         }
+        phase = JfrEvents.nextCompilePhase(phase, "parse", input.size());
 
         // ------------------------------------------
         // printing parse tree (optional)
@@ -214,6 +251,7 @@ public class PlcsqlCompilerMain {
         if (verbose) {
             t0 = logElapsedTime(logStore, "getting global semantics information from server", t0);
         }
+        phase = JfrEvents.nextCompilePhase(phase, "semantics", 0);
 
         // ------------------------------------------
         // typechecking
@@ -224,6 +262,7 @@ public class PlcsqlCompilerMain {
         if (verbose) {
             t0 = logElapsedTime(logStore, "typechecking", t0);
         }
+        phase = JfrEvents.nextCompilePhase(phase, "typecheck", 0);
 
         // ------------------------------------------
         // Java code generation
@@ -233,6 +272,7 @@ public class PlcsqlCompilerMain {
         if (verbose) {
             logElapsedTime(logStore, "Java code generation", t0);
         }
+        JfrEvents.endCompilePhase(phase, "codegen", javaCode.length());
 
         // ------------------------------------------
 
@@ -32,19 +32,15 @@ package com.cubrid.plcsql.compiler;
 
 import static com.cubrid.plcsql.compiler.antlrgen.PlcParser.*;
 
-import com.cubrid.plcsql.compiler.annotation.Operator;
 import com.cubrid.plcsql.compiler.ast.*;
 import com.cubrid.plcsql.compiler.error.SemanticError;
 import com.cubrid.plcsql.compiler.type.Type;
 import com.cubrid.plcsql.compiler.type.TypeVariadic;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class SymbolStack {
 
@@ -74,56 +70,24 @@ public class SymbolStack {
 
     private static void addOperatorDecls() {
 
-        // add SpLib staic methods corresponding to operators
+        // add SpLib static methods corresponding to operators.
+        // OperatorTable is generated from the @Operator methods of SpLib at build time
+        // (see OperatorProcessor), which saves loading SpLib and reflecting over its methods here
 
-        Class c = null;
-        try {
-            c = Class.forName("com.cubrid.plcsql.predefined.sp.SpLib");
-        } catch (ClassNotFoundException e) {
-            assert false : "SpLib class not found";
-        }
+        for (OperatorTable.Row row : OperatorTable.OPERATORS) {
 
-        Method[] methods = c.getMethods();
-        for (Method m : methods) {
-            if ((m.getModifiers() & Modifier.STATIC) > 0) {
-                String name = m.getName();
-                if (name.startsWith("op")) {
-                    // System.out.println("temp: " + m.getName());
-
-                    Operator opAnnot = m.getAnnotation(Operator.class);
-                    if (opAnnot != null) {
-
-                        // parameter types
-                        Class[] paramTypes = m.getParameterTypes();
-                        NodeList<DeclParam> params = new NodeList<>();
-
-                        int i = 0;
-                        for (Class pt : paramTypes) {
-                            String typeName = pt.getTypeName();
-                            // System.out.println("  " + typeName);
-                            Type paramType = Type.ofJavaName(typeName);
-                            assert paramType != null;
-
-                            DeclParamIn p =
-                                    new DeclParamIn(
-                                            null, "p" + i, TypeSpec.getBogus(null, paramType));
-                            params.addNode(p);
-                            i++;
-                        }
-
-                        // return type
-                        String typeName = m.getReturnType().getTypeName();
-                        // System.out.println("  =>" + typeName);
-                        Type retType = Type.ofJavaName(typeName);
-                        assert retType != null;
-
-                        // add op
-                        DeclFunc op =
-                                new DeclFunc(null, name, params, TypeSpec.getBogus(null, retType));
-                        putOperator(name, op, opAnnot.coercionScheme());
-                    }
-                }
+            // parameter types
+            NodeList<DeclParam> params = new NodeList<>();
+            for (int i = 0; i < row.paramTypes.length; i++) {
+                DeclParamIn p =
+                        new DeclParamIn(null, "p" + i, TypeSpec.getBogus(null, row.paramTypes[i]));
+                params.addNode(p);
             }
+
+            // add op
+            DeclFunc op =
+                    new DeclFunc(null, row.name, params, TypeSpec.getBogus(null, row.retType));
+            putOperator(row.name, op, row.coercionScheme);
         }
     }
 
@@ -783,17 +747,37 @@ public class SymbolStack {
         FuncOverloads(String name, CoercionScheme cs) {
             this.name = name;
             this.coercionScheme = cs;
+            this.isVariadic = name.equals("opIn"); // the only operation using variadic parameters
         }
 
         void put(DeclFunc decl) {
-            List<Type> paramTypes =
-                    decl.paramList.nodes.stream()
-                            .map(e -> e.typeSpec().type)
-                            .collect(Collectors.toList());
-            DeclFunc old = overloads.put(paramTypes, decl);
-            // system predefined operators and functions must be unique with their names and
-            // argument types.
-            assert old == null;
+            int key = 0;
+            for (DeclParam p : decl.paramList.nodes) {
+                key = addToSignatureKey(key, p.typeSpec().type);
+            }
+            if (key < 0) {
+                throw new RuntimeException("too many parameters in " + name);
+            }
+
+            int pos = Arrays.binarySearch(keys, 0, size, key);
+            if (pos >= 0) {
+                // system predefined operators and functions must be unique with their names and
+                // argument types.
+                assert false;
+                decls[pos] = decl;
+                return;
+            }
+
+            pos = -pos - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                decls = Arrays.copyOf(decls, size * 2);
+            }
+            System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+            System.arraycopy(decls, pos, decls, pos + 1, size - pos);
+            keys[pos] = key;
+            decls[pos] = decl;
+            size++;
         }
 
         DeclFunc get(InstanceStore iStore, List<Coercion> outCoercions, List<Type> argTypes) {
@@ -804,15 +788,25 @@ public class SymbolStack {
                 return null; // no match
             } else {
                 assert argTypes.size() == outCoercions.size();
-                if (name.equals("opIn")) {
-                    // opIn is the only operation that uses variadic parameters
+
+                int key;
+                if (isVariadic) {
                     Type ty = paramTypes.get(0);
-                    paramTypes.clear();
-                    paramTypes.add(ty);
-                    paramTypes.add(TypeVariadic.getStaticInstance(ty));
+                    key = addToSignatureKey(0, ty);
+                    key = addToSignatureKey(key, TypeVariadic.getStaticInstance(ty));
+                } else {
+                    key = 0;
+                    for (Type ty : paramTypes) {
+                        key = addToSignatureKey(key, ty);
+                    }
+                }
+
+                if (key < 0) {
+                    return null; // more arguments than any overload has parameters
                 }
 
-                DeclFunc declFunc = overloads.get(paramTypes);
+                int pos = Arrays.binarySearch(keys, 0, size, key);
+                DeclFunc declFunc = pos < 0 ? null : decls[pos];
                 assert declFunc != null
                         : paramTypes + " do not have a matching version of op " + name;
                 return declFunc;
@@ -823,9 +817,32 @@ public class SymbolStack {
         //
         // ---------------------------------------------------------
 
-        private final Map<List<Type>, DeclFunc> overloads =
-                new HashMap<>(); // (arg types --> func decl) map
+        // a signature key is the parameter types written as digits of this radix: the index of a
+        // type, or BOUND_OF_IDX plus the index of the element type for variadic types. Type indexes
+        // of parameters are never zero, so signatures of different lengths do not collide either
+        private static final int SIGNATURE_RADIX = 2 * Type.BOUND_OF_IDX;
+
+        // returns -1 once the key does not fit in an int, which takes five or six parameters
+        private static int addToSignatureKey(int key, Type ty) {
+            int digit =
+                    (ty instanceof TypeVariadic)
+                            ? Type.BOUND_OF_IDX + ((TypeVariadic) ty).elem.idx
+                            : ty.idx;
+            if (digit <= 0 || digit >= SIGNATURE_RADIX) {
+                throw new RuntimeException("unreachable");
+            }
+            if (key < 0 || key > (Integer.MAX_VALUE - digit) / SIGNATURE_RADIX) {
+                return -1;
+            }
+            return key * SIGNATURE_RADIX + digit;
+        }
+
+        // signature keys in ascending order and the func decls of them
+        private int[] keys = new int[4];
+        private DeclFunc[] decls = new DeclFunc[4];
+        private int size;
         private final CoercionScheme coercionScheme;
         private final String name;
+        private final boolean isVariadic;
     }
 }
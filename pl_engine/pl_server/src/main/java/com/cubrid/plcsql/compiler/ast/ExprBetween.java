@@ -30,6 +30,7 @@
 
 package com.cubrid.plcsql.compiler.ast;
 
+import com.cubrid.plcsql.compiler.type.Type;
 import com.cubrid.plcsql.compiler.visitor.AstVisitor;
 import org.antlr.v4.runtime.ParserRuleContext;
 
@@ -45,11 +46,16 @@ public class ExprBetween extends Expr {
     public final Expr upperBound;
 
     public String opExtension = "";
+    public Type targetType; // type of the target after coercion
 
     public void setOpExtension(String ext) {
         opExtension = ext;
     }
 
+    public void setTargetType(Type ty) {
+        targetType = ty;
+    }
+
     public ExprBetween(ParserRuleContext ctx, Expr target, Expr lowerBound, Expr upperBound) {
         super(ctx);
 
@@ -30,8 +30,11 @@
 
 package com.cubrid.plcsql.compiler.ast;
 
+import com.cubrid.plcsql.compiler.Coercion;
 import com.cubrid.plcsql.compiler.type.TypeRecord;
 import com.cubrid.plcsql.compiler.visitor.AstVisitor;
+import java.util.ArrayList;
+import java.util.List;
 import org.antlr.v4.runtime.ParserRuleContext;
 
 public class ExprBinaryOp extends Expr {
@@ -47,11 +50,16 @@ public class ExprBinaryOp extends Expr {
 
     public String opExtension = "";
     public TypeRecord recordTypeOfOperands;
+    public boolean isStrConcat; // || or + of two strings
 
     public void setOpExtension(String ext) {
         opExtension = ext;
     }
 
+    public void setStrConcat() {
+        isStrConcat = true;
+    }
+
     public ExprBinaryOp(ParserRuleContext ctx, String opStr, Expr left, Expr right) {
         super(ctx);
 
@@ -59,4 +67,29 @@ public class ExprBinaryOp extends Expr {
         this.left = left;
         this.right = right;
     }
+
+    // operands of a chain of string concatenations such as a || b || c, in order
+    public List<Expr> getConcatOperands() {
+        assert isStrConcat;
+
+        List<Expr> operands = new ArrayList<>();
+        collectConcatOperands(this, operands);
+        return operands;
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    private static void collectConcatOperands(ExprBinaryOp binOp, List<Expr> operands) {
+        for (Expr operand : new Expr[] {binOp.left, binOp.right}) {
+            if (operand instanceof ExprBinaryOp
+                    && ((ExprBinaryOp) operand).isStrConcat
+                    && operand.coercion instanceof Coercion.Identity) {
+                collectConcatOperands((ExprBinaryOp) operand, operands);
+            } else {
+                operands.add(operand);
+            }
+        }
+    }
 }
@@ -30,6 +30,7 @@
 
 package com.cubrid.plcsql.compiler.ast;
 
+import com.cubrid.plcsql.compiler.type.Type;
 import com.cubrid.plcsql.compiler.visitor.AstVisitor;
 import org.antlr.v4.runtime.ParserRuleContext;
 
@@ -44,11 +45,16 @@ public class ExprIn extends Expr {
     public final NodeList<Expr> inElements;
 
     public String opExtension = "";
+    public Type targetType; // type of the target after coercion
 
     public void setOpExtension(String ext) {
         opExtension = ext;
     }
 
+    public void setTargetType(Type ty) {
+        targetType = ty;
+    }
+
     public ExprIn(ParserRuleContext ctx, Expr target, NodeList<Expr> inElements) {
         super(ctx);
 
@@ -43,6 +43,13 @@ public class StmtAssign extends Stmt {
     public final Expr target;
     public final Expr val;
 
+    // the variable if this statement is of the form 's := s || ...' with a string variable s
+    public DeclVar strAccumulated;
+
+    public void setStrAccumulated(DeclVar decl) {
+        strAccumulated = decl;
+    }
+
     public StmtAssign(ParserRuleContext ctx, Expr target, Expr val) {
         super(ctx);
 
@@ -31,9 +31,10 @@
 package com.cubrid.plcsql.compiler.ast;
 
 import com.cubrid.plcsql.compiler.visitor.AstVisitor;
+import java.util.List;
 import org.antlr.v4.runtime.ParserRuleContext;
 
-public class StmtBasicLoop extends Stmt {
+public class StmtBasicLoop extends Stmt implements Loop {
 
     @Override
     public <R> R accept(AstVisitor<R> visitor) {
@@ -43,10 +44,22 @@ public class StmtBasicLoop extends Stmt {
     public final DeclLabel declLabel;
     public final NodeList<Stmt> stmts;
 
+    private List<ExprId> strAccumulators;
+
     public StmtBasicLoop(ParserRuleContext ctx, DeclLabel declLabel, NodeList<Stmt> stmts) {
         super(ctx);
 
         this.declLabel = declLabel;
         this.stmts = stmts;
     }
+
+    @Override
+    public List<ExprId> getStrAccumulators() {
+        return strAccumulators;
+    }
+
+    @Override
+    public void setStrAccumulators(List<ExprId> strAccumulators) {
+        this.strAccumulators = strAccumulators;
+    }
 }
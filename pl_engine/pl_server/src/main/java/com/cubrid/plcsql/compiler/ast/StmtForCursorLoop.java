@@ -32,9 +32,10 @@ package com.cubrid.plcsql.compiler.ast;
 
 import com.cubrid.plcsql.compiler.type.TypeRecord;
 import com.cubrid.plcsql.compiler.visitor.AstVisitor;
+import java.util.List;
 import org.antlr.v4.runtime.ParserRuleContext;
 
-public class StmtForCursorLoop extends StmtCursorOpen {
+public class StmtForCursorLoop extends StmtCursorOpen implements Loop {
 
     @Override
     public <R> R accept(AstVisitor<R> visitor) {
@@ -46,6 +47,8 @@ public class StmtForCursorLoop extends StmtCursorOpen {
     public final TypeRecord recordType;
     public final NodeList<Stmt> stmts;
 
+    private List<ExprId> strAccumulators;
+
     public StmtForCursorLoop(
             ParserRuleContext ctx,
             ExprId cursor,
@@ -64,4 +67,14 @@ public class StmtForCursorLoop extends StmtCursorOpen {
         this.recordType = recordType;
         this.stmts = stmts;
     }
+
+    @Override
+    public List<ExprId> getStrAccumulators() {
+        return strAccumulators;
+    }
+
+    @Override
+    public void setStrAccumulators(List<ExprId> strAccumulators) {
+        this.strAccumulators = strAccumulators;
+    }
 }
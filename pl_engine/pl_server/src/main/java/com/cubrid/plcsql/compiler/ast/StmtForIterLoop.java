@@ -31,9 +31,10 @@
 package com.cubrid.plcsql.compiler.ast;
 
 import com.cubrid.plcsql.compiler.visitor.AstVisitor;
+import java.util.List;
 import org.antlr.v4.runtime.ParserRuleContext;
 
-public class StmtForIterLoop extends Stmt {
+public class StmtForIterLoop extends Stmt implements Loop {
 
     @Override
     public <R> R accept(AstVisitor<R> visitor) {
@@ -48,6 +49,8 @@ public class StmtForIterLoop extends Stmt {
     public final Expr step;
     public final NodeList<Stmt> stmts;
 
+    private List<ExprId> strAccumulators;
+
     public StmtForIterLoop(
             ParserRuleContext ctx,
             DeclLabel declLabel,
@@ -67,4 +70,14 @@ public class StmtForIterLoop extends Stmt {
         this.step = step;
         this.stmts = stmts;
     }
+
+    @Override
+    public List<ExprId> getStrAccumulators() {
+        return strAccumulators;
+    }
+
+    @Override
+    public void setStrAccumulators(List<ExprId> strAccumulators) {
+        this.strAccumulators = strAccumulators;
+    }
 }
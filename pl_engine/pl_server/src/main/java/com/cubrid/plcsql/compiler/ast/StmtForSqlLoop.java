@@ -33,7 +33,7 @@ package com.cubrid.plcsql.compiler.ast;
 import java.util.List;
 import org.antlr.v4.runtime.ParserRuleContext;
 
-public abstract class StmtForSqlLoop extends Stmt {
+public abstract class StmtForSqlLoop extends Stmt implements Loop {
 
     public final boolean dynamic;
     public final String label;
@@ -42,6 +42,8 @@ public abstract class StmtForSqlLoop extends Stmt {
     public final List<? extends Expr> usedExprList;
     public final NodeList<Stmt> stmts;
 
+    private List<ExprId> strAccumulators;
+
     public StmtForSqlLoop(
             ParserRuleContext ctx,
             boolean dynamic,
@@ -59,4 +61,14 @@ public abstract class StmtForSqlLoop extends Stmt {
         this.usedExprList = usedExprList;
         this.stmts = stmts;
     }
+
+    @Override
+    public List<ExprId> getStrAccumulators() {
+        return strAccumulators;
+    }
+
+    @Override
+    public void setStrAccumulators(List<ExprId> strAccumulators) {
+        this.strAccumulators = strAccumulators;
+    }
 }
@@ -31,9 +31,10 @@
 package com.cubrid.plcsql.compiler.ast;
 
 import com.cubrid.plcsql.compiler.visitor.AstVisitor;
+import java.util.List;
 import org.antlr.v4.runtime.ParserRuleContext;
 
-public class StmtWhileLoop extends Stmt {
+public class StmtWhileLoop extends Stmt implements Loop {
 
     @Override
     public <R> R accept(AstVisitor<R> visitor) {
@@ -44,6 +45,8 @@ public class StmtWhileLoop extends Stmt {
     public final Expr cond;
     public final NodeList<Stmt> stmts;
 
+    private List<ExprId> strAccumulators;
+
     public StmtWhileLoop(
             ParserRuleContext ctx, DeclLabel declLabel, Expr cond, NodeList<Stmt> stmts) {
         super(ctx);
@@ -52,4 +55,14 @@ public class StmtWhileLoop extends Stmt {
         this.cond = cond;
         this.stmts = stmts;
     }
+
+    @Override
+    public List<ExprId> getStrAccumulators() {
+        return strAccumulators;
+    }
+
+    @Override
+    public void setStrAccumulators(List<ExprId> strAccumulators) {
+        this.strAccumulators = strAccumulators;
+    }
 }
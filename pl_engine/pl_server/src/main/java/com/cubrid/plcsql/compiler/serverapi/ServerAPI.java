@@ -48,11 +48,30 @@ import java.util.List;
 
 public class ServerAPI {
 
+    // answers the questions in place of the server when the compiler runs without a server,
+    // such as in tests and benchmarks (see MockServerAPI.install). always null in the PL server
+    public interface Mock {
+        List<SqlSemantics> getSqlSemantics(List<String> sqlTexts);
+
+        List<Question> getGlobalSemantics(List<Question> questions);
+    }
+
+    private static volatile Mock mock = null;
+
+    static void setMock(Mock m) {
+        mock = m;
+    }
+
     public static List<SqlSemantics> getSqlSemantics(List<String> sqlTexts) {
         if (sqlTexts == null || sqlTexts.size() == 0) {
             return null;
         }
 
+        Mock m = mock;
+        if (m != null) {
+            return m.getSqlSemantics(sqlTexts);
+        }
+
         try {
             CUBRIDPacker packer = new CUBRIDPacker(ByteBuffer.allocate(1024));
             SqlSemanticsRequest request = new SqlSemanticsRequest(sqlTexts);
@@ -81,6 +100,11 @@ public class ServerAPI {
             return null;
         }
 
+        Mock m = mock;
+        if (m != null) {
+            return m.getGlobalSemantics(questions);
+        }
+
         try {
             CUBRIDPacker packer = new CUBRIDPacker(ByteBuffer.allocate(1024));
             GlobalSemanticsRequest request = new GlobalSemanticsRequest(questions);
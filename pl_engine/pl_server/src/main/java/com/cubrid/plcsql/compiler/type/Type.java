@@ -140,13 +140,13 @@ public class Type {
                     null);
 
     private static final Map<String, Type> javaNameToType = new HashMap<>();
-    private static final Map<Integer, Type> idxToType = new HashMap<>();
+    private static final Type[] idxToType = new Type[BOUND_OF_IDX];
 
     private static void register(Type spec) {
         Type ty = javaNameToType.put(spec.fullJavaType, spec);
         assert ty == null;
-        ty = idxToType.put(spec.idx, spec);
-        assert ty == null;
+        assert idxToType[spec.idx] == null;
+        idxToType[spec.idx] = spec;
     }
 
     static {
@@ -165,7 +165,7 @@ public class Type {
         // instead of register(TIMESTAMP), a trick is necessary because DATETIME uses the same
         // java.time.Timestamp;
         javaNameToType.put("java.time.ZonedDateTime", TIMESTAMP);
-        idxToType.put(IDX_TIMESTAMP, TIMESTAMP);
+        idxToType[IDX_TIMESTAMP] = TIMESTAMP;
 
         register(DATETIME);
         register(SYS_REFCURSOR);
@@ -176,7 +176,7 @@ public class Type {
     }
 
     public static Type getTypeByIdx(int idx) {
-        return idxToType.get(idx);
+        return (idx >= 0 && idx < BOUND_OF_IDX) ? idxToType[idx] : null;
     }
 
     private static String getJavaCode(String fullJavaType) {
@@ -30,9 +30,6 @@
 
 package com.cubrid.plcsql.compiler.type;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class TypeVariadic extends Type {
 
     public final Type elem;
@@ -43,18 +40,18 @@ public class TypeVariadic extends Type {
     }
 
     // NOTE: never changing after the initilization during the TypeVariadic class initialization
-    private static Map<Integer, TypeVariadic> staticInstances = new HashMap<>();
+    private static final TypeVariadic[] staticInstances = new TypeVariadic[Type.BOUND_OF_IDX];
 
     static {
         for (int i = Type.IDX_OBJECT; i < Type.BOUND_OF_IDX; i++) {
             Type ty = Type.getTypeByIdx(i);
             assert ty != null;
-            staticInstances.put(i, new TypeVariadic(ty));
+            staticInstances[i] = new TypeVariadic(ty);
         }
     }
 
     public static TypeVariadic getStaticInstance(Type ty) {
-        TypeVariadic ret = staticInstances.get(ty.idx);
+        TypeVariadic ret = staticInstances[ty.idx];
         assert ret != null;
         return ret;
     }
@@ -36,12 +36,15 @@ import com.cubrid.plcsql.compiler.Misc;
 import com.cubrid.plcsql.compiler.ast.*;
 import com.cubrid.plcsql.compiler.type.Type;
 import com.cubrid.plcsql.compiler.type.TypeRecord;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.antlr.v4.runtime.ParserRuleContext;
 
@@ -70,13 +73,15 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
 
         javaTypesUsed.add("com.cubrid.jsp.Server");
         javaTypesUsed.add("com.cubrid.plcsql.predefined.PlcsqlRuntimeError");
-        javaTypesUsed.add("java.util.List");
 
         CodeToResolve ctr = visitUnit(unit);
         ctr.resolve(0, codeLines, codeRangeMarkers);
 
+        codeLines.addAll(likeMatcherDecls);
+        codeLines.addAll(constInListDecls);
+        codeLines.addAll(inListFuncDecls);
         codeLines.add(
-                "  private static List<CodeRangeMarker> codeRangeMarkerList = buildCodeRangeMarkerList(\""
+                "  private static CodeRangeMarkers codeRangeMarkers = buildCodeRangeMarkers(\""
                         + codeRangeMarkers
                         + "\");");
         codeLines.add("}");
@@ -99,7 +104,7 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
     // Unit
     //
     private static final String tmplGetConn =
-            "Connection conn = DriverManager.getConnection(\"jdbc:default:connection::?autonomous_transaction=%s\");";
+            "Connection conn = CUBRIDServerSideDriver.getDefaultConnection(%s);";
     private static final String[] tmplUnit =
             new String[] {
                 "%'+IMPORTS'%",
@@ -118,17 +123,21 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
                 "      %'+BODY'%",
                 // exceptions that escaped from the exception handlers of the body
                 "    } catch (PlcsqlRuntimeError e) {",
+                // position is already known if raised by a RAISE statement
+                "      if (e.isPlcLineColumnKnown()) {",
+                "        throw e;",
+                "      }",
                 "      Throwable c = e.getCause();",
-                "      int[] pos = getPlcLineColumn(codeRangeMarkerList, c == null ? e : c, \"%'CLASS-NAME'%.java\");",
+                "      int[] pos = getPlcLineColumn(codeRangeMarkers, c == null ? e : c, \"%'CLASS-NAME'%.java\");",
                 "      throw e.setPlcLineColumn(pos);",
                 // exceptions raised in an exception handler
                 "    } catch (OutOfMemoryError e) {",
                 "      Server.log(e);",
-                "      int[] pos = getPlcLineColumn(codeRangeMarkerList, e, \"%'CLASS-NAME'%.java\");",
+                "      int[] pos = getPlcLineColumn(codeRangeMarkers, e, \"%'CLASS-NAME'%.java\");",
                 "      throw new STORAGE_ERROR().setPlcLineColumn(pos);",
                 "    } catch (Throwable e) {",
                 "      Server.log(e);",
-                "      int[] pos = getPlcLineColumn(codeRangeMarkerList, e, \"%'CLASS-NAME'%.java\");",
+                "      int[] pos = getPlcLineColumn(codeRangeMarkers, e, \"%'CLASS-NAME'%.java\");",
                 "      throw new PROGRAM_ERROR().setPlcLineColumn(pos);",
                 "    }",
                 "  }",
@@ -136,11 +145,18 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
                 "  %'+RECORD-ASSIGN-FUNCS'%"
             };
 
+    // false if the routine mentions CURRENT_VALUE, in PL/CSQL or in SQL (see SerialValueCache)
+    private boolean reserveSerialValues;
+
     @Override
     public CodeToResolve visitUnit(Unit node) {
 
+        String text = (node.ctx == null) ? "" : node.ctx.getText().toUpperCase();
+        reserveSerialValues = !text.contains("CURRENT_VALUE") && !text.contains("CURRVAL");
+
         if (node.connectionRequired) {
             javaTypesUsed.add("java.sql.*");
+            javaTypesUsed.add("com.cubrid.jsp.jdbc.CUBRIDServerSideDriver");
         }
 
         // get connection, if necessary
@@ -405,10 +421,39 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
 
     @Override
     public CodeToResolve visitDeclException(DeclException node) {
-        String code = "class " + node.name + " extends $APP_ERROR {}";
+        String code =
+                String.format(
+                        "class %1$s extends $APP_ERROR { %1$s(int[] pos) { super(pos); } }",
+                        node.name);
         return new CodeTemplate("DeclException", Misc.UNKNOWN_LINE_COLUMN, code);
     }
 
+    private CodeTemplateList visitExprList(List<Expr> exprs) {
+        CodeTemplateList list = new CodeTemplateList();
+        for (Expr e : exprs) {
+            list.addElement((CodeTemplate) visit(e));
+        }
+        return list.setDelimiter(",");
+    }
+
+    // expressions that are cheap to evaluate and have no side effects.
+    // operands of these kinds are evaluated eagerly even where short-circuit evaluation is possible
+    private static boolean isSimpleExpr(Expr e) {
+        return e instanceof ExprId
+                || e instanceof ExprField
+                || e instanceof ExprStr
+                || e instanceof ExprUint
+                || e instanceof ExprFloat
+                || e instanceof ExprNull
+                || e instanceof ExprTrue
+                || e instanceof ExprFalse
+                || e instanceof ExprDate
+                || e instanceof ExprTime
+                || e instanceof ExprDatetime
+                || e instanceof ExprTimestamp
+                || e instanceof ExprAutoParam;
+    }
+
     // -------------------------------------------------------------------------
     // ExprBetween
     //
@@ -422,21 +467,62 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
                 ")"
             };
 
+    // the bounds are not evaluated if the target is null
+    private static String[] tmplExprBetweenShortCircuit =
+            new String[] {
+                "(new Object() { Boolean invoke(%'TARGET-TYPE'% o) // short-circuit between",
+                "   throws Exception {",
+                "  if (o == null) {",
+                "    return null;",
+                "  }",
+                "  return opBetween%'OP-EXTENSION'%(o,",
+                "    %'+LOWER-BOUND'%,",
+                "    %'+UPPER-BOUND'%);",
+                "}}.invoke(",
+                "  %'+TARGET'%))"
+            };
+
     @Override
     public CodeToResolve visitExprBetween(ExprBetween node) {
-        CodeTemplate tmpl =
-                new CodeTemplate(
-                        "ExprBetween",
-                        Misc.getLineColumnOf(node.ctx),
-                        tmplExprBetween,
-                        "%'OP-EXTENSION'%",
-                        node.opExtension,
-                        "%'+TARGET'%",
-                        visit(node.target),
-                        "%'+LOWER-BOUND'%",
-                        visit(node.lowerBound),
-                        "%'+UPPER-BOUND'%",
-                        visit(node.upperBound));
+
+        boolean shortCircuit =
+                !isSimpleExpr(node.target)
+                        || !isSimpleExpr(node.lowerBound)
+                        || !isSimpleExpr(node.upperBound);
+
+        CodeTemplate tmpl;
+        if (shortCircuit) {
+            assert node.targetType != null;
+            tmpl =
+                    new CodeTemplate(
+                            "ExprBetween",
+                            Misc.getLineColumnOf(node.ctx),
+                            tmplExprBetweenShortCircuit,
+                            "%'TARGET-TYPE'%",
+                            getJavaCodeOfType(node.targetType),
+                            "%'OP-EXTENSION'%",
+                            node.opExtension,
+                            "%'+TARGET'%",
+                            visit(node.target),
+                            "%'+LOWER-BOUND'%",
+                            visit(node.lowerBound),
+                            "%'+UPPER-BOUND'%",
+                            visit(node.upperBound));
+        } else {
+            tmpl =
+                    new CodeTemplate(
+                            "ExprBetween",
+                            Misc.getLineColumnOf(node.ctx),
+                            tmplExprBetween,
+                            "%'OP-EXTENSION'%",
+                            node.opExtension,
+                            "%'+TARGET'%",
+                            visit(node.target),
+                            "%'+LOWER-BOUND'%",
+                            visit(node.lowerBound),
+                            "%'+UPPER-BOUND'%",
+                            visit(node.upperBound));
+        }
 
         return applyCoercion(node.coercion, tmpl, node.ctx);
     }
@@ -453,11 +539,55 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
                 ")"
             };
 
+    // the right operand is not evaluated if the left one decides the result:
+    // FALSE for AND and TRUE for OR
+    private static String[] tmplExprLogicalShortCircuit =
+            new String[] {
+                "(new Object() { Boolean invoke(Boolean l) // short-circuit %'OPERATION'%",
+                "   throws Exception {",
+                "  if (Boolean.%'DECISIVE'%.equals(l)) {",
+                "    return Boolean.%'DECISIVE'%;",
+                "  }",
+                "  return op%'OPERATION'%(l,",
+                "    %'+RIGHT-OPERAND'%);",
+                "}}.invoke(",
+                "  %'+LEFT-OPERAND'%))"
+            };
+
+    // a chain of string concatenations 'a || b || c ...' is made into one call which builds the
+    // result in a single StringBuilder
+    private static String[] tmplExprConcatChain = new String[] {"opConcat(", "  %'+OPERANDS'%", ")"};
+
     @Override
     public CodeToResolve visitExprBinaryOp(ExprBinaryOp node) {
 
+        boolean isLogical = node.opStr.equals("And") || node.opStr.equals("Or");
+        List<Expr> concatOperands = node.isStrConcat ? node.getConcatOperands() : null;
+
         CodeTemplate tmpl;
-        if (node.recordTypeOfOperands == null) {
+        if (concatOperands != null && concatOperands.size() > 2) {
+            tmpl =
+                    new CodeTemplate(
+                            "ExprBinaryOp - concatenation chain",
+                            Misc.getLineColumnOf(node.ctx),
+                            tmplExprConcatChain,
+                            "%'+OPERANDS'%",
+                            visitExprList(concatOperands));
+        } else if (isLogical && !isSimpleExpr(node.right)) {
+            tmpl =
+                    new CodeTemplate(
+                            "ExprBinaryOp - short-circuit",
+                            Misc.getLineColumnOf(node.ctx),
+                            tmplExprLogicalShortCircuit,
+                            "%'OPERATION'%",
+                            node.opStr,
+                            "%'DECISIVE'%",
+                            node.opStr.equals("And") ? "FALSE" : "TRUE",
+                            "%'+LEFT-OPERAND'%",
+                            visit(node.left),
+                            "%'+RIGHT-OPERAND'%",
+                            visit(node.right));
+        } else if (node.recordTypeOfOperands == null) {
             tmpl =
                     new CodeTemplate(
                             "ExprBinaryOp - for non-records",
@@ -736,24 +866,262 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
     private static String[] tmplExprIn =
             new String[] {"opIn%'OP-EXTENSION'%(", "  %'+TARGET'%,", "  %'+IN-ELEMENTS'%", ")"};
 
+    private static String[] tmplExprInConstList =
+            new String[] {"opIn(", "  %'+TARGET'%,", "  %'IN-LIST'%", ")"};
+
+    // the elements are evaluated in order until one equal to the target is found
+    private static String[] tmplExprInShortCircuit =
+            new String[] {
+                "(new Object() { Boolean invoke(%'TARGET-TYPE'% o) // short-circuit in",
+                "   throws Exception {",
+                "  if (o == null) {",
+                "    return null;",
+                "  }",
+                "  Boolean ret = Boolean.FALSE;",
+                "  Boolean b;",
+                "  %'+IN-ELEMENTS'%",
+                "  return ret;",
+                "}}.invoke(",
+                "  %'+TARGET'%))"
+            };
+
+    // a list of simple elements: the target and the elements are passed to a static method of the
+    // generated class, which compares them in a short-circuit || chain (see getInListFunc())
+    private static String[] tmplExprInSimpleList =
+            new String[] {"%'IN-FUNC'%(", "  %'+TARGET'%,", "  %'+IN-ELEMENTS'%", ")"};
+
+    private static String[] tmplInElementShortCircuit =
+            new String[] {
+                "b = opIn%'OP-EXTENSION'%(o,",
+                "  %'+ELEMENT'%);",
+                "if (b == null) {",
+                "  ret = null;",
+                "} else if (b) {",
+                "  return Boolean.TRUE;",
+                "}"
+            };
+
+    // declarations of the IN lists made of constants only
+    private List<String> constInListDecls = new ArrayList<>();
+
+    // declarations of the methods evaluating the IN lists of simple elements, and their names by
+    // the target type, the operator extension and the number of elements
+    private List<String> inListFuncDecls = new ArrayList<>();
+    private Map<String, String> inListFuncs = new HashMap<>();
+
     @Override
     public CodeToResolve visitExprIn(ExprIn node) {
 
-        CodeTemplate tmpl =
-                new CodeTemplate(
-                        "ExprIn",
-                        Misc.getLineColumnOf(node.ctx),
-                        tmplExprIn,
-                        "%'OP-EXTENSION'%",
-                        node.opExtension,
-                        "%'+TARGET'%",
-                        visit(node.target),
-                        "%'+IN-ELEMENTS'%",
-                        visitNodeList(node.inElements).setDelimiter(","));
+        // a list of more than one element is either made into a ConstInList once when the class
+        // is initialized, or evaluated element by element, which needs no varargs array. the
+        // elements are evaluated lazily only if evaluating them may cost or have side effects
+        int size = node.inElements.nodes.size();
+        String constInList = (size > 1) ? getConstInListCode(node) : null;
+
+        CodeTemplate tmpl;
+        if (constInList != null) {
+            String name = "$in_list_" + constInListDecls.size();
+            constInListDecls.add(
+                    String.format("  private static final ConstInList %s = %s;", name, constInList));
+            javaTypesUsed.add("com.cubrid.plcsql.predefined.sp.ConstInList");
+
+            tmpl =
+                    new CodeTemplate(
+                            "ExprIn",
+                            Misc.getLineColumnOf(node.ctx),
+                            tmplExprInConstList,
+                            "%'+TARGET'%",
+                            visit(node.target),
+                            "%'IN-LIST'%",
+                            name);
+        } else if (size > 1 && isSimpleExprList(node.inElements.nodes)) {
+            assert node.targetType != null;
+
+            tmpl =
+                    new CodeTemplate(
+                            "ExprIn",
+                            Misc.getLineColumnOf(node.ctx),
+                            tmplExprInSimpleList,
+                            "%'IN-FUNC'%",
+                            getInListFunc(
+                                    getJavaCodeOfType(node.targetType), node.opExtension, size),
+                            "%'+TARGET'%",
+                            visit(node.target),
+                            "%'+IN-ELEMENTS'%",
+                            visitExprList(node.inElements.nodes));
+        } else if (size > 1) {
+            assert node.targetType != null;
+
+            CodeTemplateList elements = new CodeTemplateList();
+            for (Expr e : node.inElements.nodes) {
+                elements.addElement(
+                        new CodeTemplate(
+                                "InElement",
+                                Misc.UNKNOWN_LINE_COLUMN,
+                                tmplInElementShortCircuit,
+                                "%'OP-EXTENSION'%",
+                                node.opExtension,
+                                "%'+ELEMENT'%",
+                                visit(e)));
+            }
+
+            tmpl =
+                    new CodeTemplate(
+                            "ExprIn",
+                            Misc.getLineColumnOf(node.ctx),
+                            tmplExprInShortCircuit,
+                            "%'TARGET-TYPE'%",
+                            getJavaCodeOfType(node.targetType),
+                            "%'+TARGET'%",
+                            visit(node.target),
+                            "%'+IN-ELEMENTS'%",
+                            elements);
+        } else {
+            tmpl =
+                    new CodeTemplate(
+                            "ExprIn",
+                            Misc.getLineColumnOf(node.ctx),
+                            tmplExprIn,
+                            "%'OP-EXTENSION'%",
+                            node.opExtension,
+                            "%'+TARGET'%",
+                            visit(node.target),
+                            "%'+IN-ELEMENTS'%",
+                            visitNodeList(node.inElements).setDelimiter(","));
+        }
 
         return applyCoercion(node.coercion, tmpl, node.ctx);
     }
 
+    private static boolean isSimpleExprList(List<Expr> exprs) {
+        for (Expr e : exprs) {
+            if (!isSimpleExpr(e)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // returns the name of a static method of the generated class evaluating 'o IN (p0, p1, ...)'
+    // for size elements of the type. the parameter o is the target evaluated once, and the
+    // comparisons stop at the first one giving TRUE, e.g.
+    //
+    //   private static Boolean $in_0(Integer o, Integer p0, Integer p1) {
+    //     Boolean b0, b1;
+    //     return (Boolean.TRUE.equals(b0 = opIn(o, p0)) || Boolean.TRUE.equals(b1 = opIn(o, p1)))
+    //         ? Boolean.TRUE : (b0 == null || b1 == null) ? null : Boolean.FALSE;
+    //   }
+    private String getInListFunc(String type, String opExtension, int size) {
+
+        String key = type + " " + opExtension + " " + size;
+        String name = inListFuncs.get(key);
+        if (name != null) {
+            return name;
+        }
+
+        name = "$in_" + inListFuncs.size();
+        inListFuncs.put(key, name);
+
+        StringBuilder params = new StringBuilder();
+        StringBuilder results = new StringBuilder();
+        StringBuilder chain = new StringBuilder();
+        StringBuilder anyNull = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            String sep = (i == 0) ? "" : ", ";
+            params.append(", ").append(type).append(" p").append(i);
+            results.append(sep).append('b').append(i);
+            chain.append(i == 0 ? "" : " || ")
+                    .append(
+                            String.format(
+                                    "Boolean.TRUE.equals(b%1$d = opIn%2$s(o, p%1$d))",
+                                    i, opExtension));
+            anyNull.append(i == 0 ? "" : " || ").append('b').append(i).append(" == null");
+        }
+
+        inListFuncDecls.add(
+                String.format("  private static Boolean %s(%s o%s) {", name, type, params));
+        inListFuncDecls.add(String.format("    Boolean %s;", results));
+        inListFuncDecls.add(String.format("    return (%s)", chain));
+        inListFuncDecls.add(
+                String.format("      ? Boolean.TRUE : (%s) ? null : Boolean.FALSE;", anyNull));
+        inListFuncDecls.add("  }");
+
+        return name;
+    }
+
+    // returns the Java code creating a ConstInList if the target is of an integer or a string type
+    // and the elements are all constants of the type or NULL. returns null otherwise
+    private static String getConstInListCode(ExprIn node) {
+
+        assert node.targetType != null;
+
+        if (!node.opExtension.isEmpty()) {
+            return null; // CHAR or TIMESTAMP comparison
+        }
+
+        boolean forString = node.targetType.isString();
+        BigInteger min, max;
+        switch (node.targetType.idx) {
+            case Type.IDX_SHORT:
+                min = BigInteger.valueOf(Short.MIN_VALUE);
+                max = BigInteger.valueOf(Short.MAX_VALUE);
+                break;
+            case Type.IDX_INT:
+                min = BigInteger.valueOf(Integer.MIN_VALUE);
+                max = BigInteger.valueOf(Integer.MAX_VALUE);
+                break;
+            case Type.IDX_BIGINT:
+                min = BigInteger.valueOf(Long.MIN_VALUE);
+                max = BigInteger.valueOf(Long.MAX_VALUE);
+                break;
+            case Type.IDX_STRING:
+                min = max = null;
+                break;
+            default:
+                return null;
+        }
+
+        boolean hasNull = false;
+        List<String> values = new ArrayList<>();
+        for (Expr e : node.inElements.nodes) {
+            if (e instanceof ExprNull) {
+                hasNull = true;
+            } else if (forString) {
+                if (!(e instanceof ExprStr) || !(e.coercion instanceof Coercion.Identity)) {
+                    return null;
+                }
+                values.add(((ExprStr) e).javaCode());
+            } else {
+                BigInteger v = getIntegerConstant(e);
+                if (v == null || v.compareTo(min) < 0 || v.compareTo(max) > 0) {
+                    // not a constant, or its conversion to the target type fails at run time
+                    return null;
+                }
+                values.add(v + "L");
+            }
+        }
+
+        return String.format(
+                "ConstInList.%s(%s%s)",
+                forString ? "ofStrings" : "ofLongs",
+                hasNull,
+                values.isEmpty() ? "" : ", " + String.join(", ", values));
+    }
+
+    // value of an integer literal, possibly negated
+    private static BigInteger getIntegerConstant(Expr e) {
+        if (e instanceof ExprUint) {
+            return new BigInteger(((ExprUint) e).val);
+        } else if (e instanceof ExprUnaryOp && ((ExprUnaryOp) e).opStr.equals("Neg")) {
+            Expr operand = ((ExprUnaryOp) e).operand;
+            if (operand instanceof ExprUint) {
+                return new BigInteger(((ExprUint) operand).val).negate();
+            }
+        }
+
+        return null;
+    }
+
     // -------------------------------------------------------------------------
     // ExprLike
     //
@@ -761,20 +1129,49 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
     private static String[] tmplExprLike =
             new String[] {"opLike(", "  %'+TARGET'%,", "  %'+PATTERN'%,", "  %'ESCAPE'%", ")"};
 
+    private static String[] tmplExprLikeConstPattern =
+            new String[] {"opLike(", "  %'+TARGET'%,", "  %'MATCHER'%", ")"};
+
+    // declarations of the matchers of constant LIKE patterns
+    private List<String> likeMatcherDecls = new ArrayList<>();
+
     @Override
     public CodeToResolve visitExprLike(ExprLike node) {
 
-        CodeTemplate tmpl =
-                new CodeTemplate(
-                        "ExprLike",
-                        Misc.getLineColumnOf(node.ctx),
-                        tmplExprLike,
-                        "%'+TARGET'%",
-                        visit(node.target),
-                        "%'+PATTERN'%",
-                        visit(node.pattern),
-                        "%'ESCAPE'%",
-                        node.escape == null ? "null" : node.escape.javaCode());
+        String escapeCode = node.escape == null ? "null" : node.escape.javaCode();
+
+        CodeTemplate tmpl;
+        if (node.pattern instanceof ExprStr) {
+            // constant pattern: its matcher is created once when the class is initialized
+            String matcher = "$like_matcher_" + likeMatcherDecls.size();
+            likeMatcherDecls.add(
+                    String.format(
+                            "  private static final LikeMatcher %s = LikeMatcher.compile(%s, %s);",
+                            matcher, ((ExprStr) node.pattern).javaCode(), escapeCode));
+            javaTypesUsed.add("com.cubrid.plcsql.predefined.sp.LikeMatcher");
+
+            tmpl =
+                    new CodeTemplate(
+                            "ExprLike",
+                            Misc.getLineColumnOf(node.ctx),
+                            tmplExprLikeConstPattern,
+                            "%'+TARGET'%",
+                            visit(node.target),
+                            "%'MATCHER'%",
+                            matcher);
+        } else {
+            tmpl =
+                    new CodeTemplate(
+                            "ExprLike",
+                            Misc.getLineColumnOf(node.ctx),
+                            tmplExprLike,
+                            "%'+TARGET'%",
+                            visit(node.target),
+                            "%'+PATTERN'%",
+                            visit(node.pattern),
+                            "%'ESCAPE'%",
+                            escapeCode);
+        }
 
         return applyCoercion(node.coercion, tmpl, node.ctx);
     }
@@ -913,48 +1310,25 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
     // ExprSerialVal
     //
 
-    private static String[] tmplExprSerialVal =
-            new String[] {
-                "(new Object() {",
-                "  BigDecimal getSerialVal() throws Exception {",
-                "    try {",
-                "      BigDecimal ret;",
-                "      String dynSql = \"select %'SERIAL-NAME'%.%'SERIAL-VAL'%\";",
-                "      PreparedStatement stmt = conn.prepareStatement(dynSql);",
-                "      ResultSet r = stmt.executeQuery();",
-                "      if (r.next()) {",
-                "        ret = r.getBigDecimal(1);",
-                "        if (ret != null && r.wasNull()) {",
-                "          ret = null;",
-                "        }",
-                "      } else {",
-                "        ret = null;",
-                "      }",
-                "      stmt.close();",
-                "      return ret;",
-                "    } catch (SQLException e) {",
-                "      Server.log(e);",
-                "      throw new SQL_ERROR(e.getMessage());",
-                "    }",
-                "  }",
-                "}.getSerialVal())"
-            };
-
     @Override
     public CodeToResolve visitExprSerialVal(ExprSerialVal node) {
 
+        // values are served by the serial value cache of the session (see SerialValueCache)
         CodeTemplate tmpl =
                 new CodeTemplate(
                         "ExprSerialVal",
                         Misc.getLineColumnOf(node.ctx),
-                        tmplExprSerialVal,
+                        "%'SERIAL-FUNC'%(conn, \"%'SERIAL-NAME'%\"%'RESERVE'%)",
+                        "%'SERIAL-FUNC'%",
+                        (node.mode == ExprSerialVal.SerialVal.CURR_VAL)
+                                ? "serialCurrentValue"
+                                : "serialNextValue",
                         "%'SERIAL-NAME'%",
                         node.name,
-                        "%'SERIAL-VAL'%",
+                        "%'RESERVE'%",
                         (node.mode == ExprSerialVal.SerialVal.CURR_VAL)
-                                ? "CURRENT_VALUE"
-                                : "NEXT_VALUE");
-        javaTypesUsed.add("java.math.BigDecimal");
+                                ? ""
+                                : ", " + reserveSerialValues);
         return applyCoercion(node.coercion, tmpl, node.ctx);
     }
 
@@ -1066,9 +1440,42 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
     private static final String[] tmplAssignNullable =
             new String[] {"%'+TARGET'% =", "  %'+VAL'%;"};
 
+    private static final String[] tmplAssignAccumulated =
+            new String[] {"%'ACCUMULATOR'%.append(%'MAX-LENGTH'%,", "  %'+VAL'%);"};
+
     @Override
     public CodeToResolve visitStmtAssign(StmtAssign node) {
 
+        String accumulator =
+                node.strAccumulated == null ? null : activeStrAccumulators.get(node.strAccumulated);
+        if (accumulator != null) {
+
+            // s := s || e1 || e2 ... where s is held in a StringAccumulator during the loop
+            List<Expr> operands = ((ExprBinaryOp) node.val).getConcatOperands();
+            List<Expr> rest = operands.subList(1, operands.size());
+            Coercion c = node.val.coercion;
+
+            return new CodeTemplate(
+                    "StmtAssign - string accumulation",
+                    Misc.getLineColumnOf(node.ctx),
+                    tmplAssignAccumulated,
+                    "%'ACCUMULATOR'%",
+                    accumulator,
+                    "%'+VAL'%",
+                    rest.size() == 1
+                            ? visit(rest.get(0))
+                            : new CodeTemplate(
+                                    "ExprBinaryOp - concatenation chain",
+                                    Misc.UNKNOWN_LINE_COLUMN,
+                                    tmplExprConcatChain,
+                                    "%'+OPERANDS'%",
+                                    visitExprList(rest)),
+                    "%'MAX-LENGTH'%",
+                    c instanceof Coercion.CoerceAndCheckStrLength
+                            ? Integer.toString(((Coercion.CoerceAndCheckStrLength) c).length)
+                            : "-1");
+        }
+
         if (node.val.coercion instanceof Coercion.NullToRecord) {
 
             node.val.coercion = null; // small optimization: suppressing null record creation
@@ -1151,16 +1558,80 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
     private static String[] tmplStmtBasicLoop =
             new String[] {"%'OPT-LABEL'%", "while (opNot(false)) {", "  %'+STATEMENTS'%", "}"};
 
+    // a string variable which a loop only appends to (see TypeChecker) is held in a
+    // StringAccumulator during the loop, and gets its value back however the loop is left
+    private static String[] tmplStrAccumulation =
+            new String[] {
+                "{ // string accumulation in a loop",
+                "  StringAccumulator %'ACCUMULATOR'% = new StringAccumulator(%'VAR'%);",
+                "  try {",
+                "    %'+LOOP'%",
+                "  } finally {",
+                "    %'VAR'% = %'ACCUMULATOR'%.value();",
+                "  }",
+                "}"
+            };
+
+    // variable -> name of the StringAccumulator holding its value in the current loops
+    private final Map<DeclVar, String> activeStrAccumulators = new HashMap<>();
+    private int strAccumulatorCount = 0;
+
+    // must be called before visiting the children of the loop
+    private List<String[]> beginStrAccumulation(Loop node) {
+
+        List<String[]> accumulators = new ArrayList<>();
+        List<ExprId> vars = node.getStrAccumulators();
+        if (vars != null) {
+            for (ExprId var : vars) {
+                DeclVar decl = (DeclVar) var.decl;
+                if (!activeStrAccumulators.containsKey(decl)) { // not by an outer loop
+                    String name = "$str_acc_" + strAccumulatorCount++;
+                    activeStrAccumulators.put(decl, name);
+                    accumulators.add(new String[] {name, var.javaCode(), var.name});
+                }
+            }
+        }
+
+        return accumulators;
+    }
+
+    private CodeTemplate endStrAccumulation(List<String[]> accumulators, CodeTemplate loop) {
+
+        if (accumulators.size() > 0) {
+            javaTypesUsed.add("com.cubrid.plcsql.predefined.sp.StringAccumulator");
+        }
+
+        for (String[] acc : accumulators) {
+            activeStrAccumulators.values().remove(acc[0]);
+            loop =
+                    new CodeTemplate(
+                            "string accumulation for " + acc[2],
+                            Misc.UNKNOWN_LINE_COLUMN,
+                            tmplStrAccumulation,
+                            "%'ACCUMULATOR'%",
+                            acc[0],
+                            "%'VAR'%",
+                            acc[1],
+                            "%'+LOOP'%",
+                            loop);
+        }
+
+        return loop;
+    }
+
     @Override
     public CodeToResolve visitStmtBasicLoop(StmtBasicLoop node) {
-        return new CodeTemplate(
-                "StmtBasicLoop",
-                Misc.UNKNOWN_LINE_COLUMN,
-                tmplStmtBasicLoop,
-                "%'OPT-LABEL'%",
-                node.declLabel == null ? "" : node.declLabel.javaCode(),
-                "%'+STATEMENTS'%",
-                visitNodeList(node.stmts));
+        List<String[]> accumulators = beginStrAccumulation(node);
+        CodeTemplate loop =
+                new CodeTemplate(
+                        "StmtBasicLoop",
+                        Misc.UNKNOWN_LINE_COLUMN,
+                        tmplStmtBasicLoop,
+                        "%'OPT-LABEL'%",
+                        node.declLabel == null ? "" : node.declLabel.javaCode(),
+                        "%'+STATEMENTS'%",
+                        visitNodeList(node.stmts));
+        return endStrAccumulation(accumulators, loop);
     }
 
     // -------------------------------------------------------------------------
@@ -1230,7 +1701,7 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
                 "%'+WHEN-PARTS'%",
                 visitNodeList(node.whenParts).setDelimiter(" else"),
                 "%'+ELSE-PART'%",
-                node.elsePart == null ? "throw new CASE_NOT_FOUND();" : visit(node.elsePart),
+                node.elsePart == null ? getCaseNotFoundCode(node.ctx) : visit(node.elsePart),
                 "%'LEVEL'%",
                 Integer.toString(node.level) // level replacement must go last
                 );
@@ -1319,19 +1790,23 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
             assert target instanceof AssignTarget;
 
             String resultStr;
+            boolean typed = false;
             if (node.columnTypeList == null) {
                 resultStr = String.format("rs.getObject(%d)", i + 1);
             } else {
-                resultStr =
-                        String.format(
-                                "(%s) rs.getObject(%d)",
-                                getJavaCodeOfType(node.columnTypeList.get(i)), i + 1);
+                Type colType = node.columnTypeList.get(i);
+                typed = hasTypedFieldGetter(colType);
+                resultStr = getFieldCode("rs", i + 1, colType);
             }
 
             Coercion c = node.coercions.get(i);
             String idCode = ((AssignTarget) target).javaCode();
             ret.add(String.format("%s = %s;", idCode, c.javaCode(resultStr)));
-            ret.add(String.format("if (%1$s != null && rs.wasNull()) { %1$s = null; }", idCode));
+            if (!typed) {
+                ret.add(
+                        String.format(
+                                "if (%1$s != null && rs.wasNull()) { %1$s = null; }", idCode));
+            }
 
             i++;
         }
@@ -1451,12 +1926,12 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
                 "  }",
                 "}",
                 "if (i%'LEVEL'% == 0) {",
-                "  throw new NO_DATA_FOUND();",
+                "  throw new NO_DATA_FOUND(%'POS'%);",
                 "} else if (i%'LEVEL'% == 1) {",
                 "  sql_rowcount[0] = 1L;",
                 "} else {",
                 "  sql_rowcount[0] = 1L;", // Surprise? Refer to the Spec.
-                "  throw new TOO_MANY_ROWS();",
+                "  throw new TOO_MANY_ROWS(%'POS'%);",
                 "}"
             };
 
@@ -1482,22 +1957,24 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
             assert target instanceof AssignTarget;
 
             String resultStr;
+            boolean typed = false;
             if (node.dynamic) {
                 resultStr = String.format("r%%'LEVEL'%%.getObject(%d)", i + 1);
             } else {
-                resultStr =
-                        String.format(
-                                "(%s) r%%'LEVEL'%%.getObject(%d)",
-                                getJavaCodeOfType(node.columnTypeList.get(i)), i + 1);
+                Type colType = node.columnTypeList.get(i);
+                typed = hasTypedFieldGetter(colType);
+                resultStr = getFieldCode("r%'LEVEL'%", i + 1, colType);
             }
 
             Coercion c = node.coercions.get(i);
             String targetCode = ((AssignTarget) target).javaCode();
             ret.add(String.format("%s = %s;", targetCode, c.javaCode(resultStr)));
-            ret.add(
-                    String.format(
-                            "if (%1$s != null && r%%'LEVEL'%%.wasNull()) { %1$s = null; }",
-                            targetCode));
+            if (!typed) {
+                ret.add(
+                        String.format(
+                                "if (%1$s != null && r%%'LEVEL'%%.wasNull()) { %1$s = null; }",
+                                targetCode));
+            }
 
             if (target instanceof ExprId) {
 
@@ -1537,7 +2014,9 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
                             Misc.UNKNOWN_LINE_COLUMN,
                             tmplHandleIntoClause,
                             "%'+SET-RESULTS'%",
-                            setResults);
+                            setResults,
+                            "%'POS'%",
+                            getPosCode(Misc.getLineColumnOf(node.ctx)));
             banIntoClause = tmplBanIntoClause;
         }
 
@@ -1624,71 +2103,109 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
         List<String> ret = new LinkedList<>();
         for (Misc.Pair<String, Type> field : recTy.selectList) {
             ret.add(
-                    String.format(
-                            "%s(%s) getFieldWithIndex(%s_r%d, %d)",
-                            (i > 1 ? ", " : ""), getJavaCodeOfType(field.e2), record, level, i));
+                    (i > 1 ? ", " : "")
+                            + getFieldCode(String.format("%s_r%d", record, level), i, field.e2));
             i++;
         }
 
         return ret.toArray(DUMMY_STRING_ARRAY);
     }
 
+    private static boolean hasTypedFieldGetter(Type colType) {
+        switch (colType.idx) {
+            case Type.IDX_STRING:
+            case Type.IDX_SHORT:
+            case Type.IDX_INT:
+            case Type.IDX_BIGINT:
+            case Type.IDX_NUMERIC:
+            case Type.IDX_FLOAT:
+            case Type.IDX_DOUBLE:
+            case Type.IDX_DATE:
+            case Type.IDX_TIME:
+                return true;
+            default:
+                // DATETIME and TIMESTAMP share java.sql.Timestamp and are distinguished only by
+                // getObject(). So are the others such as Object and Boolean.
+                return false;
+        }
+    }
+
+    // code to read a column of a static SQL result whose type is known at compile time.
+    // a typed getter of SpLib is used, if any, in order to avoid getObject() and a cast
+    private String getFieldCode(String rs, int colIdx, Type colType) {
+        String tyJava = getJavaCodeOfType(colType);
+        if (hasTypedFieldGetter(colType)) {
+            return String.format(
+                    "get%sFieldWithIndex(%s, %d)",
+                    Type.getTypeByIdx(colType.idx).plcName, rs, colIdx);
+        } else {
+            return String.format("(%s) getFieldWithIndex(%s, %d)", tyJava, rs, colIdx);
+        }
+    }
+
     @Override
     public CodeToResolve visitStmtForCursorLoop(StmtForCursorLoop node) {
 
         String[] recordSetArgs =
                 getRecordSetArgs(node.record, node.recordType, node.cursor.scope.level);
 
+        List<String[]> accumulators = beginStrAccumulation(node);
+        CodeTemplate loop;
+
         DeclCursor decl = (DeclCursor) node.cursor.decl;
         if (decl.paramNumOfHostExpr.length == 0) {
 
-            return new CodeTemplate(
-                    "StmtForCursorLoop",
-                    Misc.getLineColumnOf(node.ctx),
-                    tmplStmtForCursorLoopWithoutHostExprs,
-                    "%'RECORD-CLASS'%",
-                    node.recordType.javaCode,
-                    "%'+RECORD-FIELD-VALUES'%",
-                    recordSetArgs,
-                    "%'CURSOR'%",
-                    node.cursor.javaCode(),
-                    "%'RECORD'%",
-                    node.record,
-                    "%'LABEL'%",
-                    node.label == null ? "" : node.label + "_%'LEVEL'%:",
-                    "%'LEVEL'%",
-                    Integer.toString(node.cursor.scope.level),
-                    "%'+STATEMENTS'%",
-                    visitNodeList(node.stmts));
+            loop =
+                    new CodeTemplate(
+                            "StmtForCursorLoop",
+                            Misc.getLineColumnOf(node.ctx),
+                            tmplStmtForCursorLoopWithoutHostExprs,
+                            "%'RECORD-CLASS'%",
+                            node.recordType.javaCode,
+                            "%'+RECORD-FIELD-VALUES'%",
+                            recordSetArgs,
+                            "%'CURSOR'%",
+                            node.cursor.javaCode(),
+                            "%'RECORD'%",
+                            node.record,
+                            "%'LABEL'%",
+                            node.label == null ? "" : node.label + "_%'LEVEL'%:",
+                            "%'LEVEL'%",
+                            Integer.toString(node.cursor.scope.level),
+                            "%'+STATEMENTS'%",
+                            visitNodeList(node.stmts));
         } else {
 
             Object dupCursorArgs = getDupCursorArgs(node, decl.paramRefCounts);
             CodeTemplateList hostExprs =
                     getHostExprs(node, decl.paramNumOfHostExpr, decl.paramRefCounts);
 
-            return new CodeTemplate(
-                    "StmtForCursorLoop",
-                    Misc.getLineColumnOf(node.ctx),
-                    tmplStmtForCursorLoopWithHostExprs,
-                    "%'RECORD-CLASS'%",
-                    node.recordType.javaCode,
-                    "%'+RECORD-FIELD-VALUES'%",
-                    recordSetArgs,
-                    "%'+DUPLICATE-CURSOR-ARG'%",
-                    dupCursorArgs,
-                    "%'CURSOR'%",
-                    node.cursor.javaCode(),
-                    "%'+HOST-EXPRS'%",
-                    hostExprs,
-                    "%'RECORD'%",
-                    node.record,
-                    "%'LABEL'%",
-                    node.label == null ? "" : node.label + "_%'LEVEL'%:",
-                    "%'LEVEL'%",
-                    Integer.toString(node.cursor.scope.level),
-                    "%'+STATEMENTS'%",
-                    visitNodeList(node.stmts));
+            loop =
+                    new CodeTemplate(
+                            "StmtForCursorLoop",
+                            Misc.getLineColumnOf(node.ctx),
+                            tmplStmtForCursorLoopWithHostExprs,
+                            "%'RECORD-CLASS'%",
+                            node.recordType.javaCode,
+                            "%'+RECORD-FIELD-VALUES'%",
+                            recordSetArgs,
+                            "%'+DUPLICATE-CURSOR-ARG'%",
+                            dupCursorArgs,
+                            "%'CURSOR'%",
+                            node.cursor.javaCode(),
+                            "%'+HOST-EXPRS'%",
+                            hostExprs,
+                            "%'RECORD'%",
+                            node.record,
+                            "%'LABEL'%",
+                            node.label == null ? "" : node.label + "_%'LEVEL'%:",
+                            "%'LEVEL'%",
+                            Integer.toString(node.cursor.scope.level),
+                            "%'+STATEMENTS'%",
+                            visitNodeList(node.stmts));
         }
+
+        return endStrAccumulation(accumulators, loop);
     }
 
     // -------------------------------------------------------------------------
@@ -1734,24 +2251,27 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
 
         String labelStr = node.declLabel == null ? "" : node.declLabel.javaCode();
 
-        return new CodeTemplate(
-                "StmtForIterLoop",
-                Misc.getLineColumnOf(node.ctx),
-                node.reverse ? tmplStmtForIterLoopReverse : tmplStmtForIterLoop,
-                "%'LVL'%",
-                Integer.toString(node.iter.scope.level),
-                "%'OPT-LABEL'%",
-                labelStr,
-                "%'I'%",
-                node.iter.name,
-                "%'+LOWER-BOUND'%",
-                visit(node.lowerBound),
-                "%'+UPPER-BOUND'%",
-                visit(node.upperBound),
-                "%'+STEP'%",
-                node.step == null ? "1" : visit(node.step),
-                "%'+STATEMENTS'%",
-                visitNodeList(node.stmts));
+        List<String[]> accumulators = beginStrAccumulation(node);
+        CodeTemplate loop =
+                new CodeTemplate(
+                        "StmtForIterLoop",
+                        Misc.getLineColumnOf(node.ctx),
+                        node.reverse ? tmplStmtForIterLoopReverse : tmplStmtForIterLoop,
+                        "%'LVL'%",
+                        Integer.toString(node.iter.scope.level),
+                        "%'OPT-LABEL'%",
+                        labelStr,
+                        "%'I'%",
+                        node.iter.name,
+                        "%'+LOWER-BOUND'%",
+                        visit(node.lowerBound),
+                        "%'+UPPER-BOUND'%",
+                        visit(node.upperBound),
+                        "%'+STEP'%",
+                        node.step == null ? "1" : visit(node.step),
+                        "%'+STATEMENTS'%",
+                        visitNodeList(node.stmts));
+        return endStrAccumulation(accumulators, loop);
     }
 
     // -------------------------------------------------------------------------
@@ -1798,26 +2318,29 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
                 getRecordSetArgs(node.record.name(), (TypeRecord) recTy, node.record.scope.level);
         Object setUsedExpr = getSetUsedExpr(node.usedExprList);
 
-        return new CodeTemplate(
-                "StmtForSqlLoop",
-                Misc.getLineColumnOf(node.ctx),
-                tmplStmtForStaticSqlLoop,
-                "%'RECORD-CLASS'%",
-                node.record.type().javaCode,
-                "%'+SQL'%",
-                visit(node.sql),
-                "%'+SET-USED-EXPR'%",
-                setUsedExpr,
-                "%'RECORD'%",
-                node.record.name(),
-                "%'LABEL'%",
-                node.label == null ? "" : node.label + "_%'LEVEL'%:",
-                "%'+RECORD-FIELD-VALUES'%",
-                recordSetArgs,
-                "%'LEVEL'%",
-                Integer.toString(node.record.scope.level),
-                "%'+STATEMENTS'%",
-                visitNodeList(node.stmts));
+        List<String[]> accumulators = beginStrAccumulation(node);
+        CodeTemplate loop =
+                new CodeTemplate(
+                        "StmtForSqlLoop",
+                        Misc.getLineColumnOf(node.ctx),
+                        tmplStmtForStaticSqlLoop,
+                        "%'RECORD-CLASS'%",
+                        node.record.type().javaCode,
+                        "%'+SQL'%",
+                        visit(node.sql),
+                        "%'+SET-USED-EXPR'%",
+                        setUsedExpr,
+                        "%'RECORD'%",
+                        node.record.name(),
+                        "%'LABEL'%",
+                        node.label == null ? "" : node.label + "_%'LEVEL'%:",
+                        "%'+RECORD-FIELD-VALUES'%",
+                        recordSetArgs,
+                        "%'LEVEL'%",
+                        Integer.toString(node.record.scope.level),
+                        "%'+STATEMENTS'%",
+                        visitNodeList(node.stmts));
+        return endStrAccumulation(accumulators, loop);
     }
 
     // -------------------------------------------------------------------------
@@ -1865,22 +2388,25 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
 
         Object setUsedExpr = getSetUsedExpr(node.usedExprList);
 
-        return new CodeTemplate(
-                "StmtForSqlLoop",
-                Misc.getLineColumnOf(node.ctx),
-                tmplStmtForDynamicSqlLoop,
-                "%'+SQL'%",
-                visit(node.sql),
-                "%'+SET-USED-EXPR'%",
-                setUsedExpr,
-                "%'RECORD'%",
-                node.record.name(),
-                "%'LABEL'%",
-                node.label == null ? "" : node.label + "_%'LEVEL'%:",
-                "%'LEVEL'%",
-                Integer.toString(node.record.scope.level),
-                "%'+STATEMENTS'%",
-                visitNodeList(node.stmts));
+        List<String[]> accumulators = beginStrAccumulation(node);
+        CodeTemplate loop =
+                new CodeTemplate(
+                        "StmtForSqlLoop",
+                        Misc.getLineColumnOf(node.ctx),
+                        tmplStmtForDynamicSqlLoop,
+                        "%'+SQL'%",
+                        visit(node.sql),
+                        "%'+SET-USED-EXPR'%",
+                        setUsedExpr,
+                        "%'RECORD'%",
+                        node.record.name(),
+                        "%'LABEL'%",
+                        node.label == null ? "" : node.label + "_%'LEVEL'%:",
+                        "%'LEVEL'%",
+                        Integer.toString(node.record.scope.level),
+                        "%'+STATEMENTS'%",
+                        visitNodeList(node.stmts));
+        return endStrAccumulation(accumulators, loop);
     }
 
     // -------------------------------------------------------------------------
@@ -1960,7 +2486,7 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
 
             Object elsePart =
                     node.elsePart == null
-                            ? "throw new CASE_NOT_FOUND();"
+                            ? getCaseNotFoundCode(node.ctx)
                             : visitNodeList(node.elsePart);
 
             return new CodeTemplate(
@@ -2091,18 +2617,34 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
             code = "throw e" + node.exHandlerDepth + ";";
         } else {
             String block = node.exName.prefixDeclBlock ? node.exName.decl.scope().block + "." : "";
-            code = String.format("throw %s new %s();", block, node.exName.name);
+            code =
+                    String.format(
+                            "throw %s new %s(%s);",
+                            block,
+                            node.exName.name,
+                            getPosCode(Misc.getLineColumnOf(node.ctx)));
         }
 
         return new CodeTemplate("StmtRaise", Misc.getLineColumnOf(node.ctx), code);
     }
 
+    private static String getPosCode(int[] pos) {
+        return String.format("new int[] { %d, %d }", pos[0], pos[1]);
+    }
+
+    private static String getCaseNotFoundCode(ParserRuleContext ctx) {
+        return String.format(
+                "throw new CASE_NOT_FOUND(%s);", getPosCode(Misc.getLineColumnOf(ctx)));
+    }
+
     // -------------------------------------------------------------------------
     // StmtRaiseAppErr
     //
 
     private static String[] tmplStmtRaiseAppErr =
-            new String[] {"throw new $APP_ERROR(", "  %'+ERR-CODE'%,", "  %'+ERR-MSG'%);"};
+            new String[] {
+                "throw new $APP_ERROR(", "  %'+ERR-CODE'%,", "  %'+ERR-MSG'%,", "  %'POS'%);"
+            };
 
     @Override
     public CodeToResolve visitStmtRaiseAppErr(StmtRaiseAppErr node) {
@@ -2114,7 +2656,9 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
                 "%'+ERR-CODE'%",
                 visit(node.errCode),
                 "%'+ERR-MSG'%",
-                visit(node.errMsg));
+                visit(node.errMsg),
+                "%'POS'%",
+                getPosCode(Misc.getLineColumnOf(node.ctx)));
     }
 
     // -------------------------------------------------------------------------
@@ -2173,16 +2717,19 @@ public class JavaCodeWriter extends AstVisitor<JavaCodeWriter.CodeToResolve> {
     @Override
     public CodeToResolve visitStmtWhileLoop(StmtWhileLoop node) {
 
-        return new CodeTemplate(
-                "StmtWhileLoop",
-                Misc.UNKNOWN_LINE_COLUMN,
-                tmplStmtWhileLoop,
-                "%'OPT-LABEL'%",
-                node.declLabel == null ? "" : node.declLabel.javaCode(),
-                "%'+EXPRESSION'%",
-                node.cond instanceof ExprTrue ? "opNot(Boolean.FALSE)" : visit(node.cond),
-                "%'+STATEMENTS'%",
-                visitNodeList(node.stmts));
+        List<String[]> accumulators = beginStrAccumulation(node);
+        CodeTemplate loop =
+                new CodeTemplate(
+                        "StmtWhileLoop",
+                        Misc.UNKNOWN_LINE_COLUMN,
+                        tmplStmtWhileLoop,
+                        "%'OPT-LABEL'%",
+                        node.declLabel == null ? "" : node.declLabel.javaCode(),
+                        "%'+EXPRESSION'%",
+                        node.cond instanceof ExprTrue ? "opNot(Boolean.FALSE)" : visit(node.cond),
+                        "%'+STATEMENTS'%",
+                        visitNodeList(node.stmts));
+        return endStrAccumulation(accumulators, loop);
     }
 
     // -------------------------------------------------------------------------
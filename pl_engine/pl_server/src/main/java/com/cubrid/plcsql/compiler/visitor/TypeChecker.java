@@ -47,11 +47,15 @@ import com.cubrid.plcsql.compiler.serverapi.SqlSemantics;
 import com.cubrid.plcsql.compiler.type.Type;
 import com.cubrid.plcsql.compiler.type.TypeChar;
 import com.cubrid.plcsql.compiler.type.TypeRecord;
+import com.cubrid.plcsql.compiler.type.TypeVarchar;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class TypeChecker extends AstVisitor<Type> {
@@ -146,6 +150,10 @@ public class TypeChecker extends AstVisitor<Type> {
 
     @Override
     public Type visitDeclVar(DeclVar node) {
+        for (LoopInfo info : loopInfos) {
+            info.declaredInside.add(node);
+        }
+
         visit(node.typeSpec);
         if (node.val == null) {
             assert !node.notNull; // syntactically guaranteed
@@ -248,6 +256,7 @@ public class TypeChecker extends AstVisitor<Type> {
             node.setOpExtension("Char");
         }
 
+        node.setTargetType(op.paramList.nodes.get(0).typeSpec.type);
         node.target.setCoercion(outCoercions.get(0));
         node.lowerBound.setCoercion(outCoercions.get(1));
         node.upperBound.setCoercion(outCoercions.get(2));
@@ -312,6 +321,11 @@ public class TypeChecker extends AstVisitor<Type> {
         node.left.setCoercion(outCoercions.get(0));
         node.right.setCoercion(outCoercions.get(1));
 
+        if ((node.opStr.equals("Concat") || node.opStr.equals("Add"))
+                && binOp.retTypeSpec.type.isString()) {
+            node.setStrConcat();
+        }
+
         return binOp.retTypeSpec.type;
     }
 
@@ -524,6 +538,12 @@ public class TypeChecker extends AstVisitor<Type> {
 
     @Override
     public Type visitExprId(ExprId node) {
+        if (node.decl instanceof DeclVar) {
+            for (LoopInfo info : loopInfos) {
+                info.refCounts.merge((DeclVar) node.decl, 1, Integer::sum);
+            }
+        }
+
         if (node.decl instanceof DeclIdTypeSpeced) {
             return ((DeclIdTypeSpeced) node.decl).typeSpec().type;
         } else if (node.decl instanceof DeclCursor) {
@@ -570,6 +590,7 @@ public class TypeChecker extends AstVisitor<Type> {
         } else if (argsAreChars) {
             node.setOpExtension("Char");
         }
+        node.setTargetType(op.paramList.nodes.get(0).typeSpec.type);
 
         for (int i = 0; i < len; i++) {
             Expr arg = args.get(i);
@@ -656,6 +677,7 @@ public class TypeChecker extends AstVisitor<Type> {
 
     @Override
     public Type visitExprLocalFuncCall(ExprLocalFuncCall node) {
+        setHiddenRefs();
         checkRoutineCall(node.decl, node.args.nodes);
         return node.decl.retTypeSpec.type;
     }
@@ -765,12 +787,23 @@ public class TypeChecker extends AstVisitor<Type> {
             node.val.setCoercion(c);
         }
 
+        DeclVar accumulated = getStrAccumulated(node);
+        if (accumulated != null) {
+            node.setStrAccumulated(accumulated);
+            for (LoopInfo info : loopInfos) {
+                info.accumulations.putIfAbsent(accumulated, (ExprId) node.target);
+                info.accumulationCounts.merge(accumulated, 1, Integer::sum);
+            }
+        }
+
         return null;
     }
 
     @Override
     public Type visitStmtBasicLoop(StmtBasicLoop node) {
+        beginLoop();
         visitNodeList(node.stmts);
+        endLoop(node);
         return null;
     }
 
@@ -897,6 +930,7 @@ public class TypeChecker extends AstVisitor<Type> {
 
     @Override
     public Type visitStmtCursorOpen(StmtCursorOpen node) {
+        setHiddenRefs(); // the host expressions of the cursor
         Type idType = visit(node.cursor);
         if (idType == Type.CURSOR) {
             DeclCursor declCursor = (DeclCursor) node.cursor.decl;
@@ -1020,7 +1054,9 @@ public class TypeChecker extends AstVisitor<Type> {
     @Override
     public Type visitStmtForCursorLoop(StmtForCursorLoop node) {
         visitStmtCursorOpen(node); // StmtForCursorLoop extends StmtCursorOpen
+        beginLoop();
         visitNodeList(node.stmts);
+        endLoop(node);
         return null;
     }
 
@@ -1029,6 +1065,8 @@ public class TypeChecker extends AstVisitor<Type> {
         Type ty;
         Coercion c;
 
+        beginLoop();
+
         ty = visit(node.lowerBound);
         c = Coercion.getCoercion(iStore, ty, Type.INT);
         if (c == null) {
@@ -1062,6 +1100,7 @@ public class TypeChecker extends AstVisitor<Type> {
         }
 
         visitNodeList(node.stmts);
+        endLoop(node);
 
         return null;
     }
@@ -1069,6 +1108,8 @@ public class TypeChecker extends AstVisitor<Type> {
     @Override
     public Type visitStmtForDynamicSqlLoop(StmtForDynamicSqlLoop node) {
 
+        beginLoop();
+
         Type sqlType = visit(node.sql);
         if (sqlType.idx != Type.IDX_STRING) {
             throw new SemanticError(
@@ -1096,6 +1137,7 @@ public class TypeChecker extends AstVisitor<Type> {
         }
 
         visitNodeList(node.stmts);
+        endLoop(node);
 
         return null;
     }
@@ -1103,8 +1145,10 @@ public class TypeChecker extends AstVisitor<Type> {
     @Override
     public Type visitStmtForStaticSqlLoop(StmtForStaticSqlLoop node) {
 
+        beginLoop();
         typeCheckHostExprs(node.staticSql); // s406
         visitNodeList(node.stmts);
+        endLoop(node);
         return null;
     }
 
@@ -1126,6 +1170,7 @@ public class TypeChecker extends AstVisitor<Type> {
 
     @Override
     public Type visitStmtLocalProcCall(StmtLocalProcCall node) {
+        setHiddenRefs();
         checkRoutineCall(node.decl, node.args.nodes);
         return null;
     }
@@ -1196,6 +1241,7 @@ public class TypeChecker extends AstVisitor<Type> {
 
     @Override
     public Type visitStmtWhileLoop(StmtWhileLoop node) {
+        beginLoop();
         Type condType = visit(node.cond);
         if (condType != Type.BOOLEAN) {
             throw new SemanticError(
@@ -1203,6 +1249,7 @@ public class TypeChecker extends AstVisitor<Type> {
                     "while loops' condition must be of BOOLEAN type");
         }
         visitNodeList(node.stmts);
+        endLoop(node);
         return null;
     }
 
@@ -1224,6 +1271,79 @@ public class TypeChecker extends AstVisitor<Type> {
 
     private List<Type> caseComparedTypes;
 
+    // what the loops being visited refer to, innermost first.
+    // A string variable can be kept in a StringAccumulator during a loop if the loop refers to it
+    // only in statements 's := s || ...' (see JavaCodeWriter)
+    private static class LoopInfo {
+        final Map<DeclVar, Integer> refCounts = new HashMap<>();
+        final Map<DeclVar, ExprId> accumulations = new LinkedHashMap<>(); // to the first target
+        final Map<DeclVar, Integer> accumulationCounts = new HashMap<>();
+        final Set<DeclVar> declaredInside = new HashSet<>();
+        boolean hasHiddenRefs; // local routines or cursor openings, which can read any variable
+    }
+
+    private final LinkedList<LoopInfo> loopInfos = new LinkedList<>();
+
+    private void beginLoop() {
+        loopInfos.push(new LoopInfo());
+    }
+
+    private void endLoop(Loop node) {
+        LoopInfo info = loopInfos.pop();
+
+        List<ExprId> accumulators = new ArrayList<>();
+        if (!info.hasHiddenRefs) {
+            for (Map.Entry<DeclVar, ExprId> e : info.accumulations.entrySet()) {
+                DeclVar decl = e.getKey();
+                // each 's := s || ...' refers to s twice
+                int refCount = info.refCounts.get(decl);
+                if (!info.declaredInside.contains(decl)
+                        && refCount == 2 * info.accumulationCounts.get(decl)) {
+                    accumulators.add(e.getValue());
+                }
+            }
+        }
+        node.setStrAccumulators(accumulators);
+    }
+
+    private void setHiddenRefs() {
+        for (LoopInfo info : loopInfos) {
+            info.hasHiddenRefs = true;
+        }
+    }
+
+    // returns s if node is of the form 's := s || ...' where s is a nullable VARCHAR variable,
+    // or null otherwise
+    private static DeclVar getStrAccumulated(StmtAssign node) {
+
+        if (!(node.target instanceof ExprId) || !(((ExprId) node.target).decl instanceof DeclVar)) {
+            return null;
+        }
+        DeclVar decl = (DeclVar) ((ExprId) node.target).decl;
+        if (decl.notNull || !(decl.typeSpec.type instanceof TypeVarchar)) {
+            return null;
+        }
+
+        Coercion c = node.val.coercion;
+        if (c instanceof Coercion.CoerceAndCheckStrLength) {
+            c = ((Coercion.CoerceAndCheckStrLength) c).c;
+        }
+        if (!(c instanceof Coercion.Identity)
+                || !(node.val instanceof ExprBinaryOp)
+                || !((ExprBinaryOp) node.val).isStrConcat) {
+            return null;
+        }
+
+        Expr first = ((ExprBinaryOp) node.val).getConcatOperands().get(0);
+        if (first instanceof ExprId
+                && ((ExprId) first).decl == decl
+                && first.coercion instanceof Coercion.Identity) {
+            return decl;
+        } else {
+            return null;
+        }
+    }
+
     private Type getCommonType(Type former, Type delta) {
         if (former == null) {
             return delta;
@@ -1237,6 +1357,7 @@ public class TypeChecker extends AstVisitor<Type> {
     }
 
     private Type visitDeclRoutine(DeclRoutine node) {
+        setHiddenRefs();
         visitNodeList(node.paramList);
         if (node.retTypeSpec != null) {
             visit(node.retTypeSpec);
@@ -39,6 +39,18 @@ public class PlcsqlRuntimeError extends RuntimeException {
         this.code = code;
     }
 
+    // for exceptions whose PL/CSQL line and column are known where they are raised (RAISE
+    // statements). They do not need a stack trace to find the position, so it is not filled in.
+    public PlcsqlRuntimeError(int code, String msg, int[] pos) {
+        super(msg, null, false, false);
+        this.code = code;
+        setPlcLineColumn(pos);
+    }
+
+    public boolean isPlcLineColumnKnown() {
+        return line != -1;
+    }
+
     public int getLine() {
         return line;
     }
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.predefined.sp;
+
+import com.cubrid.jsp.RuntimeFlags;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+// the elements of an IN list consisting only of constants, built once when the class of the
+// stored procedure is initialized.
+// Integer elements are kept in a sorted long array searched by binary search, and string elements
+// in a hash set, so that testing a value neither boxes nor scans the whole list.
+public class ConstInList {
+
+    // elements of an IN list whose target is SMALLINT, INT or BIGINT
+    public static ConstInList ofLongs(boolean hasNull, long... values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return new ConstInList(hasNull, sorted, null, false);
+    }
+
+    // elements of an IN list whose target is a string (not CHAR)
+    public static ConstInList ofStrings(boolean hasNull, String... values) {
+        Set<String> set = new HashSet<>(Arrays.asList(values));
+        return new ConstInList(hasNull, null, set, set.contains(""));
+    }
+
+    // NOTE: the following follow the NULL semantics of SpLib.opIn():
+    //   NULL if the target is NULL, or if it is not found and the list has a NULL element
+
+    public Boolean contains(long v) {
+        assert longs != null;
+
+        if (Arrays.binarySearch(longs, v) >= 0) {
+            return Boolean.TRUE;
+        }
+        return hasNull ? null : Boolean.FALSE;
+    }
+
+    public Boolean contains(String s) {
+        assert strings != null;
+
+        // empty strings, in the target and in the list, are NULL in the Oracle style
+        boolean oracleStyleEmptyString = RuntimeFlags.get().oracleStyleEmptyString;
+        if (s == null || (oracleStyleEmptyString && s.isEmpty())) {
+            return null;
+        }
+
+        if (strings.contains(s)) {
+            return Boolean.TRUE;
+        }
+        return (hasNull || (oracleStyleEmptyString && hasEmptyString)) ? null : Boolean.FALSE;
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    private final boolean hasNull;
+    private final long[] longs;
+    private final Set<String> strings;
+    private final boolean hasEmptyString;
+
+    private ConstInList(boolean hasNull, long[] longs, Set<String> strings, boolean hasEmptyString) {
+        this.hasNull = hasNull;
+        this.longs = longs;
+        this.strings = strings;
+        this.hasEmptyString = hasEmptyString;
+    }
+}
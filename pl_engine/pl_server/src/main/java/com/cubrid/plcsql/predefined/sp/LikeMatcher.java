@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.predefined.sp;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// matcher for LIKE patterns.
+// A pattern is split by '%' into segments, which can contain '_' matching any single character.
+// Then, a string matches the pattern if the first segment matches at the beginning, the last one
+// at the end, and the others in order in between. Finding the leftmost occurrence of each middle
+// segment is enough, so there is no backtracking.
+public class LikeMatcher {
+
+    public static LikeMatcher compile(String pattern, String escape) {
+        assert pattern != null;
+        assert escape == null || escape.length() == 1;
+
+        return new LikeMatcher(pattern, escape == null ? NO_ESCAPE : escape.charAt(0));
+    }
+
+    // for patterns which are not known at compile time. called for every row, so a hit takes no
+    // lock and, without an escape character, builds no key
+    public static LikeMatcher getCached(String pattern, String escape) {
+        assert pattern != null;
+        assert escape == null || escape.length() == 1;
+
+        ConcurrentHashMap<String, LikeMatcher> cache;
+        String key;
+        if (escape == null) {
+            cache = cacheNoEscape;
+            key = pattern;
+        } else {
+            cache = cacheEscape;
+            key = escape + pattern;
+        }
+
+        LikeMatcher m = cache.get(key);
+        if (m == null) {
+            if (cache.size() >= CACHE_SIZE) {
+                // evict an arbitrary entry. at worst, a pattern still in use is compiled again
+                Iterator<String> it = cache.keySet().iterator();
+                if (it.hasNext()) {
+                    it.next();
+                    it.remove();
+                }
+            }
+
+            m = compile(pattern, escape);
+            LikeMatcher prev = cache.putIfAbsent(key, m);
+            if (prev != null) {
+                m = prev;
+            }
+        }
+        return m;
+    }
+
+    public boolean matches(String s) {
+
+        int len = s.length();
+        if (!hasPercent) {
+            return len == head.length() && head.matchAt(s, 0);
+        }
+
+        int end = len - tail.length();
+        if (end < head.length() || !head.matchAt(s, 0) || !tail.matchAt(s, end)) {
+            return false;
+        }
+
+        int pos = head.length();
+        for (Segment m : middles) {
+            int found = m.indexOf(s, pos, end);
+            if (found < 0) {
+                return false;
+            }
+            pos = found + m.length();
+        }
+
+        return true;
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    private static final int NO_ESCAPE = -1;
+    private static final int CACHE_SIZE = 256;
+
+    // matchers of dynamic patterns, by the pattern, and by the escape character and the pattern.
+    // each holds about CACHE_SIZE entries at most
+    private static final ConcurrentHashMap<String, LikeMatcher> cacheNoEscape =
+            new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, LikeMatcher> cacheEscape =
+            new ConcurrentHashMap<>();
+
+    private final boolean hasPercent;
+    private final Segment head; // before the first '%', or the whole pattern if there is no '%'
+    private final Segment tail; // after the last '%'
+    private final Segment[] middles; // non-empty segments in between
+
+    private LikeMatcher(String pattern, int esc) {
+
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        List<Integer> anyCharPositions = new ArrayList<>();
+
+        int len = pattern.length();
+        for (int i = 0; i < len; i++) {
+            char c = pattern.charAt(i);
+            if (c == esc) {
+                // an escape character at the end of the pattern is taken as it is, as CUBRID does
+                text.append(i + 1 == len ? c : pattern.charAt(++i));
+            } else if (c == '%') {
+                segments.add(new Segment(text.toString(), anyCharPositions));
+                text.setLength(0);
+                anyCharPositions.clear();
+            } else if (c == '_') {
+                anyCharPositions.add(text.length());
+                text.append(c);
+            } else {
+                text.append(c);
+            }
+        }
+        segments.add(new Segment(text.toString(), anyCharPositions));
+
+        int n = segments.size();
+        hasPercent = (n > 1);
+        head = segments.get(0);
+        tail = hasPercent ? segments.get(n - 1) : null;
+
+        List<Segment> nonEmpty = new ArrayList<>();
+        for (int i = 1; i < n - 1; i++) {
+            Segment s = segments.get(i);
+            if (s.length() > 0) {
+                nonEmpty.add(s);
+            }
+        }
+        middles = nonEmpty.toArray(new Segment[0]);
+    }
+
+    private static class Segment {
+
+        final String text;
+        final boolean[] anyChar; // null if the segment has no '_'
+
+        Segment(String text, List<Integer> anyCharPositions) {
+            this.text = text;
+            if (anyCharPositions.isEmpty()) {
+                anyChar = null;
+            } else {
+                anyChar = new boolean[text.length()];
+                for (int p : anyCharPositions) {
+                    anyChar[p] = true;
+                }
+            }
+        }
+
+        int length() {
+            return text.length();
+        }
+
+        boolean matchAt(String s, int pos) {
+            if (anyChar == null) {
+                return s.startsWith(text, pos);
+            }
+
+            int len = text.length();
+            if (pos < 0 || pos + len > s.length()) {
+                return false;
+            }
+            for (int i = 0; i < len; i++) {
+                if (!anyChar[i] && text.charAt(i) != s.charAt(pos + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // leftmost position in [from, end) where the segment matches and ends before end
+        int indexOf(String s, int from, int end) {
+            int last = end - text.length();
+            if (anyChar == null) {
+                int found = s.indexOf(text, from);
+                return (found >= 0 && found <= last) ? found : -1;
+            }
+
+            for (int i = from; i <= last; i++) {
+                if (matchAt(s, i)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.predefined.sp;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+// fixed-point arithmetic on NUMERIC values of precision <= 18.
+// Such a value is handled as a long unscaled value and a scale. Each method returns null when an
+// operand does not fit or the result overflows a long, and then the caller falls back to the
+// BigDecimal arithmetic. When a result is returned, it is exactly what the BigDecimal arithmetic
+// would give, including its scale.
+class ScaledDecimal {
+
+    static final int MAX_PRECISION = 18;
+
+    static BigDecimal add(BigDecimal l, BigDecimal r) {
+        long u1 = unscaled(l);
+        long u2 = unscaled(r);
+        if (u1 == OVERFLOW || u2 == OVERFLOW) {
+            return null;
+        }
+
+        int s1 = l.scale();
+        int s2 = r.scale();
+        int scale = Math.max(s1, s2);
+
+        u1 = rescale(u1, scale - s1);
+        u2 = rescale(u2, scale - s2);
+        if (u1 == OVERFLOW || u2 == OVERFLOW) {
+            return null;
+        }
+
+        long sum = u1 + u2;
+        if (((u1 ^ sum) & (u2 ^ sum)) < 0) {
+            return null; // overflow
+        }
+
+        return BigDecimal.valueOf(sum, scale);
+    }
+
+    static BigDecimal subtract(BigDecimal l, BigDecimal r) {
+        long u1 = unscaled(l);
+        long u2 = unscaled(r);
+        if (u1 == OVERFLOW || u2 == OVERFLOW) {
+            return null;
+        }
+
+        int s1 = l.scale();
+        int s2 = r.scale();
+        int scale = Math.max(s1, s2);
+
+        u1 = rescale(u1, scale - s1);
+        u2 = rescale(u2, scale - s2);
+        if (u1 == OVERFLOW || u2 == OVERFLOW) {
+            return null;
+        }
+
+        long diff = u1 - u2;
+        if (((u1 ^ u2) & (u1 ^ diff)) < 0) {
+            return null; // overflow
+        }
+
+        return BigDecimal.valueOf(diff, scale);
+    }
+
+    static BigDecimal multiply(BigDecimal l, BigDecimal r) {
+        long u1 = unscaled(l);
+        long u2 = unscaled(r);
+        if (u1 == OVERFLOW || u2 == OVERFLOW) {
+            return null;
+        }
+
+        int scale = l.scale() + r.scale();
+
+        long hi = Math.abs(u1);
+        long lo = Math.abs(u2);
+        if (hi < lo) {
+            long t = hi;
+            hi = lo;
+            lo = t;
+        }
+        if (lo != 0 && hi > Long.MAX_VALUE / lo) {
+            return null; // overflow
+        }
+
+        return BigDecimal.valueOf(u1 * u2, scale);
+    }
+
+    // returns val rounded HALF_UP to the scale, or null if it cannot be done in a long.
+    // checking the precision is left to the caller
+    static BigDecimal setScale(BigDecimal val, int scale) {
+        long u = unscaled(val);
+        if (u == OVERFLOW) {
+            return null;
+        }
+
+        int diff = scale - val.scale();
+        if (diff == 0) {
+            return val;
+        }
+
+        if (diff > 0) {
+            u = rescale(u, diff);
+            if (u == OVERFLOW) {
+                return null;
+            }
+        } else {
+            if (-diff > MAX_PRECISION) {
+                return null;
+            }
+
+            long d = POW10[-diff];
+            long q = u / d;
+            long rem = u % d;
+            if (Math.abs(rem) * 2 >= d) {
+                q += (u < 0) ? -1 : 1;
+            }
+            u = q;
+        }
+
+        return BigDecimal.valueOf(u, scale);
+    }
+
+    // whether the value, which has gone through setScale() above and so has a long unscaled value,
+    // has at most prec digits
+    static boolean fitsPrecision(BigDecimal val, int prec) {
+        assert val.scale() >= 0;
+
+        if (prec > MAX_PRECISION) {
+            return true; // any long has at most 19 digits
+        }
+
+        BigInteger u = val.unscaledValue();
+        return u.bitLength() <= 63 && Math.abs(u.longValue()) < POW10[prec];
+    }
+
+    // ------------------------------------------------------------------
+    // Private
+    // ------------------------------------------------------------------
+
+    private static final long OVERFLOW = Long.MIN_VALUE;
+    private static final int MAX_SCALE = 38;
+
+    private static final long[] POW10 = {
+        1L,
+        10L,
+        100L,
+        1000L,
+        10000L,
+        100000L,
+        1000000L,
+        10000000L,
+        100000000L,
+        1000000000L,
+        10000000000L,
+        100000000000L,
+        1000000000000L,
+        10000000000000L,
+        100000000000000L,
+        1000000000000000L,
+        10000000000000000L,
+        100000000000000000L,
+        1000000000000000000L
+    };
+
+    // the unscaled value if it has at most MAX_PRECISION digits and the scale is in
+    // [0, MAX_SCALE], or OVERFLOW.
+    // unscaledValue() wraps the long of a BigDecimal of a small precision in a BigInteger, but
+    // unlike precision() or movePointRight(), no digits are counted and no BigDecimal is made
+    private static long unscaled(BigDecimal val) {
+        int scale = val.scale();
+        if (scale < 0 || scale > MAX_SCALE) {
+            return OVERFLOW;
+        }
+
+        BigInteger u = val.unscaledValue();
+        if (u.bitLength() > 63) {
+            return OVERFLOW;
+        }
+
+        long l = u.longValueExact();
+        return (Math.abs(l) < POW10[MAX_PRECISION]) ? l : OVERFLOW;
+    }
+
+    // u * 10^n, or OVERFLOW
+    private static long rescale(long u, int n) {
+        if (n == 0) {
+            return u;
+        }
+        if (n > MAX_PRECISION) {
+            return (u == 0) ? 0 : OVERFLOW;
+        }
+
+        long p = POW10[n];
+        if (Math.abs(u) > Long.MAX_VALUE / p) {
+            return OVERFLOW;
+        }
+        return u * p;
+    }
+}
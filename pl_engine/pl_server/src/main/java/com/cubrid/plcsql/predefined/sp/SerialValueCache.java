@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.predefined.sp;
+
+import com.cubrid.jsp.exception.CUBRIDServerSideException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// serial values reserved from the server in blocks and handed out to NEXT_VALUE in PL/CSQL.
+// SERIAL_NEXT_VALUE(s, n) advances a serial n times in one request and returns the last of the n
+// values. Only serials created with CACHE (of more than one value) and without CYCLE are served
+// this way. Every NEXT_VALUE of the other serials is sent to the server, and they behave exactly
+// as in SQL.
+// The server already hands out the values of a cached serial from an in-memory cache, with no order
+// between sessions and with gaps after a restart. A reserved block is a further cache, no larger
+// than the CACHE setting, with the same kind of semantics:
+//  . NEXT_VALUE in SQL gets values past the reserved block, so values from SQL and from PL/CSQL
+//    are not ordered with each other,
+//  . CURRENT_VALUE, in SQL or in PL/CSQL, returns the end of the reserved block. Routines that
+//    mention CURRENT_VALUE therefore do not reserve values (see JavaCodeWriter.visitUnit), but a
+//    routine reading CURRENT_VALUE after calling another routine that reserved values still sees
+//    the end of the block,
+//  . the values left in the blocks at the end of a transaction are discarded (see clear()),
+//    leaving a gap.
+// Reservation starts with a block of one value in each transaction, and doubles the block size
+// each time it is used up, so that a transaction calling NEXT_VALUE a few times wastes at most as
+// many values as it used.
+// The cache is shared by the threads of a Context, and may be cleared by any of them: each entry
+// is only accessed with its lock held.
+public class SerialValueCache {
+
+    public BigDecimal nextValue(Connection conn, String serialName, boolean reserve)
+            throws SQLException {
+
+        if (!reserve) {
+            return querySerialValue(conn, "select " + serialName + ".NEXT_VALUE");
+        }
+
+        Entry e = getEntry(serialName);
+        synchronized (e) {
+            if (e.remaining == 0 && e.maxBlockSize > 1) {
+                reserve(conn, serialName, e);
+            }
+            if (e.remaining == 0) {
+                return querySerialValue(conn, "select " + serialName + ".NEXT_VALUE");
+            }
+
+            BigDecimal ret = e.next;
+            e.next = e.next.add(e.increment);
+            e.remaining--;
+            return ret;
+        }
+    }
+
+    public BigDecimal currentValue(Connection conn, String serialName) throws SQLException {
+        return querySerialValue(conn, "select " + serialName + ".CURRENT_VALUE");
+    }
+
+    // called at the end of a transaction. the reserved values are discarded, but what is known
+    // of the serials is kept: it is read again with each reservation
+    public void clear() {
+        for (Entry e : entries.values()) {
+            synchronized (e) {
+                e.remaining = 0;
+                e.blockSize = 1;
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    private static class Entry {
+        BigDecimal increment;
+        int maxBlockSize = Integer.MAX_VALUE; // <= 1 if not cached, unknown before the first use
+        int blockSize = 1;
+
+        BigDecimal next; // next value to hand out
+        int remaining; // number of reserved values from next on
+    }
+
+    // server error of SERIAL_NEXT_VALUE(s, n) when fewer than n values are left
+    private static final int ER_QPROC_SERIAL_RANGE_OVERFLOW = -775;
+
+    private static final String SQL_SERIAL_INFO =
+            ", increment_val, cyclic, cached_num from db_serial where unique_name = ";
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private Entry getEntry(String serialName) {
+        Entry e = entries.get(serialName);
+        if (e == null) {
+            Entry prev = entries.putIfAbsent(serialName, e = new Entry());
+            if (prev != null) {
+                e = prev;
+            }
+        }
+        return e;
+    }
+
+    // advances the serial by blockSize values, and reads its attributes in the same request
+    private static void reserve(Connection conn, String serialName, Entry e) throws SQLException {
+        int n = e.blockSize;
+        BigDecimal last;
+        if (n == 1) {
+            last = reserveWithSerialInfo(conn, serialName, serialName + ".NEXT_VALUE", e);
+        } else {
+            try {
+                last =
+                        reserveWithSerialInfo(
+                                conn,
+                                serialName,
+                                "serial_next_value(" + serialName + ", " + n + ")",
+                                e);
+            } catch (SQLException ex) {
+                if (!(ex instanceof CUBRIDServerSideException)
+                        || ((CUBRIDServerSideException) ex).getServerErrorCode()
+                                != ER_QPROC_SERIAL_RANGE_OVERFLOW) {
+                    throw ex;
+                }
+
+                // fewer than n values are left before the max value of the serial: stop caching
+                // it, and let the server report the end of the serial
+                e.maxBlockSize = 1;
+                return;
+            }
+        }
+
+        if (last == null) {
+            // not visible in the catalog: let the server report errors on each access
+            e.maxBlockSize = 1;
+        } else if (e.maxBlockSize <= 1) {
+            // CYCLE or no CACHE (any more): the values before the last one are dropped
+            e.next = last;
+            e.remaining = 1;
+        } else {
+            e.next = last.subtract(e.increment.multiply(BigDecimal.valueOf(n - 1)));
+            e.remaining = n;
+            e.blockSize = Math.min(n * 2, e.maxBlockSize);
+        }
+    }
+
+    private static BigDecimal reserveWithSerialInfo(
+            Connection conn, String serialName, String nextValueExpr, Entry e)
+            throws SQLException {
+
+        // serialName is an identifier normalized by the compiler, possibly qualified by its owner
+        String name = serialName.replace(" ", "").toLowerCase();
+        String sql =
+                "select "
+                        + nextValueExpr
+                        + SQL_SERIAL_INFO
+                        + ((name.indexOf('.') >= 0) ? "?" : "concat(lower(CURRENT_USER), '.', ?)");
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, name);
+            try (ResultSet r = stmt.executeQuery()) {
+                if (!r.next()) {
+                    return null;
+                }
+
+                BigDecimal last = r.getBigDecimal(1);
+                if (last == null) {
+                    throw new SQLException("no value of serial " + serialName);
+                }
+                e.increment = r.getBigDecimal(2);
+                boolean cyclic = r.getInt(3) != 0;
+                int cachedNum = r.getInt(4);
+                e.maxBlockSize = (cyclic || e.increment == null || cachedNum <= 1) ? 1 : cachedNum;
+                return last;
+            }
+        }
+    }
+
+    private static BigDecimal querySerialValue(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+                ResultSet r = stmt.executeQuery()) {
+            if (r.next()) {
+                BigDecimal ret = r.getBigDecimal(1);
+                return r.wasNull() ? null : ret;
+            } else {
+                return null;
+            }
+        }
+    }
+}
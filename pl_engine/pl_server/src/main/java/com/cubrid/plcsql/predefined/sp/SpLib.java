@@ -30,9 +30,11 @@
 
 package com.cubrid.plcsql.predefined.sp;
 
+import com.cubrid.jsp.RuntimeFlags;
 import com.cubrid.jsp.Server;
-import com.cubrid.jsp.SysParam;
+import com.cubrid.jsp.context.ContextManager;
 import com.cubrid.jsp.value.DateTimeParser;
+import com.cubrid.jsp.value.DateTimePrinter;
 import com.cubrid.plcsql.builtin.DBMS_OUTPUT;
 import com.cubrid.plcsql.compiler.CoercionScheme;
 import com.cubrid.plcsql.compiler.SymbolStack;
@@ -43,22 +45,17 @@ import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
 import java.sql.*;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Stack;
-import java.util.regex.PatternSyntaxException;
 
 public class SpLib {
 
@@ -173,6 +170,54 @@ public class SpLib {
         }
     }
 
+    // typed versions of getFieldWithIndex() used when the column type is known at compile time.
+    // they read the column with a typed getter instead of getObject() and a cast.
+
+    public static String getStringFieldWithIndex(ResultSet rs, int idx) throws SQLException {
+        String s = rs.getString(idx);
+        return rs.wasNull() ? null : s;
+    }
+
+    public static Short getShortFieldWithIndex(ResultSet rs, int idx) throws SQLException {
+        short s = rs.getShort(idx);
+        return rs.wasNull() ? null : s;
+    }
+
+    public static Integer getIntFieldWithIndex(ResultSet rs, int idx) throws SQLException {
+        int i = rs.getInt(idx);
+        return rs.wasNull() ? null : i;
+    }
+
+    public static Long getBigintFieldWithIndex(ResultSet rs, int idx) throws SQLException {
+        long l = rs.getLong(idx);
+        return rs.wasNull() ? null : l;
+    }
+
+    public static BigDecimal getNumericFieldWithIndex(ResultSet rs, int idx) throws SQLException {
+        BigDecimal bd = rs.getBigDecimal(idx);
+        return rs.wasNull() ? null : bd;
+    }
+
+    public static Float getFloatFieldWithIndex(ResultSet rs, int idx) throws SQLException {
+        float f = rs.getFloat(idx);
+        return rs.wasNull() ? null : f;
+    }
+
+    public static Double getDoubleFieldWithIndex(ResultSet rs, int idx) throws SQLException {
+        double d = rs.getDouble(idx);
+        return rs.wasNull() ? null : d;
+    }
+
+    public static Date getDateFieldWithIndex(ResultSet rs, int idx) throws SQLException {
+        Date d = rs.getDate(idx);
+        return rs.wasNull() ? null : d;
+    }
+
+    public static Time getTimeFieldWithIndex(ResultSet rs, int idx) throws SQLException {
+        Time t = rs.getTime(idx);
+        return rs.wasNull() ? null : t;
+    }
+
     public static String checkStrLength(boolean isChar, int length, String val) {
 
         if (val == null) {
@@ -210,6 +255,15 @@ public class SpLib {
         assert prec >= 1 && prec <= 38;
         assert scale >= 0 && scale <= prec;
 
+        BigDecimal scaled = ScaledDecimal.setScale(val, scale);
+        if (scaled != null) {
+            if (!ScaledDecimal.fitsPrecision(scaled, prec)) {
+                throw new VALUE_ERROR(
+                        "numeric value does not fit in the target type's precision and scale");
+            }
+            return scaled;
+        }
+
         if (val.scale() != scale) {
             val = val.setScale(scale, RoundingMode.HALF_UP);
         }
@@ -229,16 +283,7 @@ public class SpLib {
     public static int[] getPlcLineColumn(
             List<CodeRangeMarker> crmList, Throwable thrown, String fileName) {
 
-        StackTraceElement[] stackTrace = thrown.getStackTrace();
-
-        // get exception line number in the generated Java class
-        int exceptionJavaLine = 0;
-        for (StackTraceElement e : stackTrace) {
-            if (e.getFileName().equals(fileName)) {
-                exceptionJavaLine = e.getLineNumber();
-                break;
-            }
-        }
+        int exceptionJavaLine = getExceptionJavaLine(thrown, fileName);
         if (exceptionJavaLine == 0) {
             return UNKNOWN_LINE_COLUMN;
         }
@@ -262,6 +307,19 @@ public class SpLib {
         throw new PROGRAM_ERROR(); // unreachable
     }
 
+    // get exception line number in the generated Java class
+    private static int getExceptionJavaLine(Throwable thrown, String fileName) {
+
+        StackTraceElement[] stackTrace = thrown.getStackTrace();
+        for (StackTraceElement e : stackTrace) {
+            if (fileName.equals(e.getFileName())) {
+                return e.getLineNumber();
+            }
+        }
+
+        return 0;
+    }
+
     public static List<CodeRangeMarker> buildCodeRangeMarkerList(String markers) {
 
         String[] split = markers.split(" ");
@@ -299,6 +357,90 @@ public class SpLib {
         return ret;
     }
 
+    // code range markers flattened into arrays for binary search.
+    // javaLines[i] is the Java line of the i-th marker, and (plcLines[i], plcColumns[i]) is the
+    // position of the innermost code range open right after the i-th marker
+    public static class CodeRangeMarkers {
+
+        final int[] javaLines;
+        final int[] plcLines;
+        final int[] plcColumns;
+
+        CodeRangeMarkers(int[] javaLines, int[] plcLines, int[] plcColumns) {
+            this.javaLines = javaLines;
+            this.plcLines = plcLines;
+            this.plcColumns = plcColumns;
+        }
+    }
+
+    public static CodeRangeMarkers buildCodeRangeMarkers(String markers) {
+
+        List<CodeRangeMarker> crmList = buildCodeRangeMarkerList(markers);
+
+        int len = crmList.size();
+        int[] javaLines = new int[len];
+        int[] plcLines = new int[len];
+        int[] plcColumns = new int[len];
+
+        Stack<CodeRangeMarker> stack = new Stack<>();
+        int i = 0;
+        for (CodeRangeMarker crm : crmList) {
+            if (crm.isBegin) {
+                stack.push(crm);
+            } else {
+                stack.pop();
+            }
+
+            javaLines[i] = crm.javaLine;
+            if (stack.empty()) {
+                plcLines[i] = -1;
+                plcColumns[i] = -1;
+            } else {
+                CodeRangeMarker innermost = stack.peek();
+                plcLines[i] = innermost.plcLine;
+                plcColumns[i] = innermost.plcColumn;
+            }
+            i++;
+        }
+
+        return new CodeRangeMarkers(javaLines, plcLines, plcColumns);
+    }
+
+    public static int[] getPlcLineColumn(
+            CodeRangeMarkers crms, Throwable thrown, String fileName) {
+
+        int exceptionJavaLine = getExceptionJavaLine(thrown, fileName);
+        if (exceptionJavaLine == 0) {
+            return UNKNOWN_LINE_COLUMN;
+        }
+
+        return getPlcLineColumn(crms, exceptionJavaLine);
+    }
+
+    // also used by the sampling profiler to map the frames of the generated Java class
+    public static int[] getPlcLineColumn(CodeRangeMarkers crms, int javaLine) {
+
+        // find the last marker at or before the Java line number
+        int[] javaLines = crms.javaLines;
+        int lo = 0;
+        int hi = javaLines.length - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (javaLines[mid] <= javaLine) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+
+        if (found < 0 || crms.plcLines[found] == -1) {
+            return UNKNOWN_LINE_COLUMN;
+        }
+        return new int[] {crms.plcLines[found], crms.plcColumns[found]};
+    }
+
     public static class CodeRangeMarker {
 
         public final boolean isBegin;
@@ -399,6 +541,29 @@ public class SpLib {
         }
     }
 
+    public static BigDecimal serialNextValue(
+            Connection conn, String serialName, boolean reserve) {
+        try {
+            return ContextManager.getContextofCurrentThread()
+                    .getSerialValueCache()
+                    .nextValue(conn, serialName, reserve);
+        } catch (SQLException e) {
+            Server.log(e);
+            throw new SQL_ERROR(e.getMessage());
+        }
+    }
+
+    public static BigDecimal serialCurrentValue(Connection conn, String serialName) {
+        try {
+            return ContextManager.getContextofCurrentThread()
+                    .getSerialValueCache()
+                    .currentValue(conn, serialName);
+        } catch (SQLException e) {
+            Server.log(e);
+            throw new SQL_ERROR(e.getMessage());
+        }
+    }
+
     public static Object throwInvalidCursor(String msg) {
         throw new INVALID_CURSOR(msg);
     }
@@ -431,6 +596,10 @@ public class SpLib {
             super(CODE_CASE_NOT_FOUND, MSG_CASE_NOT_FOUND);
         }
 
+        public CASE_NOT_FOUND(int[] pos) {
+            super(CODE_CASE_NOT_FOUND, MSG_CASE_NOT_FOUND, pos);
+        }
+
         public CASE_NOT_FOUND(String msg) {
             super(CODE_CASE_NOT_FOUND, isEmptyStr(msg) ? MSG_CASE_NOT_FOUND : msg);
         }
@@ -441,6 +610,10 @@ public class SpLib {
             super(CODE_CURSOR_ALREADY_OPEN, MSG_CURSOR_ALREADY_OPEN);
         }
 
+        public CURSOR_ALREADY_OPEN(int[] pos) {
+            super(CODE_CURSOR_ALREADY_OPEN, MSG_CURSOR_ALREADY_OPEN, pos);
+        }
+
         public CURSOR_ALREADY_OPEN(String msg) {
             super(CODE_CURSOR_ALREADY_OPEN, isEmptyStr(msg) ? MSG_CURSOR_ALREADY_OPEN : msg);
         }
@@ -451,6 +624,10 @@ public class SpLib {
             super(CODE_INVALID_CURSOR, MSG_INVALID_CURSOR);
         }
 
+        public INVALID_CURSOR(int[] pos) {
+            super(CODE_INVALID_CURSOR, MSG_INVALID_CURSOR, pos);
+        }
+
         public INVALID_CURSOR(String msg) {
             super(CODE_INVALID_CURSOR, isEmptyStr(msg) ? MSG_INVALID_CURSOR : msg);
         }
@@ -461,6 +638,10 @@ public class SpLib {
             super(CODE_NO_DATA_FOUND, MSG_NO_DATA_FOUND);
         }
 
+        public NO_DATA_FOUND(int[] pos) {
+            super(CODE_NO_DATA_FOUND, MSG_NO_DATA_FOUND, pos);
+        }
+
         public NO_DATA_FOUND(String msg) {
             super(CODE_NO_DATA_FOUND, isEmptyStr(msg) ? MSG_NO_DATA_FOUND : msg);
         }
@@ -471,6 +652,10 @@ public class SpLib {
             super(CODE_PROGRAM_ERROR, MSG_PROGRAM_ERROR);
         }
 
+        public PROGRAM_ERROR(int[] pos) {
+            super(CODE_PROGRAM_ERROR, MSG_PROGRAM_ERROR, pos);
+        }
+
         public PROGRAM_ERROR(String msg) {
             super(CODE_PROGRAM_ERROR, isEmptyStr(msg) ? MSG_PROGRAM_ERROR : msg);
         }
@@ -481,6 +666,10 @@ public class SpLib {
             super(CODE_STORAGE_ERROR, MSG_STORAGE_ERROR);
         }
 
+        public STORAGE_ERROR(int[] pos) {
+            super(CODE_STORAGE_ERROR, MSG_STORAGE_ERROR, pos);
+        }
+
         public STORAGE_ERROR(String msg) {
             super(CODE_STORAGE_ERROR, isEmptyStr(msg) ? MSG_STORAGE_ERROR : msg);
         }
@@ -491,6 +680,10 @@ public class SpLib {
             super(CODE_STORAGE_ERROR, MSG_SQL_ERROR);
         }
 
+        public SQL_ERROR(int[] pos) {
+            super(CODE_STORAGE_ERROR, MSG_SQL_ERROR, pos);
+        }
+
         public SQL_ERROR(String msg) {
             super(CODE_STORAGE_ERROR, isEmptyStr(msg) ? MSG_SQL_ERROR : msg);
         }
@@ -501,6 +694,10 @@ public class SpLib {
             super(CODE_TOO_MANY_ROWS, MSG_TOO_MANY_ROWS);
         }
 
+        public TOO_MANY_ROWS(int[] pos) {
+            super(CODE_TOO_MANY_ROWS, MSG_TOO_MANY_ROWS, pos);
+        }
+
         public TOO_MANY_ROWS(String msg) {
             super(CODE_TOO_MANY_ROWS, isEmptyStr(msg) ? MSG_TOO_MANY_ROWS : msg);
         }
@@ -511,6 +708,10 @@ public class SpLib {
             super(CODE_VALUE_ERROR, MSG_VALUE_ERROR);
         }
 
+        public VALUE_ERROR(int[] pos) {
+            super(CODE_VALUE_ERROR, MSG_VALUE_ERROR, pos);
+        }
+
         public VALUE_ERROR(String msg) {
             super(CODE_VALUE_ERROR, isEmptyStr(msg) ? MSG_VALUE_ERROR : msg);
         }
@@ -521,6 +722,10 @@ public class SpLib {
             super(CODE_ZERO_DIVIDE, MSG_ZERO_DIVIDE);
         }
 
+        public ZERO_DIVIDE(int[] pos) {
+            super(CODE_ZERO_DIVIDE, MSG_ZERO_DIVIDE, pos);
+        }
+
         public ZERO_DIVIDE(String msg) {
             super(CODE_ZERO_DIVIDE, isEmptyStr(msg) ? MSG_ZERO_DIVIDE : msg);
         }
@@ -550,6 +755,14 @@ public class SpLib {
             // called for user defined exceptions
             super(CODE_APP_ERROR, MSG_APP_ERROR);
         }
+
+        public $APP_ERROR(int code, String msg, int[] pos) {
+            super(checkAppErrCode(code), isEmptyStr(msg) ? MSG_APP_ERROR : msg, pos);
+        }
+
+        public $APP_ERROR(int[] pos) {
+            super(CODE_APP_ERROR, MSG_APP_ERROR, pos);
+        }
     }
 
     // --------------------------------------------------------
@@ -573,15 +786,30 @@ public class SpLib {
     }
 
     public static void DBMS_OUTPUT$NEW_LINE() {
-        DBMS_OUTPUT.newLine();
+        try {
+            DBMS_OUTPUT.newLine();
+        } catch (IllegalStateException e) {
+            // buffer overflow
+            throw new VALUE_ERROR(e.getMessage());
+        }
     }
 
     public static void DBMS_OUTPUT$PUT_LINE(String s) {
-        DBMS_OUTPUT.putLine(s);
+        try {
+            DBMS_OUTPUT.putLine(s);
+        } catch (IllegalStateException e) {
+            // buffer overflow
+            throw new VALUE_ERROR(e.getMessage());
+        }
     }
 
     public static void DBMS_OUTPUT$PUT(String s) {
-        DBMS_OUTPUT.put(s);
+        try {
+            DBMS_OUTPUT.put(s);
+        } catch (IllegalStateException e) {
+            // buffer overflow
+            throw new VALUE_ERROR(e.getMessage());
+        }
     }
 
     // --------------------------------------------------------
@@ -702,7 +930,7 @@ public class SpLib {
     // is null
     @Operator(coercionScheme = CoercionScheme.ObjectOp)
     public static Boolean opIsNull(Object l) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -779,7 +1007,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.ArithOp)
     public static Object opNeg(Object l) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -854,7 +1082,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.IntArithOp)
     public static Object opBitCompli(Object l) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -905,20 +1133,28 @@ public class SpLib {
     // boolean and
     @Operator(coercionScheme = CoercionScheme.LogicalOp)
     public static Boolean opAnd(Boolean l, Boolean r) {
+        // three-valued logic: FALSE AND NULL is FALSE
+        if (Boolean.FALSE.equals(l) || Boolean.FALSE.equals(r)) {
+            return false;
+        }
         if (l == null || r == null) {
             return null;
         }
-        return l && r;
+        return true;
     }
 
     // ====================================
     // boolean or
     @Operator(coercionScheme = CoercionScheme.LogicalOp)
     public static Boolean opOr(Boolean l, Boolean r) {
+        // three-valued logic: TRUE OR NULL is TRUE
+        if (Boolean.TRUE.equals(l) || Boolean.TRUE.equals(r)) {
+            return true;
+        }
         if (l == null || r == null) {
             return null;
         }
-        return l || r;
+        return false;
     }
 
     // ====================================
@@ -941,7 +1177,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.CompOp)
     public static Boolean opEq(String l, String r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -954,7 +1190,7 @@ public class SpLib {
     }
 
     public static Boolean opEqChar(String l, String r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1037,7 +1273,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.CompOp)
     public static Boolean opEq(Object l, Object r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1062,7 +1298,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.CompOp)
     public static Boolean opNullSafeEq(String l, String r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1075,7 +1311,7 @@ public class SpLib {
     }
 
     public static Boolean opNullSafeEqChar(String l, String r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1170,7 +1406,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.CompOp)
     public static Boolean opNullSafeEq(Object l, Object r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1198,7 +1434,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.CompOp)
     public static Boolean opNeq(String l, String r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1285,7 +1521,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.CompOp)
     public static Boolean opNeq(Object l, Object r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1311,7 +1547,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.CompOp)
     public static Boolean opLe(String l, String r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1324,7 +1560,7 @@ public class SpLib {
     }
 
     public static Boolean opLeChar(String l, String r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1407,7 +1643,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.CompOp)
     public static Boolean opLe(Object l, Object r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1431,7 +1667,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.CompOp)
     public static Boolean opGe(String l, String r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1444,7 +1680,7 @@ public class SpLib {
     }
 
     public static Boolean opGeChar(String l, String r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1527,7 +1763,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.CompOp)
     public static Boolean opGe(Object l, Object r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1551,7 +1787,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.CompOp)
     public static Boolean opLt(String l, String r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1564,7 +1800,7 @@ public class SpLib {
     }
 
     public static Boolean opLtChar(String l, String r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1647,7 +1883,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.CompOp)
     public static Boolean opLt(Object l, Object r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1672,7 +1908,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.CompOp)
     public static Boolean opGt(String l, String r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1685,7 +1921,7 @@ public class SpLib {
     }
 
     public static Boolean opGtChar(String l, String r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1768,7 +2004,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.CompOp)
     public static Boolean opGt(Object l, Object r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -1796,7 +2032,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.NAryCompOp)
     public static Boolean opBetween(String o, String lower, String upper) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(o)) {
                 o = null;
             }
@@ -1815,7 +2051,7 @@ public class SpLib {
     }
 
     public static Boolean opBetweenChar(String o, String lower, String upper) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(o)) {
                 o = null;
             }
@@ -1930,7 +2166,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.NAryCompOp)
     public static Boolean opBetween(Object o, Object lower, Object upper) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(o)) {
                 o = null;
             }
@@ -1968,7 +2204,8 @@ public class SpLib {
     public static Boolean opInChar(String o, String... arr) {
         assert arr != null;
 
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        boolean oracleStyleEmptyString = RuntimeFlags.get().oracleStyleEmptyString;
+        if (oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(o)) {
                 o = null;
             }
@@ -1981,7 +2218,7 @@ public class SpLib {
 
         boolean nullFound = false;
         for (String p : arr) {
-            if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+            if (oracleStyleEmptyString) {
                 if (EMPTY_STRING.equals(p)) {
                     p = null;
                 }
@@ -2086,7 +2323,8 @@ public class SpLib {
     public static Boolean opIn(Object o, Object... arr) {
         assert arr != null;
 
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        boolean oracleStyleEmptyString = RuntimeFlags.get().oracleStyleEmptyString;
+        if (oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(o)) {
                 o = null;
             }
@@ -2097,7 +2335,7 @@ public class SpLib {
         }
         boolean nullFound = false;
         for (Object p : arr) {
-            if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+            if (oracleStyleEmptyString) {
                 if (EMPTY_STRING.equals(p)) {
                     p = null;
                 }
@@ -2113,6 +2351,112 @@ public class SpLib {
         }
         return nullFound ? null : false;
     }
+
+    // single element versions of the above, called for each element of an IN list which is not
+    // made of constants only, so that no varargs array is allocated
+
+    public static Boolean opIn(Boolean o, Boolean p) {
+        return commonOpIn1(o, p);
+    }
+
+    public static Boolean opIn(String o, String p) {
+        return commonOpIn1(o, p);
+    }
+
+    public static Boolean opInChar(String o, String p) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
+            if (EMPTY_STRING.equals(o)) {
+                o = null;
+            }
+            if (EMPTY_STRING.equals(p)) {
+                p = null;
+            }
+        }
+
+        if (o == null || p == null) {
+            return null;
+        }
+        return rtrim(o).equals(rtrim(p));
+    }
+
+    public static Boolean opIn(BigDecimal o, BigDecimal p) {
+        return commonOpIn1(o, p);
+    }
+
+    public static Boolean opIn(Short o, Short p) {
+        return commonOpIn1(o, p);
+    }
+
+    public static Boolean opIn(Integer o, Integer p) {
+        return commonOpIn1(o, p);
+    }
+
+    public static Boolean opIn(Long o, Long p) {
+        return commonOpIn1(o, p);
+    }
+
+    public static Boolean opIn(Float o, Float p) {
+        return commonOpIn1(o, p);
+    }
+
+    public static Boolean opIn(Double o, Double p) {
+        return commonOpIn1(o, p);
+    }
+
+    public static Boolean opIn(Date o, Date p) {
+        return commonOpIn1(o, p);
+    }
+
+    public static Boolean opIn(Time o, Time p) {
+        return commonOpIn1(o, p);
+    }
+
+    public static Boolean opIn(Timestamp o, Timestamp p) {
+        return commonOpIn1(o, p);
+    }
+
+    public static Boolean opInTimestamp(Timestamp o, Timestamp p) {
+        if (o == null || p == null) {
+            return null;
+        }
+        assert o.getNanos() == 0;
+        assert p.getNanos() == 0;
+        return o.equals(p);
+    }
+
+    public static Boolean opIn(Object o, Object p) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
+            if (EMPTY_STRING.equals(o)) {
+                o = null;
+            }
+            if (EMPTY_STRING.equals(p)) {
+                p = null;
+            }
+        }
+
+        if (o == null || p == null) {
+            return null;
+        }
+        return compareWithRuntimeTypeConv(o, p) == 0;
+    }
+
+    // versions for IN lists made of constants only
+
+    public static Boolean opIn(Short o, ConstInList l) {
+        return o == null ? null : l.contains(o.longValue());
+    }
+
+    public static Boolean opIn(Integer o, ConstInList l) {
+        return o == null ? null : l.contains(o.longValue());
+    }
+
+    public static Boolean opIn(Long o, ConstInList l) {
+        return o == null ? null : l.contains(o.longValue());
+    }
+
+    public static Boolean opIn(String o, ConstInList l) {
+        return l.contains(o);
+    }
     // ====================================
     // *
     @Operator(coercionScheme = CoercionScheme.ArithOp)
@@ -2153,6 +2497,11 @@ public class SpLib {
             return null;
         }
 
+        BigDecimal fast = ScaledDecimal.multiply(l, r);
+        if (fast != null) {
+            return fast;
+        }
+
         int p1 = l.precision();
         int s1 = l.scale();
         int p2 = r.precision();
@@ -2162,7 +2511,7 @@ public class SpLib {
         int scale = s1 + s2;
 
         BigDecimal ret =
-                l.multiply(r, new MathContext(maxPrecision, RoundingMode.HALF_UP))
+                l.multiply(r, getHalfUpContext(maxPrecision))
                         .setScale(scale, RoundingMode.HALF_UP);
         if (ret.precision() > 38) {
             throw new VALUE_ERROR("the operation results in a precision higher than 38");
@@ -2197,7 +2546,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.ArithOp)
     public static Object opMult(Object l, Object r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -2223,7 +2572,7 @@ public class SpLib {
         if (r.equals((short) 0)) {
             throw new ZERO_DIVIDE();
         }
-        if (Server.getSystemParameterBool(SysParam.ORACLE_COMPAT_NUMBER_BEHAVIOR)) {
+        if (RuntimeFlags.get().oracleCompatNumberBehavior) {
             return opDiv(BigDecimal.valueOf(l.longValue()), BigDecimal.valueOf(r.longValue()));
         } else {
             return (short) (l / r);
@@ -2238,7 +2587,7 @@ public class SpLib {
         if (r.equals(0)) {
             throw new ZERO_DIVIDE();
         }
-        if (Server.getSystemParameterBool(SysParam.ORACLE_COMPAT_NUMBER_BEHAVIOR)) {
+        if (RuntimeFlags.get().oracleCompatNumberBehavior) {
             return opDiv(BigDecimal.valueOf(l.longValue()), BigDecimal.valueOf(r.longValue()));
         } else {
             return l / r;
@@ -2254,7 +2603,7 @@ public class SpLib {
             throw new ZERO_DIVIDE();
         }
 
-        if (Server.getSystemParameterBool(SysParam.ORACLE_COMPAT_NUMBER_BEHAVIOR)) {
+        if (RuntimeFlags.get().oracleCompatNumberBehavior) {
             return opDiv(BigDecimal.valueOf(l), BigDecimal.valueOf(r));
         } else {
             return l / r;
@@ -2276,7 +2625,7 @@ public class SpLib {
         int s2 = r.scale();
 
         int scale;
-        if (Server.getSystemParameterBool(SysParam.COMPAT_NUMERIC_DIVISION_SCALE)) {
+        if (RuntimeFlags.get().compatNumericDivisionScale) {
             scale = Math.max(s1, s2);
         } else {
             scale = Math.max(9, Math.max(s1, s2));
@@ -2284,7 +2633,7 @@ public class SpLib {
         int maxPrecision = (p1 - s1) + s2 + scale;
 
         BigDecimal ret =
-                l.divide(r, new MathContext(maxPrecision, RoundingMode.HALF_UP))
+                l.divide(r, getHalfUpContext(maxPrecision))
                         .setScale(scale, RoundingMode.HALF_UP);
         if (ret.precision() > 38) {
             throw new VALUE_ERROR("data overflow in division of NUMERIC values");
@@ -2325,7 +2674,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.ArithOp)
     public static Object opDiv(Object l, Object r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -2378,7 +2727,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.IntArithOp)
     public static Object opDivInt(Object l, Object r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -2431,7 +2780,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.IntArithOp)
     public static Object opMod(Object l, Object r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -2451,7 +2800,7 @@ public class SpLib {
     // +
     @Operator(coercionScheme = CoercionScheme.ArithOp)
     public static String opAdd(String l, String r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (l == null) {
                 l = EMPTY_STRING;
             }
@@ -2504,6 +2853,11 @@ public class SpLib {
             return null;
         }
 
+        BigDecimal fast = ScaledDecimal.add(l, r);
+        if (fast != null) {
+            return fast;
+        }
+
         int p1 = l.precision();
         int s1 = l.scale();
         int p2 = r.precision();
@@ -2513,7 +2867,7 @@ public class SpLib {
         int scale = Math.max(s1, s2);
 
         BigDecimal ret =
-                l.add(r, new MathContext(maxPrecision, RoundingMode.HALF_UP))
+                l.add(r, getHalfUpContext(maxPrecision))
                         .setScale(scale, RoundingMode.HALF_UP);
         if (ret.precision() > 38) {
             throw new VALUE_ERROR("the operation results in a precision higher than 38");
@@ -2645,7 +2999,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.ArithOp)
     public static Object opAdd(Object l, Object r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -2701,6 +3055,11 @@ public class SpLib {
             return null;
         }
 
+        BigDecimal fast = ScaledDecimal.subtract(l, r);
+        if (fast != null) {
+            return fast;
+        }
+
         int p1 = l.precision();
         int s1 = l.scale();
         int p2 = r.precision();
@@ -2713,7 +3072,7 @@ public class SpLib {
         int scale = Math.max(s1, s2);
 
         BigDecimal ret =
-                l.subtract(r, new MathContext(maxPrecision, RoundingMode.HALF_UP))
+                l.subtract(r, getHalfUpContext(maxPrecision))
                         .setScale(scale, RoundingMode.HALF_UP);
         if (ret.precision() > 38) {
             throw new VALUE_ERROR("the operation results in a precision higher than 38");
@@ -2879,7 +3238,7 @@ public class SpLib {
 
     @Operator(coercionScheme = CoercionScheme.ArithOp)
     public static Object opSubtract(Object l, Object r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(l)) {
                 l = null;
             }
@@ -2899,7 +3258,7 @@ public class SpLib {
     // ||
     @Operator(coercionScheme = CoercionScheme.StringOp)
     public static String opConcat(String l, String r) {
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
             if (l == null) {
                 l = EMPTY_STRING;
             }
@@ -2914,6 +3273,63 @@ public class SpLib {
         return l + r;
     }
 
+    // versions for chains a || b || c ..., which build the result with one StringBuilder
+
+    public static String opConcat(String s0, String s1, String s2) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
+            s0 = emptyIfNull(s0);
+            s1 = emptyIfNull(s1);
+            s2 = emptyIfNull(s2);
+        } else if (s0 == null || s1 == null || s2 == null) {
+            return null;
+        }
+
+        return new StringBuilder(s0.length() + s1.length() + s2.length())
+                .append(s0)
+                .append(s1)
+                .append(s2)
+                .toString();
+    }
+
+    public static String opConcat(String s0, String s1, String s2, String s3) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
+            s0 = emptyIfNull(s0);
+            s1 = emptyIfNull(s1);
+            s2 = emptyIfNull(s2);
+            s3 = emptyIfNull(s3);
+        } else if (s0 == null || s1 == null || s2 == null || s3 == null) {
+            return null;
+        }
+
+        return new StringBuilder(s0.length() + s1.length() + s2.length() + s3.length())
+                .append(s0)
+                .append(s1)
+                .append(s2)
+                .append(s3)
+                .toString();
+    }
+
+    public static String opConcat(String... arr) {
+        boolean oracleStyleEmptyString = RuntimeFlags.get().oracleStyleEmptyString;
+
+        int len = 0;
+        for (String s : arr) {
+            if (s != null) {
+                len += s.length();
+            } else if (!oracleStyleEmptyString) {
+                return null;
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(len);
+        for (String s : arr) {
+            if (s != null) {
+                sb.append(s);
+            }
+        }
+        return sb.toString();
+    }
+
     // ====================================
     // <<
     @Operator(coercionScheme = CoercionScheme.BitOp)
@@ -2975,12 +3391,16 @@ public class SpLib {
             return null;
         }
 
-        String regex = getRegexForLike(pattern, escape);
-        try {
-            return s.matches(regex);
-        } catch (PatternSyntaxException e) {
-            throw new PROGRAM_ERROR(); // unreachable
+        return LikeMatcher.getCached(pattern, escape).matches(s);
+    }
+
+    // for LIKE with a constant pattern, whose matcher is created when the class is initialized
+    public static Boolean opLike(String s, LikeMatcher matcher) {
+        if (s == null) {
+            return null;
         }
+
+        return matcher.matches(s);
     }
 
     // ------------------------------------
@@ -3037,12 +3457,10 @@ public class SpLib {
             return null;
         }
         if (e.equals(ZERO_DATETIME)) {
-            // must be calculated everytime because the AM/PM indicator can change according to the
-            // locale change
-            return String.format("12:00:00.000 %s 00/00/0000", AM_PM.format(ZERO_DATE));
+            return "12:00:00.000 AM 00/00/0000";
         }
 
-        return DATETIME_FORMAT.format(e);
+        return DateTimePrinter.printDatetime(e);
     }
 
     // from date
@@ -3082,7 +3500,7 @@ public class SpLib {
             return "00/00/0000";
         }
 
-        return DATE_FORMAT.format(e);
+        return DateTimePrinter.printDate(e);
     }
 
     // from time
@@ -3091,7 +3509,7 @@ public class SpLib {
             return null;
         }
 
-        return TIME_FORMAT.format(e);
+        return DateTimePrinter.printTime(e);
     }
 
     // from timestamp
@@ -3144,15 +3562,13 @@ public class SpLib {
         assert e.getNanos() == 0;
 
         if (isZeroTimestamp(e)) {
-            // must be calculated everytime because the AM/PM indicator can change according to the
-            // locale change
-            return String.format("12:00:00 %s 00/00/0000", AM_PM.format(ZERO_DATE));
+            return "12:00:00 AM 00/00/0000";
         }
 
         Instant instant = Instant.ofEpochMilli(e.getTime());
         ZoneId timezone = Server.getConfig().getTimeZone();
         ZonedDateTime zdt = ZonedDateTime.ofInstant(instant, timezone);
-        return zdt.format(TIMESTAMP_FORMAT);
+        return DateTimePrinter.printTimestamp(zdt);
     }
 
     // from double
@@ -3203,7 +3619,7 @@ public class SpLib {
             return null;
         }
 
-        if (Server.getSystemParameterBool(SysParam.ORACLE_COMPAT_NUMBER_BEHAVIOR)) {
+        if (RuntimeFlags.get().oracleCompatNumberBehavior) {
             BigDecimal bd = new BigDecimal(e.doubleValue(), doubleToStringContext);
             return detachTrailingZeros(bd.toPlainString());
         } else {
@@ -3287,7 +3703,7 @@ public class SpLib {
             return null;
         }
 
-        if (Server.getSystemParameterBool(SysParam.ORACLE_COMPAT_NUMBER_BEHAVIOR)) {
+        if (RuntimeFlags.get().oracleCompatNumberBehavior) {
             BigDecimal bd = new BigDecimal(e.doubleValue(), floatToStringContext);
             return detachTrailingZeros(bd.toPlainString());
         } else {
@@ -3362,7 +3778,7 @@ public class SpLib {
             return null;
         }
 
-        if (Server.getSystemParameterBool(SysParam.ORACLE_COMPAT_NUMBER_BEHAVIOR)) {
+        if (RuntimeFlags.get().oracleCompatNumberBehavior) {
             return detachTrailingZeros(e.toPlainString());
         } else {
             return e.toString();
@@ -4100,6 +4516,22 @@ public class SpLib {
     // Private
     // ------------------------------------------------
 
+    private static final MathContext[] halfUpContexts = new MathContext[2 * 38 + 2];
+
+    static {
+        for (int i = 1; i < halfUpContexts.length; i++) {
+            halfUpContexts[i] = new MathContext(i, RoundingMode.HALF_UP);
+        }
+    }
+
+    private static MathContext getHalfUpContext(int precision) {
+        if (precision > 0 && precision < halfUpContexts.length) {
+            return halfUpContexts[precision];
+        } else {
+            return new MathContext(precision, RoundingMode.HALF_UP);
+        }
+    }
+
     private static MathContext floatToStringContext = new MathContext(7, RoundingMode.HALF_UP);
     private static MathContext doubleToStringContext = new MathContext(16, RoundingMode.HALF_UP);
     private static MathContext floatToNumericContext = new MathContext(7, RoundingMode.DOWN);
@@ -4154,16 +4586,6 @@ public class SpLib {
     private static final Float FLOAT_ZERO = Float.valueOf(0.0f);
     private static final Double DOUBLE_ZERO = Double.valueOf(0.0);
 
-    // TODO: update the locale with the value got from the server
-    private static final DateFormat DATE_FORMAT = new SimpleDateFormat("MM/dd/yyyy", Locale.US);
-    private static final DateFormat TIME_FORMAT = new SimpleDateFormat("hh:mm:ss a", Locale.US);
-    private static final DateFormat DATETIME_FORMAT =
-            new SimpleDateFormat("hh:mm:ss.SSS a MM/dd/yyyy", Locale.US);
-    private static final DateTimeFormatter TIMESTAMP_FORMAT =
-            DateTimeFormatter.ofPattern("hh:mm:ss a MM/dd/yyyy").withLocale(Locale.US);
-
-    private static final DateFormat AM_PM = new SimpleDateFormat("a", Locale.US);
-
     private static Short shortOfInt(int i) {
         if (i <= Short.MAX_VALUE && i >= Short.MIN_VALUE) {
             return (short) i;
@@ -4276,7 +4698,8 @@ public class SpLib {
     private static Boolean commonOpIn(Object o, Object... arr) {
         assert arr != null;
 
-        if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+        boolean oracleStyleEmptyString = RuntimeFlags.get().oracleStyleEmptyString;
+        if (oracleStyleEmptyString) {
             if (EMPTY_STRING.equals(o)) {
                 o = null;
             }
@@ -4287,7 +4710,7 @@ public class SpLib {
         }
         boolean nullFound = false;
         for (Object p : arr) {
-            if (Server.getSystemParameterBool(SysParam.ORACLE_STYLE_EMPTY_STRING)) {
+            if (oracleStyleEmptyString) {
                 if (EMPTY_STRING.equals(p)) {
                     p = null;
                 }
@@ -4304,50 +4727,24 @@ public class SpLib {
         return nullFound ? null : false;
     }
 
-    private static String getRegexForLike(String pattern, String escape) {
-
-        StringBuffer sbuf = new StringBuffer();
+    private static String emptyIfNull(String s) {
+        return s == null ? EMPTY_STRING : s;
+    }
 
-        int len = pattern.length();
-        if (escape == null) {
-            for (int i = 0; i < len; i++) {
-                char c = pattern.charAt(i);
-                if (c == '%') {
-                    sbuf.append(".*");
-                } else if (c == '_') {
-                    sbuf.append(".");
-                } else {
-                    sbuf.append(c);
-                }
+    private static Boolean commonOpIn1(Object o, Object p) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
+            if (EMPTY_STRING.equals(o)) {
+                o = null;
             }
-        } else {
-            char esc = escape.charAt(0);
-            for (int i = 0; i < len; i++) {
-                char c = pattern.charAt(i);
-                if (esc == c) {
-                    if (i + 1 == len) {
-                        sbuf.append(c); // append the escape character at the end of the pattern as
-                        // CUBRID does
-                    } else {
-                        i++;
-                        sbuf.append(
-                                pattern.charAt(
-                                        i)); // append it whether it is one of '%', '_', or the
-                        // escape char.
-                    }
-                } else {
-                    if (c == '%') {
-                        sbuf.append(".*");
-                    } else if (c == '_') {
-                        sbuf.append(".");
-                    } else {
-                        sbuf.append(c);
-                    }
-                }
+            if (EMPTY_STRING.equals(p)) {
+                p = null;
             }
         }
 
-        return sbuf.toString();
+        if (o == null || p == null) {
+            return null;
+        }
+        return o.equals(p);
     }
 
     private static long doubleToLong(double d) {
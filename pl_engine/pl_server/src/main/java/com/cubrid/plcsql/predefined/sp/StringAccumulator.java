@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.predefined.sp;
+
+import com.cubrid.jsp.RuntimeFlags;
+
+// value of a VARCHAR variable while a loop only appends to it by assignments 's := s || ...'.
+// Appending to a StringBuilder instead of creating a new String at every iteration avoids copying
+// the whole value each time. The result is the same as the sequence of assignments: NULL stays
+// NULL (unless empty strings are Oracle style), and an append that would exceed the length of
+// the variable throws VALUE_ERROR leaving the value unchanged.
+public class StringAccumulator {
+
+    public StringAccumulator(String init) {
+        sb = (init == null) ? null : new StringBuilder(init);
+    }
+
+    // maxLength < 0 for no length check
+    public void append(int maxLength, String s) {
+        if (RuntimeFlags.get().oracleStyleEmptyString) {
+            if (s == null) {
+                s = "";
+            }
+        } else if (sb == null || s == null) {
+            sb = null;
+            return;
+        }
+
+        int len = (sb == null) ? 0 : sb.length();
+        if (maxLength >= 0 && len + s.length() > maxLength) {
+            throw new SpLib.VALUE_ERROR("string does not fit in the target type's length");
+        }
+
+        if (sb == null) {
+            sb = new StringBuilder(s);
+        } else {
+            sb.append(s);
+        }
+    }
+
+    public String value() {
+        return (sb == null) ? null : sb.toString();
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    private StringBuilder sb; // null if the value is NULL
+}
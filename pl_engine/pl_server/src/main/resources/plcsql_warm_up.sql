@@ -0,0 +1,270 @@
+create or replace procedure warm_up_decls(a int, b in varchar, c out numeric(10, 2), d inout date) as
+    pragma autonomous_transaction;
+    v_short short := 1;
+    v_smallint smallint;
+    v_int integer not null := 0;
+    v_bigint bigint default 100;
+    v_num numeric(20, 5);
+    v_dec decimal;
+    v_float float;
+    v_real real;
+    v_double double precision := 1.5e3;
+    v_bool boolean := true;
+    v_char char(10) := 'abc';
+    v_varchar varchar(100) := null;
+    v_charvar character varying(20);
+    v_string string;
+    v_date date := date '2024-01-31';
+    v_time time := time '12:34:56';
+    v_datetime datetime := datetime '2024-01-31 12:34:56.789';
+    v_timestamp timestamp := timestamp '2024-01-31 12:34:56';
+    v_refcur sys_refcursor;
+    c_pi constant double := 3.14159;
+    c_name constant varchar(10) not null := 'name';
+    v_col tbl.col%type;
+    v_rec tbl%rowtype;
+    v_copy v_int%type;
+    e_custom exception;
+    cursor cur1 is select col1, col2 from tbl where col1 > 0;
+    cursor cur2(p1 int, p2 varchar) is select * from tbl where col1 = p1 and col2 = p2;
+    procedure local_proc(x int, y out varchar) is
+    begin
+        y := 'x = ' || x;
+    end;
+    function local_func(x int) return int is
+        z int := x * 2;
+    begin
+        return z + 1;
+    end;
+begin
+    null;
+end;
+/
+create or replace function warm_up_exprs(a int, b varchar, c numeric) return varchar as
+    x int := 0;
+    y double;
+    s varchar(1000);
+    t timestamp;
+    ok boolean;
+begin
+    x := a + 1 - 2 * 3 / 4 div 5 mod 6;
+    x := -a + +a - ~a;
+    x := (a + x) * (a - x);
+    x := a << 2 | a >> 1 & 7 ^ 3;
+    y := 1.5 + 2.0e-3 * c;
+    s := b || 'abc' || to_char(a) || substr(b, 1, 2);
+    s := 'it''s ' || upper(b) || lower(b) || trim(b) || lpad(b, 10, '*');
+    ok := a = 1 and b <> 'x' or not (c >= 2.5) xor a <=> null;
+    ok := a != 3 and a < 4 and a > 0 and a <= 10 and a >= -10;
+    ok := a between 1 and 10 and a not between 20 and 30;
+    ok := a in (1, 2, 3) and b not in ('a', 'b') and c in (1.5, a, x);
+    ok := b like 'ab%' and b not like '%x_' and b like 'a\%' escape '\';
+    ok := b is null or b is not null;
+    ok := true and false and null is null;
+    x := case a when 1 then 10 when 2 then 20 else 30 end;
+    x := case when a > 1 then 1 when a < 0 then -1 else 0 end;
+    x := if(a > 0, 1, 2) + mod(a, 3) + abs(a) + ceil(y) + floor(y) + round(y, 2);
+    t := sys_timestamp;
+    t := systimestamp;
+    s := date '2024-02-29' || time '23:59:59' || sysdate || sysdatetime || systime;
+    s := current_user || to_char(sys_date) || to_char(default(x));
+    s := nvl(b, 'none') || nvl2(b, 'some', 'none') || coalesce(b, s, 'x') || decode(a, 1, 'one', 'many');
+    x := length(s) + instr(s, 'a') + locate('a', s) + char_length(s) + bit_length(s);
+    s := replace(s, 'a', 'b') || insert(s, 1, 2, 'xy') || concat(s, b) || concat_ws(',', s, b);
+    x := sql%rowcount;
+    x := sqlcode;
+    s := sqlerrm;
+    x := dbo.global_func(a, b) + warm_up_exprs.local_name;
+    return s;
+end;
+/
+create or replace procedure warm_up_stmts(n int) as
+    i int := 0;
+    total bigint := 0;
+    s varchar(2000) := '';
+    r varchar;
+    done boolean := false;
+    cursor c1 is select id, name from emp where dept = n;
+    cursor c2(p int) is select id from emp where id > p;
+    rc sys_refcursor;
+    v_id int;
+    v_name varchar;
+    e_stop exception;
+begin
+    if n > 10 then
+        total := 1;
+    elsif n > 5 then
+        total := 2;
+    elsif n > 0 then
+        total := 3;
+    else
+        total := 4;
+    end if;
+
+    case n
+        when 1 then s := 'one';
+        when 2 then s := 'two';
+        else s := 'other';
+    end case;
+
+    case
+        when n < 0 then s := 'negative';
+        when n = 0 then s := 'zero';
+    end case;
+
+    loop
+        i := i + 1;
+        exit when i > 10;
+        continue when mod(i, 2) = 0;
+        total := total + i;
+    end loop;
+
+    <<outer>>
+    while i > 0 loop
+        i := i - 1;
+        <<inner>>
+        for j in 1 .. 10 loop
+            exit outer when j * i > 50;
+            continue inner when j = 3;
+            total := total + j;
+        end loop inner;
+    end loop outer;
+
+    for k in reverse 1 .. n by 2 loop
+        s := s || k;
+    end loop;
+
+    for rec in c1 loop
+        s := s || rec.name;
+        total := total + rec.id;
+    end loop;
+
+    for rec in c2(10) loop
+        total := total + rec.id;
+    end loop;
+
+    for rec in (select id, name from emp where id between 1 and n) loop
+        s := s || rec.id || rec.name;
+    end loop;
+
+    open c1;
+    loop
+        fetch c1 into v_id, v_name;
+        exit when c1%notfound;
+        total := total + v_id;
+    end loop;
+    if c1%isopen then
+        close c1;
+    end if;
+    i := c1%rowcount;
+    done := c1%found;
+
+    open rc for select id, name from emp where dept = n order by id;
+    fetch rc into v_id, v_name;
+    close rc;
+
+    select count(*) into total from emp where dept = n;
+    select id, name into v_id, v_name from emp where id = (select max(id) from emp);
+    insert into log_tbl(id, msg) values (n, s);
+    insert into log_tbl values (n + 1, 'x'), (n + 2, 'y');
+    update emp set name = upper(name), dept = n where id = v_id;
+    delete from emp where id in (select id from old_emp where dept = n);
+    replace into log_tbl(id, msg) values (1, 'r');
+    merge into emp e using new_emp ne on (e.id = ne.id)
+        when matched then update set e.name = ne.name
+        when not matched then insert (id, name) values (ne.id, ne.name);
+    truncate table tmp_tbl;
+    with cte as (select id from emp) select count(*) into i from cte;
+    commit;
+    rollback work;
+
+    execute immediate 'delete from tmp_tbl';
+    execute immediate 'select name from emp where id = ?' into v_name using v_id;
+    execute immediate 'insert into log_tbl values (?, ?)' using n, s;
+    execute immediate 'select id, name from emp where id = ?' using in v_id into v_id, v_name;
+
+    dbms_output.enable(1000);
+    dbms_output.put_line('total = ' || total);
+    dbms_output.put('s = ');
+    dbms_output.new_line;
+    dbms_output.get_line(r, i);
+    dbms_output.disable;
+    other_proc(n, s);
+    dba.other_proc2;
+
+    begin
+        if total < 0 then
+            raise e_stop;
+        end if;
+        raise_application_error(1001, 'error ' || total);
+    exception
+        when e_stop then
+            null;
+        when no_data_found or too_many_rows then
+            s := sqlerrm;
+        when others then
+            raise;
+    end;
+
+    declare
+        x int := 1;
+    begin
+        x := x + 1;
+    end;
+
+    return;
+end;
+/
+create or replace function warm_up_func return int
+is
+    function f1(a int, b int default 2) return int as
+    begin
+        return a + b;
+    end;
+    procedure p1 as
+    begin
+        null;
+    end;
+begin
+    p1;
+    p1();
+    return f1(1) + f1(1, 3);
+exception
+    when value_error then
+        return -1;
+    when zero_divide then
+        return -2;
+end;
+/
+create or replace procedure warm_up_records(n int) authid current_user as
+    r1 emp%rowtype;
+    r2 emp%rowtype;
+    cursor c is select * from emp;
+    rc c%rowtype;
+begin
+    r1.id := n;
+    r1.name := 'x' || n;
+    r2 := r1;
+    if r1 = r2 and r1 != r2 then
+        null;
+    end if;
+    insert into emp values r1;
+    insert into emp values r1, r2;
+    insert into emp set row = r1;
+    update emp set row = r2 where id = n;
+    replace into emp values r1;
+    select * into r1 from emp where id = n;
+    fetch_proc(r1.id, r1.name);
+end;
+/
+create or replace procedure warm_up_comments(a int comment 'first', b varchar comment 'second') as
+    -- a single line comment
+    x int; // another single line comment
+    /* a multi-line
+       comment */
+    "QuotedId" int := 1;
+    [bracketed_id] int := 2;
+    `backquoted_id` int := 3;
+begin
+    x := "QuotedId" + [bracketed_id] + `backquoted_id`;
+end comment 'a procedure with comments'
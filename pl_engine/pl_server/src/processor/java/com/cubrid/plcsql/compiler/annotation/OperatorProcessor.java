@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.compiler.annotation;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+// Generates com.cubrid.plcsql.compiler.OperatorTable from the @Operator methods of SpLib while
+// SpLib is compiled, so that SymbolStack does not have to load SpLib and reflect over its methods
+// at run time to build the operator overloads. The Java types of the methods are written as the
+// Type constants they stand for, so no Java type name is looked up at run time either.
+@SupportedAnnotationTypes(OperatorProcessor.OPERATOR)
+public class OperatorProcessor extends AbstractProcessor {
+
+    static final String OPERATOR = "com.cubrid.plcsql.compiler.annotation.Operator";
+    static final String TABLE_PKG = "com.cubrid.plcsql.compiler";
+    static final String TABLE_CLASS = "OperatorTable";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+
+        if (generated || annotations.isEmpty()) {
+            return false;
+        }
+
+        List<String[]> rows = new ArrayList<>();
+        List<Element> origins = new ArrayList<>();
+        for (TypeElement annot : annotations) {
+            for (Element e : roundEnv.getElementsAnnotatedWith(annot)) {
+                String[] row = getRow(e, annot);
+                if (row != null) {
+                    rows.add(row);
+                    if (!origins.contains(e.getEnclosingElement())) {
+                        origins.add(e.getEnclosingElement());
+                    }
+                }
+            }
+        }
+
+        try {
+            writeTable(rows, origins);
+        } catch (IOException e) {
+            processingEnv
+                    .getMessager()
+                    .printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "failed to generate " + TABLE_CLASS + ": " + e.getMessage());
+        }
+        generated = true;
+
+        return true;
+    }
+
+    // ------------------------------------------------------------------
+    // Private
+    // ------------------------------------------------------------------
+
+    private boolean generated;
+
+    // Java type name --> the Type constant for it. the same as Type.getTypeByJavaName()
+    private static final Map<String, String> typeConstants = new HashMap<>();
+
+    static {
+        typeConstants.put("java.lang.Object", "Type.OBJECT");
+        typeConstants.put("java.lang.Boolean", "Type.BOOLEAN");
+        typeConstants.put("java.lang.String", "Type.STRING_ANY");
+        typeConstants.put("java.math.BigDecimal", "Type.NUMERIC_ANY");
+        typeConstants.put("java.lang.Short", "Type.SHORT");
+        typeConstants.put("java.lang.Integer", "Type.INT");
+        typeConstants.put("java.lang.Long", "Type.BIGINT");
+        typeConstants.put("java.lang.Float", "Type.FLOAT");
+        typeConstants.put("java.lang.Double", "Type.DOUBLE");
+        typeConstants.put("java.sql.Date", "Type.DATE");
+        typeConstants.put("java.sql.Time", "Type.TIME");
+        typeConstants.put("java.time.ZonedDateTime", "Type.TIMESTAMP");
+        typeConstants.put("java.sql.Timestamp", "Type.DATETIME");
+        typeConstants.put("com.cubrid.plcsql.predefined.sp.SpLib.Query", "Type.SYS_REFCURSOR");
+    }
+
+    // method name, coercion scheme, and the code of the return type and parameter types
+    private String[] getRow(Element e, TypeElement annot) {
+
+        ExecutableElement m = (ExecutableElement) e;
+        String name = m.getSimpleName().toString();
+        if (!m.getModifiers().contains(Modifier.STATIC)
+                || !m.getModifiers().contains(Modifier.PUBLIC)
+                || !name.startsWith("op")) {
+            processingEnv
+                    .getMessager()
+                    .printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "@Operator is only for public static methods named op*",
+                            m);
+            return null;
+        }
+
+        String scheme = null;
+        for (AnnotationMirror am : m.getAnnotationMirrors()) {
+            if (am.getAnnotationType().asElement().equals(annot)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> v :
+                        am.getElementValues().entrySet()) {
+                    if (v.getKey().getSimpleName().contentEquals("coercionScheme")) {
+                        VariableElement constant = (VariableElement) v.getValue().getValue();
+                        scheme = constant.getSimpleName().toString();
+                    }
+                }
+            }
+        }
+        assert scheme != null; // coercionScheme has no default
+
+        List<? extends VariableElement> params = m.getParameters();
+        String[] row = new String[3 + params.size()];
+        row[0] = name;
+        row[1] = scheme;
+        row[2] = getTypeCode(m.getReturnType(), m);
+        for (int i = 0; i < params.size(); i++) {
+            row[3 + i] = getTypeCode(params.get(i).asType(), m);
+        }
+
+        return row;
+    }
+
+    // Java code for the Type of the given Java type, e.g. Type.INT for java.lang.Integer and
+    // TypeVariadic.getStaticInstance(Type.INT) for java.lang.Integer[]
+    private String getTypeCode(TypeMirror ty, Element m) {
+
+        // the same as Class.getTypeName() of the erased type, e.g. java.lang.Integer[]
+        String javaName = processingEnv.getTypeUtils().erasure(ty).toString();
+
+        boolean variadic = javaName.endsWith("[]");
+        String elemName = variadic ? javaName.substring(0, javaName.length() - 2) : javaName;
+        String code = typeConstants.get(elemName);
+        if (code == null) {
+            processingEnv
+                    .getMessager()
+                    .printMessage(Diagnostic.Kind.ERROR, "no type for a Java name " + javaName, m);
+            return "null";
+        }
+
+        return variadic ? "TypeVariadic.getStaticInstance(" + code + ")" : code;
+    }
+
+    private void writeTable(List<String[]> rows, List<Element> origins) throws IOException {
+
+        JavaFileObject file =
+                processingEnv
+                        .getFiler()
+                        .createSourceFile(
+                                TABLE_PKG + "." + TABLE_CLASS, origins.toArray(new Element[0]));
+
+        try (PrintWriter out = new PrintWriter(file.openWriter())) {
+            out.println("package " + TABLE_PKG + ";");
+            out.println();
+            out.println("import com.cubrid.plcsql.compiler.type.Type;");
+            out.println("import com.cubrid.plcsql.compiler.type.TypeVariadic;");
+            out.println();
+            out.println("// generated by " + OperatorProcessor.class.getName() + ". DO NOT EDIT");
+            out.println("final class " + TABLE_CLASS + " {");
+            out.println();
+            out.println("    static final class Row {");
+            out.println("        final String name;");
+            out.println("        final CoercionScheme coercionScheme;");
+            out.println("        final Type retType;");
+            out.println("        final Type[] paramTypes;");
+            out.println();
+            out.println(
+                    "        Row(String name, CoercionScheme coercionScheme, Type retType,"
+                            + " Type... paramTypes) {");
+            out.println("            this.name = name;");
+            out.println("            this.coercionScheme = coercionScheme;");
+            out.println("            this.retType = retType;");
+            out.println("            this.paramTypes = paramTypes;");
+            out.println("        }");
+            out.println("    }");
+            out.println();
+            out.println("    static final Row[] OPERATORS = {");
+            for (String[] row : rows) {
+                out.print("        new Row(\"" + row[0] + "\", CoercionScheme." + row[1]);
+                for (int i = 2; i < row.length; i++) {
+                    out.print(", ");
+                    out.print(row[i]);
+                }
+                out.println("),");
+            }
+            out.println("    };");
+            out.println("}");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+
+package com.cubrid.jsp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestLoggingThread {
+
+    @Test
+    public void testLevelAndStop(@TempDir Path tempDir) throws Exception {
+        Path log = tempDir.resolve("test_java.log");
+        Files.createFile(log);
+
+        LoggingThread thread = new LoggingThread(log);
+        thread.setLoggingLevel(Level.WARNING);
+        thread.start();
+        for (int i = 0; i < 1000; i++) {
+            thread.log(Level.WARNING, "warning " + i, null);
+            thread.log(Level.INFO, "info " + i, null);
+        }
+        thread.log(Level.SEVERE, "severe", new IllegalStateException("thrown"));
+        thread.interrupt();
+        thread.join(10_000);
+        assertFalse(thread.isAlive());
+
+        // all the events are written before the thread exits, but those below WARNING
+        String text = new String(Files.readAllBytes(log), StandardCharsets.UTF_8);
+        assertEquals(0, thread.getDroppedCount());
+        assertTrue(text.contains(" WARNING ["), text);
+        assertTrue(text.contains("] warning 999"), text);
+        assertFalse(text.contains("] info "), text);
+        assertTrue(text.contains("java.lang.IllegalStateException: thrown"), text);
+    }
+
+    @Test
+    public void testConfigLevel(@TempDir Path tempDir) {
+        String old = System.getProperty("cubrid.pl.log.level");
+        try {
+            System.setProperty("cubrid.pl.log.level", "fine");
+            assertEquals(Level.FINE, newConfig(tempDir).getLogLevel());
+
+            System.setProperty("cubrid.pl.log.level", "noisy");
+            assertEquals(Level.INFO, newConfig(tempDir).getLogLevel());
+
+            System.clearProperty("cubrid.pl.log.level");
+            assertEquals(Level.INFO, newConfig(tempDir).getLogLevel());
+        } finally {
+            if (old != null) {
+                System.setProperty("cubrid.pl.log.level", old);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    private static ServerConfig newConfig(Path tempDir) {
+        return new ServerConfig("test", "1.0", tempDir.toString(), tempDir.toString(), "5151");
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.jsp.data.CUBRIDUnpacker;
+import com.cubrid.jsp.protocol.Header;
+import com.cubrid.jsp.protocol.RequestCode;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Runs a MultiplexedConnection over a loopback socket with fake workers in place of
+// ExecuteThreads. Every request carries the context id -1, as the server sends, and an int value.
+// A worker answers a non-negative value v with a callback (INTERNAL_JDBC, v) to the client, and
+// then with the result (RESULT, v + answer). It answers a negative value with the result right
+// away.
+public class TestMultiplexedConnection {
+
+    private static final int STACKS = 16;
+    private static final int REQUESTS_PER_STACK = 200;
+
+    private ServerSocket serverSocket;
+    private Thread serverThread;
+    private volatile MultiplexedConnection mux;
+
+    private Client client;
+
+    // how long a FakeWorker takes to close its transport when it exits
+    private static volatile long workerExitDelayMs;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        workerExitDelayMs = 0;
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        serverThread =
+                new Thread(
+                        () -> {
+                            try {
+                                Socket s = serverSocket.accept();
+                                mux =
+                                        new MultiplexedConnection(
+                                                new SocketTransport(s), FakeWorker::new, 200);
+                                mux.run();
+                            } catch (IOException e) {
+                                // test failure is reported by the client
+                            }
+                        });
+        serverThread.start();
+
+        client =
+                new Client(
+                        new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort()));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        client.close();
+        serverThread.join(5000);
+        serverSocket.close();
+    }
+
+    @Test
+    public void testInterleavedStacks() throws Exception {
+        List<Thread> stacks = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        for (int i = 0; i < STACKS; i++) {
+            final long id = 1000 + i;
+            Thread t =
+                    new Thread(
+                            () -> {
+                                try {
+                                    for (int rid = 1; rid <= REQUESTS_PER_STACK; rid++) {
+                                        int v = (int) id * 1000 + rid;
+                                        callWithCallback(id, rid, v);
+                                    }
+                                } catch (Throwable e) {
+                                    synchronized (errors) {
+                                        errors.add(e);
+                                    }
+                                }
+                            });
+            stacks.add(t);
+            t.start();
+        }
+        for (Thread t : stacks) {
+            t.join();
+        }
+
+        assertTrue(errors.isEmpty(), () -> errors.get(0).toString());
+        assertTrue(mux.getWorkerCount() <= STACKS);
+    }
+
+    @Test
+    public void testOrderInStack() throws Exception {
+        // requests sent without waiting for the results are processed in order
+        long id = 7;
+        for (int rid = 1; rid <= 100; rid++) {
+            client.send(id, RequestCode.INVOKE_SP, rid, -rid);
+        }
+        for (int rid = 1; rid <= 100; rid++) {
+            Response result = client.receive(id);
+            assertEquals(rid, result.requestId);
+            assertEquals(-rid, result.value);
+        }
+    }
+
+    @Test
+    public void testNestedCall() throws Exception {
+        // the worker of the outer stack waits for the answer to its callback, while the server
+        // makes a nested call from the same session (context) in a new stack
+        long outer = 1;
+        long nested = 2;
+        client.send(outer, RequestCode.INVOKE_SP, 1, 10);
+        assertEquals(10, client.receive(outer).value);
+
+        callWithCallback(nested, 1, 20);
+
+        client.send(outer, RequestCode.INTERNAL_JDBC, 1, 30);
+        assertEquals(10 + 30, client.receive(outer).value);
+    }
+
+    @Test
+    public void testWorkerReused() throws Exception {
+        // a stack is served by the worker that has finished with the previous one
+        for (long id = 1; id <= 100; id++) {
+            callWithCallback(id, 1, (int) id);
+            awaitZero(() -> mux.getChannelCount());
+        }
+        assertEquals(1, mux.getWorkerCount());
+    }
+
+    @Test
+    public void testIdleWorker() throws Exception {
+        long id = 8;
+        client.send(id, RequestCode.INVOKE_SP, 1, -1);
+        assertEquals(-1, client.receive(id).value);
+
+        // the worker exits after the idle timeout, and a new one serves the next request
+        awaitZero(() -> mux.getWorkerCount());
+
+        client.send(id, RequestCode.INVOKE_SP, 2, -2);
+        Response result = client.receive(id);
+        assertEquals(2, result.requestId);
+        assertEquals(-2, result.value);
+    }
+
+    @Test
+    public void testRequestWhileIdleWorkerExits() throws Exception {
+        workerExitDelayMs = 300;
+
+        long id = 9;
+        client.send(id, RequestCode.INVOKE_SP, 1, -1);
+        assertEquals(-1, client.receive(id).value);
+
+        // the worker has timed out (200 ms) and not yet closed its transport
+        Thread.sleep(350);
+        client.send(id, RequestCode.INVOKE_SP, 2, -2);
+        Response result = client.receive(id);
+        assertEquals(2, result.requestId);
+        assertEquals(-2, result.value);
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    // a request with a callback round trip
+    private void callWithCallback(long id, int rid, int v) throws Exception {
+        client.send(id, RequestCode.INVOKE_SP, rid, v);
+
+        Response callback = client.receive(id);
+        assertEquals(rid, callback.requestId);
+        assertEquals(RequestCode.INTERNAL_JDBC, callback.code);
+        assertEquals(v, callback.value);
+        client.send(id, RequestCode.INTERNAL_JDBC, rid, v * 2);
+
+        Response result = client.receive(id);
+        assertEquals(rid, result.requestId);
+        assertEquals(RequestCode.RESULT, result.code);
+        assertEquals(v + v * 2, result.value);
+    }
+
+    private static void awaitZero(IntSupplier count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count.getAsInt() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, count.getAsInt());
+    }
+
+    private static class FakeWorker extends Thread {
+        private final Transport transport;
+
+        FakeWorker(Transport transport) {
+            this.transport = transport;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    CUBRIDUnpacker unpacker = new CUBRIDUnpacker(transport.receiveRequest());
+                    Header header = new Header(unpacker);
+                    assertEquals(-1, header.id);
+                    int v = unpacker.unpackInt();
+                    int answer = 0;
+                    if (v >= 0) {
+                        send(RequestCode.INTERNAL_JDBC, v);
+                        unpacker = new CUBRIDUnpacker(transport.receive());
+                        new Header(unpacker);
+                        answer = unpacker.unpackInt();
+                    }
+                    send(RequestCode.RESULT, v + answer);
+                }
+            } catch (IOException e) {
+                // idle or closed
+            } finally {
+                try {
+                    Thread.sleep(workerExitDelayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                transport.close();
+            }
+        }
+
+        private void send(int code, int value) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(8);
+            buffer.putInt(code);
+            buffer.putInt(value);
+            transport.send(buffer);
+        }
+    }
+
+    private static class Response {
+        final int requestId;
+        final int code;
+        final int value;
+
+        Response(int requestId, int code, int value) {
+            this.requestId = requestId;
+            this.code = code;
+            this.value = value;
+        }
+    }
+
+    // the server side of the protocol: routes the messages from the PL server by stack id
+    private static class Client {
+        private final Socket socket;
+        private final DataOutputStream output;
+        private final Map<Long, LinkedBlockingQueue<Response>> responses =
+                new ConcurrentHashMap<>();
+        private final Thread reader;
+
+        Client(Socket socket) throws IOException {
+            this.socket = socket;
+            this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream input =
+                    new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            reader =
+                    new Thread(
+                            () -> {
+                                try {
+                                    while (true) {
+                                        int size = input.readInt();
+                                        assertEquals(MultiplexedConnection.PREFIX_BYTES + 8, size);
+                                        long id = input.readLong();
+                                        int requestId = input.readInt();
+                                        int code = input.readInt();
+                                        int value = input.readInt();
+                                        queue(id).add(new Response(requestId, code, value));
+                                    }
+                                } catch (IOException e) {
+                                    // closed
+                                }
+                            });
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        synchronized void send(long id, int code, int requestId, int value) throws IOException {
+            output.writeInt(MultiplexedConnection.ROUTE_PREFIX_BYTES + Header.BYTES + 4);
+            output.writeLong(id);
+            output.writeLong(-1); // context id
+            output.writeInt(code);
+            output.writeInt(requestId);
+            output.writeInt(value);
+            output.flush();
+        }
+
+        Response receive(long id) throws InterruptedException {
+            Response r = queue(id).poll(10, TimeUnit.SECONDS);
+            assertNotNull(r, "no response");
+            return r;
+        }
+
+        void close() throws IOException {
+            socket.close();
+        }
+
+        private LinkedBlockingQueue<Response> queue(long id) {
+            return responses.computeIfAbsent(id, k -> new LinkedBlockingQueue<>());
+        }
+    }
+}
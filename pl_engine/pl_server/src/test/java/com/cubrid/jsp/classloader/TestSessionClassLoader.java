@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+
+package com.cubrid.jsp.classloader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.jsp.code.CompiledCode;
+import com.cubrid.jsp.code.CompiledCodeSet;
+import com.cubrid.jsp.code.SourceCode;
+import com.cubrid.jsp.compiler.MemoryFileManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+
+// Defines the classes of a routine whatever the order of its code list, which is that of a HashMap
+public class TestSessionClassLoader {
+
+    // super types listed after their subclasses: the JVM loads them while defining the subclasses
+    private static final String SOURCE =
+            "public class Proc {\n"
+                    + "  static class A {}\n"
+                    + "  static class B extends A {}\n"
+                    + "  static class C extends B {}\n"
+                    + "  static class D extends C {}\n"
+                    + "  interface I {}\n"
+                    + "  static class E extends D implements I {}\n"
+                    + "  public static String run() {\n"
+                    + "    return new E().getClass().getSuperclass().getName();\n"
+                    + "  }\n"
+                    + "}\n";
+
+    @Test
+    public void testSiblingSuperTypes() throws Exception {
+        CompiledCodeSet code = compile("Proc", SOURCE);
+        SessionClassLoader loader = new SessionClassLoader(code);
+
+        Class<?> proc = loader.loadClass("Proc");
+        assertEquals("Proc$D", proc.getMethod("run").invoke(null));
+
+        // all the classes are defined with the main one, and stay loadable after clear()
+        loader.clear();
+        for (Map.Entry<String, CompiledCode> e : code.getCodeList()) {
+            assertSame(loader, loader.loadClass(e.getKey()).getClassLoader());
+        }
+        assertThrows(ClassNotFoundException.class, () -> loader.loadClass("Proc$F"));
+    }
+
+    @Test
+    public void testConcurrentLoad() throws Exception {
+        CompiledCodeSet code = compile("Proc", SOURCE);
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, CompiledCode> e : code.getCodeList()) {
+            names.add(e.getKey());
+        }
+
+        for (int round = 0; round < 20; round++) {
+            SessionClassLoader loader = new SessionClassLoader(code);
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService pool = Executors.newFixedThreadPool(names.size());
+            try {
+                List<Future<Class<?>>> results = new ArrayList<>();
+                for (String name : names) {
+                    results.add(
+                            pool.submit(
+                                    () -> {
+                                        start.await();
+                                        return loader.loadClass(name);
+                                    }));
+                }
+                start.countDown();
+                for (int i = 0; i < names.size(); i++) {
+                    Class<?> cls = results.get(i).get(10, TimeUnit.SECONDS);
+                    assertEquals(names.get(i), cls.getName());
+                    assertSame(loader, cls.getClassLoader());
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    private static CompiledCodeSet compile(String className, String source) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        MemoryFileManager fileManager =
+                new MemoryFileManager(compiler.getStandardFileManager(null, null, null)) {};
+        assertTrue(
+                compiler.getTask(
+                                null,
+                                fileManager,
+                                null,
+                                null,
+                                null,
+                                Arrays.asList(new SourceCode(className, source)))
+                        .call());
+        return new CompiledCodeSet(className, fileManager.getCodeList());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.code;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.commons.compress.archivers.jar.JarArchiveEntry;
+import org.apache.commons.compress.archivers.jar.JarArchiveOutputStream;
+import org.junit.jupiter.api.Test;
+
+// Loads the code of a procedure from its stored (Base64) form, in both the jar and the ClassBundle
+// formats.
+public class TestClassBundle {
+
+    private final Random random = new Random(20241019L);
+
+    @Test
+    public void testClassBundle() throws Exception {
+        CompiledCodeSet codeSet = makeCodeSet();
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ClassBundle.write(codeSet, baos);
+
+        assertSameCode(codeSet, CompiledCodeSet.load("Proc", decoding(baos.toByteArray())));
+    }
+
+    @Test
+    public void testJar() throws Exception {
+        CompiledCodeSet codeSet = makeCodeSet();
+
+        // entries with and without their sizes in the local headers
+        for (boolean withSize : new boolean[] {true, false}) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (JarArchiveOutputStream jaos = new JarArchiveOutputStream(baos)) {
+                for (Map.Entry<String, CompiledCode> entry : codeSet.getCodeList()) {
+                    byte[] arr = entry.getValue().getByteCode();
+                    JarArchiveEntry jae =
+                            new JarArchiveEntry(entry.getValue().getClassNameWithExtention());
+                    if (withSize) {
+                        jae.setSize(arr.length);
+                    }
+                    jaos.putArchiveEntry(jae);
+                    jaos.write(arr);
+                    jaos.closeArchiveEntry();
+                }
+            }
+
+            assertSameCode(codeSet, CompiledCodeSet.load("Proc", decoding(baos.toByteArray())));
+            assertSameCode(codeSet, CompiledCodeSet.loadFromJar("Proc", baos.toByteArray()));
+        }
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    private CompiledCodeSet makeCodeSet() throws Exception {
+        List<CompiledCode> codeList = new ArrayList<>();
+        String[] names = {"Proc", "Proc$1", "Proc$Local", "Proc$Local$2"};
+        for (int i = 0; i < names.length; i++) {
+            byte[] byteCode = new byte[i == 0 ? 200000 : random.nextInt(5000)];
+            random.nextBytes(byteCode);
+            codeList.add(new CompiledCode(names[i], byteCode));
+        }
+        return new CompiledCodeSet("Proc", codeList);
+    }
+
+    // decodes the stored form of the code as ClassAccess.getObjectCode() does
+    private static InputStream decoding(byte[] code) {
+        byte[] stored = Base64.getEncoder().encode(code);
+        return new ByteArrayInputStream(Base64.getDecoder().decode(stored));
+    }
+
+    private static void assertSameCode(CompiledCodeSet expected, CompiledCodeSet actual) {
+        assertEquals("Proc", actual.getMainClassName());
+
+        Map<String, byte[]> actualCode = new HashMap<>();
+        for (Map.Entry<String, CompiledCode> entry : actual.getCodeList()) {
+            actualCode.put(entry.getKey(), entry.getValue().getByteCode());
+        }
+        assertEquals(expected.getCodeList().size(), actualCode.size());
+        for (Map.Entry<String, CompiledCode> entry : expected.getCodeList()) {
+            assertArrayEquals(entry.getValue().getByteCode(), actualCode.get(entry.getKey()));
+        }
+    }
+}
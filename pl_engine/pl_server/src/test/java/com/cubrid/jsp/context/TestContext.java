@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.context;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.jsp.StandaloneConfig;
+import com.cubrid.jsp.classloader.ClassLoaderManager;
+import com.cubrid.jsp.classloader.ContextClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+public class TestContext {
+
+    private static final long IDLE_SESSION_ID = 9_000_001L;
+    private static final long ACTIVE_SESSION_ID = 9_000_002L;
+    private static final long SHARED_SESSION_ID = 9_000_003L;
+
+    @Test
+    public void testIdleContextDoesNotBlockClose() throws Exception {
+        StandaloneConfig.install();
+
+        Context idle = ContextManager.getContext(IDLE_SESSION_ID);
+        Context active = ContextManager.getContext(ACTIVE_SESSION_ID);
+        Path file = null;
+        try {
+            ContextClassLoader old = (ContextClassLoader) idle.getOldClassLoader();
+            assertSame(old, active.getOldClassLoader());
+
+            active.enter(); // processing a request
+            file = newGeneration(old);
+            assertFalse(old.isDrained()); // retained by both the Contexts
+
+            // neither has been idle for the timeout
+            ContextManager.releaseIdleClassLoaders(ContextManager.IDLE_CLASS_LOADER_TIMEOUT_MILLIS);
+            assertFalse(old.isDrained());
+
+            // the idle one releases it, the active one keeps it
+            ContextManager.releaseIdleClassLoaders(0);
+            assertFalse(old.isDrained());
+
+            active.leave();
+            ContextManager.releaseIdleClassLoaders(0);
+            assertTrue(old.isDrained());
+
+            // the next request acquires the new generation
+            ContextClassLoader current = (ContextClassLoader) idle.getOldClassLoader();
+            assertNotSame(old, current);
+            assertFalse(current.isDrained());
+        } finally {
+            if (file != null) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testCallRetainsLoaderAcrossTransactions() throws Exception {
+        StandaloneConfig.install();
+
+        // sessions whose requests share a Context, as with the header id -1
+        Context shared = ContextManager.getContext(SHARED_SESSION_ID);
+        Path file = null;
+        try {
+            shared.checkTranId(1);
+            ContextClassLoader old = shared.acquireClassLoader(); // a call of one session
+            file = newGeneration(old);
+
+            // a request of another session in another transaction moves to the new generation
+            shared.checkTranId(2);
+            assertNotSame(old, shared.getOldClassLoader());
+            assertFalse(old.isDrained());
+
+            // the call returns
+            old.release();
+            assertTrue(old.isDrained());
+        } finally {
+            if (file != null) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    // adds a file to the dynamic path and waits until a new generation of the loader replaces
+    // old. returns the file
+    private static Path newGeneration(ContextClassLoader old) throws Exception {
+        Path file = Files.createTempFile(ClassLoaderManager.getDynamicPath(), "generation", ".tmp");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            ContextClassLoader loader = ClassLoaderManager.acquireContextClassLoader();
+            loader.release();
+            if (loader != old) {
+                return file;
+            }
+            assertTrue(System.currentTimeMillis() < deadline, "no new generation");
+            Thread.sleep(10);
+        }
+    }
+}
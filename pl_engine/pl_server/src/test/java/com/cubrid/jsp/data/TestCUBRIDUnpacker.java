@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.jsp.protocol.Header;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+public class TestCUBRIDUnpacker {
+
+    @Test
+    public void testNestedBuffers() {
+        // header | buffer { int | buffer { int | bigint } | int } | int
+        ByteBuffer frame = ByteBuffer.allocate(128);
+        frame.putLong(42L).putInt(0x08).putInt(7);
+        frame.putInt(4 + 4 + 16 + 4); // size of the outer buffer
+        frame.putInt(1);
+        // inner buffer, with the bigint aligned to 8 in it
+        frame.putInt(16).putInt(9).putInt(0).putLong(-5L);
+        frame.putInt(2);
+        frame.putInt(3);
+        frame.flip();
+
+        CUBRIDUnpacker unpacker = new CUBRIDUnpacker(frame);
+        Header header = new Header(unpacker);
+        assertEquals(42L, header.id);
+        assertEquals(7, header.requestId);
+
+        ByteBuffer outer = unpacker.unpackBuffer();
+        assertEquals(3, unpacker.unpackInt());
+
+        // the nested buffers are views of the frame, starting at their own position 0
+        assertSame(frame.array(), outer.array());
+        assertEquals(0, outer.position());
+        assertEquals(28, outer.limit());
+
+        CUBRIDUnpacker outerUnpacker = new CUBRIDUnpacker(outer);
+        assertEquals(1, outerUnpacker.unpackInt());
+        ByteBuffer inner = outerUnpacker.unpackBuffer();
+        assertEquals(2, outerUnpacker.unpackInt());
+
+        CUBRIDUnpacker innerUnpacker = new CUBRIDUnpacker(inner);
+        assertEquals(9, innerUnpacker.unpackInt());
+        assertEquals(-5L, innerUnpacker.unpackBigint());
+        assertFalse(inner.hasRemaining());
+    }
+}
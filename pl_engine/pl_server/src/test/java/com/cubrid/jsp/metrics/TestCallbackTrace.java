@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.jsp.impl.SUFunctionCode;
+import com.cubrid.jsp.protocol.RequestCode;
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TestCallbackTrace {
+
+    private static ByteBuffer jdbc(SUFunctionCode code) {
+        ByteBuffer b = ByteBuffer.allocate(64);
+        b.putInt(code.getCode());
+        b.putInt(0);
+        return b;
+    }
+
+    @Test
+    public void testSummary() {
+        CallbackTrace trace = new CallbackTrace(7, "Foo.bar(int)");
+
+        for (int i = 0; i < 2; i++) {
+            trace.beginCallback(RequestCode.INTERNAL_JDBC, jdbc(SUFunctionCode.PREPARE), 40);
+            trace.endCallback(100);
+            trace.setSql("select * from t where a = ?");
+
+            trace.beginCallback(RequestCode.INTERNAL_JDBC, jdbc(SUFunctionCode.EXECUTE), 60);
+            trace.endCallback(200);
+        }
+        for (int i = 0; i < 3; i++) {
+            trace.beginCallback(RequestCode.INTERNAL_JDBC, jdbc(SUFunctionCode.FETCH), 30);
+            trace.endCallback(1000);
+        }
+        trace.beginCallback(RequestCode.REQUEST_CODE_ATTR, ByteBuffer.allocate(8), 20);
+        trace.endCallback(50);
+        trace.endCallback(10); // not a response to a traced request
+
+        assertEquals(8, trace.getCallbackCount());
+
+        String summary = trace.summarize(5_000_000, true);
+        String sqlHash = String.format("%08x", "select * from t where a = ?".hashCode());
+        assertTrue(summary.startsWith("callback trace: session=7 sp=Foo.bar(int) elapsed=5000us"));
+        assertTrue(summary.contains(" failed callbacks=8 ("), summary);
+        assertTrue(summary.contains("out=310B in=3650B)"), summary);
+        assertTrue(summary.contains("| PREPARE sql#" + sqlHash + " x2 "), summary);
+        assertTrue(summary.contains("| EXECUTE x2 "), summary);
+        assertTrue(summary.endsWith(" 20/50B"), summary);
+        assertTrue(summary.indexOf("| FETCH x3 ") < summary.indexOf("| CODE_ATTR x1 "));
+    }
+
+    @Test
+    public void testEntryLimit() {
+        CallbackTrace trace = new CallbackTrace(1, "p");
+        int n = CallbackTrace.MAX_ENTRIES + 10;
+        for (int i = 0; i < n; i++) {
+            trace.beginCallback(RequestCode.INTERNAL_JDBC, jdbc(SUFunctionCode.FETCH), 1);
+            trace.endCallback(1);
+        }
+
+        String summary = trace.summarize(0, false);
+        assertTrue(summary.contains(" callbacks=" + n + " "), summary);
+        assertTrue(summary.contains(" untraced=10 "), summary);
+        assertTrue(summary.contains("| FETCH x" + CallbackTrace.MAX_ENTRIES + " "), summary);
+    }
+
+    @Test
+    public void testTracer() {
+        CallbackTracer.clear();
+        assertNull(CallbackTracer.start(1, "p"));
+
+        CallbackTracer.enableSession(1, true);
+        CallbackTracer.enableSignature("q", true);
+        assertNotNull(CallbackTracer.start(1, "p"));
+        assertNotNull(CallbackTracer.start(2, "q"));
+        assertNull(CallbackTracer.start(2, "p"));
+
+        CallbackTracer.enableSession(1, false);
+        CallbackTracer.enableSignature("q", false);
+        assertNull(CallbackTracer.start(1, "q"));
+
+        for (int i = 0; i < CallbackTracer.RING_SIZE + 5; i++) {
+            CallbackTracer.remember("s" + i);
+        }
+        List<String> recent = CallbackTracer.getRecent();
+        assertEquals(CallbackTracer.RING_SIZE, recent.size());
+        assertEquals("s5", recent.get(0));
+        assertEquals("s" + (CallbackTracer.RING_SIZE + 4), recent.get(recent.size() - 1));
+
+        CallbackTracer.clear();
+        assertTrue(CallbackTracer.getRecent().isEmpty());
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TestMetricsRegistry {
+
+    @Test
+    public void testBuckets() {
+        assertEquals(0, LatencyHistogram.bucketIndex(0));
+        assertEquals(7, LatencyHistogram.bucketIndex(7));
+
+        // every value falls in its bucket, and a bucket spans at most 1/8 of its lower bound
+        int last = -1;
+        for (long v = 0; v < (1L << 20); v += 1 + v / 64) {
+            int i = LatencyHistogram.bucketIndex(v);
+            assertTrue(i >= last);
+            long lo = LatencyHistogram.bucketLowerBound(i);
+            long hi = LatencyHistogram.bucketUpperBound(i);
+            assertTrue(lo <= v && v <= hi, v + " not in [" + lo + ", " + hi + "]");
+            assertTrue(hi - lo <= Math.max(0, lo / 8));
+            last = i;
+        }
+
+        int top = LatencyHistogram.bucketIndex(LatencyHistogram.MAX_VALUE);
+        assertEquals(LatencyHistogram.BUCKETS - 1, top);
+        assertEquals(LatencyHistogram.MAX_VALUE, LatencyHistogram.bucketUpperBound(top));
+    }
+
+    @Test
+    public void testPercentile() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, LatencyHistogram.percentile(h.snapshot(), 50));
+
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i);
+        }
+        h.record(-5); // clamped to 0
+        h.record(Long.MAX_VALUE); // clamped to MAX_VALUE
+
+        long[] snapshot = h.snapshot();
+        long p50 = LatencyHistogram.percentile(snapshot, 50);
+        long p99 = LatencyHistogram.percentile(snapshot, 99);
+        assertTrue(p50 >= 500 && p50 <= 500 * 9 / 8, "p50 = " + p50);
+        assertTrue(p99 >= 990 && p99 <= 990 * 9 / 8, "p99 = " + p99);
+        assertEquals(LatencyHistogram.MAX_VALUE, LatencyHistogram.percentile(snapshot, 100));
+        assertEquals(LatencyHistogram.MAX_VALUE, h.getMax());
+    }
+
+    @Test
+    public void testRegistry() throws Exception {
+        MetricsRegistry.clear();
+
+        ProcedureMetrics m = MetricsRegistry.forProcedure("Foo.bar(int)");
+        assertSame(m, MetricsRegistry.forProcedure("Foo.bar(int)"));
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] =
+                    new Thread(
+                            () -> {
+                                for (int i = 0; i < 1000; i++) {
+                                    m.record(2_000_000, i % 10 == 0, 3, 5, 100, 20);
+                                }
+                            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        MetricsRegistry.forProcedure("Foo.baz()").record(1000, false, 0, 0, 10, 10);
+
+        List<ProcedureMetrics.Snapshot> snapshots = MetricsRegistry.snapshot();
+        assertEquals(2, snapshots.size());
+
+        ProcedureMetrics.Snapshot s = snapshots.get(0);
+        assertEquals("Foo.bar(int)", s.signature);
+        assertEquals(4000, s.invokes);
+        assertEquals(400, s.errors);
+        assertEquals(4000 * 2000, s.totalMicros);
+        assertEquals(2000, s.maxMicros);
+        assertEquals(12000, s.callbacks);
+        assertEquals(20000, s.rowsFetched);
+        assertEquals(400000, s.bytesIn);
+        assertEquals(80000, s.bytesOut);
+        assertEquals("Foo.baz()", snapshots.get(1).signature);
+
+        Path dir = Files.createTempDirectory("metrics");
+        Path file = dir.resolve("demodb_java.metrics");
+        try {
+            MetricsRegistry.dump(file, snapshots);
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            assertEquals(4, lines.size());
+            assertTrue(lines.get(2).startsWith("4000\t400\t8000000\t"));
+            assertTrue(lines.get(2).endsWith("\tFoo.bar(int)"));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+
+        MetricsRegistry.clear();
+    }
+
+    @Test
+    public void testConcurrentDumps() throws Exception {
+        MetricsRegistry.clear();
+        MetricsRegistry.forProcedure("Foo.bar(int)").record(1000, false, 0, 0, 10, 10);
+        List<ProcedureMetrics.Snapshot> snapshots = MetricsRegistry.snapshot();
+
+        Path dir = Files.createTempDirectory("metrics");
+        Path file = dir.resolve("demodb_java.metrics");
+        List<Throwable> errors = new ArrayList<>();
+        try {
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] =
+                        new Thread(
+                                () -> {
+                                    try {
+                                        for (int i = 0; i < 100; i++) {
+                                            MetricsRegistry.dump(file, snapshots);
+                                        }
+                                    } catch (Throwable e) {
+                                        synchronized (errors) {
+                                            errors.add(e);
+                                        }
+                                    }
+                                });
+                threads[t].start();
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+
+            assertTrue(errors.isEmpty(), () -> errors.get(0).toString());
+            assertEquals(3, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+
+        MetricsRegistry.clear();
+    }
+
+    @Test
+    public void testRequestDump() throws Exception {
+        MetricsRegistry.clear();
+        MetricsRegistry.forProcedure("Foo.bar(int)").record(1000, false, 0, 0, 10, 10);
+
+        Path dir = Files.createTempDirectory("metrics");
+        Path file = dir.resolve("demodb_java.metrics");
+        MetricsRegistry.startDumper(file);
+        try {
+            // the dumper writes the file right away instead of after its interval
+            MetricsRegistry.requestDump();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!Files.exists(file) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(Files.exists(file));
+        } finally {
+            MetricsRegistry.stopDumper();
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+
+        MetricsRegistry.clear();
+    }
+}
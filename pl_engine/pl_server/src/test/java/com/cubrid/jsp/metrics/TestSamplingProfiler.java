@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.plcsql.predefined.sp.SpLib;
+import com.cubrid.plcsql.predefined.sp.SpLib.CodeRangeMarkers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestSamplingProfiler {
+
+    // Java lines 1-4 and 8-19 are PL/CSQL line 10, Java lines 5-7 are PL/CSQL line 12
+    private static final CodeRangeMarkers MARKERS =
+            SpLib.buildCodeRangeMarkers(" (1,10,3 (5,12,5 )8 )20");
+
+    private static StackTraceElement frame(String cls, String method, String file, int line) {
+        return new StackTraceElement(cls, method, file, line);
+    }
+
+    @Test
+    public void testCallback() {
+        StackTraceElement[] stack = {
+            frame("com.cubrid.jsp.ExecuteThread", "receiveBuffer", "ExecuteThread.java", 300),
+            frame("com.cubrid.jsp.impl.SUConnection", "request", "SUConnection.java", 72),
+            frame("com.cubrid.jsp.impl.SUConnection", "fetch", "SUConnection.java", 185),
+            frame("com.cubrid.jsp.impl.SUStatement", "fetch", "SUStatement.java", 400),
+            frame("Foo", "inner", "Foo.java", 6),
+            frame("Foo$Rec", "get", "Foo.java", 15),
+            frame("Foo", "main", "Foo.java", 2),
+            frame("sun.reflect.NativeMethodAccessorImpl", "invoke0", null, -2),
+        };
+
+        assertEquals(
+                "Foo.bar(int);main:10;get:10;inner:12;[callback] fetch",
+                SamplingProfiler.collapse("Foo.bar(int)", "Foo.java", MARKERS, stack));
+    }
+
+    @Test
+    public void testCpu() {
+        StackTraceElement[] stack = {
+            frame("com.cubrid.plcsql.predefined.sp.SpLib", "opAdd", "SpLib.java", 900),
+            frame("Foo", "main", "Foo.java", 9),
+        };
+        assertEquals(
+                "p;main:10;[cpu] SpLib.opAdd",
+                SamplingProfiler.collapse("p", "Foo.java", MARKERS, stack));
+
+        // a Java SP keeps its Java lines, and an unmapped line is shown as '?'
+        StackTraceElement[] javaStack = {
+            frame("Foo", "run", "Foo.java", 42), frame("Foo", "main", "Foo.java", -1),
+        };
+        assertEquals(
+                "Foo.main();main:?;run:42;[cpu]",
+                SamplingProfiler.collapse("Foo.main()", "Foo.java", null, javaStack));
+
+        // no frame of the procedure's class yet
+        assertEquals(
+                "p;[other]", SamplingProfiler.collapse("p", "Bar.java", MARKERS, javaStack));
+    }
+
+    @Test
+    public void testAggregation() {
+        SamplingProfiler.clear();
+
+        for (int i = 0; i < 3; i++) {
+            SamplingProfiler.addSample("p;main:10;[cpu]");
+        }
+        SamplingProfiler.addSample("p;main:12;[callback] fetch");
+        for (int i = 0; i < SamplingProfiler.MAX_STACKS + 5; i++) {
+            SamplingProfiler.addSample("q;main:" + i + ";[cpu]");
+        }
+
+        List<String> stacks = SamplingProfiler.getCollapsedStacks();
+        assertEquals(SamplingProfiler.MAX_STACKS + 1, stacks.size());
+        assertEquals(SamplingProfiler.OTHER_STACK + " 7", stacks.get(0));
+        assertEquals("p;main:10;[cpu] 3", stacks.get(1));
+
+        SamplingProfiler.clear();
+        assertTrue(SamplingProfiler.getCollapsedStacks().isEmpty());
+    }
+
+    @Test
+    public void testRequestDump(@TempDir Path tempDir) throws Exception {
+        Path path = tempDir.resolve("test_java.profile");
+        List<String> stacks = Arrays.asList("p;main:10;[cpu] 3", "p;main:12;[callback] fetch 1");
+
+        // written by the dumper thread, not by the caller
+        SamplingProfiler.requestDump(path, stacks);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!Files.exists(path) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(stacks, Files.readAllLines(path, StandardCharsets.UTF_8));
+    }
+}
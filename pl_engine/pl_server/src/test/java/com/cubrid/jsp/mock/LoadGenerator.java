@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.mock;
+
+import com.cubrid.jsp.data.DBType;
+import com.cubrid.jsp.metrics.LatencyHistogram;
+import com.cubrid.plcsql.compiler.serverapi.MockServerAPI;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Drives a MockCubridServer with concurrent invocations and reports their throughput and latency
+ * percentiles. Every thread has a session of its own, as every client of CUBRID has.
+ *
+ * <p>Run from the command line (see the plLoadTest task of the build) it compiles the routines
+ * of the benchmark corpus and invokes each of them in turn:
+ *
+ * <pre>
+ * LoadGenerator [--threads N] [--invocations N] [--warmup N] [--uds] [routine ...]
+ * </pre>
+ */
+public class LoadGenerator {
+
+    /** makes one invocation in the session of the thread */
+    public interface Call {
+        Object invoke(MockSession session, int thread, int iteration) throws Exception;
+    }
+
+    public static class Report {
+        public final String name;
+        public final int threads;
+        public final long invocations;
+        public final long errors;
+        public final long elapsedNanos;
+        public final long maxMicros;
+        public final Throwable firstError;
+
+        private final long[] histogram;
+
+        Report(
+                String name,
+                int threads,
+                long invocations,
+                long errors,
+                long elapsedNanos,
+                LatencyHistogram latencies,
+                Throwable firstError) {
+            this.name = name;
+            this.threads = threads;
+            this.invocations = invocations;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.maxMicros = latencies.getMax();
+            this.histogram = latencies.snapshot();
+            this.firstError = firstError;
+        }
+
+        public double throughput() {
+            return (elapsedNanos == 0) ? 0 : invocations * 1e9 / elapsedNanos;
+        }
+
+        /** in microseconds, 0 < percentile <= 100 */
+        public long percentile(double percentile) {
+            return LatencyHistogram.percentile(histogram, percentile);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%-12s %3d threads %8d calls %10.1f calls/s"
+                            + "  p50 %6dus  p90 %6dus  p99 %6dus  max %7dus  errors %d",
+                    name,
+                    threads,
+                    invocations,
+                    throughput(),
+                    percentile(50),
+                    percentile(90),
+                    percentile(99),
+                    maxMicros,
+                    errors);
+        }
+    }
+
+    /**
+     * runs the call in each of the threads, warmup times unmeasured and then invocations times
+     * measured, and returns the report of the measured ones
+     */
+    public static Report run(
+            MockCubridServer server,
+            String name,
+            int threads,
+            int warmup,
+            int invocations,
+            Call call)
+            throws InterruptedException {
+        LatencyHistogram latencies = new LatencyHistogram();
+        AtomicLong count = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicReference<Throwable> firstError = new AtomicReference<>();
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            Thread worker =
+                    new Thread(
+                            () -> {
+                                MockSession session = null;
+                                try {
+                                    session = server.openSession();
+                                    for (int i = 0; i < warmup; i++) {
+                                        invoke(call, session, thread, i);
+                                    }
+                                } catch (Throwable e) {
+                                    firstError.compareAndSet(null, e);
+                                    errors.incrementAndGet();
+                                    return;
+                                } finally {
+                                    ready.countDown();
+                                }
+
+                                try {
+                                    go.await();
+                                    for (int i = 0; i < invocations; i++) {
+                                        long start = System.nanoTime();
+                                        Throwable e = invoke(call, session, thread, i);
+                                        latencies.record((System.nanoTime() - start) / 1000);
+                                        count.incrementAndGet();
+                                        if (e != null) {
+                                            errors.incrementAndGet();
+                                            firstError.compareAndSet(null, e);
+                                        }
+                                    }
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                } finally {
+                                    session.close();
+                                }
+                            },
+                            "load-" + name + "-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return new Report(
+                name, threads, count.get(), errors.get(), elapsed, latencies, firstError.get());
+    }
+
+    /**
+     * creates the tables of the benchmark corpus (see MockServerAPI.forBenchCorpus) with the
+     * given number of employees spread over departments 10, 20 and 30, and compiles its routines
+     */
+    public static void loadBenchCorpus(MockCubridServer server, int employees) throws Exception {
+        server.table(
+                        "emp",
+                        "id",
+                        DBType.DB_INT,
+                        "name",
+                        DBType.DB_STRING,
+                        "dept",
+                        DBType.DB_INT,
+                        "salary",
+                        DBType.DB_NUMERIC)
+                .table("log_tbl", "id", DBType.DB_INT, "msg", DBType.DB_STRING);
+        server.semantics()
+                .procedure(
+                        "write_log",
+                        MockServerAPI.in(DBType.DB_INT),
+                        MockServerAPI.in(DBType.DB_STRING));
+
+        for (int i = 1; i <= employees; i++) {
+            server.database()
+                    .insert(
+                            "emp",
+                            new Object[] {
+                                i, "emp" + i, 10 * (i % 3 + 1), new BigDecimal(1000 + i * 10)
+                            });
+        }
+
+        for (String routine : MockServerAPI.readBenchCorpus()) {
+            server.compile(routine);
+        }
+    }
+
+    /** the calls of the command line, by routine of the benchmark corpus */
+    public static Map<String, Call> benchCorpusCalls() {
+        Map<String, Call> calls = new LinkedHashMap<>();
+        calls.put("fib", (s, t, i) -> s.invoke("fib", 30));
+        calls.put("classify", (s, t, i) -> s.invoke("classify", i % 20 - 5));
+        calls.put("format_name", (s, t, i) -> s.invoke("format_name", "john", "smith"));
+        calls.put("dept_total", (s, t, i) -> s.invoke("dept_total", 10 * (i % 3 + 1)));
+        calls.put("emp_report", (s, t, i) -> s.invoke("emp_report", 10, 1500));
+        calls.put("archive_log", (s, t, i) -> s.invoke("archive_log", t * 1000000 + i));
+        return calls;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = 8;
+        int invocations = 1000;
+        int warmup = 200;
+        boolean uds = false;
+        List<String> routines = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--invocations":
+                    invocations = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "--uds":
+                    uds = true;
+                    break;
+                default:
+                    routines.addAll(Arrays.asList(args[i].split(",")));
+                    break;
+            }
+        }
+
+        Map<String, Call> calls = benchCorpusCalls();
+        if (routines.isEmpty()) {
+            routines.addAll(calls.keySet());
+        }
+
+        try (MockCubridServer server = MockCubridServer.start(uds)) {
+            loadBenchCorpus(server, 300);
+            for (String routine : routines) {
+                Call call = calls.get(routine);
+                if (call == null) {
+                    System.err.println("unknown routine " + routine + ", one of " + calls.keySet());
+                    continue;
+                }
+                Report report = run(server, routine, threads, warmup, invocations, call);
+                System.out.println(report);
+                if (report.firstError != null) {
+                    System.out.println("  first error: " + report.firstError);
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    // ------------------------------------------------------------------
+    // Private
+    // ------------------------------------------------------------------
+
+    // returns the error of the invocation, or null
+    private static Throwable invoke(Call call, MockSession session, int thread, int iteration) {
+        try {
+            call.invoke(session, thread, iteration);
+            return null;
+        } catch (Exception e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.mock;
+
+import com.cubrid.jsp.Server;
+import com.cubrid.jsp.ServerConfig;
+import com.cubrid.jsp.data.DBType;
+import com.cubrid.jsp.value.Value;
+import com.cubrid.plcsql.compiler.serverapi.MockServerAPI;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import org.newsclub.net.unix.AFUNIXSocket;
+import org.newsclub.net.unix.AFUNIXSocketAddress;
+
+/**
+ * Stands in for the CUBRID server (cub_server and cub_pl) in front of a PL server started in the
+ * same JVM, so that the PL server can be driven end to end without a database.
+ *
+ * <p>It talks to the PL server over its real socket, TCP or Unix domain, through MockSessions,
+ * one connection per database session. Sessions compile PL/CSQL routines by COMPILE requests and
+ * answer the semantic questions of the compiler from a MockServerAPI. The compiled code is kept
+ * in a catalog of this server and sent back for the REQUEST_CODE_ATTR callbacks when the routines
+ * are invoked. The PREPARE, EXECUTE and FETCH callbacks of the server-side JDBC are answered from
+ * the tables of a MockDatabase.
+ *
+ * <p>Only one PL server runs in a JVM, so only one MockCubridServer can be started at a time.
+ */
+public class MockCubridServer implements Closeable {
+
+    public static final String OWNER = "DBA";
+
+    /** a routine compiled by the PL server and registered in the catalog */
+    public static class Routine {
+        public final String name;
+        public final String className;
+        public final String signature;
+        public final int[] paramTypes;
+        public final int[] paramModes;
+        public final int returnType; // DB_NULL for a procedure
+
+        final byte[] code; // Base64 text, as in the ocode column of the catalog
+        final String createdTime;
+
+        Routine(String className, String signature, byte[] code, String createdTime) {
+            this.className = className;
+            this.signature = signature;
+            this.code = code;
+            this.createdTime = createdTime;
+
+            // <class>.<name>(<java type>, ...) [return <java type>]
+            int open = signature.indexOf('(');
+            int close = signature.lastIndexOf(')');
+            this.name = signature.substring(className.length() + 1, open).toLowerCase();
+
+            String params = signature.substring(open + 1, close).trim();
+            String[] types = params.isEmpty() ? new String[0] : params.split(",");
+            this.paramTypes = new int[types.length];
+            this.paramModes = new int[types.length];
+            for (int i = 0; i < types.length; i++) {
+                String type = types[i].trim();
+                boolean out = type.endsWith("[]");
+                paramModes[i] = out ? Value.INOUT : Value.IN;
+                paramTypes[i] = toDBType(out ? type.substring(0, type.length() - 2) : type);
+            }
+
+            int ret = signature.indexOf(" return ", close);
+            this.returnType =
+                    (ret < 0) ? DBType.DB_NULL : toDBType(signature.substring(ret + 8).trim());
+        }
+    }
+
+    /** starts a PL server listening on an ephemeral TCP port, and the stand-in in front of it */
+    public static MockCubridServer start() throws IOException {
+        return start(false);
+    }
+
+    /** starts a PL server listening on a Unix domain socket or on TCP */
+    public static MockCubridServer start(boolean uds) throws IOException {
+        Path root = Files.createTempDirectory("cubrid_pl_mock");
+        writeClassPathJar(root.resolve("java/pl_server.jar"));
+        String socketInfo = uds ? root.resolve("sql/pl.sock").toString() : "0";
+        ServerConfig config =
+                new ServerConfig(
+                        "mock", "1.0", root.toString(), root + "/databases", socketInfo);
+        int port;
+        try {
+            port = Server.startWithConfig(config);
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+
+        MockCubridServer server = new MockCubridServer(uds ? socketInfo : null, port);
+        try (MockSession session = server.openSession()) {
+            session.bootstrap();
+        } catch (IOException | RuntimeException e) {
+            server.close();
+            throw e;
+        }
+        return server;
+    }
+
+    /** the tables that the statements of the routines are run on */
+    public MockDatabase database() {
+        return database;
+    }
+
+    /** the schema the routines are compiled against, such as the procedures they call */
+    public MockServerAPI semantics() {
+        return semantics;
+    }
+
+    /** adds a table of the given (column name, DBType) pairs to the database and the schema */
+    public MockCubridServer table(String name, Object... columns) {
+        database.table(name, columns);
+        semantics.table(name, columns);
+        return this;
+    }
+
+    /** opens a connection to the PL server for a new database session */
+    public MockSession openSession() throws IOException {
+        Socket socket;
+        if (udsPath != null) {
+            socket = AFUNIXSocket.connectTo(AFUNIXSocketAddress.of(Paths.get(udsPath)));
+        } else {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+        }
+        return new MockSession(this, socket);
+    }
+
+    /** compiles the routine in a session of its own and registers it in the catalog */
+    public Routine compile(String source) throws IOException, SQLException {
+        try (MockSession session = openSession()) {
+            return session.compile(source);
+        }
+    }
+
+    public Routine getRoutine(String name) {
+        Routine r = routines.get(name.toLowerCase());
+        if (r == null) {
+            throw new IllegalArgumentException("no routine " + name);
+        }
+        return r;
+    }
+
+    @Override
+    public void close() {
+        Server.stop(0);
+    }
+
+    // ------------------------------------------------------------------
+    // Private
+    // ------------------------------------------------------------------
+
+    private final String udsPath;
+    private final int port;
+
+    private final MockDatabase database = new MockDatabase();
+    private final MockServerAPI semantics = new MockServerAPI();
+
+    private final Map<String, Routine> routines = new ConcurrentHashMap<>(); // by name
+    private final Map<String, Routine> classes = new ConcurrentHashMap<>(); // by class name
+
+    private static final Map<String, Integer> JAVA_TYPES = new HashMap<>();
+
+    static {
+        JAVA_TYPES.put("java.lang.Short", DBType.DB_SHORT);
+        JAVA_TYPES.put("java.lang.Integer", DBType.DB_INT);
+        JAVA_TYPES.put("java.lang.Long", DBType.DB_BIGINT);
+        JAVA_TYPES.put("java.lang.Float", DBType.DB_FLOAT);
+        JAVA_TYPES.put("java.lang.Double", DBType.DB_DOUBLE);
+        JAVA_TYPES.put("java.math.BigDecimal", DBType.DB_NUMERIC);
+        JAVA_TYPES.put("java.lang.String", DBType.DB_STRING);
+    }
+
+    private MockCubridServer(String udsPath, int port) {
+        this.udsPath = udsPath;
+        this.port = port;
+    }
+
+    void register(Routine r) {
+        routines.put(r.name, r);
+        classes.put(r.className, r);
+    }
+
+    Routine findClass(String className) {
+        return classes.get(className);
+    }
+
+    // the PL server compiles the translated routines against $CUBRID/java/pl_server.jar. Here it
+    // is a jar of nothing but a manifest pointing to the classes this JVM runs with, which are on
+    // the class path or, when run by a launcher such as that of JUnit, in a URLClassLoader. javac
+    // takes the entries of the manifest as paths relative to the jar
+    private static void writeClassPathJar(Path jar) throws IOException {
+        Set<Path> entries = new LinkedHashSet<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                entries.add(Paths.get(entry).toAbsolutePath());
+            }
+        }
+        for (ClassLoader cl = MockCubridServer.class.getClassLoader();
+                cl != null;
+                cl = cl.getParent()) {
+            if (cl instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) cl).getURLs()) {
+                    try {
+                        entries.add(Paths.get(url.toURI()));
+                    } catch (URISyntaxException | IllegalArgumentException e) {
+                        // not a file
+                    }
+                }
+            }
+        }
+
+        Path dir = jar.getParent().toAbsolutePath();
+        StringBuilder classPath = new StringBuilder();
+        for (Path entry : entries) {
+            String relative = dir.relativize(entry).toString().replace(File.separatorChar, '/');
+            classPath.append(relative).append(Files.isDirectory(entry) ? "/ " : " ");
+        }
+
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPath.toString().trim());
+
+        Files.createDirectories(jar.getParent());
+        JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar), manifest);
+        out.close(); // no entries
+    }
+
+    private static int toDBType(String javaType) {
+        Integer type = JAVA_TYPES.get(javaType);
+        if (type == null) {
+            throw new IllegalArgumentException("mock: unsupported parameter type " + javaType);
+        }
+        return type;
+    }
+}
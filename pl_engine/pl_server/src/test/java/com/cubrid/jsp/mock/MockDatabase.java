@@ -0,0 +1,987 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.mock;
+
+import com.cubrid.jsp.data.ColumnInfo;
+import com.cubrid.jsp.data.DBType;
+import com.cubrid.plcsql.compiler.serverapi.ServerConstants;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The tables of a MockCubridServer and the statements run on them.
+ *
+ * <p>Statements are run by a small interpreter rather than a SQL engine. It covers SELECT of
+ * columns or count(*) from a single table with an optional ORDER BY, SELECT of expressions from
+ * dual, INSERT (or REPLACE) of value lists, UPDATE and DELETE, all with a WHERE clause of
+ * comparisons joined by AND. The values are of INT, SHORT, BIGINT, FLOAT, DOUBLE, NUMERIC and
+ * STRING columns, and the expressions are literals, host variables, columns, arithmetic, || and
+ * the functions SUBSTR, UPPER, LOWER, TRIM, LENGTH and NVL. Any other statement, such as a join
+ * or a call, is answered by a script registered for its text.
+ */
+public class MockDatabase {
+
+    /** answers a statement in place of the interpreter */
+    public interface Script {
+        Result execute(Object[] binds) throws SQLException;
+    }
+
+    /** the rows of a query, or the number of rows changed by another statement */
+    public static class Result {
+        public final List<Object[]> rows;
+        public final int affected;
+
+        private Result(List<Object[]> rows, int affected) {
+            this.rows = rows;
+            this.affected = affected;
+        }
+
+        public static Result rows(List<Object[]> rows) {
+            return new Result(rows, rows.size());
+        }
+
+        public static Result affected(int count) {
+            return new Result(null, count);
+        }
+    }
+
+    /** a statement ready to be executed, made once for a PREPARE */
+    public static class Statement {
+        public final String sql;
+        public final int stmtType;
+        public final int paramCount;
+        public final List<ColumnInfo> columns; // the select list, empty if not a query
+
+        private final Script exec;
+
+        private Statement(
+                String sql, int stmtType, int paramCount, List<ColumnInfo> columns, Script exec) {
+            this.sql = sql;
+            this.stmtType = stmtType;
+            this.paramCount = paramCount;
+            this.columns = columns;
+            this.exec = exec;
+        }
+
+        public boolean isQuery() {
+            return stmtType == ServerConstants.CUBRID_STMT_SELECT;
+        }
+
+        public Result execute(Object[] binds) throws SQLException {
+            if (binds.length < paramCount) {
+                throw new SQLException("mock: " + paramCount + " values expected for " + sql);
+            }
+            return exec.execute(binds);
+        }
+    }
+
+    /** adds a table of the given (column name, DBType) pairs */
+    public synchronized MockDatabase table(String name, Object... columns) {
+        String[] names = new String[columns.length / 2];
+        int[] types = new int[columns.length / 2];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = ((String) columns[i * 2]).toLowerCase();
+            types[i] = (Integer) columns[i * 2 + 1];
+        }
+        tables.put(name.toLowerCase(), new Table(name.toLowerCase(), names, types));
+        return this;
+    }
+
+    /** appends rows, each with a value for every column of the table */
+    public MockDatabase insert(String table, Object[]... rows) {
+        Table t = getTable(table);
+        synchronized (t) {
+            for (Object[] row : rows) {
+                t.rows.add(t.coerce(row.clone()));
+            }
+        }
+        return this;
+    }
+
+    /** returns a copy of the rows of the table */
+    public List<Object[]> rows(String table) {
+        Table t = getTable(table);
+        synchronized (t) {
+            List<Object[]> copy = new ArrayList<>(t.rows.size());
+            for (Object[] row : t.rows) {
+                copy.add(row.clone());
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * answers the statement of the given text by the script. A query gives the (column name,
+     * DBType) pairs of its select list, any other statement gives none
+     */
+    public synchronized MockDatabase script(String sql, Script script, Object... columns) {
+        List<ColumnInfo> list = new ArrayList<>();
+        for (int i = 0; i < columns.length; i += 2) {
+            list.add(column((String) columns[i], (Integer) columns[i + 1], ""));
+        }
+        int stmtType =
+                list.isEmpty()
+                        ? ServerConstants.CUBRID_STMT_UPDATE
+                        : ServerConstants.CUBRID_STMT_SELECT;
+        scripts.put(
+                normalize(sql),
+                new Statement(sql, stmtType, countParams(sql), list, script));
+        return this;
+    }
+
+    public Statement prepare(String sql) throws SQLException {
+        Statement scripted;
+        synchronized (this) {
+            scripted = scripts.get(normalize(sql));
+        }
+        if (scripted != null) {
+            return new Statement(
+                    sql, scripted.stmtType, scripted.paramCount, scripted.columns, scripted.exec);
+        }
+
+        return new Parser(sql).parse();
+    }
+
+    // ------------------------------------------------------------------
+    // Private
+    // ------------------------------------------------------------------
+
+    private final Map<String, Table> tables = new HashMap<>();
+    private final Map<String, Statement> scripts = new HashMap<>();
+
+    private static final Set<String> CLAUSE_KEYWORDS =
+            new HashSet<>(Arrays.asList("where", "order", "set", "values", "limit", "for"));
+
+    private static class Table {
+        final String name;
+        final String[] columns;
+        final int[] types;
+        final List<Object[]> rows = new ArrayList<>();
+
+        Table(String name, String[] columns, int[] types) {
+            this.name = name;
+            this.columns = columns;
+            this.types = types;
+        }
+
+        int index(String column) throws SQLException {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equals(column)) {
+                    return i;
+                }
+            }
+            throw new SQLException("mock: no column " + column + " in " + name);
+        }
+
+        Object[] coerce(Object[] row) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = MockDatabase.coerce(row[i], types[i]);
+            }
+            return row;
+        }
+    }
+
+    private interface Expr {
+        Object eval(Object[] row, Object[] binds) throws SQLException;
+    }
+
+    private interface Pred {
+        boolean test(Object[] row, Object[] binds) throws SQLException;
+    }
+
+    private synchronized Table getTable(String name) {
+        Table t = tables.get(name.toLowerCase());
+        if (t == null) {
+            throw new IllegalArgumentException("no table " + name);
+        }
+        return t;
+    }
+
+    private synchronized Table findTable(String name) throws SQLException {
+        Table t = tables.get(name);
+        if (t == null) {
+            throw new SQLException("mock: no table " + name);
+        }
+        return t;
+    }
+
+    private static ColumnInfo column(String name, int type, String table) {
+        ColumnInfo ci = new ColumnInfo();
+        ci.type = type;
+        ci.colName = name;
+        ci.attrName = name;
+        ci.className = table;
+        ci.defaultValueString = "";
+        ci.charset = ServerConstants.CUBRID_CHARSET_UTF8;
+        ci.prec =
+                (type == DBType.DB_STRING)
+                        ? 1073741823
+                        : (type == DBType.DB_NUMERIC) ? 38 : 0;
+        ci.scale = (short) ((type == DBType.DB_NUMERIC) ? 15 : 0);
+        return ci;
+    }
+
+    private static String normalize(String sql) {
+        return sql.trim().replaceAll("\\s+", " ").toLowerCase();
+    }
+
+    private static int countParams(String sql) {
+        int count = 0;
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (c == '?' && !quoted) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static Object coerce(Object v, int type) {
+        if (v == null) {
+            return null;
+        }
+        switch (type) {
+            case DBType.DB_INT:
+                return (v instanceof Number) ? ((Number) v).intValue() : Integer.valueOf(str(v));
+            case DBType.DB_SHORT:
+                return (v instanceof Number) ? ((Number) v).shortValue() : Short.valueOf(str(v));
+            case DBType.DB_BIGINT:
+                return (v instanceof Number) ? ((Number) v).longValue() : Long.valueOf(str(v));
+            case DBType.DB_FLOAT:
+                return (v instanceof Number) ? ((Number) v).floatValue() : Float.valueOf(str(v));
+            case DBType.DB_DOUBLE:
+                return (v instanceof Number)
+                        ? ((Number) v).doubleValue()
+                        : Double.valueOf(str(v));
+            case DBType.DB_NUMERIC:
+                return toNumber(v);
+            default:
+                return v.toString();
+        }
+    }
+
+    private static String str(Object v) {
+        return v.toString().trim();
+    }
+
+    private static BigDecimal toNumber(Object v) {
+        if (v instanceof BigDecimal) {
+            return (BigDecimal) v;
+        } else if (v instanceof Double || v instanceof Float) {
+            return BigDecimal.valueOf(((Number) v).doubleValue());
+        } else if (v instanceof Number) {
+            return BigDecimal.valueOf(((Number) v).longValue());
+        } else {
+            return new BigDecimal(str(v));
+        }
+    }
+
+    private static int compare(Object a, Object b) {
+        if (a instanceof Number || b instanceof Number) {
+            return toNumber(a).compareTo(toNumber(b));
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    // parses one statement of the covered subset into a Statement
+    private class Parser {
+        private final String sql;
+        private final List<String> tokens;
+        private int pos = 0;
+        private int params = 0;
+        private int exprType = DBType.DB_NULL; // type of the last parsed expression
+
+        Parser(String sql) {
+            this.sql = sql;
+            this.tokens = tokenize(sql);
+        }
+
+        Statement parse() throws SQLException {
+            Statement stmt;
+            if (accept("select")) {
+                stmt = parseSelect();
+            } else if (accept("insert") || accept("replace")) {
+                stmt = parseInsert();
+            } else if (accept("update")) {
+                stmt = parseUpdate();
+            } else if (accept("delete")) {
+                stmt = parseDelete();
+            } else {
+                throw unsupported();
+            }
+            if (pos < tokens.size()) {
+                throw unsupported();
+            }
+            return stmt;
+        }
+
+        private Statement parseSelect() throws SQLException {
+            int n = tokens.size();
+            if (n > 2 && tokens.get(n - 2).equals("from") && tokens.get(n - 1).equals("dual")) {
+                return parseSelectDual();
+            }
+
+            List<String> items = new ArrayList<>();
+            do {
+                if (accept("*")) {
+                    items.add("*");
+                } else if (accept("count")) {
+                    expect("(");
+                    expect("*");
+                    expect(")");
+                    items.add("count(*)");
+                } else {
+                    items.add(columnName());
+                }
+                if (accept("as")) {
+                    ident();
+                }
+            } while (accept(","));
+
+            expect("from");
+            Table t = findTable(ident());
+            alias();
+            Pred where = parseWhere(t);
+
+            int orderBy = -1;
+            boolean desc = false;
+            if (accept("order")) {
+                expect("by");
+                orderBy = t.index(columnName());
+                desc = accept("desc");
+                if (!desc) {
+                    accept("asc");
+                }
+            }
+
+            List<ColumnInfo> columns = new ArrayList<>();
+            List<Integer> projection = new ArrayList<>();
+            boolean count = false;
+            for (String item : items) {
+                if (item.equals("*")) {
+                    for (int i = 0; i < t.columns.length; i++) {
+                        columns.add(column(t.columns[i], t.types[i], t.name));
+                        projection.add(i);
+                    }
+                } else if (item.equals("count(*)")) {
+                    if (items.size() > 1) {
+                        throw unsupported();
+                    }
+                    columns.add(column("count(*)", DBType.DB_BIGINT, ""));
+                    count = true;
+                } else {
+                    int i = t.index(item);
+                    columns.add(column(t.columns[i], t.types[i], t.name));
+                    projection.add(i);
+                }
+            }
+
+            final boolean isCount = count;
+            final int sortColumn = orderBy;
+            final boolean descending = desc;
+            Script exec =
+                    binds -> {
+                        List<Object[]> selected = new ArrayList<>();
+                        synchronized (t) {
+                            for (Object[] row : t.rows) {
+                                if (where.test(row, binds)) {
+                                    selected.add(row.clone());
+                                }
+                            }
+                        }
+                        if (isCount) {
+                            return Result.rows(
+                                    Collections.singletonList(
+                                            new Object[] {(long) selected.size()}));
+                        }
+                        if (sortColumn >= 0) {
+                            Comparator<Object[]> c =
+                                    (a, b) -> {
+                                        Object x = a[sortColumn];
+                                        Object y = b[sortColumn];
+                                        return (x == null || y == null)
+                                                ? (x == null ? -1 : 0) + (y == null ? 1 : 0)
+                                                : compare(x, y);
+                                    };
+                            selected.sort(descending ? c.reversed() : c);
+                        }
+                        List<Object[]> rows = new ArrayList<>(selected.size());
+                        for (Object[] row : selected) {
+                            Object[] out = new Object[projection.size()];
+                            for (int i = 0; i < out.length; i++) {
+                                out[i] = row[projection.get(i)];
+                            }
+                            rows.add(out);
+                        }
+                        return Result.rows(rows);
+                    };
+            return new Statement(sql, ServerConstants.CUBRID_STMT_SELECT, params, columns, exec);
+        }
+
+        // PL/CSQL evaluates the builtin functions with a SELECT from dual
+        private Statement parseSelectDual() throws SQLException {
+            List<Expr> items = new ArrayList<>();
+            List<ColumnInfo> columns = new ArrayList<>();
+            do {
+                int start = pos;
+                items.add(parseExpr(null));
+                String name = String.join(" ", tokens.subList(start, pos));
+                columns.add(column(name, exprType, ""));
+                if (accept("as")) {
+                    ident();
+                }
+            } while (accept(","));
+            expect("from");
+            expect("dual");
+
+            Script exec =
+                    binds -> {
+                        Object[] row = new Object[items.size()];
+                        for (int i = 0; i < row.length; i++) {
+                            row[i] = items.get(i).eval(null, binds);
+                        }
+                        return Result.rows(Collections.singletonList(row));
+                    };
+            return new Statement(sql, ServerConstants.CUBRID_STMT_SELECT, params, columns, exec);
+        }
+
+        private Statement parseInsert() throws SQLException {
+            expect("into");
+            Table t = findTable(ident());
+
+            int[] targets;
+            if (accept("(")) {
+                List<Integer> list = new ArrayList<>();
+                do {
+                    list.add(t.index(columnName()));
+                } while (accept(","));
+                expect(")");
+                targets = list.stream().mapToInt(Integer::intValue).toArray();
+            } else {
+                targets = new int[t.columns.length];
+                for (int i = 0; i < targets.length; i++) {
+                    targets[i] = i;
+                }
+            }
+
+            expect("values");
+            List<Expr[]> valueLists = new ArrayList<>();
+            do {
+                expect("(");
+                Expr[] values = new Expr[targets.length];
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        expect(",");
+                    }
+                    values[i] = parseExpr(null);
+                }
+                expect(")");
+                valueLists.add(values);
+            } while (accept(","));
+
+            Script exec =
+                    binds -> {
+                        List<Object[]> added = new ArrayList<>(valueLists.size());
+                        for (Expr[] values : valueLists) {
+                            Object[] row = new Object[t.columns.length];
+                            for (int i = 0; i < values.length; i++) {
+                                row[targets[i]] = values[i].eval(null, binds);
+                            }
+                            added.add(t.coerce(row));
+                        }
+                        synchronized (t) {
+                            t.rows.addAll(added);
+                        }
+                        return Result.affected(added.size());
+                    };
+            return new Statement(
+                    sql, ServerConstants.CUBRID_STMT_INSERT, params, Collections.emptyList(), exec);
+        }
+
+        private Statement parseUpdate() throws SQLException {
+            Table t = findTable(ident());
+            alias();
+            expect("set");
+
+            List<Integer> targets = new ArrayList<>();
+            List<Expr> values = new ArrayList<>();
+            do {
+                targets.add(t.index(columnName()));
+                expect("=");
+                values.add(parseExpr(t));
+            } while (accept(","));
+            Pred where = parseWhere(t);
+
+            Script exec =
+                    binds -> {
+                        int count = 0;
+                        synchronized (t) {
+                            for (Object[] row : t.rows) {
+                                if (where.test(row, binds)) {
+                                    Object[] updated = row.clone();
+                                    for (int i = 0; i < targets.size(); i++) {
+                                        int c = targets.get(i);
+                                        updated[c] =
+                                                coerce(values.get(i).eval(row, binds), t.types[c]);
+                                    }
+                                    System.arraycopy(updated, 0, row, 0, row.length);
+                                    count++;
+                                }
+                            }
+                        }
+                        return Result.affected(count);
+                    };
+            return new Statement(
+                    sql, ServerConstants.CUBRID_STMT_UPDATE, params, Collections.emptyList(), exec);
+        }
+
+        private Statement parseDelete() throws SQLException {
+            expect("from");
+            Table t = findTable(ident());
+            alias();
+            Pred where = parseWhere(t);
+
+            Script exec =
+                    binds -> {
+                        int count = 0;
+                        synchronized (t) {
+                            for (int i = t.rows.size() - 1; i >= 0; i--) {
+                                if (where.test(t.rows.get(i), binds)) {
+                                    t.rows.remove(i);
+                                    count++;
+                                }
+                            }
+                        }
+                        return Result.affected(count);
+                    };
+            return new Statement(
+                    sql, ServerConstants.CUBRID_STMT_DELETE, params, Collections.emptyList(), exec);
+        }
+
+        private Pred parseWhere(Table t) throws SQLException {
+            if (!accept("where")) {
+                return (row, binds) -> true;
+            }
+
+            List<Pred> conjuncts = new ArrayList<>();
+            do {
+                conjuncts.add(parseComparison(t));
+            } while (accept("and"));
+
+            return (row, binds) -> {
+                for (Pred p : conjuncts) {
+                    if (!p.test(row, binds)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+
+        private Pred parseComparison(Table t) throws SQLException {
+            Expr left = parseExpr(t);
+            if (accept("is")) {
+                boolean not = accept("not");
+                expect("null");
+                return (row, binds) -> (left.eval(row, binds) == null) != not;
+            }
+            if (accept("between")) {
+                Expr low = parseAdditive(t);
+                expect("and");
+                Expr high = parseAdditive(t);
+                return (row, binds) -> {
+                    Object v = left.eval(row, binds);
+                    Object l = low.eval(row, binds);
+                    Object h = high.eval(row, binds);
+                    return v != null && l != null && h != null
+                            && compare(v, l) >= 0
+                            && compare(v, h) <= 0;
+                };
+            }
+
+            String op = next();
+            Expr right = parseExpr(t);
+            switch (op) {
+                case "=":
+                case "<>":
+                case "!=":
+                case "<":
+                case "<=":
+                case ">":
+                case ">=":
+                    break;
+                default:
+                    throw unsupported();
+            }
+            return (row, binds) -> {
+                Object a = left.eval(row, binds);
+                Object b = right.eval(row, binds);
+                if (a == null || b == null) {
+                    return false;
+                }
+                int c = compare(a, b);
+                switch (op) {
+                    case "=":
+                        return c == 0;
+                    case "<>":
+                    case "!=":
+                        return c != 0;
+                    case "<":
+                        return c < 0;
+                    case "<=":
+                        return c <= 0;
+                    case ">":
+                        return c > 0;
+                    default:
+                        return c >= 0;
+                }
+            };
+        }
+
+        // expr: additive { || additive }
+        private Expr parseExpr(Table t) throws SQLException {
+            Expr left = parseAdditive(t);
+            while (accept("||")) {
+                Expr a = left;
+                Expr b = parseAdditive(t);
+                left =
+                        (row, binds) -> {
+                            Object x = a.eval(row, binds);
+                            Object y = b.eval(row, binds);
+                            return (x == null || y == null) ? null : text(x) + text(y);
+                        };
+                exprType = DBType.DB_STRING;
+            }
+            return left;
+        }
+
+        private Expr parseAdditive(Table t) throws SQLException {
+            Expr left = parseTerm(t);
+            while (peek("+") || peek("-")) {
+                left = arithmetic(next(), left, parseTerm(t));
+            }
+            return left;
+        }
+
+        private Expr parseTerm(Table t) throws SQLException {
+            Expr left = parsePrimary(t);
+            while (peek("*") || peek("/")) {
+                left = arithmetic(next(), left, parsePrimary(t));
+            }
+            return left;
+        }
+
+        private Expr parsePrimary(Table t) throws SQLException {
+            if (accept("(")) {
+                Expr e = parseExpr(t);
+                expect(")");
+                return e;
+            }
+            if (accept("?")) {
+                int index = params++;
+                exprType = DBType.DB_STRING;
+                return (row, binds) -> binds[index];
+            }
+            if (accept("null")) {
+                exprType = DBType.DB_NULL;
+                return (row, binds) -> null;
+            }
+            if (accept("-")) {
+                Expr e = parsePrimary(t);
+                return arithmetic("-", (row, binds) -> BigDecimal.ZERO, e);
+            }
+
+            String token = next();
+            char c = token.charAt(0);
+            if (c == '\'') {
+                String s = token.substring(1, token.length() - 1).replace("''", "'");
+                exprType = DBType.DB_STRING;
+                return (row, binds) -> s;
+            } else if (Character.isDigit(c) || c == '.') {
+                BigDecimal n = new BigDecimal(token);
+                exprType = DBType.DB_NUMERIC;
+                return (row, binds) -> n;
+            } else if (isIdent(token) && peek("(")) {
+                return parseFunction(token, t);
+            } else if (t != null && isIdent(token)) {
+                pos--;
+                int index = t.index(columnName());
+                exprType = t.types[index];
+                return (row, binds) -> row[index];
+            }
+            throw unsupported();
+        }
+
+        private Expr parseFunction(String name, Table t) throws SQLException {
+            List<Expr> args = new ArrayList<>();
+            expect("(");
+            if (!peek(")")) {
+                do {
+                    args.add(parseExpr(t));
+                } while (accept(","));
+            }
+            expect(")");
+
+            int argc = args.size();
+            Expr a = (argc > 0) ? args.get(0) : null;
+            Expr b = (argc > 1) ? args.get(1) : null;
+            Expr c = (argc > 2) ? args.get(2) : null;
+            switch (name) {
+                case "upper":
+                case "lower":
+                    if (argc != 1) {
+                        break;
+                    }
+                    boolean upper = name.equals("upper");
+                    exprType = DBType.DB_STRING;
+                    return (row, binds) -> {
+                        Object x = a.eval(row, binds);
+                        if (x == null) {
+                            return null;
+                        }
+                        return upper ? text(x).toUpperCase() : text(x).toLowerCase();
+                    };
+                case "substr":
+                case "substring":
+                    if (argc != 2 && argc != 3) {
+                        break;
+                    }
+                    exprType = DBType.DB_STRING;
+                    return (row, binds) -> {
+                        Object x = a.eval(row, binds);
+                        Object from = b.eval(row, binds);
+                        Object len = (c == null) ? Integer.MAX_VALUE : c.eval(row, binds);
+                        if (x == null || from == null || len == null) {
+                            return null;
+                        }
+                        String s = text(x);
+                        int start = toNumber(from).intValue();
+                        start = (start < 0) ? s.length() + start : Math.max(start - 1, 0);
+                        int count = toNumber(len).intValue();
+                        if (start < 0 || start >= s.length() || count <= 0) {
+                            return "";
+                        }
+                        return s.substring(start, (int) Math.min((long) start + count, s.length()));
+                    };
+                case "trim":
+                    if (argc != 1) {
+                        break;
+                    }
+                    exprType = DBType.DB_STRING;
+                    return (row, binds) -> {
+                        Object x = a.eval(row, binds);
+                        return (x == null) ? null : text(x).trim();
+                    };
+                case "length":
+                case "char_length":
+                    if (argc != 1) {
+                        break;
+                    }
+                    exprType = DBType.DB_INT;
+                    return (row, binds) -> {
+                        Object x = a.eval(row, binds);
+                        return (x == null) ? null : text(x).length();
+                    };
+                case "nvl":
+                    if (argc != 2) {
+                        break;
+                    }
+                    return (row, binds) -> {
+                        Object x = a.eval(row, binds);
+                        return (x == null) ? b.eval(row, binds) : x;
+                    };
+                default:
+                    break;
+            }
+            throw unsupported();
+        }
+
+        private Expr arithmetic(String op, Expr a, Expr b) {
+            exprType = DBType.DB_NUMERIC;
+            return (row, binds) -> {
+                Object x = a.eval(row, binds);
+                Object y = b.eval(row, binds);
+                if (x == null || y == null) {
+                    return null;
+                }
+                BigDecimal l = toNumber(x);
+                BigDecimal r = toNumber(y);
+                switch (op) {
+                    case "+":
+                        return l.add(r);
+                    case "-":
+                        return l.subtract(r);
+                    case "*":
+                        return l.multiply(r);
+                    default:
+                        if (r.signum() == 0) {
+                            throw new SQLException("mock: division by zero in " + sql);
+                        }
+                        return l.divide(r, MathContext.DECIMAL64);
+                }
+            };
+        }
+
+        private String text(Object v) {
+            return (v instanceof BigDecimal) ? ((BigDecimal) v).toPlainString() : v.toString();
+        }
+
+        // [qualifier.]column
+        private String columnName() throws SQLException {
+            String name = ident();
+            if (accept(".")) {
+                name = ident();
+            }
+            return name;
+        }
+
+        private void alias() {
+            if (pos < tokens.size()
+                    && isIdent(tokens.get(pos))
+                    && !CLAUSE_KEYWORDS.contains(tokens.get(pos))) {
+                pos++;
+            }
+        }
+
+        private String ident() throws SQLException {
+            String token = next();
+            if (!isIdent(token)) {
+                throw unsupported();
+            }
+            return token;
+        }
+
+        private boolean isIdent(String token) {
+            char c = token.charAt(0);
+            return Character.isLetter(c) || c == '_';
+        }
+
+        private boolean peek(String token) {
+            return pos < tokens.size() && tokens.get(pos).equals(token);
+        }
+
+        private boolean accept(String token) {
+            if (peek(token)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token) throws SQLException {
+            if (!accept(token)) {
+                throw unsupported();
+            }
+        }
+
+        private String next() throws SQLException {
+            if (pos >= tokens.size()) {
+                throw unsupported();
+            }
+            return tokens.get(pos++);
+        }
+
+        private SQLException unsupported() {
+            return new SQLException("mock: unsupported statement " + sql);
+        }
+    }
+
+    // identifiers and keywords in lowercase, literals as written, and operators
+    private static List<String> tokenize(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int len = sql.length();
+        int i = 0;
+        while (i < len) {
+            char c = sql.charAt(i);
+            int start = i;
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'') {
+                i++;
+                while (i < len) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < len && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i = Math.min(i + 1, len);
+                tokens.add(sql.substring(start, i));
+            } else if (c == '"' || c == '`' || c == '[') {
+                char close = (c == '[') ? ']' : c;
+                int end = sql.indexOf(close, i + 1);
+                i = (end < 0) ? len : end + 1;
+                tokens.add(sql.substring(start + 1, Math.max(start + 1, i - 1)).toLowerCase());
+            } else if (Character.isLetter(c) || c == '_') {
+                while (i < len
+                        && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_')) {
+                    i++;
+                }
+                tokens.add(sql.substring(start, i).toLowerCase());
+            } else if (Character.isDigit(c)) {
+                while (i < len && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add(sql.substring(start, i));
+            } else {
+                String two = (i + 1 < len) ? sql.substring(i, i + 2) : "";
+                if (two.equals("||")
+                        || two.equals("<=")
+                        || two.equals(">=")
+                        || two.equals("<>")
+                        || two.equals("!=")) {
+                    i += 2;
+                    tokens.add(two);
+                } else {
+                    i++;
+                    tokens.add(String.valueOf(c));
+                }
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,591 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.mock;
+
+import com.cubrid.jsp.data.CUBRIDPacker;
+import com.cubrid.jsp.data.CUBRIDUnpacker;
+import com.cubrid.jsp.data.ColumnInfo;
+import com.cubrid.jsp.data.DBType;
+import com.cubrid.jsp.data.DataUtilities;
+import com.cubrid.jsp.data.SOID;
+import com.cubrid.jsp.exception.TypeMismatchException;
+import com.cubrid.jsp.impl.SUFunctionCode;
+import com.cubrid.jsp.protocol.RequestCode;
+import com.cubrid.jsp.value.Value;
+import com.cubrid.plcsql.compiler.serverapi.PlParamInfo;
+import com.cubrid.plcsql.compiler.serverapi.ServerAPI;
+import com.cubrid.plcsql.compiler.serverapi.SqlSemantics;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A database session of a MockCubridServer over its own connection to the PL server. It sends
+ * the requests of cub_server (UTIL_BOOTSTRAP, COMPILE and INVOKE_SP) and serves the callbacks the
+ * PL server makes while processing them, until the final message of the request arrives.
+ *
+ * <p>A session is used by one thread at a time, as a database session is.
+ */
+public class MockSession implements Closeable {
+
+    /** compiles the routine and registers it in the catalog of the server */
+    public MockCubridServer.Routine compile(String source) throws IOException, SQLException {
+        CUBRIDPacker packer = newRequest(RequestCode.COMPILE);
+        packer.packString(source);
+        packer.packString(MockCubridServer.OWNER);
+        packer.packString(""); // mode
+        send(packer);
+
+        CUBRIDUnpacker unpacker = await(RequestCode.COMPILE);
+        int errCode = unpacker.unpackInt();
+        if (errCode < 0) {
+            int line = unpacker.unpackInt();
+            int column = unpacker.unpackInt();
+            String msg = unpacker.unpackCString();
+            throw new SQLException(
+                    String.format("(line %d, column %d) %s", line, column, msg), null, errCode);
+        }
+        unpacker.unpackCString(); // translated
+        unpacker.unpackCString(); // create statement
+        String className = unpacker.unpackCString();
+        String signature = unpacker.unpackCString();
+        int compiledType = unpacker.unpackInt();
+        if (compiledType < 0) {
+            throw new SQLException("no compiled code for " + signature);
+        }
+        byte[] code = unpacker.unpackCStringByteArray();
+
+        MockCubridServer.Routine routine =
+                new MockCubridServer.Routine(
+                        className, signature, code, String.valueOf(System.nanoTime()));
+        server.register(routine);
+        return routine;
+    }
+
+    /**
+     * invokes the routine of the catalog with the arguments, and returns its result. The values of
+     * OUT and IN OUT parameters are stored back into the arguments
+     */
+    public Object invoke(String name, Object... args) throws IOException, SQLException {
+        MockCubridServer.Routine routine = server.getRoutine(name);
+        int count = routine.paramTypes.length;
+        if (args.length != count) {
+            throw new IllegalArgumentException(name + " takes " + count + " arguments");
+        }
+
+        CUBRIDPacker packer = newRequest(RequestCode.INVOKE_SP);
+        packer.packBigInt(0); // group id
+        packer.packInt(TRAN_ID);
+        packer.packInt(count);
+        for (int i = 0; i < count; i++) {
+            packValue(packer, MockDatabase.coerce(args[i], routine.paramTypes[i]));
+        }
+
+        packer.packBigInt(0); // id
+        packer.packInt(TRAN_ID);
+        packer.packInt(sessionId);
+        packer.packString(routine.signature);
+        packer.packString(MockCubridServer.OWNER);
+        packer.packInt(LANG_PLCSQL);
+        packer.packInt(count);
+        for (int i = 0; i < count; i++) {
+            packer.packInt(routine.paramModes[i]);
+            packer.packInt(routine.paramTypes[i]);
+        }
+        packer.packInt(routine.returnType);
+        packer.packBool(false); // transaction control
+
+        // statement handles and query results live as long as the invocation
+        invoked = routine;
+        statements.clear();
+        queries.clear();
+        send(packer);
+
+        try {
+            CUBRIDUnpacker unpacker = await(RequestCode.RESULT);
+            Object result = unpackValue(unpacker);
+            for (int i = 0; i < count; i++) {
+                if (routine.paramModes[i] > Value.IN) {
+                    args[i] = unpackValue(unpacker);
+                }
+            }
+            return result;
+        } finally {
+            invoked = null;
+        }
+    }
+
+    /** the id of the session in cub_server, sent with each invocation */
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Private
+    // ------------------------------------------------------------------
+
+    private static final int TRAN_ID = 1;
+    private static final int LANG_PLCSQL = 4;
+    private static final int CODESET = 5; // SysParam.CODESET_UTF8
+    private static final int ER_FAILED = -1;
+    private static final int BUFFER_SIZE = 4096;
+
+    // the id in the header of every request, as cub_server sends it for every execution stack
+    // (m_java_header of pl_execution_stack_context.cpp), so all the sessions share one context
+    private static final long CONTEXT_ID = -1;
+
+    private static final AtomicInteger lastSessionId = new AtomicInteger();
+
+    private final MockCubridServer server;
+    private final int sessionId = lastSessionId.incrementAndGet();
+    private final Socket socket;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+    private int requestId = 0;
+
+    // state of the invocation in progress
+    private MockCubridServer.Routine invoked = null;
+    private final Map<Integer, MockDatabase.Statement> statements = new HashMap<>();
+    private final Map<Long, Query> queries = new HashMap<>();
+    private int lastHandle = 0;
+    private long lastQueryId = 0;
+
+    private static class Query {
+        final List<Object[]> rows;
+        final int columnCount;
+
+        Query(List<Object[]> rows, int columnCount) {
+            this.rows = rows;
+            this.columnCount = columnCount;
+        }
+    }
+
+    MockSession(MockCubridServer server, Socket socket) throws IOException {
+        this.server = server;
+        this.socket = socket;
+        this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    // sends the system parameters the PL server needs, as cub_pl does when it starts
+    void bootstrap() throws IOException {
+        CUBRIDPacker packer = newRequest(RequestCode.UTIL_BOOTSTRAP);
+        packer.packInt(2);
+        packer.packInt(206); // SysParam.INTL_COLLATION
+        packValue(packer, "utf8_bin");
+        packer.packInt(249); // SysParam.TIMEZONE
+        packValue(packer, "UTC");
+        send(packer);
+
+        if (receive().unpackInt() != 0) {
+            throw new IOException("bootstrap failed");
+        }
+    }
+
+    // serves the callbacks of the request in progress and returns its final message
+    private CUBRIDUnpacker await(int finalCode) throws IOException, SQLException {
+        while (true) {
+            CUBRIDUnpacker unpacker = receive();
+            int code = unpacker.unpackInt();
+            unpacker.align(DataUtilities.MAX_ALIGNMENT);
+
+            if (code == finalCode) {
+                return unpacker;
+            }
+            switch (code) {
+                case RequestCode.INTERNAL_JDBC:
+                    serveJdbc(unpacker);
+                    break;
+                case RequestCode.REQUEST_SQL_SEMANTICS:
+                    serveSqlSemantics(unpacker);
+                    break;
+                case RequestCode.REQUEST_GLOBAL_SEMANTICS:
+                    serveGlobalSemantics(unpacker);
+                    break;
+                case RequestCode.ERROR:
+                    throw new SQLException(unpacker.unpackCString().trim());
+                default:
+                    throw new IOException("unexpected message " + code + " from the PL server");
+            }
+        }
+    }
+
+    private void serveJdbc(CUBRIDUnpacker unpacker) throws IOException {
+        CUBRIDPacker payload = new CUBRIDPacker(ByteBuffer.allocate(BUFFER_SIZE));
+        int function = unpacker.unpackInt();
+        try {
+            if (function == RequestCode.REQUEST_CODE_ATTR) {
+                serveCodeAttr(unpacker.unpackCString(), payload);
+            } else if (function == RequestCode.REQUEST_CHANGE_AUTH_RIGHTS) {
+                payload.packInt(0);
+            } else if (function == SUFunctionCode.GET_DB_PARAMETER.getCode()) {
+                payload.packInt(0);
+                payload.packInt(4); // TRAN_REP_CLASS_COMMIT_INSTANCE
+                payload.packInt(-1); // wait forever
+                payload.packInt(0); // client type
+                payload.packString(""); // client info
+                payload.packString(MockCubridServer.OWNER);
+                payload.packString("mock");
+                payload.packString("mock");
+                payload.packString("localhost");
+                payload.packString("127.0.0.1");
+                payload.packInt(0); // process id
+            } else if (function == SUFunctionCode.PREPARE.getCode()) {
+                servePrepare(unpacker.unpackCString(), payload);
+            } else if (function == SUFunctionCode.EXECUTE.getCode()) {
+                serveExecute(unpacker, payload);
+            } else if (function == SUFunctionCode.FETCH.getCode()) {
+                serveFetch(unpacker, payload);
+            } else if (function == SUFunctionCode.END_TRANSACTION.getCode()) {
+                payload.packInt(0);
+                payload.packInt(0);
+            } else {
+                throw new SQLException("mock: unsupported function code " + function);
+            }
+        } catch (SQLException | TypeMismatchException e) {
+            payload = new CUBRIDPacker(ByteBuffer.allocate(BUFFER_SIZE));
+            payload.packInt(ER_FAILED);
+            payload.packInt(ER_FAILED); // ErrorInfo
+            payload.packString(String.valueOf(e.getMessage()));
+            payload.packString(""); // file
+            payload.packInt(0); // line
+        }
+        reply(payload);
+    }
+
+    private void serveCodeAttr(String attr, CUBRIDPacker payload) throws SQLException {
+        MockCubridServer.Routine r = (invoked == null) ? null : server.findClass(invoked.className);
+        if (r == null) {
+            payload.packInt(ER_FAILED); // no such code: the class is not found
+            return;
+        }
+
+        payload.packInt(0);
+        if (attr.equals("created_time")) {
+            packValue(payload, r.createdTime);
+        } else if (attr.equals("ocode")) {
+            packValue(payload, new String(r.code, StandardCharsets.US_ASCII));
+        } else {
+            throw new SQLException("mock: unknown code attribute " + attr);
+        }
+    }
+
+    private void servePrepare(String sql, CUBRIDPacker payload) throws SQLException {
+        MockDatabase.Statement stmt = server.database().prepare(sql);
+        int handle = ++lastHandle;
+        statements.put(handle, stmt);
+
+        payload.packInt(0);
+        payload.packInt(handle);
+        payload.packInt(stmt.stmtType);
+        payload.packInt(stmt.paramCount);
+        packColumns(payload, stmt.columns);
+    }
+
+    private void serveExecute(CUBRIDUnpacker unpacker, CUBRIDPacker payload)
+            throws SQLException, TypeMismatchException {
+        MockDatabase.Statement stmt = statements.get(unpacker.unpackInt());
+        if (stmt == null) {
+            throw new SQLException("mock: invalid statement handle");
+        }
+        unpacker.unpackInt(); // execute flag
+        unpacker.unpackInt(); // max field
+        unpacker.unpackInt(); // forward only
+
+        Object[] binds = new Object[0];
+        if (unpacker.unpackInt() == 2) {
+            binds = new Object[unpacker.unpackInt()];
+            for (int i = 0; i < binds.length; i++) {
+                binds[i] = unpackValue(unpacker);
+                unpacker.unpackInt(); // mode
+            }
+        }
+
+        MockDatabase.Result result = stmt.execute(binds);
+        long queryId = 0;
+        if (stmt.isQuery()) {
+            queryId = ++lastQueryId;
+            queries.put(queryId, new Query(result.rows, stmt.columns.size()));
+        }
+
+        payload.packInt(0);
+        payload.packInt(result.affected);
+        payload.packInt(stmt.stmtType); // QueryResultInfo
+        payload.packInt(result.affected);
+        payload.packOID(new SOID(0, (short) 0, (short) 0));
+        payload.packInt(0); // no OID included
+        payload.packBigInt(queryId);
+        packColumns(payload, stmt.columns);
+        payload.packBool(false); // no call info
+    }
+
+    private void serveFetch(CUBRIDUnpacker unpacker, CUBRIDPacker payload) throws SQLException {
+        Query query = queries.get(unpacker.unpackBigint());
+        if (query == null) {
+            throw new SQLException("mock: invalid query id");
+        }
+        int position = unpacker.unpackInt();
+        int size = unpacker.unpackInt();
+
+        int count = Math.max(0, Math.min(size, query.rows.size() - position));
+        payload.packInt(0);
+        payload.packInt(count);
+        for (int i = 0; i < count; i++) {
+            Object[] row = query.rows.get(position + i);
+            payload.packInt(position + i + 1); // 1-based tuple number
+            payload.packInt(query.columnCount);
+            for (int c = 0; c < query.columnCount; c++) {
+                packValue(payload, row[c]);
+            }
+            payload.packOID(new SOID(0, (short) 0, (short) 0));
+        }
+    }
+
+    private void serveSqlSemantics(CUBRIDUnpacker unpacker) throws IOException {
+        int count = unpacker.unpackInt();
+        List<String> sqls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sqls.add(unpacker.unpackCString());
+        }
+
+        List<SqlSemantics> answers = server.semantics().getSqlSemantics(sqls);
+
+        CUBRIDPacker payload = new CUBRIDPacker(ByteBuffer.allocate(BUFFER_SIZE));
+        payload.packInt(0);
+        payload.packInt(answers.size());
+        for (SqlSemantics s : answers) {
+            payload.packInt(s.seqNo);
+            if (s.errCode != 0) {
+                payload.packInt(s.errCode);
+                payload.packString(s.errMsg);
+                continue;
+            }
+            payload.packInt(s.kind);
+            payload.packString(s.rewritten);
+            packColumns(payload, s.selectList);
+            packParams(payload, s.hostExprs, false);
+            List<String> into = s.intoTargetStrs;
+            payload.packInt(into == null ? 0 : into.size());
+            for (int i = 0; into != null && i < into.size(); i++) {
+                payload.packString(into.get(i));
+            }
+        }
+        reply(payload);
+    }
+
+    private void serveGlobalSemantics(CUBRIDUnpacker unpacker) throws IOException {
+        int count = (int) unpacker.unpackBigint();
+        List<ServerAPI.Question> questions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int type = unpacker.unpackInt();
+            String name = unpacker.unpackCString();
+            switch (type) {
+                case ServerAPI.QUESTION_PROCEDURE:
+                    questions.add(new ServerAPI.ProcedureSignature(name));
+                    break;
+                case ServerAPI.QUESTION_FUNCTION:
+                    questions.add(new ServerAPI.FunctionSignature(name));
+                    break;
+                case ServerAPI.QUESTION_SERIAL:
+                    questions.add(new ServerAPI.SerialOrNot(name));
+                    break;
+                default:
+                    int dot = name.lastIndexOf('.');
+                    questions.add(
+                            new ServerAPI.ColumnType(
+                                    name.substring(0, dot), name.substring(dot + 1)));
+                    break;
+            }
+        }
+
+        server.semantics().getGlobalSemantics(questions);
+
+        CUBRIDPacker payload = new CUBRIDPacker(ByteBuffer.allocate(BUFFER_SIZE));
+        payload.packInt(0);
+        payload.packBigInt(questions.size());
+        for (ServerAPI.Question q : questions) {
+            payload.packInt(q.seqNo);
+            payload.packInt(q.errCode);
+            payload.packString(q.errMsg == null ? "" : q.errMsg);
+            if (q.errCode < 0) {
+                continue;
+            }
+
+            if (q instanceof ServerAPI.ProcedureSignature) {
+                packParam(payload, new PlParamInfo("", (byte) 0, 0, 0, (short) 0, (byte) 0));
+                packParams(payload, toList(((ServerAPI.ProcedureSignature) q).params), true);
+            } else if (q instanceof ServerAPI.FunctionSignature) {
+                ServerAPI.FunctionSignature fs = (ServerAPI.FunctionSignature) q;
+                packParam(payload, fs.retType);
+                packParams(payload, toList(fs.params), true);
+            } else if (q instanceof ServerAPI.ColumnType) {
+                packColumn(payload, ((ServerAPI.ColumnType) q).colType);
+            }
+        }
+        reply(payload);
+    }
+
+    // ------------------------------------------------------------------
+    // Wire
+    // ------------------------------------------------------------------
+
+    // a request starts with a header: context id, request code and request id
+    private CUBRIDPacker newRequest(int code) {
+        CUBRIDPacker packer = new CUBRIDPacker(ByteBuffer.allocate(BUFFER_SIZE));
+        packer.packBigInt(CONTEXT_ID);
+        packer.packInt(code);
+        packer.packInt(++requestId);
+        return packer;
+    }
+
+    // a reply to a callback is a header, which is not read, and the payload as a nested buffer
+    private void reply(CUBRIDPacker payload) throws IOException {
+        CUBRIDPacker packer = new CUBRIDPacker(ByteBuffer.allocate(BUFFER_SIZE));
+        packer.packBigInt(CONTEXT_ID);
+        packer.packInt(0);
+        packer.packInt(requestId);
+
+        ByteBuffer bytes = payload.getBuffer();
+        packer.packInt(bytes.position());
+        packer.packPrimitiveBytes(bytes);
+        packer.align(DataUtilities.INT_ALIGNMENT);
+        send(packer);
+    }
+
+    private void send(CUBRIDPacker packer) throws IOException {
+        ByteBuffer buffer = packer.getBuffer();
+        output.writeInt(buffer.position());
+        output.write(buffer.array(), 0, buffer.position());
+        output.flush();
+    }
+
+    private CUBRIDUnpacker receive() throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new CUBRIDUnpacker(ByteBuffer.wrap(bytes));
+    }
+
+    private static void packValue(CUBRIDPacker packer, Object value) {
+        try {
+            packer.packObject(value, DBType.DB_NULL, CODESET);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object unpackValue(CUBRIDUnpacker unpacker) throws SQLException {
+        try {
+            return unpacker.unpackValue(unpacker.unpackInt()).toObject();
+        } catch (TypeMismatchException e) {
+            throw new SQLException(e);
+        }
+    }
+
+    private static void packColumns(CUBRIDPacker packer, List<ColumnInfo> columns) {
+        packer.packInt(columns == null ? 0 : columns.size());
+        for (int i = 0; columns != null && i < columns.size(); i++) {
+            packColumn(packer, columns.get(i));
+        }
+    }
+
+    private static void packColumn(CUBRIDPacker packer, ColumnInfo ci) {
+        packer.packInt(ci.type);
+        packer.packInt(ci.setType);
+        packer.packInt(ci.charset);
+        packer.packShort(ci.scale);
+        packer.packInt(ci.prec);
+        packer.packString(ci.colName == null ? "" : ci.colName);
+        packer.packString(ci.attrName == null ? "" : ci.attrName);
+        packer.packString(ci.className == null ? "" : ci.className);
+        packer.packString(ci.defaultValueString == null ? "" : ci.defaultValueString);
+        packer.packInt(ci.isNotNull);
+        packer.packInt(ci.autoIncrement);
+        packer.packInt(ci.uniqueKey);
+        packer.packInt(ci.primaryKey);
+        packer.packInt(ci.reverseIndex);
+        packer.packInt(ci.reverseUnique);
+        packer.packInt(ci.foreignKey);
+        packer.packInt(ci.shared);
+    }
+
+    // the count is a bigint in the answers to global questions, an int in SQL semantics
+    private static void packParams(CUBRIDPacker packer, List<PlParamInfo> params, boolean big) {
+        int count = (params == null) ? 0 : params.size();
+        if (big) {
+            packer.packBigInt(count);
+        } else {
+            packer.packInt(count);
+        }
+        for (int i = 0; i < count; i++) {
+            packParam(packer, params.get(i));
+        }
+    }
+
+    private static void packParam(CUBRIDPacker packer, PlParamInfo p) {
+        packer.packInt(p.mode);
+        packer.packString(p.name == null ? "" : p.name);
+        packer.packInt(p.type);
+        packer.packInt(p.prec);
+        packer.packInt(p.scale);
+        packer.packInt(p.charset);
+        packer.packInt(0); // no value
+    }
+
+    private static List<PlParamInfo> toList(PlParamInfo[] params) {
+        List<PlParamInfo> list = new ArrayList<>();
+        for (int i = 0; params != null && i < params.length; i++) {
+            list.add(params[i]);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.mock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.jsp.SpSecurityManager;
+import com.cubrid.jsp.metrics.CallbackTracer;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class TestMockCubridServer {
+
+    private static final int EMPLOYEES = 30;
+
+    private static MockCubridServer server;
+
+    @BeforeAll
+    public static void setUp() throws Exception {
+        System.setSecurityManager(new SpSecurityManager());
+        server = MockCubridServer.start();
+        LoadGenerator.loadBenchCorpus(server, EMPLOYEES);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testFunctions() throws Exception {
+        try (MockSession session = server.openSession()) {
+            assertEquals(55L, session.invoke("fib", 10));
+            assertEquals("small", session.invoke("classify", 5));
+            assertEquals("large", session.invoke("classify", 50));
+            assertEquals("J. SMITH", session.invoke("format_name", "john", "smith"));
+        }
+    }
+
+    @Test
+    public void testQuery() throws Exception {
+        BigDecimal expected = BigDecimal.ZERO;
+        for (Object[] row : server.database().rows("emp")) {
+            if ((Integer) row[2] == 20) {
+                expected = expected.add((BigDecimal) row[3]);
+            }
+        }
+
+        try (MockSession session = server.openSession()) {
+            Object total = session.invoke("dept_total", 20);
+            assertEquals(0, expected.compareTo((BigDecimal) total));
+        }
+    }
+
+    @Test
+    public void testDml() throws Exception {
+        try (MockSession session = server.openSession()) {
+            session.invoke("archive_log", -100);
+            session.invoke("archive_log", -50); // deletes the row of the first
+        }
+
+        List<Object[]> rows = server.database().rows("log_tbl");
+        assertTrue(rows.stream().noneMatch(r -> (Integer) r[0] == -100));
+        assertTrue(
+                rows.stream()
+                        .anyMatch(
+                                r -> (Integer) r[0] == -50 && "archived before -50".equals(r[1])));
+    }
+
+    @Test
+    public void testError() throws Exception {
+        try (MockSession session = server.openSession()) {
+            SQLException e =
+                    assertThrows(SQLException.class, () -> session.invoke("move_emp", 999, 10));
+            assertTrue(e.getMessage().contains("no employee 999"), e.getMessage());
+
+            // the session is still usable
+            assertEquals(8L, session.invoke("fib", 6));
+        }
+    }
+
+    @Test
+    public void testTraceSession() throws Exception {
+        // all the sessions share the context -1: the session is told by the invocation
+        try (MockSession traced = server.openSession();
+                MockSession other = server.openSession()) {
+            CallbackTracer.clear();
+            CallbackTracer.enableSession(traced.getSessionId(), true);
+            try {
+                other.invoke("dept_total", 10);
+                traced.invoke("dept_total", 20);
+                other.invoke("dept_total", 30);
+            } finally {
+                CallbackTracer.enableSession(traced.getSessionId(), false);
+            }
+
+            // the trace is finished after the result is sent
+            List<String> recent = CallbackTracer.getRecent();
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (recent.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+                recent = CallbackTracer.getRecent();
+            }
+            assertEquals(1, recent.size(), recent::toString);
+            assertTrue(
+                    recent.get(0).startsWith("callback trace: session=" + traced.getSessionId()),
+                    recent.get(0));
+        }
+    }
+
+    @Test
+    public void testConcurrentLoad() throws Exception {
+        LoadGenerator.Report report =
+                LoadGenerator.run(
+                        server,
+                        "dept_total",
+                        4,
+                        5,
+                        50,
+                        (s, t, i) -> s.invoke("dept_total", 10 * (i % 3 + 1)));
+
+        assertNull(report.firstError);
+        assertEquals(4 * 50, report.invocations);
+        assertEquals(0, report.errors);
+        assertTrue(report.throughput() > 0);
+        assertTrue(report.percentile(50) <= report.percentile(99));
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+
+package com.cubrid.jsp.value;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// Checks the scanners of DateTimeParser against the results the former SimpleDateFormat based
+// parser gave, and the printers of DateTimePrinter against SimpleDateFormat/DateTimeFormatter.
+public class TestDateTimeParser {
+
+    private static final int ROUNDS = 100000;
+
+    private final Random random = new Random(20241019L);
+
+    @Test
+    public void testDateLiteral() {
+        assertEquals(LocalDate.of(2024, 3, 15), DateTimeParser.DateLiteral.parse("2024-03-15"));
+        assertEquals(LocalDate.of(2024, 3, 15), DateTimeParser.DateLiteral.parse("03/15/2024"));
+        assertEquals(LocalDate.of(2024, 3, 15), DateTimeParser.DateLiteral.parse(" 2024-03-15 "));
+        assertEquals(LocalDate.of(2024, 3, 5), DateTimeParser.DateLiteral.parse("3/5/24"));
+        assertEquals(LocalDate.of(2069, 3, 15), DateTimeParser.DateLiteral.parse("03/15/69"));
+        assertEquals(LocalDate.of(1970, 3, 15), DateTimeParser.DateLiteral.parse("03/15/70"));
+        assertEquals(LocalDate.of(2000, 2, 29), DateTimeParser.DateLiteral.parse("2000-02-29"));
+        assertEquals(DateTimeParser.nullDate, DateTimeParser.DateLiteral.parse("0000-00-00"));
+        assertEquals(DateTimeParser.nullDate, DateTimeParser.DateLiteral.parse("00/00/0000"));
+
+        assertNull(DateTimeParser.DateLiteral.parse("1900-02-29"));
+        assertNull(DateTimeParser.DateLiteral.parse("2001-02-29"));
+        assertNull(DateTimeParser.DateLiteral.parse("2024-13-01"));
+        assertNull(DateTimeParser.DateLiteral.parse("2024-03-15x"));
+        assertNull(DateTimeParser.DateLiteral.parse("13:45:10"));
+    }
+
+    @Test
+    public void testTimeLiteral() {
+        assertEquals(LocalTime.of(13, 45, 10), DateTimeParser.TimeLiteral.parse("13:45:10"));
+        assertEquals(LocalTime.of(1, 2, 3), DateTimeParser.TimeLiteral.parse("1:2:3"));
+        assertEquals(LocalTime.of(1, 2), DateTimeParser.TimeLiteral.parse("01:02"));
+        assertEquals(LocalTime.of(0, 0), DateTimeParser.TimeLiteral.parse("12:00:00 AM"));
+        assertEquals(LocalTime.of(12, 0), DateTimeParser.TimeLiteral.parse("12:00:00 pm"));
+        assertEquals(LocalTime.of(0, 30), DateTimeParser.TimeLiteral.parse("00:30:00 AM"));
+
+        assertNull(DateTimeParser.TimeLiteral.parse("13:00:00 PM"));
+        assertNull(DateTimeParser.TimeLiteral.parse("24:00:00"));
+        assertNull(DateTimeParser.TimeLiteral.parse("10:20:30.123"));
+        assertNull(DateTimeParser.TimeLiteral.parse("2024-03-15"));
+    }
+
+    @Test
+    public void testDatetimeLiteral() {
+        assertEquals(
+                LocalDateTime.of(2024, 3, 15, 13, 45, 10),
+                DateTimeParser.DatetimeLiteral.parse("2024-03-15 13:45:10"));
+        assertEquals(
+                LocalDateTime.of(2024, 3, 15, 13, 45, 10, 250000000),
+                DateTimeParser.DatetimeLiteral.parse("2024-03-15 01:45:10.250 PM"));
+        assertEquals(
+                LocalDateTime.of(2024, 3, 15, 13, 45, 10),
+                DateTimeParser.DatetimeLiteral.parse("13:45:10 2024-03-15"));
+        assertEquals(
+                LocalDateTime.of(2024, 3, 15, 13, 45, 10),
+                DateTimeParser.DatetimeLiteral.parse("01:45:10 PM 03/15/2024"));
+        assertEquals(
+                LocalDateTime.of(2024, 3, 15, 13, 45),
+                DateTimeParser.DatetimeLiteral.parse("2024-03-15 13:45"));
+        assertEquals(
+                LocalDateTime.of(2024, 3, 15, 0, 0),
+                DateTimeParser.DatetimeLiteral.parse("2024-03-15"));
+        assertEquals(
+                DateTimeParser.nullDatetime, DateTimeParser.DatetimeLiteral.parse("0000-00-00"));
+
+        assertNull(DateTimeParser.DatetimeLiteral.parse("2024-03-15 13:45:10 +09:00"));
+        assertNull(DateTimeParser.DatetimeLiteral.parse("13:45:10"));
+    }
+
+    @Test
+    public void testZonedDateTimeLiteral() {
+        assertEquals(
+                ZonedDateTime.of(2024, 3, 15, 13, 45, 10, 0, ZoneOffset.ofHours(9)),
+                DateTimeParser.ZonedDateTimeLiteral.parse("2024-03-15 13:45:10 +09:00", true));
+        assertEquals(
+                ZonedDateTime.of(2024, 3, 15, 13, 45, 10, 0, ZoneOffset.ofHoursMinutes(-5, -30)),
+                DateTimeParser.ZonedDateTimeLiteral.parse("2024-03-15 13:45:10 -05:30", true));
+        assertEquals(
+                ZonedDateTime.of(2024, 3, 15, 13, 45, 10, 0, ZoneOffset.UTC),
+                DateTimeParser.ZonedDateTimeLiteral.parse("2024-03-15 13:45:10 Z", true));
+        assertEquals(
+                ZonedDateTime.of(2024, 3, 15, 0, 0, 0, 0, ZoneOffset.ofHours(9)),
+                DateTimeParser.ZonedDateTimeLiteral.parse("2024-03-15 +09:00", true));
+
+        assertNull(DateTimeParser.ZonedDateTimeLiteral.parse("2024-03-15 13:45:10 +18:01", true));
+    }
+
+    @Test
+    public void testPrinters() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yyyy", Locale.US);
+        SimpleDateFormat timeFormat = new SimpleDateFormat("hh:mm:ss a", Locale.US);
+        SimpleDateFormat datetimeFormat =
+                new SimpleDateFormat("hh:mm:ss.SSS a MM/dd/yyyy", Locale.US);
+        SimpleDateFormat asciiFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        DateTimeFormatter timestampFormat =
+                DateTimeFormatter.ofPattern("hh:mm:ss a MM/dd/yyyy").withLocale(Locale.US);
+        byte[] buf = new byte[DateTimePrinter.MAX_LENGTH];
+
+        for (int i = 0; i < ROUNDS; i++) {
+            int year = 1 + random.nextInt(9999);
+            int month = random.nextInt(12);
+            int day = 1 + random.nextInt(28);
+            int hour = random.nextInt(24);
+            int minute = random.nextInt(60);
+            int second = random.nextInt(60);
+            int milli = random.nextInt(1000);
+
+            Date d = Date.valueOf(LocalDate.of(year, month + 1, day));
+            assertEquals(dateFormat.format(d), DateTimePrinter.printDate(d));
+
+            Time t = Time.valueOf(LocalTime.of(hour, minute, second));
+            assertEquals(timeFormat.format(t), DateTimePrinter.printTime(t));
+
+            Timestamp ts =
+                    Timestamp.valueOf(
+                            LocalDateTime.of(
+                                    year, month + 1, day, hour, minute, second, milli * 1000000));
+            assertEquals(datetimeFormat.format(ts), DateTimePrinter.printDatetime(ts));
+
+            int len = DateTimePrinter.printTimestampAscii(ts, buf);
+            assertEquals(asciiFormat.format(ts), new String(buf, 0, len));
+
+            ZonedDateTime zdt =
+                    ZonedDateTime.of(
+                            1970 + random.nextInt(69),
+                            month + 1,
+                            day,
+                            hour,
+                            minute,
+                            second,
+                            0,
+                            ZoneOffset.UTC);
+            assertEquals(zdt.format(timestampFormat), DateTimePrinter.printTimestamp(zdt));
+        }
+    }
+}
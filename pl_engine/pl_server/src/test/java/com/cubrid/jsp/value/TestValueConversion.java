@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.jsp.value;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.jsp.StandaloneConfig;
+import com.cubrid.jsp.exception.TypeMismatchException;
+import java.sql.Date;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class TestValueConversion {
+
+    @BeforeAll
+    public static void setUp() {
+        StandaloneConfig.install(); // a value takes the server codeset from the config
+    }
+
+    @Test
+    public void testWidening() throws Exception {
+        ShortValue s = new ShortValue(Short.MIN_VALUE);
+        assertEquals(Short.MIN_VALUE, s.toInt());
+        assertEquals(Short.MIN_VALUE, s.toLong());
+        assertEquals(Short.MIN_VALUE, s.toFloat());
+        assertEquals(Short.MIN_VALUE, s.toDouble());
+
+        IntValue i = new IntValue(Integer.MAX_VALUE);
+        assertEquals(Integer.MAX_VALUE, i.toLong());
+        assertEquals((float) Integer.MAX_VALUE, i.toFloat());
+        assertEquals(Integer.MAX_VALUE, i.toDouble());
+
+        FloatValue f = new FloatValue(Float.MAX_VALUE);
+        assertEquals(Float.MAX_VALUE, f.toDouble());
+    }
+
+    @Test
+    public void testMismatch() throws Exception {
+        Value d = new DateValue(Date.valueOf("2024-03-15"));
+        assertThrows(TypeMismatchException.class, () -> d.toInt());
+        assertThrows(TypeMismatchException.class, () -> d.toDouble());
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.compiler;
+
+import com.cubrid.jsp.StandaloneConfig;
+import com.cubrid.jsp.code.CompiledCode;
+import com.cubrid.jsp.code.SourceCode;
+import com.cubrid.jsp.compiler.MemoryFileManager;
+import com.cubrid.jsp.data.CompileInfo;
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+/**
+ * A PL/CSQL routine compiled by the PL/CSQL compiler and then by javac in memory, so that tests
+ * can check both the generated Java code and how it behaves. The routine must not need a
+ * connection to a server: no SQL and no global procedures or functions.
+ */
+public class CompiledRoutine {
+
+    /** the Java code generated by the PL/CSQL compiler */
+    public final String source;
+
+    private final Method method;
+
+    private CompiledRoutine(String source, Method method) {
+        this.source = source;
+        this.method = method;
+    }
+
+    public static CompiledRoutine compile(String plcsql) throws Exception {
+        StandaloneConfig.install();
+
+        CompileInfo info = PlcsqlCompilerMain.compilePLCSQL(plcsql, false, "DBA", "1");
+        if (info.errCode != 0) {
+            throw new IllegalArgumentException(info.errLine + ": " + info.errMsg);
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+        MemoryFileManager fileManager =
+                new MemoryFileManager(compiler.getStandardFileManager(null, null, null)) {};
+        boolean ok =
+                compiler.getTask(
+                                null,
+                                fileManager,
+                                collector,
+                                Arrays.asList("-classpath", getClassPath()),
+                                null,
+                                Arrays.asList(new SourceCode(info.className, info.translated)))
+                        .call();
+        if (!ok) {
+            throw new IllegalStateException(
+                    "javac failed: " + collector.getDiagnostics() + "\n" + info.translated);
+        }
+
+        Map<String, byte[]> classes = new HashMap<>();
+        for (CompiledCode c : fileManager.getCodeList()) {
+            classes.put(c.getClassName(), c.getByteCode());
+        }
+        ClassLoader loader =
+                new ClassLoader(CompiledRoutine.class.getClassLoader()) {
+                    @Override
+                    protected Class<?> findClass(String name) throws ClassNotFoundException {
+                        byte[] b = classes.get(name);
+                        if (b == null) {
+                            throw new ClassNotFoundException(name);
+                        }
+                        return defineClass(name, b, 0, b.length);
+                    }
+                };
+
+        String methodName = info.signature.substring(info.className.length() + 1);
+        methodName = methodName.substring(0, methodName.indexOf('('));
+        for (Method m : loader.loadClass(info.className).getMethods()) {
+            if (m.getName().equals(methodName)) {
+                return new CompiledRoutine(info.translated, m);
+            }
+        }
+        throw new IllegalStateException("no method " + methodName + "\n" + info.translated);
+    }
+
+    public Object invoke(Object... args) throws Exception {
+        try {
+            return method.invoke(null, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    // the class path of this JVM, which is in java.class.path or, when run by a launcher such as
+    // that of JUnit, in a URLClassLoader
+    private static String getClassPath() {
+        Set<String> entries = new LinkedHashSet<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                entries.add(entry);
+            }
+        }
+        for (ClassLoader cl = CompiledRoutine.class.getClassLoader();
+                cl != null;
+                cl = cl.getParent()) {
+            if (cl instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) cl).getURLs()) {
+                    try {
+                        entries.add(Paths.get(url.toURI()).toString());
+                    } catch (URISyntaxException | IllegalArgumentException e) {
+                        // not a file
+                    }
+                }
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.compiler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.plcsql.compiler.annotation.Operator;
+import com.cubrid.plcsql.compiler.type.Type;
+import com.cubrid.plcsql.compiler.type.TypeVariadic;
+import com.cubrid.plcsql.predefined.sp.SpLib;
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+// Checks that OperatorTable generated at build time describes exactly the @Operator methods of
+// SpLib, which SymbolStack used to find by reflection.
+public class TestOperatorTable {
+
+    @Test
+    public void testSameAsReflection() {
+
+        Set<String> expected = new HashSet<>();
+        for (Method m : SpLib.class.getMethods()) {
+            Operator opAnnot = m.getAnnotation(Operator.class);
+            if (opAnnot != null) {
+                StringBuilder sb = new StringBuilder();
+                sb.append(m.getName())
+                        .append(' ')
+                        .append(opAnnot.coercionScheme().name())
+                        .append(' ')
+                        .append(describe(Type.ofJavaName(m.getReturnType().getTypeName())));
+                for (Class<?> pt : m.getParameterTypes()) {
+                    sb.append(' ').append(describe(Type.ofJavaName(pt.getTypeName())));
+                }
+                assertTrue(expected.add(sb.toString()));
+            }
+        }
+
+        Set<String> generated = new HashSet<>();
+        for (OperatorTable.Row row : OperatorTable.OPERATORS) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(row.name)
+                    .append(' ')
+                    .append(row.coercionScheme.name())
+                    .append(' ')
+                    .append(describe(row.retType));
+            for (Type pt : row.paramTypes) {
+                sb.append(' ').append(describe(pt));
+            }
+            assertTrue(generated.add(sb.toString()));
+        }
+
+        assertEquals(expected, generated);
+    }
+
+    private static String describe(Type ty) {
+        assertNotNull(ty);
+        return (ty instanceof TypeVariadic) ? ((TypeVariadic) ty).elem.plcName + "[]" : ty.plcName;
+    }
+}
@@ -0,0 +1,609 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.compiler.serverapi;
+
+import com.cubrid.jsp.StandaloneConfig;
+import com.cubrid.jsp.data.ColumnInfo;
+import com.cubrid.jsp.data.DBType;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Answers the semantic questions of the PL/CSQL compiler from an in-memory schema, in place of the
+ * server (see install()), so that routines can be compiled in tests and benchmarks.
+ *
+ * <p>Static SQL is analyzed by a rough tokenizer rather than a SQL parser: an identifier that is
+ * not a keyword, a function name, a table, an alias or a column of a table of the schema is taken
+ * as a host variable and replaced by '?', and the targets of SELECT ... INTO are cut out. This is
+ * enough for ordinary statements over the tables of the schema, not for every SQL the server
+ * accepts.
+ */
+public class MockServerAPI implements ServerAPI.Mock {
+
+    private final Map<String, LinkedHashMap<String, ColumnInfo>> tables = new HashMap<>();
+    private final Map<String, PlParamInfo[]> procedures = new HashMap<>();
+    private final Map<String, PlParamInfo[]> functions = new HashMap<>();
+    private final Map<String, PlParamInfo> functionReturns = new HashMap<>();
+    private final Set<String> serials = new HashSet<>();
+
+    public MockServerAPI() {
+        StandaloneConfig.install(); // PlParamInfo creates a value
+    }
+
+    /** makes the compiler ask this mock instead of the server, until uninstall() */
+    public MockServerAPI install() {
+        ServerAPI.setMock(this);
+        return this;
+    }
+
+    /** makes the compiler ask the server again */
+    public static void uninstall() {
+        ServerAPI.setMock(null);
+    }
+
+    /** the schema the routines of the benchmark corpus are written against */
+    public static MockServerAPI forBenchCorpus() {
+        return new MockServerAPI()
+                .table(
+                        "emp",
+                        "id",
+                        DBType.DB_INT,
+                        "name",
+                        DBType.DB_STRING,
+                        "dept",
+                        DBType.DB_INT,
+                        "salary",
+                        DBType.DB_NUMERIC)
+                .table("log_tbl", "id", DBType.DB_INT, "msg", DBType.DB_STRING)
+                .procedure("write_log", in(DBType.DB_INT), in(DBType.DB_STRING));
+    }
+
+    /** returns the routines of the benchmark corpus, which are separated by lines with a slash */
+    public static List<String> readBenchCorpus() throws IOException {
+        String corpus;
+        try (InputStream in = MockServerAPI.class.getResourceAsStream(BENCH_CORPUS)) {
+            if (in == null) {
+                throw new IOException("missing resource " + BENCH_CORPUS);
+            }
+            corpus = IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+
+        List<String> routines = new ArrayList<>();
+        for (String routine : corpus.split("\n/\n")) {
+            if (routine.trim().length() > 0) {
+                routines.add(routine);
+            }
+        }
+        return routines;
+    }
+
+    /** adds a table of the given (column name, DBType) pairs */
+    public MockServerAPI table(String name, Object... columns) {
+        LinkedHashMap<String, ColumnInfo> cols = new LinkedHashMap<>();
+        for (int i = 0; i < columns.length; i += 2) {
+            String colName = ((String) columns[i]).toLowerCase();
+            int type = (Integer) columns[i + 1];
+
+            ColumnInfo ci = new ColumnInfo();
+            ci.type = type;
+            ci.colName = colName;
+            ci.attrName = colName;
+            ci.className = name.toLowerCase();
+            ci.prec = defaultPrecision(type);
+            ci.charset = ServerConstants.CUBRID_CHARSET_UTF8;
+            cols.put(colName, ci);
+        }
+        tables.put(name.toLowerCase(), cols);
+        return this;
+    }
+
+    public MockServerAPI procedure(String name, PlParamInfo... params) {
+        procedures.put(name.toLowerCase(), params);
+        return this;
+    }
+
+    public MockServerAPI function(String name, int returnType, PlParamInfo... params) {
+        functions.put(name.toLowerCase(), params);
+        functionReturns.put(name.toLowerCase(), param(ServerConstants.PARAM_MODE_OUT, returnType));
+        return this;
+    }
+
+    public MockServerAPI serial(String name) {
+        serials.add(name.toLowerCase());
+        return this;
+    }
+
+    public static PlParamInfo in(int type) {
+        return param(ServerConstants.PARAM_MODE_IN, type);
+    }
+
+    public static PlParamInfo out(int type) {
+        return param(ServerConstants.PARAM_MODE_OUT, type);
+    }
+
+    // ------------------------------------------------------------------
+    // ServerAPI.Mock
+    // ------------------------------------------------------------------
+
+    @Override
+    public List<SqlSemantics> getSqlSemantics(List<String> sqlTexts) {
+        List<SqlSemantics> ret = new ArrayList<>(sqlTexts.size());
+        int seqNo = 0;
+        for (String sql : sqlTexts) {
+            ret.add(analyze(seqNo++, sql));
+        }
+        return ret;
+    }
+
+    @Override
+    public List<ServerAPI.Question> getGlobalSemantics(List<ServerAPI.Question> questions) {
+        int seqNo = 0;
+        for (ServerAPI.Question q : questions) {
+            if (q instanceof ServerAPI.ProcedureSignature) {
+                ServerAPI.ProcedureSignature ps = (ServerAPI.ProcedureSignature) q;
+                PlParamInfo[] params = lookup(procedures, ps.name);
+                if (params == null) {
+                    q.setError(seqNo, -1, "procedure " + ps.name + " does not exist");
+                } else {
+                    ps.setAnswer(seqNo, params);
+                }
+            } else if (q instanceof ServerAPI.FunctionSignature) {
+                ServerAPI.FunctionSignature fs = (ServerAPI.FunctionSignature) q;
+                PlParamInfo[] params = lookup(functions, fs.name);
+                if (params == null) {
+                    q.setError(seqNo, -1, "function " + fs.name + " does not exist");
+                } else {
+                    fs.setAnswer(seqNo, params, lookup(functionReturns, fs.name));
+                }
+            } else if (q instanceof ServerAPI.SerialOrNot) {
+                ServerAPI.SerialOrNot so = (ServerAPI.SerialOrNot) q;
+                if (serials.contains(unqualified(so.name))) {
+                    so.setAnswer(seqNo);
+                } else {
+                    q.setError(seqNo, -1, "serial " + so.name + " does not exist");
+                }
+            } else if (q instanceof ServerAPI.ColumnType) {
+                ServerAPI.ColumnType ct = (ServerAPI.ColumnType) q;
+                Map<String, ColumnInfo> cols = tables.get(unqualified(ct.table));
+                ColumnInfo ci = (cols == null) ? null : cols.get(ct.column.toLowerCase());
+                if (ci == null) {
+                    q.setError(seqNo, -1, ct.table + "." + ct.column + " does not exist");
+                } else {
+                    ct.setAnswer(seqNo, ci);
+                }
+            } else {
+                q.setError(seqNo, -1, "unknown question");
+            }
+            seqNo++;
+        }
+        return questions;
+    }
+
+    // ------------------------------------------------------------------
+    // Private
+    // ------------------------------------------------------------------
+
+    private static final String BENCH_CORPUS = "/plcsql_bench_corpus.sql";
+
+    private static final Set<String> KEYWORDS =
+            new HashSet<>(
+                    Arrays.asList(
+                            "all", "and", "any", "as", "asc", "between", "by", "case", "cross",
+                            "current_date", "current_datetime", "current_time",
+                            "current_timestamp", "current_user", "default", "delete", "desc",
+                            "distinct", "div", "else", "end", "escape", "except", "exists", "false",
+                            "for", "from", "full", "group", "having", "in", "inner", "insert",
+                            "intersect", "into", "is", "join", "left", "like", "limit", "matched",
+                            "merge", "mod", "natural", "not", "null", "of", "on", "or", "order",
+                            "outer", "replace", "right", "row", "rownum", "select", "set", "some",
+                            "sys_date", "sys_datetime", "sys_time", "sys_timestamp", "sysdate",
+                            "sysdatetime", "systime", "systimestamp", "table", "then", "true",
+                            "truncate", "union", "unknown", "update", "using", "value", "values",
+                            "when", "where", "with", "xor"));
+
+    private static final int T_IDENT = 0;
+    private static final int T_OTHER = 1;
+
+    private static class Token {
+        final int kind;
+        final String text; // lowercased for identifiers
+        final int start;
+        final int end;
+
+        Token(int kind, String text, int start, int end) {
+            this.kind = kind;
+            this.text = text;
+            this.start = start;
+            this.end = end;
+        }
+
+        boolean is(String s) {
+            return text.equals(s);
+        }
+    }
+
+    private SqlSemantics analyze(int seqNo, String sql) {
+        List<Token> tokens = tokenize(sql);
+        if (tokens.isEmpty() || tokens.get(0).kind != T_IDENT) {
+            return new SqlSemantics(seqNo, -1, "mock: cannot analyze " + sql);
+        }
+
+        int kind;
+        switch (tokens.get(0).text) {
+            case "select":
+                kind = ServerConstants.CUBRID_STMT_SELECT;
+                break;
+            case "insert":
+            case "replace":
+                kind = ServerConstants.CUBRID_STMT_INSERT;
+                break;
+            case "update":
+                kind = ServerConstants.CUBRID_STMT_UPDATE;
+                break;
+            case "delete":
+                kind = ServerConstants.CUBRID_STMT_DELETE;
+                break;
+            case "merge":
+                kind = ServerConstants.CUBRID_STMT_MERGE;
+                break;
+            case "truncate":
+                kind = ServerConstants.CUBRID_STMT_TRUNCATE;
+                break;
+            default:
+                return new SqlSemantics(seqNo, -1, "mock: unsupported statement " + sql);
+        }
+
+        // tables of the schema used in the statement, and their aliases
+        List<String> usedTables = new ArrayList<>();
+        Set<String> aliases = new HashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            Token t = tokens.get(i);
+            if (t.kind == T_IDENT && tables.containsKey(t.text) && !isQualified(tokens, i)) {
+                usedTables.add(t.text);
+                int a = i + 1;
+                if (a < tokens.size() && tokens.get(a).is("as")) {
+                    a++;
+                }
+                if (a < tokens.size()
+                        && tokens.get(a).kind == T_IDENT
+                        && !KEYWORDS.contains(tokens.get(a).text)) {
+                    aliases.add(tokens.get(a).text);
+                }
+            }
+        }
+
+        // the INTO clause of a SELECT statement
+        int intoStart = -1;
+        int intoEnd = -1;
+        List<String> intoTargets = null;
+        if (kind == ServerConstants.CUBRID_STMT_SELECT) {
+            int depth = 0;
+            for (int i = 0; i < tokens.size(); i++) {
+                Token t = tokens.get(i);
+                depth += t.is("(") ? 1 : t.is(")") ? -1 : 0;
+                if (depth == 0 && t.is("into")) {
+                    intoStart = i;
+                } else if (depth == 0 && t.is("from") && intoStart >= 0) {
+                    intoEnd = i;
+                    break;
+                }
+            }
+            if (intoStart >= 0 && intoEnd > intoStart) {
+                intoTargets = new ArrayList<>();
+                StringBuilder target = new StringBuilder();
+                for (int i = intoStart + 1; i < intoEnd; i++) {
+                    if (tokens.get(i).is(",")) {
+                        intoTargets.add(target.toString());
+                        target.setLength(0);
+                    } else {
+                        target.append(sql, tokens.get(i).start, tokens.get(i).end);
+                    }
+                }
+                intoTargets.add(target.toString());
+            } else {
+                intoStart = intoEnd = -1;
+            }
+        }
+
+        // host variables, replaced by '?' in the rewritten statement
+        List<PlParamInfo> hostExprs = new ArrayList<>();
+        StringBuilder rewritten = new StringBuilder();
+        int copied = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i == intoStart) {
+                rewritten.append(sql, copied, tokens.get(i).start);
+                copied = tokens.get(intoEnd).start;
+                i = intoEnd - 1;
+                continue;
+            }
+
+            int last = hostExprEnd(tokens, i, usedTables, aliases);
+            if (last >= 0) {
+                Token first = tokens.get(i);
+                String name = sql.substring(first.start, tokens.get(last).end);
+                hostExprs.add(
+                        new PlParamInfo(
+                                name, ServerConstants.PARAM_MODE_IN, 0, 0, (short) 0, (byte) 0));
+                rewritten.append(sql, copied, first.start).append('?');
+                copied = tokens.get(last).end;
+                i = last;
+            }
+        }
+        rewritten.append(sql, copied, sql.length());
+
+        List<ColumnInfo> selectList = null;
+        if (kind == ServerConstants.CUBRID_STMT_SELECT) {
+            selectList = selectList(sql, tokens, usedTables, aliases);
+        }
+
+        return new SqlSemantics(
+                seqNo,
+                kind,
+                rewritten.toString(),
+                hostExprs.isEmpty() ? null : hostExprs,
+                selectList,
+                intoTargets);
+    }
+
+    // returns the index of the last token of the host expression starting at i, or -1
+    private int hostExprEnd(
+            List<Token> tokens, int i, List<String> usedTables, Set<String> aliases) {
+        Token t = tokens.get(i);
+        if (t.kind != T_IDENT || isQualified(tokens, i)) {
+            return -1;
+        }
+        if (i + 1 < tokens.size() && tokens.get(i + 1).is("(")) {
+            return -1; // a function
+        }
+
+        boolean qualifier = i + 2 < tokens.size() && tokens.get(i + 1).is(".");
+        if (KEYWORDS.contains(t.text)
+                || tables.containsKey(t.text)
+                || aliases.contains(t.text)
+                || (!qualifier && isColumn(t.text, usedTables))) {
+            return -1;
+        }
+
+        return qualifier ? i + 2 : i; // <record>.<field> or <variable>
+    }
+
+    private List<ColumnInfo> selectList(
+            String sql, List<Token> tokens, List<String> usedTables, Set<String> aliases) {
+        int begin = 1;
+        if (begin < tokens.size()
+                && (tokens.get(begin).is("distinct") || tokens.get(begin).is("all"))) {
+            begin++;
+        }
+
+        List<ColumnInfo> list = new ArrayList<>();
+        int depth = 0;
+        int itemStart = begin;
+        for (int i = begin; i <= tokens.size(); i++) {
+            Token t = (i < tokens.size()) ? tokens.get(i) : null;
+            if (t != null) {
+                depth += t.is("(") ? 1 : t.is(")") ? -1 : 0;
+            }
+            if (t == null || depth == 0 && (t.is(",") || t.is("into") || t.is("from"))) {
+                addSelectItem(list, sql, tokens.subList(itemStart, i), usedTables, aliases);
+                itemStart = i + 1;
+                if (t == null || !t.is(",")) {
+                    break;
+                }
+            }
+        }
+        return list;
+    }
+
+    private void addSelectItem(
+            List<ColumnInfo> list,
+            String sql,
+            List<Token> item,
+            List<String> usedTables,
+            Set<String> aliases) {
+        if (item.isEmpty()) {
+            return;
+        }
+
+        if (item.size() == 1 && item.get(0).is("*")
+                || item.size() == 3 && item.get(2).is("*")) {
+            for (String table : usedTables) {
+                list.addAll(tables.get(table).values());
+            }
+            return;
+        }
+
+        // expr [AS] alias
+        String name = null;
+        int n = item.size();
+        if (n >= 2 && item.get(n - 1).kind == T_IDENT && !KEYWORDS.contains(item.get(n - 1).text)) {
+            Token prev = item.get(n - 2);
+            if (prev.is("as") || prev.is(")") || prev.kind == T_IDENT && !prev.is(".")) {
+                name = item.get(n - 1).text;
+                n -= prev.is("as") ? 2 : 1;
+            }
+        }
+        List<Token> expr = item.subList(0, n);
+        String exprText = sql.substring(expr.get(0).start, expr.get(n - 1).end);
+
+        ColumnInfo ci = new ColumnInfo();
+        ci.colName = (name != null) ? name : exprText;
+        ci.attrName = "";
+        ci.className = "";
+        ci.charset = ServerConstants.CUBRID_CHARSET_UTF8;
+
+        // the type: of the column if the expression refers to one, otherwise a guess
+        Token last = expr.get(n - 1);
+        ColumnInfo col = (last.kind == T_IDENT) ? findColumn(last.text, usedTables) : null;
+        if (n == 1 && last.kind == T_IDENT && col == null) {
+            ci.type = DBType.DB_VARIABLE; // a host variable
+        } else if (expr.get(0).is("count")) {
+            ci.type = DBType.DB_BIGINT;
+        } else if (col != null || (col = findAnyColumn(expr, usedTables)) != null) {
+            ci.type = col.type;
+            if (n == 1 || n == 3 && expr.get(1).is(".")) {
+                ci.attrName = col.attrName;
+                ci.className = col.className;
+            }
+        } else if (Character.isDigit(expr.get(0).text.charAt(0))) {
+            ci.type = DBType.DB_NUMERIC;
+        } else {
+            ci.type = DBType.DB_STRING;
+        }
+        ci.prec = defaultPrecision(ci.type);
+        list.add(ci);
+    }
+
+    private ColumnInfo findAnyColumn(List<Token> expr, List<String> usedTables) {
+        for (Token t : expr) {
+            if (t.kind == T_IDENT) {
+                ColumnInfo ci = findColumn(t.text, usedTables);
+                if (ci != null) {
+                    return ci;
+                }
+            }
+        }
+        return null;
+    }
+
+    private ColumnInfo findColumn(String name, List<String> usedTables) {
+        for (String table : usedTables) {
+            ColumnInfo ci = tables.get(table).get(name);
+            if (ci != null) {
+                return ci;
+            }
+        }
+        return null;
+    }
+
+    private boolean isColumn(String name, List<String> usedTables) {
+        return findColumn(name, usedTables) != null;
+    }
+
+    private static boolean isQualified(List<Token> tokens, int i) {
+        return i > 0 && tokens.get(i - 1).is(".");
+    }
+
+    private static List<Token> tokenize(String sql) {
+        List<Token> tokens = new ArrayList<>();
+        int len = sql.length();
+        int i = 0;
+        while (i < len) {
+            char c = sql.charAt(i);
+            int start = i;
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            } else if (c == '\'') {
+                i++;
+                while (i < len) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < len && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                tokens.add(new Token(T_OTHER, sql.substring(start, Math.min(i, len)), start, i));
+            } else if (c == '"' || c == '`' || c == '[') {
+                char close = (c == '[') ? ']' : c;
+                i = sql.indexOf(close, i + 1) + 1;
+                if (i == 0) {
+                    i = len;
+                }
+                String id = sql.substring(start + 1, Math.max(start + 1, i - 1)).toLowerCase();
+                tokens.add(new Token(T_IDENT, id, start, i));
+            } else if (Character.isLetter(c) || c == '_') {
+                while (i < len
+                        && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_')) {
+                    i++;
+                }
+                tokens.add(new Token(T_IDENT, sql.substring(start, i).toLowerCase(), start, i));
+            } else if (Character.isDigit(c)) {
+                while (i < len
+                        && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add(new Token(T_OTHER, sql.substring(start, i), start, i));
+            } else {
+                i++;
+                tokens.add(new Token(T_OTHER, String.valueOf(c), start, i));
+            }
+        }
+        return tokens;
+    }
+
+    private static <T> T lookup(Map<String, T> map, String name) {
+        T value = map.get(name.toLowerCase());
+        return (value != null) ? value : map.get(unqualified(name));
+    }
+
+    // strips the owner name
+    private static String unqualified(String name) {
+        String lower = name.toLowerCase();
+        int dot = lower.lastIndexOf('.');
+        return (dot < 0) ? lower : lower.substring(dot + 1);
+    }
+
+    private static PlParamInfo param(byte mode, int type) {
+        return new PlParamInfo(
+                "",
+                mode,
+                type,
+                defaultPrecision(type),
+                (short) 0,
+                ServerConstants.CUBRID_CHARSET_UTF8);
+    }
+
+    private static int defaultPrecision(int type) {
+        switch (type) {
+            case DBType.DB_STRING:
+            case DBType.DB_CHAR:
+                return 1073741823;
+            case DBType.DB_NUMERIC:
+                return 15;
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.compiler.serverapi;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.jsp.data.CompileInfo;
+import com.cubrid.jsp.data.DBType;
+import com.cubrid.plcsql.compiler.PlcsqlCompilerMain;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+// Compiles the benchmark corpus with the semantic questions answered by MockServerAPI, and checks
+// the answers the mock gives for a few statements.
+public class TestMockServerAPI {
+
+    private static final MockServerAPI mock = MockServerAPI.forBenchCorpus();
+
+    @BeforeAll
+    public static void setUp() {
+        mock.install();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        MockServerAPI.uninstall();
+    }
+
+    @Test
+    public void testCompileBenchCorpus() throws Exception {
+        List<String> routines = MockServerAPI.readBenchCorpus();
+        assertFalse(routines.isEmpty());
+
+        for (String routine : routines) {
+            CompileInfo info = PlcsqlCompilerMain.compilePLCSQL(routine, false, "DBA", "1");
+            assertEquals(0, info.errCode, info.errLine + ": " + info.errMsg);
+            assertNotNull(info.translated);
+        }
+    }
+
+    @Test
+    public void testSelectInto() {
+        SqlSemantics sem =
+                mock.getSqlSemantics(
+                                Arrays.asList(
+                                        "select name, count(*) into v_name, v_cnt from emp e"
+                                                + " where e.dept = p_dept and id > r.id"))
+                        .get(0);
+
+        assertEquals(0, sem.seqNo);
+        assertEquals(ServerConstants.CUBRID_STMT_SELECT, sem.kind);
+        assertEquals("select name, count(*) from emp e where e.dept = ? and id > ?", sem.rewritten);
+        assertEquals(Arrays.asList("v_name", "v_cnt"), sem.intoTargetStrs);
+
+        assertEquals(2, sem.hostExprs.size());
+        assertEquals("p_dept", sem.hostExprs.get(0).name);
+        assertEquals("r.id", sem.hostExprs.get(1).name);
+
+        assertEquals(2, sem.selectList.size());
+        assertEquals(DBType.DB_STRING, sem.selectList.get(0).type);
+        assertEquals("emp", sem.selectList.get(0).className);
+        assertEquals(DBType.DB_BIGINT, sem.selectList.get(1).type);
+    }
+
+    @Test
+    public void testGlobalSemantics() {
+        ServerAPI.ColumnType ct = new ServerAPI.ColumnType("DBA.EMP", "SALARY");
+        ServerAPI.ProcedureSignature ps = new ServerAPI.ProcedureSignature("write_log");
+        ServerAPI.SerialOrNot so = new ServerAPI.SerialOrNot("no_such_serial");
+
+        mock.getGlobalSemantics(Arrays.asList(ct, ps, so));
+
+        assertEquals(DBType.DB_NUMERIC, ct.colType.type);
+        assertEquals(2, ps.params.length);
+        assertNotNull(so.errMsg);
+    }
+}
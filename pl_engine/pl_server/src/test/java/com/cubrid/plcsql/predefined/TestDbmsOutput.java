@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.predefined;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.jsp.context.ContextManager;
+import com.cubrid.plcsql.predefined.sp.SpLib;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Runs the DBMS_OUTPUT procedures of SpLib in a Context of their own, as the requests of a session
+public class TestDbmsOutput {
+
+    private static final long SESSION_ID = 9_100_001L;
+
+    @BeforeEach
+    public void setUp() {
+        ContextManager.registerThread(Thread.currentThread().getId(), SESSION_ID);
+        SpLib.DBMS_OUTPUT$ENABLE(2000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SpLib.DBMS_OUTPUT$DISABLE();
+        ContextManager.deregisterThread(Thread.currentThread().getId());
+    }
+
+    @Test
+    public void testOverflow() {
+        String s = repeat('a', 1000);
+        SpLib.DBMS_OUTPUT$PUT_LINE(s);
+        assertThrows(SpLib.VALUE_ERROR.class, () -> SpLib.DBMS_OUTPUT$PUT_LINE(s));
+        assertThrows(SpLib.VALUE_ERROR.class, () -> SpLib.DBMS_OUTPUT$PUT(s));
+
+        // the line already in the buffer is kept
+        String[] line = new String[1];
+        Integer[] status = new Integer[1];
+        SpLib.DBMS_OUTPUT$GET_LINE(line, status);
+        assertEquals(s, line[0]);
+        assertEquals(0, status[0]);
+    }
+
+    @Test
+    public void testOverflowByNewLine() {
+        String s = repeat('a', 1000);
+
+        // the partial line fits when it is put, but not any more when it is completed
+        SpLib.DBMS_OUTPUT$PUT(s);
+        SpLib.DBMS_OUTPUT$PUT_LINE(s);
+        assertThrows(SpLib.VALUE_ERROR.class, () -> SpLib.DBMS_OUTPUT$NEW_LINE());
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    private static String repeat(char c, int n) {
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
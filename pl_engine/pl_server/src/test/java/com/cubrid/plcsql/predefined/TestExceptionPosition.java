@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.predefined;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.plcsql.compiler.CompiledRoutine;
+import com.cubrid.plcsql.predefined.sp.SpLib;
+import org.junit.jupiter.api.Test;
+
+// Checks the PL/CSQL positions of the exceptions raised by generated code
+public class TestExceptionPosition {
+
+    @Test
+    public void testCaseNotFound() throws Exception {
+        CompiledRoutine routine =
+                CompiledRoutine.compile(
+                        "create or replace function case_sel(i int) return int as\n"
+                                + "begin\n"
+                                + "    case i\n"
+                                + "        when 1 then return 10;\n"
+                                + "    end case;\n"
+                                + "end;");
+        assertTrue(routine.source.contains("throw new CASE_NOT_FOUND(new int[]"), routine.source);
+        assertEquals(10, routine.invoke(1));
+        assertPosition(3, 5, routine, 2);
+    }
+
+    @Test
+    public void testSearchedCaseNotFound() throws Exception {
+        CompiledRoutine routine =
+                CompiledRoutine.compile(
+                        "create or replace function case_search(i int) return int as\n"
+                                + "begin\n"
+                                + "    if i > 0 then\n"
+                                + "        case\n"
+                                + "            when i = 1 then return 10;\n"
+                                + "        end case;\n"
+                                + "    end if;\n"
+                                + "    return 0;\n"
+                                + "end;");
+        assertTrue(routine.source.contains("throw new CASE_NOT_FOUND(new int[]"), routine.source);
+        assertEquals(10, routine.invoke(1));
+        assertEquals(0, routine.invoke(0));
+        assertPosition(4, 9, routine, 2);
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    private static void assertPosition(
+            int line, int column, CompiledRoutine routine, Object... args) {
+        SpLib.CASE_NOT_FOUND e =
+                assertThrows(SpLib.CASE_NOT_FOUND.class, () -> routine.invoke(args));
+        assertTrue(e.isPlcLineColumnKnown());
+        assertEquals(line, e.getLine());
+        assertEquals(column, e.getColumn());
+    }
+}
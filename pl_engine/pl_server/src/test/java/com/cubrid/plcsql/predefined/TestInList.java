@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.predefined;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.plcsql.compiler.CompiledRoutine;
+import com.cubrid.plcsql.predefined.sp.ConstInList;
+import com.cubrid.plcsql.predefined.sp.SpLib;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// Compares the IN operators taking a ConstInList, used for lists of constants, and the single
+// element ones, used for the other lists, against the varargs operators of SpLib. Also checks the
+// code the compiler generates for each kind of IN list.
+public class TestInList {
+
+    private static final int ROUNDS = 20000;
+
+    private static final String[] WORDS = new String[] {"", "a", "ab", "abc", "b", "ba"};
+
+    private final Random random = new Random(20241019L);
+
+    @Test
+    public void testIntegerList() {
+        for (int i = 0; i < ROUNDS; i++) {
+            boolean hasNull = random.nextInt(4) == 0;
+            int size = 1 + random.nextInt(8);
+
+            List<Integer> list = new ArrayList<>();
+            long[] values = new long[size];
+            for (int k = 0; k < size; k++) {
+                values[k] = random.nextInt(21) - 10;
+                list.add((int) values[k]);
+            }
+            if (hasNull) {
+                list.add(random.nextInt(list.size() + 1), null);
+            }
+            Integer[] arr = list.toArray(new Integer[0]);
+            ConstInList constList = ConstInList.ofLongs(hasNull, values);
+
+            Integer o = random.nextInt(10) == 0 ? null : random.nextInt(25) - 12;
+            Boolean expected = SpLib.opIn(o, arr);
+            assertEquals(expected, SpLib.opIn(o, constList));
+            assertEquals(expected, inElementByElement(o, arr));
+        }
+    }
+
+    @Test
+    public void testStringList() {
+        for (int i = 0; i < ROUNDS; i++) {
+            boolean hasNull = random.nextInt(4) == 0;
+            int size = 1 + random.nextInt(5);
+
+            List<String> list = new ArrayList<>();
+            String[] values = new String[size];
+            for (int k = 0; k < size; k++) {
+                values[k] = WORDS[random.nextInt(WORDS.length)];
+                list.add(values[k]);
+            }
+            if (hasNull) {
+                list.add(random.nextInt(list.size() + 1), null);
+            }
+            String[] arr = list.toArray(new String[0]);
+            ConstInList constList = ConstInList.ofStrings(hasNull, values);
+
+            String o = random.nextInt(10) == 0 ? null : WORDS[random.nextInt(WORDS.length)];
+            Boolean expected = SpLib.opIn(o, arr);
+            assertEquals(expected, SpLib.opIn(o, constList));
+            assertEquals(expected, inElementByElement(o, arr));
+        }
+    }
+
+    @Test
+    public void testGeneratedCode() throws Exception {
+        CompiledRoutine simple = compile("in_simple", "x in (a, b, 3)");
+        assertTrue(simple.source.contains("$in_0(Integer o, Integer p0,"), simple.source);
+        assertTrue(simple.source.contains("Boolean.TRUE.equals(b0 = opIn(o, p0)) ||"));
+        assertFalse(simple.source.contains("new Object()"), simple.source);
+
+        CompiledRoutine constants = compile("in_constants", "x in (1, 2, 3)");
+        assertTrue(constants.source.contains("$in_list_0 = ConstInList.ofLongs("));
+        assertFalse(constants.source.contains("new Object()"), constants.source);
+
+        // an element which is not simple is evaluated only if no former one is equal to x
+        CompiledRoutine lazy = compile("in_lazy", "x in (a, b + 1, 3)");
+        assertTrue(lazy.source.contains("// short-circuit in"), lazy.source);
+
+        Integer[] values = new Integer[] {null, 1, 2, 3, 4};
+        for (Integer x : values) {
+            for (Integer a : values) {
+                for (Integer b : values) {
+                    Integer b1 = (b == null) ? null : b + 1;
+                    assertEquals(encode(SpLib.opIn(x, a, b, 3)), simple.invoke(x, a, b));
+                    assertEquals(encode(SpLib.opIn(x, 1, 2, 3)), constants.invoke(x, a, b));
+                    assertEquals(encode(SpLib.opIn(x, a, b1, 3)), lazy.invoke(x, a, b));
+                }
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    // a function returning 0 if the condition is FALSE, 1 if TRUE and 2 if NULL
+    private static CompiledRoutine compile(String name, String cond) throws Exception {
+        return CompiledRoutine.compile(
+                String.format(
+                        "create or replace function %s(x int, a int, b int) return int as\n"
+                                + "    r boolean;\n"
+                                + "begin\n"
+                                + "    r := %s;\n"
+                                + "    return case when r is null then 2\n"
+                                + "        when r then 1 else 0 end;\n"
+                                + "end;",
+                        name,
+                        cond));
+    }
+
+    private static Integer encode(Boolean b) {
+        return (b == null) ? 2 : b ? 1 : 0;
+    }
+
+    // the same shape as the code JavaCodeWriter generates for a list of elements which are not all
+    // simple
+
+    private static Boolean inElementByElement(Integer o, Integer[] arr) {
+        if (o == null) {
+            return null;
+        }
+        Boolean ret = Boolean.FALSE;
+        for (Integer p : arr) {
+            Boolean b = SpLib.opIn(o, p);
+            if (b == null) {
+                ret = null;
+            } else if (b) {
+                return Boolean.TRUE;
+            }
+        }
+        return ret;
+    }
+
+    private static Boolean inElementByElement(String o, String[] arr) {
+        if (o == null) {
+            return null;
+        }
+        Boolean ret = Boolean.FALSE;
+        for (String p : arr) {
+            Boolean b = SpLib.opIn(o, p);
+            if (b == null) {
+                ret = null;
+            } else if (b) {
+                return Boolean.TRUE;
+            }
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+
+package com.cubrid.plcsql.predefined;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.plcsql.predefined.sp.LikeMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+// Checks the matchers of the LIKE patterns which are known only at run time
+public class TestLikeMatcher {
+
+    @Test
+    public void testCached() {
+        LikeMatcher m = LikeMatcher.getCached("a%c", null);
+        assertSame(m, LikeMatcher.getCached("a%c", null));
+        assertTrue(m.matches("abc"));
+        assertFalse(m.matches("ab"));
+
+        // the same pattern with an escape character is another matcher
+        LikeMatcher e = LikeMatcher.getCached("a\\%c", "\\");
+        assertNotSame(m, e);
+        assertSame(e, LikeMatcher.getCached("a\\%c", "\\"));
+        assertTrue(e.matches("a%c"));
+        assertFalse(e.matches("abc"));
+        assertFalse(LikeMatcher.getCached("a\\%c", null).matches("a%c"));
+    }
+
+    @Test
+    public void testConcurrentPatterns() throws Exception {
+        // more patterns than the cache keeps, from several threads
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(
+                        pool.submit(
+                                () -> {
+                                    int matched = 0;
+                                    for (int i = 0; i < 20000; i++) {
+                                        String p = "%" + (i % 1000) + "_";
+                                        if (LikeMatcher.getCached(p, null).matches("x" + i)) {
+                                            matched++;
+                                        }
+                                    }
+                                    return matched;
+                                }));
+            }
+            for (Future<Integer> f : results) {
+                // "x<i>" matches '%<i % 1000>_' only if i ends with i % 1000 and one more char
+                assertEquals(expectedMatches(), f.get(60, TimeUnit.SECONDS).intValue());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    private static int expectedMatches() {
+        int matched = 0;
+        for (int i = 0; i < 20000; i++) {
+            String s = "x" + i;
+            String seg = String.valueOf(i % 1000);
+            if (s.length() > seg.length() && s.substring(0, s.length() - 1).endsWith(seg)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.predefined;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.plcsql.predefined.sp.SpLib;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// Compares the NUMERIC operators of SpLib, which take a fixed-point path on long values when the
+// operands are small enough, against the plain BigDecimal computations they must agree with.
+public class TestNumericArithmetic {
+
+    private static final int ROUNDS = 200000;
+
+    private final Random random = new Random(20241019L);
+
+    @Test
+    public void testAdd() {
+        for (int i = 0; i < ROUNDS; i++) {
+            BigDecimal l = randomNumeric();
+            BigDecimal r = randomNumeric();
+            assertSameResult(() -> refAdd(l, r), () -> SpLib.opAdd(l, r), l, r);
+        }
+    }
+
+    @Test
+    public void testSubtract() {
+        for (int i = 0; i < ROUNDS; i++) {
+            BigDecimal l = randomNumeric();
+            BigDecimal r = randomNumeric();
+            assertSameResult(() -> refSubtract(l, r), () -> SpLib.opSubtract(l, r), l, r);
+        }
+    }
+
+    @Test
+    public void testMult() {
+        for (int i = 0; i < ROUNDS; i++) {
+            BigDecimal l = randomNumeric();
+            BigDecimal r = randomNumeric();
+            assertSameResult(() -> refMult(l, r), () -> SpLib.opMult(l, r), l, r);
+        }
+    }
+
+    @Test
+    public void testCheckPrecision() {
+        for (int i = 0; i < ROUNDS; i++) {
+            int prec = 1 + random.nextInt(38);
+            short scale = (short) random.nextInt(prec + 1);
+            BigDecimal val = randomNumeric();
+            assertSameResult(
+                    () -> refCheckPrecision(prec, scale, val),
+                    () -> SpLib.checkPrecision(prec, scale, val),
+                    val,
+                    BigDecimal.valueOf(prec * 100 + scale));
+        }
+    }
+
+    @Test
+    public void testBoundaries() {
+        BigDecimal[] values = {
+            BigDecimal.ZERO,
+            new BigDecimal("0.00"),
+            new BigDecimal("999999999999999999"),
+            new BigDecimal("-999999999999999999"),
+            new BigDecimal("99999999999999999.9"),
+            new BigDecimal("0.000000000000000001"),
+            new BigDecimal("9223372036854775807"),
+            new BigDecimal("-9223372036854775808"),
+            new BigDecimal("4611686018427387904"),
+            new BigDecimal("3037000499.97604969"),
+            new BigDecimal("1E+3"),
+            new BigDecimal("12345678901234567890123456789012345678"),
+            new BigDecimal("0.5"),
+            new BigDecimal("-0.5"),
+        };
+
+        for (BigDecimal l : values) {
+            for (BigDecimal r : values) {
+                assertSameResult(() -> refAdd(l, r), () -> SpLib.opAdd(l, r), l, r);
+                assertSameResult(() -> refSubtract(l, r), () -> SpLib.opSubtract(l, r), l, r);
+                assertSameResult(() -> refMult(l, r), () -> SpLib.opMult(l, r), l, r);
+            }
+            for (int prec = 1; prec <= 38; prec++) {
+                for (short scale = 0; scale <= prec; scale++) {
+                    int p = prec;
+                    short s = scale;
+                    assertSameResult(
+                            () -> refCheckPrecision(p, s, l),
+                            () -> SpLib.checkPrecision(p, s, l),
+                            l,
+                            BigDecimal.valueOf(p * 100 + s));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNull() {
+        assertNull(SpLib.opAdd((BigDecimal) null, BigDecimal.ONE));
+        assertNull(SpLib.opSubtract(BigDecimal.ONE, (BigDecimal) null));
+        assertNull(SpLib.opMult(BigDecimal.ONE, (BigDecimal) null));
+        assertNull(SpLib.checkPrecision(10, (short) 2, null));
+    }
+
+    // ------------------------------------------------------------------
+    // reference implementations: the BigDecimal computations of the operators
+    // ------------------------------------------------------------------
+
+    private static BigDecimal refAdd(BigDecimal l, BigDecimal r) {
+        int p1 = l.precision();
+        int s1 = l.scale();
+        int p2 = r.precision();
+        int s2 = r.scale();
+
+        int maxPrecision = Math.max(p1 - s1, p2 - s2) + Math.max(s1, s2) + 1;
+        int scale = Math.max(s1, s2);
+
+        BigDecimal ret =
+                l.add(r, new MathContext(maxPrecision, RoundingMode.HALF_UP))
+                        .setScale(scale, RoundingMode.HALF_UP);
+        return checkPrecision38(ret);
+    }
+
+    private static BigDecimal refSubtract(BigDecimal l, BigDecimal r) {
+        int p1 = l.precision();
+        int s1 = l.scale();
+        int p2 = r.precision();
+        int s2 = r.scale();
+
+        int maxPrecision = Math.max(p1 - s1, p2 - s2) + Math.max(s1, s2) + 1;
+        int scale = Math.max(s1, s2);
+
+        BigDecimal ret =
+                l.subtract(r, new MathContext(maxPrecision, RoundingMode.HALF_UP))
+                        .setScale(scale, RoundingMode.HALF_UP);
+        return checkPrecision38(ret);
+    }
+
+    private static BigDecimal refMult(BigDecimal l, BigDecimal r) {
+        int maxPrecision = l.precision() + r.precision() + 1;
+        int scale = l.scale() + r.scale();
+
+        BigDecimal ret =
+                l.multiply(r, new MathContext(maxPrecision, RoundingMode.HALF_UP))
+                        .setScale(scale, RoundingMode.HALF_UP);
+        return checkPrecision38(ret);
+    }
+
+    private static BigDecimal refCheckPrecision(int prec, short scale, BigDecimal val) {
+        if (val.scale() != scale) {
+            val = val.setScale(scale, RoundingMode.HALF_UP);
+        }
+        if (val.precision() > prec) {
+            throw new SpLib.VALUE_ERROR(
+                    "numeric value does not fit in the target type's precision and scale");
+        }
+        return val;
+    }
+
+    private static BigDecimal checkPrecision38(BigDecimal ret) {
+        if (ret.precision() > 38) {
+            throw new SpLib.VALUE_ERROR("the operation results in a precision higher than 38");
+        }
+        return ret;
+    }
+
+    // ------------------------------------------------------------------
+
+    private interface Op {
+        BigDecimal apply();
+    }
+
+    private static void assertSameResult(Op ref, Op op, BigDecimal l, BigDecimal r) {
+        BigDecimal expected = null;
+        String expectedError = null;
+        try {
+            expected = ref.apply();
+        } catch (SpLib.VALUE_ERROR e) {
+            expectedError = e.getMessage();
+        }
+
+        BigDecimal actual = null;
+        String actualError = null;
+        try {
+            actual = op.apply();
+        } catch (SpLib.VALUE_ERROR e) {
+            actualError = e.getMessage();
+        }
+
+        String operands = l.toPlainString() + ", " + r.toPlainString();
+        assertEquals(expectedError, actualError, operands);
+        assertEquals(expected, actual, operands); // BigDecimal.equals() also compares the scales
+    }
+
+    // numerics mostly in the range of the fixed-point path, sometimes a little beyond it
+    private BigDecimal randomNumeric() {
+        int prec = 1 + (random.nextInt(8) == 0 ? random.nextInt(38) : random.nextInt(19));
+        int scale = random.nextInt(prec + 1);
+
+        BigInteger unscaled;
+        if (random.nextInt(10) == 0) {
+            unscaled = BigInteger.TEN.pow(prec).subtract(BigInteger.ONE); // all nines
+        } else {
+            unscaled = new BigInteger(prec * 4, random).mod(BigInteger.TEN.pow(prec));
+        }
+        if (random.nextBoolean()) {
+            unscaled = unscaled.negate();
+        }
+
+        return new BigDecimal(unscaled, scale);
+    }
+}
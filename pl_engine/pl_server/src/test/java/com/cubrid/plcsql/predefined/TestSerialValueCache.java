@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.predefined;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.jsp.exception.CUBRIDServerSideException;
+import com.cubrid.jsp.jdbc.CUBRIDServerSideJDBCErrorCode;
+import com.cubrid.plcsql.predefined.sp.SerialValueCache;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+// Runs SerialValueCache against a fake connection serving a single serial S, and checks that it
+// hands out the same values as NEXT_VALUE requests sent one by one, with fewer requests.
+public class TestSerialValueCache {
+
+    @Test
+    public void testCachedSerial() throws SQLException {
+        FakeSerial serial = new FakeSerial(100, 5, 20, false);
+        SerialValueCache cache = new SerialValueCache();
+        Connection conn = serial.connection();
+
+        for (int i = 1; i <= 1000; i++) {
+            assertEquals(BigDecimal.valueOf(100 + 5 * i), cache.nextValue(conn, "S", true));
+        }
+        // blocks of 1, 2, 4, 8, 16 and then 20 values, each with the attributes of S
+        assertTrue(serial.requests < 5 + 1000 / 20 + 1);
+
+        // CURRENT_VALUE is the end of the reserved block, as in SQL
+        assertEquals(BigDecimal.valueOf(serial.current), cache.currentValue(conn, "S"));
+    }
+
+    @Test
+    public void testBlockDiscardedAtTransactionEnd() throws SQLException {
+        FakeSerial serial = new FakeSerial(0, 1, 100, false);
+        SerialValueCache cache = new SerialValueCache();
+        Connection conn = serial.connection();
+
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(BigDecimal.valueOf(i), cache.nextValue(conn, "S", true));
+        }
+        cache.clear();
+
+        // the values left in the block are discarded
+        BigDecimal sqlCurrentValue = BigDecimal.valueOf(serial.current);
+        assertEquals(sqlCurrentValue.add(BigDecimal.ONE), cache.nextValue(conn, "S", true));
+    }
+
+    @Test
+    public void testSerialAlteredBetweenTransactions() throws SQLException {
+        FakeSerial serial = new FakeSerial(0, 1, 100, false);
+        SerialValueCache cache = new SerialValueCache();
+        Connection conn = serial.connection();
+
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(BigDecimal.valueOf(i), cache.nextValue(conn, "S", true));
+        }
+        cache.clear();
+
+        // the attributes are read again with the next reservation
+        serial.increment = 10;
+        long current = serial.current;
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(
+                    BigDecimal.valueOf(current + 10 * i), cache.nextValue(conn, "S", true));
+        }
+    }
+
+    @Test
+    public void testUncachedSerials() throws SQLException {
+        for (FakeSerial serial :
+                new FakeSerial[] {
+                    new FakeSerial(0, 1, 0, false),
+                    new FakeSerial(0, 1, 1, false),
+                    new FakeSerial(0, 1, 100, true)
+                }) {
+            SerialValueCache cache = new SerialValueCache();
+            Connection conn = serial.connection();
+
+            for (int i = 1; i <= 10; i++) {
+                assertEquals(BigDecimal.valueOf(i), cache.nextValue(conn, "S", true));
+                cache.clear();
+            }
+            // one request per value: the attributes of S are kept across transactions
+            assertEquals(10, serial.requests);
+        }
+    }
+
+    @Test
+    public void testUncachedSerialOrderedWithSql() throws SQLException {
+        FakeSerial serial = new FakeSerial(0, 1, 0, false);
+        SerialValueCache cache = new SerialValueCache();
+        Connection conn = serial.connection();
+
+        // NEXT_VALUE in SQL and in PL/CSQL interleaved, as from static SQL in the same routine
+        for (int i = 1; i <= 10; i += 2) {
+            assertEquals(BigDecimal.valueOf(i), cache.nextValue(conn, "S", true));
+            assertEquals(BigDecimal.valueOf(i + 1), serial.advance(1));
+            assertEquals(BigDecimal.valueOf(i + 1), cache.currentValue(conn, "S"));
+        }
+    }
+
+    @Test
+    public void testWithoutReservation() throws SQLException {
+        FakeSerial serial = new FakeSerial(0, 1, 100, false);
+        SerialValueCache cache = new SerialValueCache();
+        Connection conn = serial.connection();
+
+        // as in a routine mentioning CURRENT_VALUE
+        for (int i = 1; i <= 10; i++) {
+            assertEquals(BigDecimal.valueOf(i), cache.nextValue(conn, "S", false));
+            assertEquals(BigDecimal.valueOf(i), cache.currentValue(conn, "S"));
+        }
+        assertEquals(20, serial.requests);
+    }
+
+    @Test
+    public void testSerialNotInCatalog() throws SQLException {
+        FakeSerial serial = new FakeSerial(0, 1, 100, false);
+        serial.visible = false;
+        SerialValueCache cache = new SerialValueCache();
+        Connection conn = serial.connection();
+
+        for (int i = 1; i <= 10; i++) {
+            assertEquals(BigDecimal.valueOf(i), cache.nextValue(conn, "S", true));
+        }
+        assertEquals(1 + 10, serial.requests);
+    }
+
+    @Test
+    public void testNearMaxValue() throws SQLException {
+        FakeSerial serial = new FakeSerial(0, 1, 100, false);
+        serial.max = 10;
+        SerialValueCache cache = new SerialValueCache();
+        Connection conn = serial.connection();
+
+        for (int i = 1; i <= 10; i++) {
+            assertEquals(BigDecimal.valueOf(i), cache.nextValue(conn, "S", true));
+        }
+        assertThrows(SQLException.class, () -> cache.nextValue(conn, "S", true));
+    }
+
+    @Test
+    public void testOtherErrorsNotRetried() throws SQLException {
+        FakeSerial serial = new FakeSerial(0, 1, 100, false);
+        SerialValueCache cache = new SerialValueCache();
+        Connection conn = serial.connection();
+
+        assertEquals(BigDecimal.ONE, cache.nextValue(conn, "S", true));
+        serial.failure = ER_QPROC_CANNOT_UPDATE_SERIAL;
+        int requests = serial.requests;
+        SQLException e =
+                assertThrows(SQLException.class, () -> cache.nextValue(conn, "S", true));
+        assertEquals(
+                ER_QPROC_CANNOT_UPDATE_SERIAL,
+                ((CUBRIDServerSideException) e).getServerErrorCode());
+        assertEquals(requests + 1, serial.requests);
+    }
+
+    @Test
+    public void testConcurrentNextValue() throws Exception {
+        // threads of sessions sharing a Context, one of them ending transactions meanwhile
+        FakeSerial serial = new FakeSerial(0, 1, 50, false);
+        SerialValueCache cache = new SerialValueCache();
+        Connection conn = serial.connection();
+
+        int nThreads = 8;
+        int nValues = 2000;
+        Set<BigDecimal> values = ConcurrentHashMap.newKeySet();
+        AtomicBoolean duplicate = new AtomicBoolean();
+        AtomicBoolean done = new AtomicBoolean();
+        Throwable[] failure = new Throwable[1];
+
+        Thread[] threads = new Thread[nThreads];
+        for (int t = 0; t < nThreads; t++) {
+            threads[t] =
+                    new Thread(
+                            () -> {
+                                try {
+                                    for (int i = 0; i < nValues; i++) {
+                                        if (!values.add(cache.nextValue(conn, "S", true))) {
+                                            duplicate.set(true);
+                                        }
+                                    }
+                                } catch (Throwable e) {
+                                    failure[0] = e;
+                                }
+                            });
+        }
+        Thread clearer =
+                new Thread(
+                        () -> {
+                            while (!done.get()) {
+                                cache.clear();
+                                Thread.yield();
+                            }
+                        });
+
+        clearer.start();
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        done.set(true);
+        clearer.join();
+
+        assertNull(failure[0]);
+        assertFalse(duplicate.get());
+        assertEquals(nThreads * nValues, values.size());
+        for (BigDecimal v : values) {
+            assertTrue(v.signum() > 0 && v.longValue() <= serial.current);
+        }
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    private static final int ER_QPROC_SERIAL_RANGE_OVERFLOW = -775;
+    private static final int ER_QPROC_CANNOT_UPDATE_SERIAL = -777;
+
+    private static final String SERIAL_INFO =
+            ", increment_val, cyclic, cached_num from db_serial where unique_name = "
+                    + "concat(lower(CURRENT_USER), '.', ?)";
+    private static final Pattern NEXT_VALUE_REQUEST =
+            Pattern.compile(
+                    "select (?:S\\.NEXT_VALUE|serial_next_value\\(S, (\\d+)\\))("
+                            + Pattern.quote(SERIAL_INFO)
+                            + ")?");
+
+    private static class FakeSerial {
+        long current;
+        long increment;
+        long max = Long.MAX_VALUE;
+        int cachedNum;
+        boolean cyclic;
+        boolean visible = true;
+        int failure; // server error code of the next requests advancing S, if not 0
+        int requests;
+
+        FakeSerial(long current, long increment, int cachedNum, boolean cyclic) {
+            this.current = current;
+            this.increment = increment;
+            this.cachedNum = cachedNum;
+            this.cyclic = cyclic;
+        }
+
+        Connection connection() {
+            return proxy(
+                    Connection.class,
+                    (proxy, method, args) -> {
+                        assertEquals("prepareStatement", method.getName());
+                        return statement((String) args[0]);
+                    });
+        }
+
+        private PreparedStatement statement(String sql) {
+            return proxy(
+                    PreparedStatement.class,
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "setString":
+                                assertEquals("s", args[1]);
+                                return null;
+                            case "executeQuery":
+                                return resultSet(execute(sql));
+                            case "close":
+                                return null;
+                            default:
+                                throw new AssertionError(method.getName());
+                        }
+                    });
+        }
+
+        private synchronized Object[] execute(String sql) throws SQLException {
+            requests++;
+            if (sql.equals("select S.CURRENT_VALUE")) {
+                return new Object[] {BigDecimal.valueOf(current)};
+            }
+
+            Matcher m = NEXT_VALUE_REQUEST.matcher(sql);
+            assertTrue(m.matches(), sql);
+            boolean withSerialInfo = m.group(2) != null;
+            if (withSerialInfo && !visible) {
+                return null;
+            }
+            BigDecimal value = advance(m.group(1) == null ? 1 : Integer.parseInt(m.group(1)));
+            return withSerialInfo
+                    ? new Object[] {value, BigDecimal.valueOf(increment), cyclic ? 1 : 0, cachedNum}
+                    : new Object[] {value};
+        }
+
+        private synchronized BigDecimal advance(int n) throws SQLException {
+            if (failure != 0) {
+                throw serverError(failure);
+            }
+            if (current + n * increment > max) {
+                throw serverError(ER_QPROC_SERIAL_RANGE_OVERFLOW);
+            }
+            current += n * increment;
+            return BigDecimal.valueOf(current);
+        }
+
+        private static SQLException serverError(int code) {
+            return new CUBRIDServerSideException(
+                    CUBRIDServerSideJDBCErrorCode.ER_DBMS, code, "serial error " + code);
+        }
+
+        private static ResultSet resultSet(Object[] row) {
+            boolean[] fetched = new boolean[] {row == null};
+            return proxy(
+                    ResultSet.class,
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "next":
+                                boolean ret = !fetched[0];
+                                fetched[0] = true;
+                                return ret;
+                            case "getBigDecimal":
+                                return row[(Integer) args[0] - 1];
+                            case "getInt":
+                                return row[(Integer) args[0] - 1];
+                            case "wasNull":
+                                return false;
+                            case "close":
+                                return null;
+                            default:
+                                throw new AssertionError(method.getName());
+                        }
+                    });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> iface, java.lang.reflect.InvocationHandler handler) {
+        return (T)
+                Proxy.newProxyInstance(
+                        TestSerialValueCache.class.getClassLoader(),
+                        new Class<?>[] {iface},
+                        handler);
+    }
+}
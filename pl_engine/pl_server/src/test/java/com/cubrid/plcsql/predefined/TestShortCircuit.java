@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.predefined;
+
+import static com.cubrid.plcsql.predefined.sp.SpLib.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.plcsql.compiler.CompiledRoutine;
+import org.junit.jupiter.api.Test;
+
+// Compiles routines with AND, OR and BETWEEN through the PL/CSQL compiler, and checks the generated
+// code and how many times the operands, calls to a local function counting them, are evaluated.
+public class TestShortCircuit {
+
+    private static final Integer[] VALUES = new Integer[] {1, 0, null};
+
+    // returns (number of the calls to probe) * 10 + (result: 0 for FALSE, 1 for TRUE, 2 for NULL)
+    private static final String TMPL_ROUTINE =
+            "create or replace function %s(l int, r int) return int as\n"
+                    + "    cnt int := 0;\n"
+                    + "    c boolean;\n"
+                    + "    b boolean;\n"
+                    + "    function probe(v int) return int as\n"
+                    + "    begin\n"
+                    + "        cnt := cnt + 1;\n"
+                    + "        return v;\n"
+                    + "    end;\n"
+                    + "begin\n"
+                    + "    c := (r = 1);\n"
+                    + "    b := %s;\n"
+                    + "    return cnt * 10\n"
+                    + "        + (case when b is null then 2 when b then 1 else 0 end);\n"
+                    + "end;";
+
+    @Test
+    public void testOpAndThreeValued() {
+        assertEquals(true, opAnd(true, true));
+        assertEquals(false, opAnd(true, false));
+        assertEquals(null, opAnd(true, null));
+        assertEquals(false, opAnd(false, true));
+        assertEquals(false, opAnd(false, false));
+        assertEquals(false, opAnd(false, null));
+        assertEquals(null, opAnd(null, true));
+        assertEquals(false, opAnd(null, false));
+        assertEquals(null, opAnd(null, null));
+    }
+
+    @Test
+    public void testOpOrThreeValued() {
+        assertEquals(true, opOr(true, true));
+        assertEquals(true, opOr(true, false));
+        assertEquals(true, opOr(true, null));
+        assertEquals(true, opOr(false, true));
+        assertEquals(false, opOr(false, false));
+        assertEquals(null, opOr(false, null));
+        assertEquals(true, opOr(null, true));
+        assertEquals(null, opOr(null, false));
+        assertEquals(null, opOr(null, null));
+    }
+
+    @Test
+    public void testShortCircuitAnd() throws Exception {
+        CompiledRoutine routine = compile("sc_and", "(l = 1) and (probe(r) = 1)");
+        assertTrue(routine.source.contains("// short-circuit And"), routine.source);
+
+        for (Integer l : VALUES) {
+            for (Integer r : VALUES) {
+                int expectedCalls = Boolean.FALSE.equals(toBoolean(l)) ? 0 : 1;
+                Boolean expected = opAnd(toBoolean(l), toBoolean(r));
+                assertEquals(encode(expectedCalls, expected), invoke(routine, l, r));
+            }
+        }
+    }
+
+    @Test
+    public void testShortCircuitOr() throws Exception {
+        CompiledRoutine routine = compile("sc_or", "(l = 1) or (probe(r) = 1)");
+        assertTrue(routine.source.contains("// short-circuit Or"), routine.source);
+
+        for (Integer l : VALUES) {
+            for (Integer r : VALUES) {
+                int expectedCalls = Boolean.TRUE.equals(toBoolean(l)) ? 0 : 1;
+                Boolean expected = opOr(toBoolean(l), toBoolean(r));
+                assertEquals(encode(expectedCalls, expected), invoke(routine, l, r));
+            }
+        }
+    }
+
+    @Test
+    public void testShortCircuitBetween() throws Exception {
+        CompiledRoutine routine = compile("sc_between", "l between probe(r) and probe(r) + 1");
+        assertTrue(routine.source.contains("// short-circuit between"), routine.source);
+
+        for (Integer l : VALUES) {
+            for (Integer r : VALUES) {
+                int expectedCalls = (l == null) ? 0 : 2;
+                Boolean expected = (r == null) ? opBetween(l, null, null) : opBetween(l, r, r + 1);
+                assertEquals(encode(expectedCalls, expected), invoke(routine, l, r));
+            }
+        }
+    }
+
+    @Test
+    public void testSimpleOperandsEvaluatedEagerly() throws Exception {
+        // a variable as the right operand costs nothing to evaluate: no short-circuit code
+        CompiledRoutine routine = compile("sc_simple", "(l = 1) and c");
+        assertFalse(routine.source.contains("short-circuit"), routine.source);
+        assertTrue(routine.source.contains("opAnd("), routine.source);
+
+        for (Integer l : VALUES) {
+            for (Integer r : VALUES) {
+                Boolean expected = opAnd(toBoolean(l), toBoolean(r));
+                assertEquals(encode(0, expected), invoke(routine, l, r));
+            }
+        }
+    }
+
+    @Test
+    public void testGuardPredicateSavings() throws Exception {
+        // guard-style predicate 'v is not null and probe(v) > 0' evaluated for rows with nulls
+        CompiledRoutine routine =
+                CompiledRoutine.compile(
+                        "create or replace function sc_guard(n int) return int as\n"
+                                + "    cnt int := 0;\n"
+                                + "    k int := 0;\n"
+                                + "    v int;\n"
+                                + "    function probe(x int) return int as\n"
+                                + "    begin\n"
+                                + "        cnt := cnt + 1;\n"
+                                + "        return x;\n"
+                                + "    end;\n"
+                                + "begin\n"
+                                + "    for i in 1 .. n loop\n"
+                                + "        k := k + 1;\n"
+                                + "        if k = 10 then\n"
+                                + "            v := i;\n"
+                                + "            k := 0;\n"
+                                + "        else\n"
+                                + "            v := null;\n"
+                                + "        end if;\n"
+                                + "        if v is not null and probe(v) > 0 then\n"
+                                + "            null;\n"
+                                + "        end if;\n"
+                                + "    end loop;\n"
+                                + "    return cnt;\n"
+                                + "end;");
+
+        int rows = 1000;
+        assertEquals(rows / 10, ((Number) routine.invoke(rows)).intValue());
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    private static CompiledRoutine compile(String name, String expr) throws Exception {
+        return CompiledRoutine.compile(String.format(TMPL_ROUTINE, name, expr));
+    }
+
+    private static int invoke(CompiledRoutine routine, Integer l, Integer r) throws Exception {
+        return ((Number) routine.invoke(l, r)).intValue();
+    }
+
+    private static Boolean toBoolean(Integer i) {
+        return (i == null) ? null : Boolean.valueOf(i == 1);
+    }
+
+    private static int encode(int calls, Boolean result) {
+        return calls * 10 + (result == null ? 2 : result ? 1 : 0);
+    }
+}
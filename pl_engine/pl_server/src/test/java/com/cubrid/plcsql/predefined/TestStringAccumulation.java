@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+
+package com.cubrid.plcsql.predefined;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.plcsql.compiler.CompiledRoutine;
+import com.cubrid.plcsql.predefined.sp.SpLib;
+import org.junit.jupiter.api.Test;
+
+// Checks which loops hold a string variable in a StringAccumulator, and that the variable has the
+// right value however the loop is left
+public class TestStringAccumulation {
+
+    @Test
+    public void testAccumulation() throws Exception {
+        CompiledRoutine routine =
+                CompiledRoutine.compile(
+                        "create or replace function acc_simple(n int) return varchar as\n"
+                                + "    s varchar;\n"
+                                + "begin\n"
+                                + "    for i in 1 .. n loop\n"
+                                + "        s := s || 'a' || i;\n"
+                                + "    end loop;\n"
+                                + "    return s;\n"
+                                + "end;");
+        assertEquals(1, countAccumulators(routine), routine.source);
+        assertNull(routine.invoke(3)); // NULL || x is NULL, as without the accumulator
+    }
+
+    @Test
+    public void testAccumulationFromEmpty() throws Exception {
+        CompiledRoutine routine =
+                CompiledRoutine.compile(
+                        "create or replace function acc_empty(n int) return varchar as\n"
+                                + "    s varchar := '';\n"
+                                + "begin\n"
+                                + "    for i in 1 .. n loop\n"
+                                + "        s := s || 'a' || i;\n"
+                                + "    end loop;\n"
+                                + "    return s;\n"
+                                + "end;");
+        assertEquals(1, countAccumulators(routine), routine.source);
+        assertEquals("", routine.invoke(0));
+        assertEquals("a1a2a3", routine.invoke(3));
+    }
+
+    @Test
+    public void testNestedLoops() throws Exception {
+        CompiledRoutine routine =
+                CompiledRoutine.compile(
+                        "create or replace function acc_nested(n int) return varchar as\n"
+                                + "    s varchar := '';\n"
+                                + "    i int := 0;\n"
+                                + "begin\n"
+                                + "    while i < n loop\n"
+                                + "        i := i + 1;\n"
+                                + "        s := s || '[';\n"
+                                + "        for j in 1 .. i loop\n"
+                                + "            s := s || j;\n"
+                                + "        end loop;\n"
+                                + "        s := s || ']';\n"
+                                + "    end loop;\n"
+                                + "    return s;\n"
+                                + "end;");
+        // held by the outer loop only, and appended to by the inner loop
+        assertEquals(1, countAccumulators(routine), routine.source);
+        assertEquals("[1][12][123]", routine.invoke(3));
+    }
+
+    @Test
+    public void testExitAndContinue() throws Exception {
+        CompiledRoutine routine =
+                CompiledRoutine.compile(
+                        "create or replace function acc_exit(n int) return varchar as\n"
+                                + "    s varchar := '';\n"
+                                + "begin\n"
+                                + "    <<outer>>\n"
+                                + "    for i in 1 .. 10 loop\n"
+                                + "        for j in 1 .. 10 loop\n"
+                                + "            continue when j > i;\n"
+                                + "            exit outer when i * j > n;\n"
+                                + "            s := s || j;\n"
+                                + "        end loop;\n"
+                                + "        s := s || ',';\n"
+                                + "    end loop;\n"
+                                + "    return s;\n"
+                                + "end;");
+        assertEquals(1, countAccumulators(routine), routine.source);
+        assertEquals("1,12,1", routine.invoke(5));
+        assertEquals("1,12,123,12", routine.invoke(9));
+    }
+
+    @Test
+    public void testReturnInLoop() throws Exception {
+        // the outer loop reads s and does not hold it. the inner loop does and is left by RETURN
+        CompiledRoutine routine =
+                CompiledRoutine.compile(
+                        "create or replace function acc_return(n int) return varchar as\n"
+                                + "    s varchar := '';\n"
+                                + "begin\n"
+                                + "    for i in 1 .. 3 loop\n"
+                                + "        for j in 1 .. 3 loop\n"
+                                + "            if i * j = n then\n"
+                                + "                return 'found';\n"
+                                + "            end if;\n"
+                                + "            s := s || j;\n"
+                                + "        end loop;\n"
+                                + "        exit when s = '123123';\n"
+                                + "    end loop;\n"
+                                + "    return s;\n"
+                                + "end;");
+        assertEquals(1, countAccumulators(routine), routine.source);
+        assertEquals("found", routine.invoke(6));
+        assertEquals("123123", routine.invoke(7));
+    }
+
+    @Test
+    public void testExceptionCaughtOutside() throws Exception {
+        CompiledRoutine routine =
+                CompiledRoutine.compile(
+                        "create or replace function acc_raise(n int) return varchar as\n"
+                                + "    s varchar := '';\n"
+                                + "begin\n"
+                                + "    begin\n"
+                                + "        for i in 1 .. 5 loop\n"
+                                + "            s := s || i;\n"
+                                + "            if i = n then\n"
+                                + "                raise value_error;\n"
+                                + "            end if;\n"
+                                + "        end loop;\n"
+                                + "    exception\n"
+                                + "        when value_error then\n"
+                                + "            s := s || '!';\n"
+                                + "    end;\n"
+                                + "    return s;\n"
+                                + "end;");
+        assertEquals(1, countAccumulators(routine), routine.source);
+        assertEquals("123!", routine.invoke(3));
+        assertEquals("12345", routine.invoke(9));
+    }
+
+    @Test
+    public void testLengthOverflow() throws Exception {
+        // the append that overflows raises VALUE_ERROR and leaves the value as it was
+        CompiledRoutine routine =
+                CompiledRoutine.compile(
+                        "create or replace function acc_overflow(n int) return varchar as\n"
+                                + "    s varchar(4) := 'x';\n"
+                                + "begin\n"
+                                + "    begin\n"
+                                + "        for i in 1 .. n loop\n"
+                                + "            s := s || i;\n"
+                                + "        end loop;\n"
+                                + "    exception\n"
+                                + "        when value_error then\n"
+                                + "            return 'overflow ' || s;\n"
+                                + "    end;\n"
+                                + "    return s;\n"
+                                + "end;");
+        assertEquals(1, countAccumulators(routine), routine.source);
+        assertEquals("x12", routine.invoke(2));
+        assertEquals("overflow x123", routine.invoke(5));
+    }
+
+    @Test
+    public void testUncaughtException() throws Exception {
+        CompiledRoutine routine =
+                CompiledRoutine.compile(
+                        "create or replace function acc_uncaught(n int) return varchar as\n"
+                                + "    s varchar := '';\n"
+                                + "begin\n"
+                                + "    for i in 1 .. n loop\n"
+                                + "        s := s || i;\n"
+                                + "    end loop;\n"
+                                + "    raise value_error;\n"
+                                + "end;");
+        assertEquals(1, countAccumulators(routine), routine.source);
+        assertThrows(SpLib.VALUE_ERROR.class, () -> routine.invoke(3));
+    }
+
+    @Test
+    public void testReadInLoop() throws Exception {
+        // any other reference to s in the loop must see its current value
+        CompiledRoutine routine =
+                CompiledRoutine.compile(
+                        "create or replace function acc_read(n int) return varchar as\n"
+                                + "    s varchar := '';\n"
+                                + "    t varchar := '';\n"
+                                + "begin\n"
+                                + "    for i in 1 .. n loop\n"
+                                + "        s := s || i;\n"
+                                + "        t := t || s || '/';\n"
+                                + "    end loop;\n"
+                                + "    return t;\n"
+                                + "end;");
+        // t is held, s is not
+        assertEquals(1, countAccumulators(routine), routine.source);
+        assertTrue(
+                routine.source.contains("new StringAccumulator(acc_read_2.T[0])"), routine.source);
+        assertEquals("1/12/123/", routine.invoke(3));
+    }
+
+    @Test
+    public void testNotQualified() throws Exception {
+        // a CHAR, a NOT NULL variable, a variable declared in the loop, and an assignment whose
+        // first operand is not the target
+        CompiledRoutine routine =
+                CompiledRoutine.compile(
+                        "create or replace function acc_none(n int) return varchar as\n"
+                                + "    c char(8);\n"
+                                + "    nn varchar not null := '';\n"
+                                + "    p varchar := '';\n"
+                                + "begin\n"
+                                + "    for i in 1 .. n loop\n"
+                                + "        declare\n"
+                                + "            d varchar := '';\n"
+                                + "        begin\n"
+                                + "            c := c || i;\n"
+                                + "            nn := nn || i;\n"
+                                + "            p := i || p;\n"
+                                + "            d := d || i;\n"
+                                + "        end;\n"
+                                + "    end loop;\n"
+                                + "    return nn || p;\n"
+                                + "end;");
+        assertEquals(0, countAccumulators(routine), routine.source);
+        assertEquals("1221", routine.invoke(2));
+    }
+
+    @Test
+    public void testLocalRoutineCall() throws Exception {
+        // a local routine can read s without a reference to it in the loop
+        CompiledRoutine routine =
+                CompiledRoutine.compile(
+                        "create or replace function acc_call(n int) return varchar as\n"
+                                + "    s varchar := '';\n"
+                                + "    t varchar := '';\n"
+                                + "    procedure snapshot as\n"
+                                + "    begin\n"
+                                + "        t := t || s || '/';\n"
+                                + "    end;\n"
+                                + "begin\n"
+                                + "    for i in 1 .. n loop\n"
+                                + "        s := s || i;\n"
+                                + "        snapshot();\n"
+                                + "    end loop;\n"
+                                + "    return t;\n"
+                                + "end;");
+        assertEquals(0, countAccumulators(routine), routine.source);
+        assertEquals("1/12/123/", routine.invoke(3));
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    private static int countAccumulators(CompiledRoutine routine) {
+        return routine.source.split("new StringAccumulator\\(", -1).length - 1;
+    }
+}
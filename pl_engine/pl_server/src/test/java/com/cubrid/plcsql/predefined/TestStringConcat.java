@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2016 CUBRID Corporation.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * - Neither the name of the <ORGANIZATION> nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ *
+ */
+
+package com.cubrid.plcsql.predefined;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cubrid.plcsql.predefined.sp.SpLib;
+import com.cubrid.plcsql.predefined.sp.StringAccumulator;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// Compares the n-ary concatenation used for chains 'a || b || c ...' and the StringAccumulator
+// used for 's := s || ...' in loops against repeated binary concatenations of SpLib.
+public class TestStringConcat {
+
+    private static final int ROUNDS = 20000;
+
+    private static final String[] WORDS = new String[] {null, "", "a", "bc", "def"};
+
+    private final Random random = new Random(20241019L);
+
+    @Test
+    public void testConcatChain() {
+        for (int i = 0; i < ROUNDS; i++) {
+            String[] arr = new String[3 + random.nextInt(4)];
+            for (int k = 0; k < arr.length; k++) {
+                arr[k] = randomWord();
+            }
+
+            String expected = arr[0];
+            for (int k = 1; k < arr.length; k++) {
+                expected = SpLib.opConcat(expected, arr[k]);
+            }
+
+            assertEquals(expected, SpLib.opConcat(arr));
+            if (arr.length == 3) {
+                assertEquals(expected, SpLib.opConcat(arr[0], arr[1], arr[2]));
+            } else if (arr.length == 4) {
+                assertEquals(expected, SpLib.opConcat(arr[0], arr[1], arr[2], arr[3]));
+            }
+        }
+    }
+
+    @Test
+    public void testAccumulation() {
+        for (int i = 0; i < ROUNDS; i++) {
+            int maxLength = random.nextInt(3) == 0 ? -1 : 1 + random.nextInt(12);
+            String init = randomWord();
+
+            String expected = init;
+            StringAccumulator acc = new StringAccumulator(init);
+
+            int appends = random.nextInt(8);
+            for (int k = 0; k < appends; k++) {
+                String s = randomWord();
+
+                String next = SpLib.opConcat(expected, s);
+                boolean fits = maxLength < 0 || next == null || next.length() <= maxLength;
+                if (fits) {
+                    expected = next;
+                    acc.append(maxLength, s);
+                } else {
+                    assertThrows(SpLib.VALUE_ERROR.class, () -> acc.append(maxLength, s));
+                    break;
+                }
+            }
+
+            assertEquals(expected, acc.value());
+        }
+    }
+
+    // ---------------------------------------------------------------------------
+    // Private
+    // ---------------------------------------------------------------------------
+
+    private String randomWord() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
@@ -0,0 +1,96 @@
+create or replace function fib(n int) return bigint as
+    a bigint := 0;
+    b bigint := 1;
+    t bigint;
+begin
+    for i in 1 .. n loop
+        t := a + b;
+        a := b;
+        b := t;
+    end loop;
+    return a;
+end;
+/
+create or replace function format_name(first_name varchar, last_name varchar) return varchar as
+    s varchar(200);
+begin
+    if first_name is null then
+        s := upper(last_name);
+    else
+        s := upper(substr(first_name, 1, 1)) || '. ' || upper(last_name);
+    end if;
+    return trim(s);
+end;
+/
+create or replace procedure raise_salary(p_dept int, p_rate numeric) as
+    cnt int := 0;
+begin
+    update emp set salary = salary * (1 + p_rate / 100) where dept = p_dept;
+    cnt := sql%rowcount;
+    insert into log_tbl(id, msg) values (p_dept, 'raised ' || cnt);
+    commit;
+end;
+/
+create or replace function dept_total(p_dept int) return numeric as
+    total numeric(20, 2) := 0;
+    cursor c is select id, name, salary from emp where dept = p_dept;
+begin
+    for r in c loop
+        total := total + r.salary;
+    end loop;
+    return total;
+end;
+/
+create or replace procedure emp_report(p_dept int, p_min numeric) as
+    v_name varchar;
+    v_salary numeric(20, 2);
+    v_count bigint;
+    rc sys_refcursor;
+begin
+    select count(*) into v_count from emp where dept = p_dept;
+    dbms_output.put_line('count = ' || v_count);
+
+    open rc for select name, salary from emp where dept = p_dept and salary >= p_min;
+    loop
+        fetch rc into v_name, v_salary;
+        exit when rc%notfound;
+        dbms_output.put_line(v_name || ': ' || v_salary);
+    end loop;
+    close rc;
+exception
+    when no_data_found then
+        dbms_output.put_line('no employees');
+end;
+/
+create or replace procedure move_emp(p_id int, p_dept int) as
+    v_old int;
+begin
+    select dept into v_old from emp where id = p_id;
+    if v_old = p_dept then
+        return;
+    end if;
+    update emp set dept = p_dept where id = p_id;
+    insert into log_tbl(id, msg) values (p_id, 'moved from ' || v_old || ' to ' || p_dept);
+    write_log(p_id, 'moved');
+exception
+    when no_data_found then
+        raise_application_error(1001, 'no employee ' || p_id);
+end;
+/
+create or replace function classify(n int) return varchar as
+begin
+    return case
+        when n < 0 then 'negative'
+        when n = 0 then 'zero'
+        when n between 1 and 9 then 'small'
+        else 'large'
+    end;
+end;
+/
+create or replace procedure archive_log(p_before int) as
+    s varchar(100);
+begin
+    delete from log_tbl where id < p_before;
+    s := 'archived before ' || p_before;
+    execute immediate 'insert into log_tbl values (?, ?)' using p_before, s;
+end
@@ -52,6 +52,9 @@ typedef enum
 
   SP_CODE_COMPILE = 0x80,
 
+  SP_CODE_UTIL_PROFILE = 0xDA,
+  SP_CODE_UTIL_TRACE = 0xDB,
+  SP_CODE_UTIL_MULTIPLEX = 0xDC,
   SP_CODE_UTIL_BOOTSTRAP = 0xDD,
   SP_CODE_UTIL_PING = 0xDE,
   SP_CODE_UTIL_STATUS = 0xEE,
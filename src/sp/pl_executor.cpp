@@ -41,9 +41,10 @@ namespace cubpl
 {
   using namespace cubmethod;
 
-  invoke_java::invoke_java (uint64_t id, int tid, pl_signature *sig, bool tc)
+  invoke_java::invoke_java (uint64_t id, int tid, SESSION_ID sid, pl_signature *sig, bool tc)
     : g_id (id)
     , tran_id (tid)
+    , session_id (sid)
   {
     signature.assign (sig->ext.sp.target_class_name).append (".").append (sig->ext.sp.target_method_name);
     auth.assign (sig->auth);
@@ -69,6 +70,7 @@ namespace cubpl
   {
     serializator.pack_bigint (g_id);
     serializator.pack_int (tran_id);
+    serializator.pack_int ((int) session_id);
     serializator.pack_string (signature);
     serializator.pack_string (auth);
     serializator.pack_int (lang);
@@ -96,6 +98,7 @@ namespace cubpl
   {
     size_t size = serializator.get_packed_bigint_size (start_offset); // group_id
     size += serializator.get_packed_int_size (size); // tran_id
+    size += serializator.get_packed_int_size (size); // session_id
     size += serializator.get_packed_string_size (signature, size); // signature
     size += serializator.get_packed_string_size (auth, size); // auth
     size += serializator.get_packed_int_size (size); // lang
@@ -331,7 +334,7 @@ exit:
 
     m_stack->set_command (SP_CODE_INVOKE);
     prepare_args prepare_arg ((std::uint64_t) this, tid, METHOD_TYPE_PLCSQL, m_args);
-    invoke_java invoke_arg ((std::uint64_t) this, tid, &m_sig, prm_get_bool_value (PRM_ID_PL_TRANSACTION_CONTROL));
+    invoke_java invoke_arg ((std::uint64_t) this, tid, sid, &m_sig, prm_get_bool_value (PRM_ID_PL_TRANSACTION_CONTROL));
 
     error = m_stack->send_data_to_java (prepare_arg, invoke_arg);
 
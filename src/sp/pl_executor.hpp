@@ -39,7 +39,7 @@ namespace cubpl
   struct invoke_java : public cubpacking::packable_object
   {
     invoke_java () = delete;
-    invoke_java (uint64_t g_id, int tran_id, pl_signature *sig, bool tc);
+    invoke_java (uint64_t g_id, int tran_id, SESSION_ID session_id, pl_signature *sig, bool tc);
 
     void pack (cubpacking::packer &serializator) const override;
     void unpack (cubpacking::unpacker &deserializator) override;
@@ -47,6 +47,7 @@ namespace cubpl
 
     uint64_t g_id;
     int tran_id;
+    SESSION_ID session_id;
 
     std::string signature;
     std::string auth;